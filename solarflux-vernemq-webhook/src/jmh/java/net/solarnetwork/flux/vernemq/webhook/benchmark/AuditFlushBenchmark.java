@@ -0,0 +1,204 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import net.solarnetwork.domain.DatumStreamId.NodeDatumStreamId;
+import net.solarnetwork.flux.vernemq.webhook.domain.Message;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.PublishRequest;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.JdbcAuditService;
+
+/**
+ * Compare the cost of flushing audit counts to the database with individual statements, JDBC
+ * batches, and {@code COPY}.
+ * 
+ * <p>
+ * Each invocation adds a count for {@code streams} distinct node sources and waits until the
+ * {@link JdbcAuditService} writer has updated that many more records in the database. The modes
+ * are:
+ * </p>
+ * 
+ * <ul>
+ * <li>{@literal row} - executes one statement per count</li>
+ * <li>{@literal batch} - executes JDBC batches of {@link JdbcAuditService#DEFAULT_BATCH_SIZE}
+ * statements</li>
+ * <li>{@literal copy} - loads the counts into a staging table with {@code COPY} and applies them
+ * with the default {@link JdbcAuditService#DEFAULT_NODE_SOURCE_COPY_APPLY_SQL} statement, which
+ * calls the increment function once per staged row</li>
+ * <li>{@literal copyset} - like {@literal copy}, but applies the counts with a set-based
+ * {@code INSERT ... ON CONFLICT} statement</li>
+ * </ul>
+ * 
+ * <p>
+ * This benchmark requires a PostgreSQL database, configured with the
+ * {@code FLUX_AUDIT_BENCH_URL}, {@code FLUX_AUDIT_BENCH_USER}, and
+ * {@code FLUX_AUDIT_BENCH_PASSWORD} environment variables. A {@code flux_audit_bench} table and
+ * increment function are created for the benchmark and dropped afterwards. The default statements
+ * are used with the function name replaced by the benchmark function, so the shipped SQL is
+ * measured without touching any SolarNetwork schema.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class AuditFlushBenchmark {
+
+  // CHECKSTYLE OFF: LineLength
+
+  private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS flux_audit_bench (service TEXT NOT NULL, node_id BIGINT NOT NULL, source_id TEXT NOT NULL, ts TIMESTAMP WITH TIME ZONE NOT NULL, bcount BIGINT NOT NULL, PRIMARY KEY (service, node_id, source_id, ts))";
+
+  private static final String CREATE_FUNCTION_SQL = "CREATE OR REPLACE FUNCTION flux_audit_bench_increment(p_service TEXT, p_node BIGINT, p_source TEXT, p_ts TIMESTAMP WITH TIME ZONE, p_count INTEGER) RETURNS VOID LANGUAGE SQL AS $$ "
+      + "INSERT INTO flux_audit_bench (service, node_id, source_id, ts, bcount) VALUES (p_service, p_node, p_source, p_ts, p_count) "
+      + "ON CONFLICT (service, node_id, source_id, ts) DO UPDATE SET bcount = flux_audit_bench.bcount + EXCLUDED.bcount $$";
+
+  private static final String DEFAULT_FUNCTION_NAME = "solardatm.audit_increment_mqtt_publish_byte_count";
+
+  private static final String FUNCTION_NAME = "flux_audit_bench_increment";
+
+  private static final String INCREMENT_SQL = JdbcAuditService.DEFAULT_NODE_SOURCE_INCREMENT_SQL
+      .replace(DEFAULT_FUNCTION_NAME, FUNCTION_NAME);
+
+  private static final String COPY_APPLY_SQL = JdbcAuditService.DEFAULT_NODE_SOURCE_COPY_APPLY_SQL
+      .replace(DEFAULT_FUNCTION_NAME, FUNCTION_NAME);
+
+  private static final String COPY_SET_APPLY_SQL = "INSERT INTO flux_audit_bench (service, node_id, source_id, ts, bcount) SELECT service, node_id, source_id, ts, bcount FROM flux_audit_stage "
+      + "ON CONFLICT (service, node_id, source_id, ts) DO UPDATE SET bcount = flux_audit_bench.bcount + EXCLUDED.bcount";
+
+  private static final String[] DROP_SQL = new String[] {
+      "DROP FUNCTION IF EXISTS flux_audit_bench_increment(TEXT, BIGINT, TEXT, TIMESTAMP WITH TIME ZONE, INTEGER)",
+      "DROP TABLE IF EXISTS flux_audit_bench" };
+
+  // CHECKSTYLE ON: LineLength
+
+  @Param({ "row", "batch", "copy", "copyset" })
+  private String mode;
+
+  @Param({ "1000", "10000" })
+  private int streams;
+
+  private PGSimpleDataSource dataSource;
+  private JdbcAuditService service;
+  private Message message;
+
+  /**
+   * Create the benchmark schema and start the audit writer.
+   * 
+   * @throws SQLException
+   *         if any SQL error occurs
+   */
+  @Setup
+  public void setup() throws SQLException {
+    final String url = System.getenv("FLUX_AUDIT_BENCH_URL");
+    if (url == null || url.isEmpty()) {
+      throw new IllegalStateException("The FLUX_AUDIT_BENCH_URL environment variable is required.");
+    }
+    dataSource = new PGSimpleDataSource();
+    dataSource.setURL(url);
+    dataSource.setUser(System.getenv("FLUX_AUDIT_BENCH_USER"));
+    dataSource.setPassword(System.getenv("FLUX_AUDIT_BENCH_PASSWORD"));
+    executeSql(DROP_SQL);
+    executeSql(CREATE_TABLE_SQL, CREATE_FUNCTION_SQL);
+
+    final ConcurrentMap<NodeDatumStreamId, AtomicInteger> counters = new ConcurrentHashMap<>(
+        streams * 2);
+    service = new JdbcAuditService(dataSource, counters, Clock.systemUTC());
+    service.setFlushDelay(1);
+    service.setUpdateDelay(0);
+    service.setStatLogUpdateCount(0);
+    service.setNodeSourceIncrementSql(INCREMENT_SQL);
+    service.setNodeSourceCopyApplySql(COPY_APPLY_SQL);
+    if ("row".equals(mode)) {
+      service.setBatchSize(1);
+    } else if ("copy".equals(mode)) {
+      service.setCopyEnabled(true);
+    } else if ("copyset".equals(mode)) {
+      service.setNodeSourceCopyApplySql(COPY_SET_APPLY_SQL);
+      service.setCopyEnabled(true);
+    }
+    message = PublishRequest.builder().withTopic("node/1/datum/0/bench")
+        .withPayload("Hello, world.".getBytes()).build();
+    service.enableWriting();
+  }
+
+  /**
+   * Stop the audit writer and drop the benchmark schema.
+   * 
+   * @throws SQLException
+   *         if any SQL error occurs
+   */
+  @TearDown
+  public void teardown() throws SQLException {
+    service.disableWriting();
+    executeSql(DROP_SQL);
+  }
+
+  private void executeSql(String... sqls) throws SQLException {
+    try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+      for (String sql : sqls) {
+        stmt.execute(sql);
+      }
+    }
+  }
+
+  /**
+   * Add a count for every stream and wait for them all to be flushed.
+   * 
+   * @throws InterruptedException
+   *         if interrupted
+   */
+  @Benchmark
+  public void flush() throws InterruptedException {
+    // every stream is added once, so it is written to the database in exactly one update
+    final long target = service.getUpdateCount() + streams;
+    for (int i = 0; i < streams; i++) {
+      service.auditPublishMessage(null, (long) (i / 10), String.valueOf(i % 10), message);
+    }
+    while (service.getUpdateCount() < target) {
+      Thread.sleep(1);
+    }
+  }
+
+}
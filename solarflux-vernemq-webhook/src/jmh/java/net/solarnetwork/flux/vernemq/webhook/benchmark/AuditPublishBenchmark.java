@@ -0,0 +1,210 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.benchmark;
+
+import java.time.Clock;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import net.solarnetwork.domain.DatumStreamId.NodeDatumStreamId;
+import net.solarnetwork.flux.vernemq.webhook.domain.Message;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.PublishRequest;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.JdbcAuditService;
+
+/**
+ * Compare the cost of auditing a published message with striped node source counters against a
+ * {@link ConcurrentHashMap} of {@link AtomicInteger} counters, from 1 to 32 threads.
+ * 
+ * <p>
+ * The {@code striped} benchmarks call {@code JdbcAuditService.auditPublishMessage()}, without
+ * starting the writer thread. The {@code map} benchmarks repeat the previous implementation of
+ * that method, which truncated the clock time to the hour, created a {@link NodeDatumStreamId}
+ * key, and incremented a counter in a map, for every message.
+ * </p>
+ * 
+ * <p>
+ * Run with {@code ./gradlew jmh}; the {@code gc} profiler is enabled, and its
+ * {@code gc.alloc.rate.norm} result shows the bytes allocated per message.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditPublishBenchmark {
+
+  @Param({ "1000" })
+  private int streamCount;
+
+  private Long[] nodeIds;
+  private String[] sourceIds;
+  private Message message;
+  private JdbcAuditService service;
+  private Clock clock;
+  private ConcurrentMap<NodeDatumStreamId, AtomicInteger> map;
+
+  /**
+   * A per-thread cursor over the streams.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+
+    private int next;
+
+    private int next(int count) {
+      int i = next++;
+      if (next >= count) {
+        next = 0;
+      }
+      return i;
+    }
+
+  }
+
+  /**
+   * Create the streams and counters.
+   */
+  @Setup
+  public void setup() {
+    nodeIds = new Long[streamCount];
+    sourceIds = new String[streamCount];
+    for (int i = 0; i < streamCount; i++) {
+      nodeIds[i] = 1_000_000L + i / 10;
+      sourceIds[i] = "source/" + (i % 10);
+    }
+    message = PublishRequest.builder().withTopic("node/1/datum/0/bench")
+        .withPayload("Hello, world.".getBytes()).build();
+    clock = Clock.systemUTC();
+    // the writer is never started, so the data source is not used
+    DataSource dataSource = new PGSimpleDataSource();
+    service = new JdbcAuditService(dataSource);
+    map = new ConcurrentHashMap<>(1000, 0.8f, 4);
+  }
+
+  private void striped(Cursor cursor) {
+    final int i = cursor.next(streamCount);
+    service.auditPublishMessage(null, nodeIds[i], sourceIds[i], message);
+  }
+
+  private void map(Cursor cursor) {
+    final int i = cursor.next(streamCount);
+    final int byteCount = (message.getPayload() != null ? message.getPayload().length : 0);
+    if (byteCount > 0) {
+      map.computeIfAbsent(new NodeDatumStreamId(nodeIds[i], sourceIds[i],
+          clock.instant().truncatedTo(ChronoUnit.HOURS)), k -> new AtomicInteger(0))
+          .addAndGet(byteCount);
+    }
+  }
+
+  /**
+   * Audit with striped counters on 1 thread.
+   * 
+   * @param cursor
+   *        the cursor
+   */
+  @Benchmark
+  @Threads(1)
+  public void striped01(Cursor cursor) {
+    striped(cursor);
+  }
+
+  /**
+   * Audit with striped counters on 8 threads.
+   * 
+   * @param cursor
+   *        the cursor
+   */
+  @Benchmark
+  @Threads(8)
+  public void striped08(Cursor cursor) {
+    striped(cursor);
+  }
+
+  /**
+   * Audit with striped counters on 32 threads.
+   * 
+   * @param cursor
+   *        the cursor
+   */
+  @Benchmark
+  @Threads(32)
+  public void striped32(Cursor cursor) {
+    striped(cursor);
+  }
+
+  /**
+   * Audit with a counter map on 1 thread.
+   * 
+   * @param cursor
+   *        the cursor
+   */
+  @Benchmark
+  @Threads(1)
+  public void map01(Cursor cursor) {
+    map(cursor);
+  }
+
+  /**
+   * Audit with a counter map on 8 threads.
+   * 
+   * @param cursor
+   *        the cursor
+   */
+  @Benchmark
+  @Threads(8)
+  public void map08(Cursor cursor) {
+    map(cursor);
+  }
+
+  /**
+   * Audit with a counter map on 32 threads.
+   * 
+   * @param cursor
+   *        the cursor
+   */
+  @Benchmark
+  @Threads(32)
+  public void map32(Cursor cursor) {
+    map(cursor);
+  }
+
+}
@@ -0,0 +1,287 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Response;
+import net.solarnetwork.flux.vernemq.webhook.domain.ResponseStatus;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.RegisterRequest;
+import net.solarnetwork.flux.vernemq.webhook.service.AsyncAuthService;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.ExecutorAsyncAuthService;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.JdbcAuthService;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SimpleAuthorizationEvaluator;
+import net.solarnetwork.flux.vernemq.webhook.util.BoundedDataSource;
+import net.solarnetwork.flux.vernemq.webhook.util.VirtualThreads;
+
+/**
+ * Compare hook handling throughput and latency between platform and virtual threads.
+ * 
+ * <p>
+ * Each benchmark thread acts as a VerneMQ client that sends a node register hook request to an
+ * {@link ExecutorAsyncAuthService} and waits for the response. The requests are processed by a
+ * {@link JdbcAuthService} without any actor caches, so every request queries a simulated
+ * connection pool of {@code poolSize} connections. Each query holds its connection for
+ * {@code dbMillis} milliseconds, like a slow database.
+ * </p>
+ * 
+ * <p>
+ * The modes are configured like the application configures them when the pool
+ * {@code maxActive} is {@code poolSize}. In {@literal platform} mode the requests run on a fixed
+ * pool of {@code poolSize} threads that use the connection pool directly. In {@literal virtual}
+ * mode each request runs on a new virtual thread, and connection access is limited by a
+ * {@link BoundedDataSource} to {@code poolSize - 1} connections, leaving one connection for the
+ * audit writer. The {@literal virtual} mode requires a Java 21+ JVM.
+ * </p>
+ * 
+ * <p>
+ * Run with {@code ./gradlew jmh}; the sample time mode reports the p99 latency of each mode.
+ * Increase the number of client threads with the JMH {@code -t} option to simulate more
+ * concurrent hooks.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(400)
+public class HookThreadModelBenchmark {
+
+  private static final long USER_ID = 1L;
+
+  @Param({ "platform", "virtual" })
+  private String mode;
+
+  @Param({ "15" })
+  private int poolSize;
+
+  @Param({ "2" })
+  private long dbMillis;
+
+  @Param({ "10000" })
+  private int nodeCount;
+
+  private ExecutorService executor;
+  private AsyncAuthService authService;
+  private RegisterRequest[] requests;
+
+  /**
+   * A data source that simulates a fixed size connection pool with a slow node actor query.
+   */
+  private static final class SimulatedPoolDataSource extends DelegatingDataSource {
+
+    private final Semaphore connections;
+    private final long dbMillis;
+
+    private SimulatedPoolDataSource(int poolSize, long dbMillis) {
+      super();
+      this.connections = new Semaphore(poolSize, true);
+      this.dbMillis = dbMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      try {
+        connections.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SQLException("Interrupted waiting for connection.", e);
+      }
+      return proxy(Connection.class, (proxy, method, args) -> {
+        switch (method.getName()) {
+          case "close":
+            connections.release();
+            return null;
+          case "prepareStatement":
+            return statement();
+          default:
+            return defaultValue(method.getReturnType());
+        }
+      });
+    }
+
+    private PreparedStatement statement() {
+      final long[] nodeId = new long[1];
+      return proxy(PreparedStatement.class, (proxy, method, args) -> {
+        switch (method.getName()) {
+          case "setLong":
+            nodeId[0] = (Long) args[1];
+            return null;
+          case "executeQuery":
+            Thread.sleep(dbMillis);
+            return nodeActorRow(nodeId[0]);
+          default:
+            return defaultValue(method.getReturnType());
+        }
+      });
+    }
+
+  }
+
+  private static ResultSet nodeActorRow(long nodeId) {
+    final boolean[] consumed = new boolean[1];
+    final Array nodeIds = proxy(Array.class, (proxy, method, args) -> {
+      if ("getArray".equals(method.getName())) {
+        return new Long[] { nodeId };
+      }
+      return defaultValue(method.getReturnType());
+    });
+    return proxy(ResultSet.class, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "next":
+          if (consumed[0]) {
+            return false;
+          }
+          consumed[0] = true;
+          return true;
+        case "getLong":
+          return USER_ID;
+        case "getString":
+          return ((Integer) args[0] == 2 ? "Node" : null);
+        case "getArray":
+          return nodeIds;
+        default:
+          return defaultValue(method.getReturnType());
+      }
+    });
+  }
+
+  private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+    return type.cast(
+        Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (type.isPrimitive() && type != void.class) {
+      return java.lang.reflect.Array.get(java.lang.reflect.Array.newInstance(type, 1), 0);
+    }
+    return null;
+  }
+
+  /**
+   * A per-thread cursor over the register requests.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+
+    private int next;
+
+    private int next(int count) {
+      int i = next++;
+      if (next >= count) {
+        next = 0;
+      }
+      return i;
+    }
+
+  }
+
+  /**
+   * Set up the executor and authorization services.
+   */
+  @Setup
+  public void setup() {
+    final DataSource pool = new SimulatedPoolDataSource(poolSize, dbMillis);
+    final DataSource dataSource;
+    if ("virtual".equals(mode)) {
+      if (!VirtualThreads.isAvailable()) {
+        throw new IllegalStateException("Virtual threads require a Java 21+ JVM.");
+      }
+      executor = VirtualThreads.newThreadPerTaskExecutor("hook-");
+      dataSource = new BoundedDataSource(pool, Math.max(1, poolSize - 1), 0);
+    } else {
+      executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<>());
+      dataSource = pool;
+    }
+    final JdbcAuthService jdbcAuthService = new JdbcAuthService(new JdbcTemplate(dataSource),
+        new SimpleAuthorizationEvaluator());
+    authService = new ExecutorAsyncAuthService(jdbcAuthService, executor, executor);
+
+    requests = new RegisterRequest[nodeCount];
+    for (int i = 0; i < nodeCount; i++) {
+      requests[i] = RegisterRequest.builder().withUsername("solarnode")
+          .withClientId(String.valueOf(1_000_000L + i)).withCleanSession(true).build();
+    }
+    final Response r = jdbcAuthService.authenticateRequest(requests[0]);
+    if (r.getStatus() != ResponseStatus.OK) {
+      throw new IllegalStateException("Simulated node register not authorized: " + r.getStatus());
+    }
+  }
+
+  /**
+   * Shut down the executor.
+   */
+  @TearDown
+  public void teardown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Send a node register hook request and wait for the response.
+   * 
+   * @param cursor
+   *        the cursor
+   * @return the response
+   * @throws ExecutionException
+   *         if the hook fails
+   * @throws InterruptedException
+   *         if interrupted
+   */
+  @Benchmark
+  public Response registerNode(Cursor cursor) throws ExecutionException, InterruptedException {
+    return authService.authenticateRequest(requests[cursor.next(nodeCount)])
+        .toCompletableFuture().get();
+  }
+
+}
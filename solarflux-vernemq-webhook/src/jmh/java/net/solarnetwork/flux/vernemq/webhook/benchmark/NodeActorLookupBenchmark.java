@@ -0,0 +1,191 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcOperations;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorDetails;
+import net.solarnetwork.flux.vernemq.webhook.domain.Qos;
+import net.solarnetwork.flux.vernemq.webhook.domain.Response;
+import net.solarnetwork.flux.vernemq.webhook.domain.ResponseStatus;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.PublishRequest;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.JdbcAuthService;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.NodeActorCache;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SimpleAuthorizationEvaluator;
+
+/**
+ * Compare node publish authorization when the node actor is found in the JCache actor cache, the
+ * actor near cache, or the primitive keyed {@link NodeActorCache}.
+ * 
+ * <p>
+ * Each benchmark authorizes a node publish request with {@link JdbcAuthService}. In all modes the
+ * actor cache is an Ehcache JCache cache configured like the default application actor cache,
+ * and all actors are cached before measuring, so only cache hits are measured. The modes differ
+ * in the caches configured in front of the actor cache:
+ * </p>
+ * 
+ * <ul>
+ * <li>{@literal jcache} - none, so each lookup builds a {@code "Node-"} string key and gets the
+ * actor from the JCache cache</li>
+ * <li>{@literal near} - a Caffeine actor near cache, with the same string key</li>
+ * <li>{@literal node} - a {@link NodeActorCache}, looked up by primitive node ID</li>
+ * </ul>
+ * 
+ * <p>
+ * The JDBC API throws an exception if used, so a cache miss fails the benchmark. Run with
+ * {@code ./gradlew jmh}; the {@code gc} profiler is enabled, and its {@code gc.alloc.rate.norm}
+ * result shows the bytes allocated per request.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class NodeActorLookupBenchmark {
+
+  private static final String ACTOR_CACHE_NAME = "NodeActorLookupBenchmark";
+
+  @Param({ "jcache", "near", "node" })
+  private String mode;
+
+  @Param({ "10000" })
+  private int nodeCount;
+
+  private CacheManager cacheManager;
+  private JdbcAuthService authService;
+  private PublishRequest[] requests;
+
+  /**
+   * A per-thread cursor over the publish requests.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+
+    private int next;
+
+    private int next(int count) {
+      int i = next++;
+      if (next >= count) {
+        next = 0;
+      }
+      return i;
+    }
+
+  }
+
+  /**
+   * Create the service and populate the caches.
+   */
+  @Setup
+  public void setup() {
+    cacheManager = Caching.getCachingProvider(EhcacheCachingProvider.class.getName())
+        .getCacheManager();
+    CacheConfiguration<String, Actor> conf = CacheConfigurationBuilder
+        .newCacheConfigurationBuilder(String.class, Actor.class, ResourcePoolsBuilder.heap(100000))
+        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(900))).build();
+    final Cache<String, Actor> actorCache = cacheManager.createCache(ACTOR_CACHE_NAME,
+        Eh107Configuration.fromEhcacheCacheConfiguration(conf));
+
+    final JdbcOperations jdbcOps = (JdbcOperations) Proxy.newProxyInstance(
+        JdbcOperations.class.getClassLoader(), new Class<?>[] { JdbcOperations.class },
+        (proxy, method, args) -> {
+          throw new UnsupportedOperationException("Actor not cached.");
+        });
+    authService = new JdbcAuthService(jdbcOps, new SimpleAuthorizationEvaluator());
+    authService.setActorCache(actorCache);
+    if ("near".equals(mode)) {
+      authService.setActorNearCacheBuilder(Caffeine.newBuilder().maximumSize(nodeCount * 2L));
+    } else if ("node".equals(mode)) {
+      authService.setNodeActorCache(
+          new NodeActorCache(nodeCount * 2, TimeUnit.HOURS.toSeconds(1)));
+    }
+
+    final byte[] payload = "{\"watts\":1}".getBytes(StandardCharsets.UTF_8);
+    requests = new PublishRequest[nodeCount];
+    for (int i = 0; i < nodeCount; i++) {
+      final long nodeId = 1_000_000L + i;
+      actorCache.put("Node-" + nodeId, new ActorDetails(1L, nodeId));
+      requests[i] = PublishRequest.builder().withUsername("solarnode")
+          .withClientId(String.valueOf(nodeId)).withQos(Qos.AtLeastOnce)
+          .withTopic("node/" + nodeId + "/datum/0/test").withPayload(payload).build();
+      // populate the caches in front of the actor cache
+      Response r = authService.authorizeRequest(requests[i]);
+      if (r.getStatus() != ResponseStatus.OK) {
+        throw new IllegalStateException("Publish not authorized: " + r.getStatus());
+      }
+    }
+  }
+
+  /**
+   * Remove the actor cache.
+   */
+  @TearDown
+  public void teardown() {
+    cacheManager.destroyCache(ACTOR_CACHE_NAME);
+  }
+
+  /**
+   * Authorize a node publish request.
+   * 
+   * @param cursor
+   *        the cursor
+   * @return the response
+   */
+  @Benchmark
+  public Response publish(Cursor cursor) {
+    return authService.authorizeRequest(requests[cursor.next(nodeCount)]);
+  }
+
+}
@@ -17,20 +17,29 @@
 
 package net.solarnetwork.flux.vernemq.webhook;
 
-import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.solarnetwork.flux.vernemq.webhook.util.AuditDenialLog;
+import net.solarnetwork.flux.vernemq.webhook.util.AuditEventLog;
+
 /**
  * Some global references for the webhook project.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.2
  */
 public final class Globals {
 
-  /** A global "audit" logger for audit events to be logged to. */
-  public static final Logger AUDIT_LOG = LoggerFactory
-      .getLogger(Globals.class.getPackage().getName() + ".AUDIT");
+  /** A global "audit" log for audit events to be logged to. */
+  public static final AuditEventLog AUDIT_LOG = new AuditEventLog(
+      LoggerFactory.getLogger(Globals.class.getPackage().getName() + ".AUDIT"));
+
+  /**
+   * A global log for access denied events to be reported to, backed by {@link #AUDIT_LOG}.
+   * 
+   * @since 1.2
+   */
+  public static final AuditDenialLog DENIAL_LOG = new AuditDenialLog(AUDIT_LOG);
 
   private Globals() {
     // can't construct me
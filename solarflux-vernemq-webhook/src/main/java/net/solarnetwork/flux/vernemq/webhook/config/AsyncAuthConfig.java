@@ -0,0 +1,151 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import net.solarnetwork.flux.vernemq.webhook.service.AsyncAuthService;
+import net.solarnetwork.flux.vernemq.webhook.service.AuthService;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.ExecutorAsyncAuthService;
+import net.solarnetwork.flux.vernemq.webhook.util.VirtualThreads;
+
+/**
+ * Configuration for asynchronous authorization services.
+ * 
+ * <p>
+ * By default the maximum number of JDBC connections, less one for the audit writer if it shares
+ * the primary data source, is split between the two executors: a quarter for register requests
+ * and the rest for publish and subscribe requests. Together the executors never run more tasks
+ * than there are connections, so requests wait in the executor queues rather than holding a thread
+ * while waiting for a connection.
+ * </p>
+ * 
+ * <p>
+ * When virtual threads are enabled and available, each request is instead run on a new virtual
+ * thread, and concurrent database access is limited by the connection permits of the
+ * authorization service data source.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+@Configuration
+public class AsyncAuthConfig {
+
+  private static final Logger log = LoggerFactory.getLogger(AsyncAuthConfig.class);
+
+  @Value("${spring.datasource.tomcat.maxActive:100}")
+  private int maxConnections = 100;
+
+  @Value("${auth.async.registerThreads:0}")
+  private int registerThreads = 0;
+
+  @Value("${auth.async.authorizeThreads:0}")
+  private int authorizeThreads = 0;
+
+  @Autowired(required = false)
+  @Qualifier("audit")
+  private DataSource auditDataSource;
+
+  @Value("${auth.async.queueCapacity:10000}")
+  private int queueCapacity = 10000;
+
+  @Value("${" + VirtualThreadConfig.VIRTUAL_THREADS_ENABLED_PROPERTY + ":false}")
+  private boolean virtualThreads = false;
+
+  private int availableConnections() {
+    return Math.max(2, maxConnections - (auditDataSource != null ? 0 : 1));
+  }
+
+  private int registerThreads() {
+    return (registerThreads > 0 ? registerThreads : Math.max(1, availableConnections() / 4));
+  }
+
+  private int authorizeThreads() {
+    return (authorizeThreads > 0 ? authorizeThreads
+        : Math.max(1, availableConnections() - registerThreads()));
+  }
+
+  private ExecutorService executor(String name, int threads, int queueCapacity) {
+    if (virtualThreads && VirtualThreads.isAvailable()) {
+      return VirtualThreads.newThreadPerTaskExecutor(name + "-");
+    }
+    final AtomicInteger count = new AtomicInteger();
+    final ThreadFactory threadFactory = r -> {
+      Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    };
+    log.info("Processing {} hook requests with up to {} threads", name, threads);
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * The executor for register requests.
+   * 
+   * @return the executor
+   */
+  @Bean(destroyMethod = "shutdown")
+  @Qualifier("auth-register")
+  public ExecutorService authRegisterExecutor() {
+    return executor("AuthRegister", registerThreads(), queueCapacity);
+  }
+
+  /**
+   * The executor for publish and subscribe requests.
+   * 
+   * @return the executor
+   */
+  @Bean(destroyMethod = "shutdown")
+  @Qualifier("auth-authorize")
+  public ExecutorService authAuthorizeExecutor() {
+    return executor("AuthAuthorize", authorizeThreads(), queueCapacity);
+  }
+
+  /**
+   * The {@link AsyncAuthService}.
+   * 
+   * @param authService
+   *        the service to delegate to
+   * @return the service
+   */
+  @Bean
+  public AsyncAuthService asyncAuthService(AuthService authService) {
+    return new ExecutorAsyncAuthService(authService, authRegisterExecutor(),
+        authAuthorizeExecutor());
+  }
+
+}
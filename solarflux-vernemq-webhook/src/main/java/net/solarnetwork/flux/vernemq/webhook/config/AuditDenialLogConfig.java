@@ -0,0 +1,62 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.config;
+
+import static net.solarnetwork.flux.vernemq.webhook.Globals.DENIAL_LOG;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import net.solarnetwork.flux.vernemq.webhook.util.AuditDenialLog;
+
+/**
+ * Configuration for summarizing repeated access denied audit events.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = AuditDenialLogConfig.DENIAL_SUMMARY_ENABLED_PROPERTY,
+    havingValue = "true")
+public class AuditDenialLogConfig {
+
+  /** The property that enables summarizing repeated access denied events. */
+  public static final String DENIAL_SUMMARY_ENABLED_PROPERTY
+      = "auth.auditLog.denialSummary.enabled";
+
+  @Value("${auth.auditLog.denialSummary.intervalSeconds:60}")
+  private long intervalSeconds = 60;
+
+  @Value("${auth.auditLog.denialSummary.maxGroups:10000}")
+  private int maxGroups = AuditDenialLog.DEFAULT_MAX_GROUPS;
+
+  /**
+   * Start summarizing repeated access denied events in the global denial log.
+   * 
+   * @return the denial log
+   */
+  @Bean(destroyMethod = "stop")
+  public AuditDenialLog auditDenialLog() {
+    DENIAL_LOG.setMaxGroups(maxGroups);
+    DENIAL_LOG.start(intervalSeconds);
+    return DENIAL_LOG;
+  }
+
+}
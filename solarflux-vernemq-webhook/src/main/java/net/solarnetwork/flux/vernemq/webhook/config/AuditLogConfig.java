@@ -0,0 +1,63 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.config;
+
+import static net.solarnetwork.flux.vernemq.webhook.Globals.AUDIT_LOG;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import net.solarnetwork.flux.vernemq.webhook.util.AuditEventLog;
+import net.solarnetwork.flux.vernemq.webhook.util.VirtualThreads;
+
+/**
+ * Configuration for writing the audit log asynchronously.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = AuditLogConfig.AUDIT_LOG_ASYNC_PROPERTY, havingValue = "true")
+public class AuditLogConfig {
+
+  /** The property that enables asynchronous audit logging. */
+  public static final String AUDIT_LOG_ASYNC_PROPERTY = "auth.auditLog.async";
+
+  @Value("${auth.auditLog.bufferSize:8192}")
+  private int bufferSize = AuditEventLog.DEFAULT_BUFFER_SIZE;
+
+  @Value("${" + VirtualThreadConfig.VIRTUAL_THREADS_ENABLED_PROPERTY + ":false}")
+  private boolean virtualThreads = false;
+
+  /**
+   * Start writing the global audit log asynchronously.
+   * 
+   * @return the audit log
+   */
+  @Bean(destroyMethod = "stop")
+  public AuditEventLog auditEventLog() {
+    if (virtualThreads && VirtualThreads.isAvailable()) {
+      AUDIT_LOG.setWriterThreadFactory(VirtualThreads.threadFactory("AuditLogWriter-"));
+    }
+    AUDIT_LOG.start(bufferSize);
+    return AUDIT_LOG;
+  }
+
+}
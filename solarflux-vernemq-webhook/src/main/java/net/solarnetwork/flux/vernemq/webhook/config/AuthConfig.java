@@ -18,38 +18,74 @@
 package net.solarnetwork.flux.vernemq.webhook.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import net.solarnetwork.flux.vernemq.webhook.domain.Qos;
 import net.solarnetwork.flux.vernemq.webhook.service.AuthorizationEvaluator;
 import net.solarnetwork.flux.vernemq.webhook.service.impl.SimpleAuthorizationEvaluator;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.TopicRuleAuthorizationEvaluator;
 
 /**
  * Configuration for authorization services.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.2
  */
 @Configuration
 public class AuthConfig {
 
+  /** The property that enables the topic rule authorization evaluator. */
+  public static final String TOPIC_RULES_ENABLED_PROPERTY = "auth.topicRules.enabled";
+
   @Value("${auth.userTopicPrefixEnabled:true}")
   private boolean userTopicPrefix = true;
 
   @Value("${mqtt.maxQos:1}")
   private int maxQos = Qos.AtLeastOnce.getKey();
 
+  @Value("${auth.decisionCache.maxActors:0}")
+  private int decisionCacheMaxActors = 0;
+
+  @Value("${auth.decisionCache.maxTopics:64}")
+  private int decisionCacheMaxTopics
+      = SimpleAuthorizationEvaluator.DEFAULT_DECISION_CACHE_MAX_TOPICS;
+
   /**
    * The {@link AuthorizationEvaluator}.
    * 
    * @return the evaluator service
    */
   @Bean
+  @ConditionalOnProperty(name = TOPIC_RULES_ENABLED_PROPERTY, havingValue = "false",
+      matchIfMissing = true)
   public SimpleAuthorizationEvaluator authorizationEvaluator() {
     SimpleAuthorizationEvaluator ae = new SimpleAuthorizationEvaluator();
     ae.setUserTopicPrefix(userTopicPrefix);
     ae.setMaxQos(Qos.forKey(maxQos));
+    ae.setDecisionCacheMaxActors(decisionCacheMaxActors);
+    ae.setDecisionCacheMaxTopics(decisionCacheMaxTopics);
+    return ae;
+  }
+
+  /**
+   * The {@link AuthorizationEvaluator} driven by topic rules.
+   * 
+   * <p>
+   * Unless rules are configured with the {@code auth.topicRules.rules} properties, rules equivalent
+   * to {@link #authorizationEvaluator()} are used.
+   * </p>
+   * 
+   * @return the evaluator service
+   */
+  @Bean(name = "authorizationEvaluator")
+  @ConditionalOnProperty(name = TOPIC_RULES_ENABLED_PROPERTY, havingValue = "true")
+  @ConfigurationProperties(prefix = "auth.topic-rules")
+  public TopicRuleAuthorizationEvaluator topicRuleAuthorizationEvaluator() {
+    TopicRuleAuthorizationEvaluator ae = new TopicRuleAuthorizationEvaluator();
+    ae.setRules(TopicRuleAuthorizationEvaluator.defaultRules(userTopicPrefix, Qos.forKey(maxQos)));
     return ae;
   }
 
@@ -24,6 +24,11 @@ import javax.cache.configuration.MutableConfiguration;
 import javax.cache.expiry.CreatedExpiryPolicy;
 import javax.cache.expiry.Duration;
 
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -32,13 +37,21 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.ActorWeigher;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.JdbcAuthService;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.NodeActorCache;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SnTokenDetails;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SnTokenSigningDetails;
+import net.solarnetwork.flux.vernemq.webhook.util.FixedExpiry;
 
 /**
  * Configuration for application-level caching.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.5
  */
 @Configuration
 @EnableCaching
@@ -49,15 +62,89 @@ public class CacheConfig {
    */
   public static final String ACTOR_CACHE_NAME = "Actor";
 
+  /**
+   * A cache name to use for negative (not found) actor lookup results.
+   * 
+   * @since 1.1
+   */
+  public static final String NEGATIVE_CACHE_NAME = "Negative";
+
+  /**
+   * A cache name to use for verified token authentication results.
+   * 
+   * @since 1.2
+   */
+  public static final String VERIFIED_TOKEN_CACHE_NAME = "VerifiedToken";
+
+  /**
+   * A cache name to use for token signing details.
+   * 
+   * @since 1.3
+   */
+  public static final String TOKEN_SIGNING_CACHE_NAME = "TokenSigning";
+
   @Autowired(required = false)
   private javax.cache.CacheManager cacheManager;
 
   @Value("${cache.actor.ttl:900}")
   private int actorCacheSeconds = 900;
 
+  @Value("${cache.actor.maxSize:100000}")
+  private int actorCacheMaxSize = 100000;
+
+  @Value("${cache.actor.near.maxSize:10000}")
+  private int actorNearCacheMaxSize = 10000;
+
+  @Value("${cache.actor.near.maxWeight:67108864}")
+  private long actorNearCacheMaxWeight = 67108864L;
+
+  @Value("${cache.actor.near.refresh:600}")
+  private int actorNearCacheRefreshSeconds = 600;
+
+  @Value("${cache.actor.stale.grace:0}")
+  private int actorStaleGraceSeconds = 0;
+
+  @Value("${cache.actor.stale.maxSize:100000}")
+  private int actorStaleCacheMaxSize = 100000;
+
+  @Value("${cache.actor.node.maxSize:16384}")
+  private int nodeActorCacheMaxSize = 16384;
+
+  @Value("${cache.actor.node.ttl:60}")
+  private int nodeActorCacheSeconds = 60;
+
+  @Value("${cache.negative.ttl:60}")
+  private int negativeCacheSeconds = 60;
+
+  @Value("${cache.negative.maxSize:10000}")
+  private int negativeCacheMaxSize = 10000;
+
+  @Value("${solarnetwork.api.maxDateSkew:900000}")
+  private long authMaxDateSkew = JdbcAuthService.DEFAULT_MAX_DATE_SKEW;
+
+  @Value("${cache.verified.maxSize:10000}")
+  private int verifiedTokenCacheMaxSize = 10000;
+
+  @Value("${auth.localSignatureVerification:false}")
+  private boolean localSignatureVerification = false;
+
+  @Value("${cache.tokenSigning.ttl:300}")
+  private int tokenSigningCacheSeconds = 300;
+
+  @Value("${cache.tokenSigning.maxSize:100000}")
+  private int tokenSigningCacheMaxSize = 100000;
+
+  @Value("${cache.management.enabled:false}")
+  private boolean cacheManagement = false;
+
   /**
    * Get the actor cache.
    * 
+   * <p>
+   * The actor cache is limited to the configured maximum number of entries. If the maximum size is
+   * {@literal 0} the cache is not limited, and only the near cache limits apply.
+   * </p>
+   * 
    * @return the actor cache
    */
   @Bean
@@ -67,11 +154,21 @@ public class CacheConfig {
     if (cacheManager == null) {
       return null;
     }
-    return cacheManager.createCache(ACTOR_CACHE_NAME, actorCacheConfiguration());
+    return withStatistics(cacheManager.createCache(ACTOR_CACHE_NAME, actorCacheConfiguration()));
   }
 
   // CHECKSTYLE IGNORE LineLength FOR NEXT 1 LINE
   private javax.cache.configuration.Configuration<String, Actor> actorCacheConfiguration() {
+    if (actorCacheMaxSize > 0) {
+      // use native Ehcache configuration to support a heap entry limit
+      CacheConfiguration<String, Actor> conf = CacheConfigurationBuilder
+          .newCacheConfigurationBuilder(String.class, Actor.class,
+              ResourcePoolsBuilder.heap(actorCacheMaxSize))
+          .withExpiry(ExpiryPolicyBuilder
+              .timeToLiveExpiration(java.time.Duration.ofSeconds(actorCacheSeconds)))
+          .build();
+      return Eh107Configuration.fromEhcacheCacheConfiguration(conf);
+    }
     MutableConfiguration<String, Actor> conf = new MutableConfiguration<>();
     conf.setExpiryPolicyFactory(
         CreatedExpiryPolicy.factoryOf(new Duration(TimeUnit.SECONDS, actorCacheSeconds)));
@@ -79,4 +176,209 @@ public class CacheConfig {
     return conf;
   }
 
+  /**
+   * Get the actor near cache builder.
+   * 
+   * <p>
+   * The near cache is an in-process cache in front of the actor cache. Entries expire after the
+   * same time as the actor cache (using variable expiration so entries restored from a snapshot
+   * keep their remaining time), but are refreshed in the background if they are used after the
+   * configured refresh time. Entries are evicted based on how frequently they are used.
+   * </p>
+   * 
+   * <p>
+   * If a maximum weight is configured, the near cache is limited by the estimated heap size of the
+   * cached actors, as computed by {@link ActorWeigher}, instead of the number of actors. The
+   * maximum weight takes precedence over the maximum size, which is then only used to disable the
+   * near cache when set to {@literal 0}.
+   * </p>
+   * 
+   * @return the near cache builder, or {@literal null} if the near cache is disabled
+   * @since 1.4
+   */
+  @Bean
+  @Qualifier("actor-near")
+  @Profile("!default")
+  public Caffeine<Object, Object> actorNearCacheBuilder() {
+    if (actorNearCacheMaxSize < 1) {
+      return null;
+    }
+    Caffeine<Object, Object> builder = Caffeine.newBuilder();
+    if (actorNearCacheMaxWeight > 0) {
+      builder = builder.maximumWeight(actorNearCacheMaxWeight).weigher(new ActorWeigher());
+    } else {
+      builder = builder.maximumSize(actorNearCacheMaxSize);
+    }
+    builder = builder
+        .expireAfter(new FixedExpiry<>(java.time.Duration.ofSeconds(actorCacheSeconds)))
+        .recordStats();
+    if (actorNearCacheRefreshSeconds > 0 && actorNearCacheRefreshSeconds < actorCacheSeconds) {
+      builder = builder
+          .refreshAfterWrite(java.time.Duration.ofSeconds(actorNearCacheRefreshSeconds));
+    }
+    return builder;
+  }
+
+  /**
+   * Get the stale actor cache builder.
+   * 
+   * <p>
+   * The stale actor cache holds actors loaded from the database for the actor cache time plus a
+   * grace period, so they can still be used if the database is not available after they have
+   * expired from the actor cache.
+   * </p>
+   * 
+   * @return the stale actor cache builder, or {@literal null} if the stale actor cache is disabled
+   * @since 1.5
+   */
+  @Bean
+  @Qualifier("actor-stale")
+  @Profile("!default")
+  public Caffeine<Object, Object> actorStaleCacheBuilder() {
+    if (actorStaleGraceSeconds < 1 || actorStaleCacheMaxSize < 1) {
+      return null;
+    }
+    return Caffeine.newBuilder().maximumSize(actorStaleCacheMaxSize).expireAfterWrite(
+        java.time.Duration.ofSeconds((long) actorCacheSeconds + actorStaleGraceSeconds));
+  }
+
+  /**
+   * Get the node actor cache.
+   * 
+   * <p>
+   * The node actor cache is a fixed-size cache keyed by primitive node ID, used in front of the
+   * actor near cache so that looking up the actor for a node publish request does not allocate a
+   * string cache key. Entries expire after the configured node TTL, or the actor cache TTL if that
+   * is shorter.
+   * </p>
+   * 
+   * @return the node actor cache, or {@literal null} if the node actor cache is disabled
+   * @since 1.5
+   */
+  @Bean
+  @Qualifier("actor-node")
+  @Profile("!default")
+  public NodeActorCache nodeActorCache() {
+    if (nodeActorCacheMaxSize < 1 || nodeActorCacheSeconds < 1) {
+      return null;
+    }
+    return new NodeActorCache(nodeActorCacheMaxSize,
+        Math.min(nodeActorCacheSeconds, actorCacheSeconds));
+  }
+
+  /**
+   * Get the negative lookup cache.
+   * 
+   * <p>
+   * This cache holds keys for actor lookups and authentication attempts that failed, so repeated
+   * failures can be answered without querying the database. Entries are kept for a shorter time
+   * than the actor cache, and the cache is limited to a maximum number of entries.
+   * </p>
+   * 
+   * @return the negative cache
+   * @since 1.1
+   */
+  @Bean
+  @Qualifier("negative")
+  @Profile("!default")
+  public Cache<String, Boolean> negativeCache() {
+    if (cacheManager == null) {
+      return null;
+    }
+    return withStatistics(
+        cacheManager.createCache(NEGATIVE_CACHE_NAME, negativeCacheConfiguration()));
+  }
+
+  // CHECKSTYLE IGNORE LineLength FOR NEXT 1 LINE
+  private javax.cache.configuration.Configuration<String, Boolean> negativeCacheConfiguration() {
+    // use native Ehcache configuration to support a heap entry limit
+    CacheConfiguration<String, Boolean> conf = CacheConfigurationBuilder
+        .newCacheConfigurationBuilder(String.class, Boolean.class,
+            ResourcePoolsBuilder.heap(negativeCacheMaxSize))
+        .withExpiry(ExpiryPolicyBuilder
+            .timeToLiveExpiration(java.time.Duration.ofSeconds(negativeCacheSeconds)))
+        .build();
+    return Eh107Configuration.fromEhcacheCacheConfiguration(conf);
+  }
+
+  /**
+   * Get the verified token cache.
+   * 
+   * <p>
+   * This cache holds successful token signature verification results, keyed by the token ID,
+   * request date, and signature. Entries expire after the configured maximum authentication date
+   * skew, as the request date would not be accepted after that time anyway.
+   * </p>
+   * 
+   * @return the verified token cache, or {@literal null} if date skew checking is disabled
+   * @since 1.2
+   */
+  @Bean
+  @Qualifier("verified")
+  @Profile("!default")
+  public Cache<String, SnTokenDetails> verifiedTokenCache() {
+    if (cacheManager == null || authMaxDateSkew <= 0) {
+      return null;
+    }
+    return cacheManager.createCache(VERIFIED_TOKEN_CACHE_NAME, verifiedTokenCacheConfiguration());
+  }
+
+  // CHECKSTYLE IGNORE LineLength FOR NEXT 1 LINE
+  private javax.cache.configuration.Configuration<String, SnTokenDetails> verifiedTokenCacheConfiguration() {
+    CacheConfiguration<String, SnTokenDetails> conf = CacheConfigurationBuilder
+        .newCacheConfigurationBuilder(String.class, SnTokenDetails.class,
+            ResourcePoolsBuilder.heap(verifiedTokenCacheMaxSize))
+        .withExpiry(ExpiryPolicyBuilder
+            .timeToLiveExpiration(java.time.Duration.ofMillis(authMaxDateSkew)))
+        .build();
+    return Eh107Configuration.fromEhcacheCacheConfiguration(conf);
+  }
+
+  /**
+   * Get the token signing details cache.
+   * 
+   * <p>
+   * This cache is only created when local signature verification is enabled. Entries expire after
+   * a short time so that token changes are picked up from the database.
+   * </p>
+   * 
+   * @return the token signing cache, or {@literal null} if local signature verification is not
+   *         enabled
+   * @since 1.3
+   */
+  @Bean
+  @Qualifier("token-signing")
+  @Profile("!default")
+  public Cache<String, SnTokenSigningDetails> tokenSigningCache() {
+    if (cacheManager == null || !localSignatureVerification) {
+      return null;
+    }
+    return cacheManager.createCache(TOKEN_SIGNING_CACHE_NAME, tokenSigningCacheConfiguration());
+  }
+
+  // CHECKSTYLE IGNORE LineLength FOR NEXT 1 LINE
+  private javax.cache.configuration.Configuration<String, SnTokenSigningDetails> tokenSigningCacheConfiguration() {
+    CacheConfiguration<String, SnTokenSigningDetails> conf = CacheConfigurationBuilder
+        .newCacheConfigurationBuilder(String.class, SnTokenSigningDetails.class,
+            ResourcePoolsBuilder.heap(tokenSigningCacheMaxSize))
+        .withExpiry(ExpiryPolicyBuilder
+            .timeToLiveExpiration(java.time.Duration.ofSeconds(tokenSigningCacheSeconds)))
+        .build();
+    return Eh107Configuration.fromEhcacheCacheConfiguration(conf);
+  }
+
+  /**
+   * Enable statistics for a cache, if cache management is enabled.
+   * 
+   * @param cache
+   *        the cache to enable statistics for
+   * @return the cache
+   */
+  private <K, V> Cache<K, V> withStatistics(Cache<K, V> cache) {
+    if (cacheManagement && cache != null) {
+      cacheManager.enableStatistics(cache.getName(), true);
+    }
+    return cache;
+  }
+
 }
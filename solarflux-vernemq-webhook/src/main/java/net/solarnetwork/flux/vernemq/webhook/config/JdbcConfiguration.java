@@ -17,9 +17,13 @@
 
 package net.solarnetwork.flux.vernemq.webhook.config;
 
+import java.nio.file.Paths;
+
 import javax.cache.Cache;
 import javax.sql.DataSource;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -30,21 +34,34 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
 import net.solarnetwork.flux.vernemq.webhook.service.AuthService;
 import net.solarnetwork.flux.vernemq.webhook.service.AuthorizationEvaluator;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.ActorCacheSnapshot;
 import net.solarnetwork.flux.vernemq.webhook.service.impl.JdbcAuditService;
 import net.solarnetwork.flux.vernemq.webhook.service.impl.JdbcAuthService;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.NodeActorBatchLoader;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.NodeActorCache;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.NodeOwnershipIndex;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SecurityPolicyDecoder;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SnTokenDetails;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SnTokenSigningDetails;
+import net.solarnetwork.flux.vernemq.webhook.util.BoundedDataSource;
+import net.solarnetwork.flux.vernemq.webhook.util.VirtualThreads;
 
 /**
  * Configuration for JDBC based services.
  * 
  * @author matt
- * @version 1.1
+ * @version 1.4
  */
 @Configuration
 public class JdbcConfiguration {
 
+  private static final Logger log = LoggerFactory.getLogger(JdbcConfiguration.class);
+
   @Value("${solarnetwork.api.host:data.solarnetwork.net}")
   private String snHost = "data.solarnetwork.net";
 
@@ -66,6 +83,36 @@ public class JdbcConfiguration {
   @Value("${auth.allowDirectTokenAuthentication:true}")
   private boolean allowDirectTokenAuthentication = true;
 
+  @Value("${auth.localSignatureVerification:false}")
+  private boolean localSignatureVerification = false;
+
+  @Value("${auth.preloadTokenSigningDetails:true}")
+  private boolean preloadTokenSigningDetails = true;
+
+  @Value("${auth.nodeBatch.window:0}")
+  private long nodeBatchWindow = 0;
+
+  @Value("${auth.nodeBatch.maxSize:200}")
+  private int nodeBatchMaxSize = NodeActorBatchLoader.DEFAULT_MAX_BATCH_SIZE;
+
+  @Value("${" + VirtualThreadConfig.VIRTUAL_THREADS_ENABLED_PROPERTY + ":false}")
+  private boolean virtualThreads = false;
+
+  @Value("${auth.nodeIndex.enabled:false}")
+  private boolean nodeIndexEnabled = false;
+
+  @Value("${auth.nodeIndex.refresh:60}")
+  private long nodeIndexRefreshSeconds = 60;
+
+  @Value("${auth.nodeIndex.reload:900}")
+  private long nodeIndexReloadSeconds = 900;
+
+  @Value("${cache.actor.snapshot.path:}")
+  private String actorCacheSnapshotPath;
+
+  @Value("${cache.policy.maxSize:10000}")
+  private int policyCacheMaxSize = SecurityPolicyDecoder.DEFAULT_MAX_SIZE;
+
   @Autowired(required = false)
   @Qualifier("audit")
   private DataSource auditDataSource;
@@ -77,6 +124,30 @@ public class JdbcConfiguration {
   @Qualifier("actor")
   private Cache<String, Actor> actorCache;
 
+  @Autowired(required = false)
+  @Qualifier("actor-near")
+  private Caffeine<Object, Object> actorNearCacheBuilder;
+
+  @Autowired(required = false)
+  @Qualifier("actor-stale")
+  private Caffeine<Object, Object> actorStaleCacheBuilder;
+
+  @Autowired(required = false)
+  @Qualifier("actor-node")
+  private NodeActorCache nodeActorCache;
+
+  @Autowired(required = false)
+  @Qualifier("negative")
+  private Cache<String, Boolean> negativeCache;
+
+  @Autowired(required = false)
+  @Qualifier("verified")
+  private Cache<String, SnTokenDetails> verifiedTokenCache;
+
+  @Autowired(required = false)
+  @Qualifier("token-signing")
+  private Cache<String, SnTokenSigningDetails> tokenSigningCache;
+
   /**
    * The {@link AuthService}.
    * 
@@ -84,25 +155,123 @@ public class JdbcConfiguration {
    */
   @Bean
   public JdbcAuthService authService() {
-    JdbcAuthService service = new JdbcAuthService(
-        new JdbcTemplate(primaryDataSource(dataSourceProperties())), authorizationEvaluator,
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(authDataSource());
+    JdbcAuthService service = new JdbcAuthService(jdbcTemplate, authorizationEvaluator,
         auditService());
     service.setSnHost(snHost);
     service.setSnPath(snPath);
     service.setMaxDateSkew(authMaxDateSkew);
     service.setForceCleanSession(forceCleanSession);
     service.setActorCache(actorCache);
+    service.setActorNearCacheBuilder(actorNearCacheBuilder);
+    service.setNodeActorCache(nodeActorCache);
+    service.setStaleActorCacheBuilder(actorStaleCacheBuilder);
+    service.setNegativeCache(negativeCache);
+    service.setVerifiedTokenCache(verifiedTokenCache);
     service.setIpMask(nodeIpMask);
     service.setRequireTokenClientIdPrefix(requireTokenClientIdPrefix);
     service.setAllowDirectTokenAuthentication(allowDirectTokenAuthentication);
+    service.setLocalSignatureVerification(localSignatureVerification);
+    service.setTokenSigningCache(tokenSigningCache);
+    final SecurityPolicyDecoder policyDecoder = new SecurityPolicyDecoder(policyCacheMaxSize);
+    service.setPolicyDecoder(policyDecoder);
+    if (nodeBatchWindow > 0) {
+      NodeActorBatchLoader batchLoader = new NodeActorBatchLoader(jdbcTemplate);
+      batchLoader.setPolicyDecoder(policyDecoder);
+      batchLoader.setBatchWindow(nodeBatchWindow);
+      batchLoader.setMaxBatchSize(nodeBatchMaxSize);
+      service.setNodeActorBatchLoader(batchLoader);
+    }
+    service.setNodeOwnershipIndex(nodeOwnershipIndex());
+    if (localSignatureVerification && preloadTokenSigningDetails) {
+      try {
+        service.preloadTokenSigningDetails();
+      } catch (RuntimeException e) {
+        log.warn("Unable to preload token signing details: {}", e.toString());
+      }
+    }
     return service;
   }
 
+  private boolean isVirtualThreads() {
+    return (virtualThreads && VirtualThreads.isAvailable());
+  }
+
+  /**
+   * Get the data source to use for authorization queries.
+   * 
+   * <p>
+   * When running with virtual threads, the primary data source is wrapped in a
+   * {@link BoundedDataSource} so that the number of threads requesting connections at once is
+   * limited to the connection pool size, less one connection for the audit writer if it shares
+   * the primary data source.
+   * </p>
+   * 
+   * @return the data source
+   */
+  private DataSource authDataSource() {
+    final DataSource primary = primaryDataSource(dataSourceProperties());
+    if (!isVirtualThreads() || !(primary instanceof org.apache.tomcat.jdbc.pool.DataSource)) {
+      return primary;
+    }
+    final org.apache.tomcat.jdbc.pool.DataSource pool;
+    pool = (org.apache.tomcat.jdbc.pool.DataSource) primary;
+    final int maxConnections = Math.max(1,
+        pool.getMaxActive() - (auditDataSource != null ? 0 : 1));
+    log.info("Limiting authorization JDBC access to {} concurrent connections", maxConnections);
+    return new BoundedDataSource(primary, maxConnections, pool.getMaxWait());
+  }
+
+  /**
+   * The node ownership index.
+   * 
+   * @return the index, or {@literal null} if not enabled
+   */
+  @Bean(destroyMethod = "shutdown")
+  public NodeOwnershipIndex nodeOwnershipIndex() {
+    if (!nodeIndexEnabled) {
+      return null;
+    }
+    NodeOwnershipIndex index = new NodeOwnershipIndex(
+        new JdbcTemplate(primaryDataSource(dataSourceProperties())));
+    index.startup(nodeIndexRefreshSeconds, nodeIndexReloadSeconds);
+    return index;
+  }
+
+  /**
+   * The actor cache snapshot.
+   * 
+   * <p>
+   * The snapshot saves the actor near cache when the application shuts down, and restores it when
+   * the application starts up.
+   * </p>
+   * 
+   * @return the snapshot, or {@literal null} if not enabled or the near cache is not enabled
+   */
+  @Bean(initMethod = "startup", destroyMethod = "shutdown")
+  public ActorCacheSnapshot actorCacheSnapshot() {
+    if (actorCacheSnapshotPath == null || actorCacheSnapshotPath.isBlank()) {
+      return null;
+    }
+    final JdbcAuthService service = authService();
+    if (service.getActorNearCache() == null) {
+      log.warn("Actor cache snapshot requires the actor near cache; snapshot disabled");
+      return null;
+    }
+    final ActorCacheSnapshot snapshot = new ActorCacheSnapshot(service.getActorNearCache(),
+        Paths.get(actorCacheSnapshotPath));
+    snapshot.setPolicyDecoder(service.getPolicyDecoder());
+    return snapshot;
+  }
+
   @ConfigurationProperties(prefix = "app.audit.jdbc")
   @Bean(destroyMethod = "disableWriting")
   public JdbcAuditService auditService() {
     JdbcAuditService service = new JdbcAuditService(
         auditDataSource != null ? auditDataSource : primaryDataSource(dataSourceProperties()));
+    if (isVirtualThreads()) {
+      service.setWriterThreadFactory(VirtualThreads.threadFactory("JdbcMqttAuditorWriter-"));
+    }
     service.enableWriting();
     return service;
   }
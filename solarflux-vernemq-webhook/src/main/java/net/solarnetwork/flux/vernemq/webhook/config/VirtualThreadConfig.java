@@ -0,0 +1,68 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import net.solarnetwork.flux.vernemq.webhook.util.VirtualThreads;
+
+/**
+ * Configuration for running web requests on virtual threads.
+ * 
+ * <p>
+ * This configuration is enabled by the {@literal spring.threads.virtual.enabled} property, and
+ * only has an effect when running on a JVM that supports virtual threads.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = VirtualThreadConfig.VIRTUAL_THREADS_ENABLED_PROPERTY,
+    havingValue = "true")
+public class VirtualThreadConfig {
+
+  /** The property that enables virtual thread mode. */
+  public static final String VIRTUAL_THREADS_ENABLED_PROPERTY = "spring.threads.virtual.enabled";
+
+  private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+  /**
+   * Customize Tomcat to process requests on virtual threads.
+   * 
+   * @return the customizer
+   */
+  @Bean
+  public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+    return (handler) -> {
+      if (!VirtualThreads.isAvailable()) {
+        log.warn("Virtual threads are not available in this JVM: using platform threads.");
+        return;
+      }
+      log.info("Processing web requests on virtual threads.");
+      handler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("tomcat-handler-"));
+    };
+  }
+
+}
@@ -25,7 +25,7 @@ import net.solarnetwork.central.security.SecurityPolicy;
  * API for details associated with an authenticated user.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public interface Actor {
 
@@ -87,4 +87,17 @@ public interface Actor {
    */
   Set<Long> getAllowedNodeIds();
 
+  /**
+   * Test if a node ID is included in the allowed node IDs.
+   * 
+   * @param nodeId
+   *        the node ID to test
+   * @return {@literal true} if {@code nodeId} is included in {@link #getAllowedNodeIds()}
+   * @since 1.1
+   */
+  default boolean isAllowedNodeId(long nodeId) {
+    final Set<Long> allowed = getAllowedNodeIds();
+    return (allowed != null && allowed.contains(nodeId));
+  }
+
 }
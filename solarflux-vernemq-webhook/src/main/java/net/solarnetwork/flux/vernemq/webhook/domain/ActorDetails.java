@@ -17,13 +17,8 @@
 
 package net.solarnetwork.flux.vernemq.webhook.domain;
 
-import static java.util.Collections.emptySet;
-import static java.util.Collections.singleton;
-import static java.util.Collections.unmodifiableSet;
-import static java.util.stream.Collectors.toCollection;
+import static java.util.Arrays.copyOf;
 
-import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.Set;
 
 import net.solarnetwork.central.security.SecurityPolicy;
@@ -31,8 +26,13 @@ import net.solarnetwork.central.security.SecurityPolicy;
 /**
  * Details about an authenticated actor.
  * 
+ * <p>
+ * The node ID sets are stored as canonical {@link NodeIdSet} instances, so actors with the same
+ * node IDs share the same sets.
+ * </p>
+ * 
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public class ActorDetails implements Actor {
 
@@ -41,8 +41,8 @@ public class ActorDetails implements Actor {
   private final boolean publishAllowed;
   private final Long userId;
   private final SecurityPolicy policy;
-  private final Set<Long> userNodeIds;
-  private final Set<Long> allowedNodeIds;
+  private final NodeIdSet userNodeIds;
+  private final NodeIdSet allowedNodeIds;
 
   /**
    * Constructor.
@@ -73,7 +73,7 @@ public class ActorDetails implements Actor {
     }
     this.userId = userId;
     this.policy = policy;
-    this.userNodeIds = (userNodeIds != null ? userNodeIds : emptySet());
+    this.userNodeIds = NodeIdSet.intern(NodeIdSet.of(userNodeIds));
     this.allowedNodeIds = resolveAllowedNodeIds(this.userNodeIds, policy);
   }
 
@@ -92,32 +92,26 @@ public class ActorDetails implements Actor {
    *        the node ID
    */
   public ActorDetails(Long userId, Long nodeId) {
-    this(null, ActorType.Node, true, userId, null, singleton(nodeId));
+    this(null, ActorType.Node, true, userId, null, NodeIdSet.of(nodeId));
   }
 
-  private static Set<Long> resolveAllowedNodeIds(Set<Long> userNodeIds, SecurityPolicy policy) {
-    Set<Long> nodeIds = userNodeIds;
-    if (policy != null && policy.getNodeIds() != null) {
-      nodeIds = policy.getNodeIds();
-      Set<Long> rejected = null;
-      for (Long policyNodeId : nodeIds) {
-        if (!userNodeIds.contains(policyNodeId)) {
-          if (rejected == null) {
-            rejected = new HashSet<>(nodeIds.size());
-          }
-          rejected.add(policyNodeId);
-        }
-      }
-      if (rejected != null && !rejected.isEmpty()) {
-        final Set<Long> finalRejected = rejected;
-        nodeIds = nodeIds.stream().filter(n -> !finalRejected.contains(n))
-            .collect(toCollection(LinkedHashSet::new));
+  private static NodeIdSet resolveAllowedNodeIds(NodeIdSet userNodeIds, SecurityPolicy policy) {
+    final Set<Long> policyNodeIds = (policy != null ? policy.getNodeIds() : null);
+    if (policyNodeIds == null) {
+      return userNodeIds;
+    }
+    long[] allowed = new long[policyNodeIds.size()];
+    int len = 0;
+    for (Long policyNodeId : policyNodeIds) {
+      if (policyNodeId != null && userNodeIds.contains(policyNodeId.longValue())) {
+        allowed[len++] = policyNodeId;
       }
     }
-    if (nodeIds == null) {
-      nodeIds = userNodeIds;
+    if (len == userNodeIds.size()) {
+      // policy allows all user nodes
+      return userNodeIds;
     }
-    return (nodeIds != null ? unmodifiableSet(nodeIds) : emptySet());
+    return NodeIdSet.intern(NodeIdSet.of(len < allowed.length ? copyOf(allowed, len) : allowed));
   }
 
   @Override
@@ -162,4 +156,9 @@ public class ActorDetails implements Actor {
     return allowedNodeIds;
   }
 
+  @Override
+  public boolean isAllowedNodeId(long nodeId) {
+    return allowedNodeIds.contains(nodeId);
+  }
+
 }
@@ -0,0 +1,251 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.domain;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Compact immutable set of node IDs.
+ * 
+ * <p>
+ * The node IDs are stored as a sorted array of primitive {@code long} values, so membership can be
+ * tested via {@link #contains(long)} without boxing. Sets with equal contents can be shared via
+ * {@link #intern(NodeIdSet)}, so that all actors of a given user refer to a single set instance.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public final class NodeIdSet extends AbstractSet<Long> {
+
+  /** An empty set. */
+  public static final NodeIdSet EMPTY = new NodeIdSet(new long[0]);
+
+  private static final Cache<Key, NodeIdSet> INTERNED = Caffeine.newBuilder().weakValues()
+      .build();
+
+  private final long[] ids;
+  private final int hash;
+
+  private NodeIdSet(long[] ids) {
+    super();
+    this.ids = ids;
+    int h = 0;
+    for (long id : ids) {
+      h += Long.hashCode(id);
+    }
+    this.hash = h;
+  }
+
+  /**
+   * Create a set from node ID values.
+   * 
+   * @param ids
+   *        the node IDs, which do not need to be sorted or distinct
+   * @return the set, never {@literal null}
+   */
+  public static NodeIdSet of(long... ids) {
+    if (ids == null || ids.length < 1) {
+      return EMPTY;
+    }
+    long[] sorted = ids.clone();
+    Arrays.sort(sorted);
+    int len = 1;
+    for (int i = 1; i < sorted.length; i++) {
+      if (sorted[i] != sorted[len - 1]) {
+        sorted[len++] = sorted[i];
+      }
+    }
+    return new NodeIdSet(len < sorted.length ? Arrays.copyOf(sorted, len) : sorted);
+  }
+
+  /**
+   * Create a set from a collection of node IDs.
+   * 
+   * <p>
+   * If {@code ids} is already a {@code NodeIdSet} it is returned directly. Any {@literal null}
+   * values are ignored.
+   * </p>
+   * 
+   * @param ids
+   *        the node IDs
+   * @return the set, never {@literal null}
+   */
+  public static NodeIdSet of(Collection<Long> ids) {
+    if (ids instanceof NodeIdSet) {
+      return (NodeIdSet) ids;
+    }
+    if (ids == null || ids.isEmpty()) {
+      return EMPTY;
+    }
+    long[] values = new long[ids.size()];
+    int len = 0;
+    for (Long id : ids) {
+      if (id != null) {
+        values[len++] = id;
+      }
+    }
+    return of(len < values.length ? Arrays.copyOf(values, len) : values);
+  }
+
+  /**
+   * Get a canonical instance of a set.
+   * 
+   * <p>
+   * Canonical instances are only weakly held, so they are released once no longer used. Sets with
+   * fewer than two node IDs are not worth sharing, so they are returned as-is (or
+   * {@link #EMPTY}).
+   * </p>
+   * 
+   * @param set
+   *        the set to get the canonical instance of
+   * @return the canonical set equal to {@code set}, or {@literal null} if {@code set} is
+   *         {@literal null}
+   */
+  public static NodeIdSet intern(NodeIdSet set) {
+    if (set == null) {
+      return null;
+    }
+    if (set.ids.length < 1) {
+      return EMPTY;
+    }
+    if (set.ids.length < 2) {
+      return set;
+    }
+    return INTERNED.get(new Key(set.ids, set.hash), k -> set);
+  }
+
+  /**
+   * Interned set key.
+   * 
+   * <p>
+   * The key shares the node ID array of its set but does not refer to the set itself, so the set
+   * can be collected once no longer used and its entry removed.
+   * </p>
+   */
+  private static final class Key {
+
+    private final long[] ids;
+    private final int hash;
+
+    private Key(long[] ids, int hash) {
+      super();
+      this.ids = ids;
+      this.hash = hash;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return (hash == other.hash && Arrays.equals(ids, other.ids));
+    }
+
+  }
+
+  /**
+   * Test if a node ID is included in this set.
+   * 
+   * @param id
+   *        the node ID to test
+   * @return {@literal true} if {@code id} is included in this set
+   */
+  public boolean contains(long id) {
+    return Arrays.binarySearch(ids, id) >= 0;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return (o instanceof Long && contains(((Long) o).longValue()));
+  }
+
+  @Override
+  public int size() {
+    return ids.length;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return ids.length < 1;
+  }
+
+  /**
+   * Get a copy of the node IDs as an array.
+   * 
+   * @return the sorted node IDs
+   */
+  public long[] toLongArray() {
+    return ids.clone();
+  }
+
+  @Override
+  public Iterator<Long> iterator() {
+    return new Iterator<Long>() {
+
+      private int i = 0;
+
+      @Override
+      public boolean hasNext() {
+        return i < ids.length;
+      }
+
+      @Override
+      public Long next() {
+        if (i >= ids.length) {
+          throw new NoSuchElementException();
+        }
+        return ids[i++];
+      }
+    };
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (o instanceof NodeIdSet) {
+      NodeIdSet other = (NodeIdSet) o;
+      return hash == other.hash && Arrays.equals(ids, other.ids);
+    }
+    return super.equals(o);
+  }
+
+}
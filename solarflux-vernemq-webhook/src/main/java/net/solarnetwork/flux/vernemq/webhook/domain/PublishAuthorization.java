@@ -0,0 +1,63 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.domain;
+
+/**
+ * The result of authorizing a publish request.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class PublishAuthorization {
+
+  private final Message message;
+  private final String sourceId;
+
+  /**
+   * Constructor.
+   * 
+   * @param message
+   *        the resulting message to publish
+   * @param sourceId
+   *        the source ID of the message, or {@literal null} if not known
+   */
+  public PublishAuthorization(Message message, String sourceId) {
+    super();
+    this.message = message;
+    this.sourceId = sourceId;
+  }
+
+  /**
+   * Get the message to publish.
+   * 
+   * @return the message, which may differ from the requested message
+   */
+  public Message getMessage() {
+    return message;
+  }
+
+  /**
+   * Get the source ID of the message.
+   * 
+   * @return the source ID, or {@literal null} if not known
+   */
+  public String getSourceId() {
+    return sourceId;
+  }
+
+}
@@ -0,0 +1,238 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.domain;
+
+import java.util.Set;
+
+/**
+ * A rule describing a topic namespace that actors may publish or subscribe to.
+ * 
+ * <p>
+ * The {@code template} is a list of topic levels delimited by {@literal /}. Each level is either a
+ * literal value or one of the following:
+ * </p>
+ * 
+ * <dl>
+ * <dt><code>{userId}</code></dt>
+ * <dd>a user ID number, which must match the actor's user ID</dd>
+ * <dt><code>{nodeId}</code></dt>
+ * <dd>a node ID number, or a {@literal +} wildcard; the actor must be allowed to access the
+ * node</dd>
+ * <dt><code>{aggregation}</code></dt>
+ * <dd>an aggregation key, which must be allowed by the actor's policy</dd>
+ * <dt><code>+</code></dt>
+ * <dd>any single level</dd>
+ * <dt><code>{sourceId}</code></dt>
+ * <dd>the remaining levels, as a source ID including a leading {@literal /}, which must be allowed
+ * by the actor's policy; must be the last level</dd>
+ * <dt><code>#</code></dt>
+ * <dd>the remaining levels; must be the last level</dd>
+ * </dl>
+ * 
+ * <p>
+ * The remaining levels matched by <code>{sourceId}</code> and {@literal #} must include at least
+ * one character.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class TopicRule {
+
+  private String template;
+  private Set<ActorType> actorTypes;
+  private boolean publish = true;
+  private boolean subscribe = true;
+  private boolean userTopicPrefix;
+  private Qos maxQos;
+
+  /**
+   * Default constructor.
+   */
+  public TopicRule() {
+    super();
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param template
+   *        the topic template
+   */
+  public TopicRule(String template) {
+    super();
+    setTemplate(template);
+  }
+
+  /**
+   * Test if the rule applies to a given actor type.
+   * 
+   * @param actorType
+   *        the actor type
+   * @return {@literal true} if {@code actorTypes} is empty or contains {@code actorType}
+   */
+  public boolean appliesTo(ActorType actorType) {
+    return (actorTypes == null || actorTypes.isEmpty() || actorTypes.contains(actorType));
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("TopicRule{template=");
+    builder.append(template);
+    if (actorTypes != null && !actorTypes.isEmpty()) {
+      builder.append(", actorTypes=");
+      builder.append(actorTypes);
+    }
+    builder.append(", publish=");
+    builder.append(publish);
+    builder.append(", subscribe=");
+    builder.append(subscribe);
+    builder.append(", userTopicPrefix=");
+    builder.append(userTopicPrefix);
+    if (maxQos != null) {
+      builder.append(", maxQos=");
+      builder.append(maxQos);
+    }
+    builder.append("}");
+    return builder.toString();
+  }
+
+  /**
+   * Get the topic template.
+   * 
+   * @return the template
+   */
+  public String getTemplate() {
+    return template;
+  }
+
+  /**
+   * Set the topic template.
+   * 
+   * @param template
+   *        the template to set
+   */
+  public void setTemplate(String template) {
+    this.template = template;
+  }
+
+  /**
+   * Get the actor types the rule applies to.
+   * 
+   * @return the actor types, or {@literal null} for all actor types
+   */
+  public Set<ActorType> getActorTypes() {
+    return actorTypes;
+  }
+
+  /**
+   * Set the actor types the rule applies to.
+   * 
+   * @param actorTypes
+   *        the actor types to set, or {@literal null} or empty for all actor types
+   */
+  public void setActorTypes(Set<ActorType> actorTypes) {
+    this.actorTypes = actorTypes;
+  }
+
+  /**
+   * Get the publish mode.
+   * 
+   * @return {@literal true} if the rule applies to publish requests; defaults to {@literal true}
+   */
+  public boolean isPublish() {
+    return publish;
+  }
+
+  /**
+   * Set the publish mode.
+   * 
+   * @param publish
+   *        {@literal true} if the rule applies to publish requests
+   */
+  public void setPublish(boolean publish) {
+    this.publish = publish;
+  }
+
+  /**
+   * Get the subscribe mode.
+   * 
+   * @return {@literal true} if the rule applies to subscribe requests; defaults to
+   *         {@literal true}
+   */
+  public boolean isSubscribe() {
+    return subscribe;
+  }
+
+  /**
+   * Set the subscribe mode.
+   * 
+   * @param subscribe
+   *        {@literal true} if the rule applies to subscribe requests
+   */
+  public void setSubscribe(boolean subscribe) {
+    this.subscribe = subscribe;
+  }
+
+  /**
+   * Get the user topic prefix mode.
+   * 
+   * @return {@literal true} if matching topics without a <code>{userId}</code> level are
+   *         re-written with a <code>user/{userId}/</code> prefix
+   */
+  public boolean isUserTopicPrefix() {
+    return userTopicPrefix;
+  }
+
+  /**
+   * Set the user topic prefix mode.
+   * 
+   * <p>
+   * When enabled, matching topics without a <code>{userId}</code> level are re-written with a
+   * <code>user/{userId}/</code> prefix, using the actor's user ID. This must be enabled for a
+   * {@literal +} wildcard <code>{nodeId}</code> to be allowed.
+   * </p>
+   * 
+   * @param userTopicPrefix
+   *        {@literal true} to re-write topics with a user prefix
+   */
+  public void setUserTopicPrefix(boolean userTopicPrefix) {
+    this.userTopicPrefix = userTopicPrefix;
+  }
+
+  /**
+   * Get the maximum Qos.
+   * 
+   * @return the maximum Qos, or {@literal null} for no maximum
+   */
+  public Qos getMaxQos() {
+    return maxQos;
+  }
+
+  /**
+   * Set the maximum Qos.
+   * 
+   * @param maxQos
+   *        the maximum Qos to allow, or {@literal null} for no maximum
+   */
+  public void setMaxQos(Qos maxQos) {
+    this.maxQos = maxQos;
+  }
+
+}
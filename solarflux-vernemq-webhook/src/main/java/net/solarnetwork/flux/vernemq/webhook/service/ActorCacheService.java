@@ -0,0 +1,65 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service;
+
+import java.util.Map;
+
+/**
+ * API for inspecting and managing the caches of actors used for authorization.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public interface ActorCacheService {
+
+  /**
+   * Get statistics about the actor caches.
+   * 
+   * <p>
+   * The returned map is keyed by cache name, with values being a map of statistic names to values
+   * for that cache. The available statistics depend on the type of cache.
+   * </p>
+   * 
+   * @return the statistics, never {@literal null}
+   */
+  Map<String, Map<String, Object>> getActorCacheStatistics();
+
+  /**
+   * Evict the cached actor for a token.
+   * 
+   * @param tokenId
+   *        the token ID of the actor to evict
+   * @return {@literal true} if a cached actor was evicted
+   */
+  boolean evictTokenActor(String tokenId);
+
+  /**
+   * Evict the cached actor for a node.
+   * 
+   * @param nodeId
+   *        the node ID of the actor to evict
+   * @return {@literal true} if a cached actor was evicted
+   */
+  boolean evictNodeActor(Long nodeId);
+
+  /**
+   * Clear all cached actors and negative lookup results.
+   */
+  void clearActorCaches();
+
+}
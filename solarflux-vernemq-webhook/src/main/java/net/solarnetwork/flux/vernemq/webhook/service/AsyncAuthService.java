@@ -0,0 +1,67 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service;
+
+import java.util.concurrent.CompletionStage;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Response;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.PublishRequest;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.RegisterRequest;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.SubscribeRequest;
+
+/**
+ * Asynchronous API for webhook authorization.
+ * 
+ * <p>
+ * This API mirrors {@link AuthService}, but returns results as a {@link CompletionStage} so that
+ * callers do not have to block while the request is processed.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public interface AsyncAuthService {
+
+  /**
+   * Authenticate a register request.
+   * 
+   * @param request
+   *        the request to authenticate
+   * @return the response
+   */
+  CompletionStage<Response> authenticateRequest(RegisterRequest request);
+
+  /**
+   * Authorize a publish request.
+   * 
+   * @param request
+   *        the request to authorize
+   * @return the response
+   */
+  CompletionStage<Response> authorizeRequest(PublishRequest request);
+
+  /**
+   * Authorize a subscribe request.
+   * 
+   * @param request
+   *        the request to authorize
+   * @return the response
+   */
+  CompletionStage<Response> authorizeRequest(SubscribeRequest request);
+
+}
@@ -19,13 +19,14 @@ package net.solarnetwork.flux.vernemq.webhook.service;
 
 import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
 import net.solarnetwork.flux.vernemq.webhook.domain.Message;
+import net.solarnetwork.flux.vernemq.webhook.domain.PublishAuthorization;
 import net.solarnetwork.flux.vernemq.webhook.domain.TopicSettings;
 
 /**
  * Service to evaluate requests against security policies.
  * 
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public interface AuthorizationEvaluator {
 
@@ -65,4 +66,29 @@ public interface AuthorizationEvaluator {
    */
   String sourceIdForPublish(Actor actor, Message message);
 
+  /**
+   * Evaluate a request to publish to a topic, including the source ID of the resulting message.
+   * 
+   * <p>
+   * This default implementation calls {@link #evaluatePublish(Actor, Message)} and then
+   * {@link #sourceIdForPublish(Actor, Message)} on the result. Implementations are encouraged to
+   * provide a more efficient implementation that inspects the topic just once.
+   * </p>
+   * 
+   * @param actor
+   *        the authenticated actor
+   * @param message
+   *        the message to publish
+   * @return the authorization result; or {@literal null} if publishing is not authorized for any
+   *         reason
+   * @since 1.2
+   */
+  default PublishAuthorization authorizePublish(Actor actor, Message message) {
+    final Message result = evaluatePublish(actor, message);
+    if (result == null) {
+      return null;
+    }
+    return new PublishAuthorization(result, sourceIdForPublish(actor, result));
+  }
+
 }
@@ -0,0 +1,36 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service;
+
+/**
+ * API for a component that must finish starting up before the application is ready to handle
+ * requests.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public interface ReadinessCheck {
+
+  /**
+   * Test if the component is ready.
+   * 
+   * @return {@literal true} if the component is ready
+   */
+  boolean isReady();
+
+}
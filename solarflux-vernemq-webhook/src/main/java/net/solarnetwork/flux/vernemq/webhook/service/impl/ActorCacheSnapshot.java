@@ -0,0 +1,355 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+
+import net.solarnetwork.central.security.SecurityPolicy;
+import net.solarnetwork.central.support.JsonUtils;
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorDetails;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorType;
+import net.solarnetwork.flux.vernemq.webhook.domain.NodeIdSet;
+import net.solarnetwork.flux.vernemq.webhook.service.ReadinessCheck;
+
+/**
+ * Save and restore the actor near cache to a binary snapshot file.
+ * 
+ * <p>
+ * The snapshot is written when the application shuts down and restored when it starts up, so the
+ * actors cached by the previous instance do not all have to be loaded from the database again.
+ * Each actor is stored with its expiration date, and actors that have expired by the time the
+ * snapshot is restored are skipped. If the cache supports variable expiration, restored actors
+ * expire at the same time they would have in the previous instance.
+ * </p>
+ * 
+ * <p>
+ * The snapshot is restored on a background thread; {@link #isReady()} returns {@literal true}
+ * once that has finished, successfully or not.
+ * </p>
+ * 
+ * <p>
+ * Actors without a user ID cannot be restored, so they are not saved.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public class ActorCacheSnapshot implements ReadinessCheck {
+
+  /** A magic number to identify snapshot files. */
+  private static final int MAGIC = 0x534E4143;
+
+  /** The snapshot format version. */
+  private static final int VERSION = 1;
+
+  private static final int FLAG_TOKEN_ID = 1;
+  private static final int FLAG_ACTOR_TYPE = 1 << 1;
+  private static final int FLAG_PUBLISH_ALLOWED = 1 << 2;
+  private static final int FLAG_POLICY = 1 << 3;
+
+  private static final long NO_EXPIRATION = Long.MAX_VALUE;
+
+  private static final Logger log = LoggerFactory.getLogger(ActorCacheSnapshot.class);
+
+  private final Cache<String, Actor> cache;
+  private final Path path;
+  private SecurityPolicyDecoder policyDecoder = SecurityPolicyDecoder.defaultDecoder();
+  private volatile boolean ready;
+
+  /**
+   * Constructor.
+   * 
+   * @param cache
+   *        the cache to save and restore
+   * @param path
+   *        the snapshot file path
+   * @throws IllegalArgumentException
+   *         if any argument is {@literal null}
+   */
+  public ActorCacheSnapshot(Cache<String, Actor> cache, Path path) {
+    super();
+    if (cache == null) {
+      throw new IllegalArgumentException("cache must not be null");
+    }
+    this.cache = cache;
+    if (path == null) {
+      throw new IllegalArgumentException("path must not be null");
+    }
+    this.path = path;
+  }
+
+  /**
+   * Restore the snapshot on a background thread.
+   */
+  public void startup() {
+    Thread t = new Thread(() -> {
+      try {
+        int count = restore();
+        log.info("Restored {} actors from snapshot {}", count, path);
+      } catch (IOException | RuntimeException e) {
+        log.warn("Unable to restore actor cache snapshot {}: {}", path, e.toString());
+      } finally {
+        ready = true;
+      }
+    }, "ActorCacheSnapshot");
+    t.setDaemon(true);
+    t.start();
+  }
+
+  /**
+   * Save the snapshot.
+   */
+  public void shutdown() {
+    try {
+      int count = save();
+      log.info("Saved {} actors to snapshot {}", count, path);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Unable to save actor cache snapshot {}: {}", path, e.toString());
+    }
+  }
+
+  @Override
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Save the cached actors to the snapshot file.
+   * 
+   * <p>
+   * The snapshot is written to a temporary file first, and then moved to the snapshot path.
+   * </p>
+   * 
+   * @return the number of actors saved
+   * @throws IOException
+   *         if any IO error occurs
+   */
+  public int save() throws IOException {
+    final Path parent = path.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    final Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+    final Optional<Policy.VarExpiration<String, Actor>> varExpiration = cache.policy()
+        .expireVariably();
+    final Optional<Policy.Expiration<String, Actor>> fixedExpiration = cache.policy()
+        .expireAfterWrite();
+    final long now = System.currentTimeMillis();
+    int count = 0;
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      for (Map.Entry<String, Actor> e : cache.asMap().entrySet()) {
+        final long ttl = remainingMillis(e.getKey(), varExpiration, fixedExpiration);
+        if (ttl <= 0 || e.getValue().getUserId() == null) {
+          continue;
+        }
+        out.writeBoolean(true);
+        out.writeUTF(e.getKey());
+        out.writeLong(ttl == NO_EXPIRATION ? NO_EXPIRATION : now + ttl);
+        writeActor(out, e.getValue());
+        count++;
+      }
+      out.writeBoolean(false);
+    }
+    Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    return count;
+  }
+
+  private static long remainingMillis(String key,
+      Optional<Policy.VarExpiration<String, Actor>> varExpiration,
+      Optional<Policy.Expiration<String, Actor>> fixedExpiration) {
+    if (varExpiration.isPresent()) {
+      OptionalLong ttl = varExpiration.get().getExpiresAfter(key, TimeUnit.MILLISECONDS);
+      return (ttl.isPresent() ? ttl.getAsLong() : 0);
+    }
+    if (fixedExpiration.isPresent()) {
+      OptionalLong age = fixedExpiration.get().ageOf(key, TimeUnit.MILLISECONDS);
+      return (age.isPresent()
+          ? fixedExpiration.get().getExpiresAfter(TimeUnit.MILLISECONDS) - age.getAsLong()
+          : 0);
+    }
+    return NO_EXPIRATION;
+  }
+
+  /**
+   * Restore cached actors from the snapshot file.
+   * 
+   * <p>
+   * Actors that have expired are skipped, as are actors that are already cached.
+   * </p>
+   * 
+   * @return the number of actors restored
+   * @throws IOException
+   *         if any IO error occurs, or the file is not a valid snapshot
+   */
+  public int restore() throws IOException {
+    final Optional<Policy.VarExpiration<String, Actor>> varExpiration = cache.policy()
+        .expireVariably();
+    final Map<String, Actor> map = cache.asMap();
+    int count = 0;
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not an actor cache snapshot");
+      }
+      final int version = in.readUnsignedByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported actor cache snapshot version " + version);
+      }
+      while (in.readBoolean()) {
+        final String key = in.readUTF();
+        final long expires = in.readLong();
+        final Actor actor = readActor(in);
+        final long ttl = (expires == NO_EXPIRATION ? NO_EXPIRATION
+            : expires - System.currentTimeMillis());
+        if (ttl <= 0 || map.containsKey(key)) {
+          continue;
+        }
+        if (varExpiration.isPresent() && ttl != NO_EXPIRATION) {
+          varExpiration.get().put(key, actor, ttl, TimeUnit.MILLISECONDS);
+        } else {
+          map.putIfAbsent(key, actor);
+        }
+        count++;
+      }
+    } catch (NoSuchFileException e) {
+      log.info("Actor cache snapshot {} not found", path);
+    }
+    return count;
+  }
+
+  private static void writeActor(DataOutput out, Actor actor) throws IOException {
+    final SecurityPolicy policy = actor.getPolicy();
+    final String policyJson = (policy != null ? JsonUtils.getJSONString(policy, null) : null);
+    int flags = 0;
+    if (actor.getTokenId() != null) {
+      flags |= FLAG_TOKEN_ID;
+    }
+    if (actor.getActorType() != null) {
+      flags |= FLAG_ACTOR_TYPE;
+    }
+    if (actor.isPublishAllowed()) {
+      flags |= FLAG_PUBLISH_ALLOWED;
+    }
+    if (policyJson != null) {
+      flags |= FLAG_POLICY;
+    }
+    out.writeByte(flags);
+    if (actor.getTokenId() != null) {
+      out.writeUTF(actor.getTokenId());
+    }
+    if (actor.getActorType() != null) {
+      out.writeUTF(actor.getActorType().name());
+    }
+    out.writeLong(actor.getUserId());
+    if (policyJson != null) {
+      byte[] data = policyJson.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(data.length);
+      out.write(data);
+    }
+    final Set<Long> nodeIds = actor.getUserNodeIds();
+    out.writeInt(nodeIds != null ? nodeIds.size() : 0);
+    if (nodeIds != null) {
+      for (Long nodeId : nodeIds) {
+        out.writeLong(nodeId);
+      }
+    }
+  }
+
+  private Actor readActor(DataInput in) throws IOException {
+    final int flags = in.readUnsignedByte();
+    final String tokenId = ((flags & FLAG_TOKEN_ID) != 0 ? in.readUTF() : null);
+    final ActorType actorType = ((flags & FLAG_ACTOR_TYPE) != 0 ? ActorType.valueOf(in.readUTF())
+        : null);
+    final long userId = in.readLong();
+    SecurityPolicy policy = null;
+    if ((flags & FLAG_POLICY) != 0) {
+      byte[] data = new byte[in.readInt()];
+      in.readFully(data);
+      policy = policyDecoder.decode(new String(data, StandardCharsets.UTF_8));
+    }
+    final int nodeCount = in.readInt();
+    final long[] nodeIds = new long[nodeCount];
+    for (int i = 0; i < nodeCount; i++) {
+      nodeIds[i] = in.readLong();
+    }
+    return new ActorDetails(tokenId, actorType, (flags & FLAG_PUBLISH_ALLOWED) != 0, userId,
+        policy, NodeIdSet.of(nodeIds));
+  }
+
+  /**
+   * Get the snapshot file path.
+   * 
+   * @return the path
+   */
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * Get the security policy decoder.
+   * 
+   * @return the decoder; defaults to {@link SecurityPolicyDecoder#defaultDecoder()}
+   * @since 1.1
+   */
+  public SecurityPolicyDecoder getPolicyDecoder() {
+    return policyDecoder;
+  }
+
+  /**
+   * Set the security policy decoder used to decode restored policies.
+   * 
+   * @param policyDecoder
+   *        the decoder to use
+   * @throws IllegalArgumentException
+   *         if {@code policyDecoder} is {@literal null}
+   * @since 1.1
+   */
+  public void setPolicyDecoder(SecurityPolicyDecoder policyDecoder) {
+    if (policyDecoder == null) {
+      throw new IllegalArgumentException("policyDecoder must not be null");
+    }
+    this.policyDecoder = policyDecoder;
+  }
+
+}
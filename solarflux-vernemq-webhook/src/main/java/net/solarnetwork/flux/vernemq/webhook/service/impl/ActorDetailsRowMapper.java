@@ -20,25 +20,23 @@ package net.solarnetwork.flux.vernemq.webhook.service.impl;
 import java.sql.Array;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.Arrays;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.RowMapper;
 
-import net.solarnetwork.central.security.BasicSecurityPolicy;
 import net.solarnetwork.central.security.SecurityPolicy;
-import net.solarnetwork.central.support.JsonUtils;
 import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
 import net.solarnetwork.flux.vernemq.webhook.domain.ActorDetails;
 import net.solarnetwork.flux.vernemq.webhook.domain.ActorType;
+import net.solarnetwork.flux.vernemq.webhook.domain.NodeIdSet;
 
 /**
  * {@link RowMapper} for {@link ActorDetails}.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class ActorDetailsRowMapper implements RowMapper<Actor> {
 
@@ -64,6 +62,7 @@ public class ActorDetailsRowMapper implements RowMapper<Actor> {
 
   private static final Logger log = LoggerFactory.getLogger(ActorDetailsRowMapper.class);
 
+  private final SecurityPolicyDecoder policyDecoder;
   private final String tokenId;
   private final int userIdCol;
   private final int tokenTypeCol;
@@ -77,8 +76,21 @@ public class ActorDetailsRowMapper implements RowMapper<Actor> {
    *        the token ID
    */
   public ActorDetailsRowMapper(String tokenId) {
+    this(tokenId, SecurityPolicyDecoder.defaultDecoder());
+  }
+
+  /**
+   * Constructor with default column settings.
+   * 
+   * @param tokenId
+   *        the token ID
+   * @param policyDecoder
+   *        the policy decoder to use
+   * @since 1.1
+   */
+  public ActorDetailsRowMapper(String tokenId, SecurityPolicyDecoder policyDecoder) {
     this(tokenId, DEFAULT_USER_ID_COL, DEFAULT_TOKEN_TYPE_COL, DEFAULT_POLICY_COL,
-        DEFAULT_NODE_IDS_COL);
+        DEFAULT_NODE_IDS_COL, policyDecoder);
   }
 
   /**
@@ -97,7 +109,36 @@ public class ActorDetailsRowMapper implements RowMapper<Actor> {
    */
   public ActorDetailsRowMapper(String tokenId, int userIdCol, int tokenTypeCol, int policyCol,
       int nodeIdsCol) {
+    this(tokenId, userIdCol, tokenTypeCol, policyCol, nodeIdsCol,
+        SecurityPolicyDecoder.defaultDecoder());
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param tokenId
+   *        the token ID
+   * @param userIdCol
+   *        the JDBC column for the user ID
+   * @param tokenTypeCol
+   *        the JDBC column for the token type
+   * @param policyCol
+   *        the JDBC column for the policy
+   * @param nodeIdsCol
+   *        the JDBC column for the node IDs array
+   * @param policyDecoder
+   *        the policy decoder to use
+   * @throws IllegalArgumentException
+   *         if {@code policyDecoder} is {@literal null}
+   * @since 1.1
+   */
+  public ActorDetailsRowMapper(String tokenId, int userIdCol, int tokenTypeCol, int policyCol,
+      int nodeIdsCol, SecurityPolicyDecoder policyDecoder) {
     super();
+    if (policyDecoder == null) {
+      throw new IllegalArgumentException("policyDecoder must not be null");
+    }
+    this.policyDecoder = policyDecoder;
     this.tokenId = tokenId;
     this.userIdCol = userIdCol;
     this.tokenTypeCol = tokenTypeCol;
@@ -109,34 +150,28 @@ public class ActorDetailsRowMapper implements RowMapper<Actor> {
   public Actor mapRow(ResultSet rs, int rowNum) throws SQLException {
     Long userId = rs.getLong(userIdCol);
     String tokenType = rs.getString(tokenTypeCol);
-    String policyJson = rs.getString(policyCol);
-    SecurityPolicy policy = null;
-    if (policyJson != null) {
-      // note we use .central.support.JsonUtils and not .util.JsonUtils here because
-      // we don't want the Joda module used when parsing the epoch timestamps
-      policy = JsonUtils.getObjectFromJSON(policyJson, BasicSecurityPolicy.class);
-    }
+    SecurityPolicy policy = policyDecoder.decode(rs.getString(policyCol));
 
     ActorType actorType = ActorType.forValue(tokenType);
     boolean publishAllowed = (actorType == ActorType.Node);
 
-    Set<Long> nodeIds = null;
+    NodeIdSet nodeIds = null;
     Array dbNodeIds = rs.getArray(nodeIdsCol);
     if (dbNodeIds != null) {
       Object data = dbNodeIds.getArray();
       if (data != null && data.getClass().isArray()) {
         Object[] arrayData = (Object[]) data;
-        nodeIds = new LinkedHashSet<>(arrayData.length);
+        long[] ids = new long[arrayData.length];
+        int len = 0;
         for (int i = 0; i < arrayData.length; i++) {
           Object val = arrayData[i];
-          if (val instanceof Long) {
-            nodeIds.add((Long) val);
-          } else if (val instanceof Number) {
-            nodeIds.add(((Number) val).longValue());
+          if (val instanceof Number) {
+            ids[len++] = ((Number) val).longValue();
           } else {
             log.warn("Unexpected non-Number node ID array value returned from DB: [{}]", val);
           }
         }
+        nodeIds = NodeIdSet.of(len < ids.length ? Arrays.copyOf(ids, len) : ids);
       }
     }
 
@@ -0,0 +1,148 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import java.util.Collection;
+import java.util.Set;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import net.solarnetwork.central.security.SecurityPolicy;
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+import net.solarnetwork.flux.vernemq.webhook.domain.NodeIdSet;
+
+/**
+ * Weigh cached actors by their estimated heap size in bytes.
+ * 
+ * <p>
+ * The estimate assumes a 64-bit JVM with compressed object pointers, and counts the cache key,
+ * the actor, its node ID sets, and its security policy node IDs, source IDs, and aggregations.
+ * It is not exact, but grows in proportion to the actual size so that actors with large policies
+ * or many nodes are weighed accordingly. Shared {@link NodeIdSet} instances are counted in full for
+ * every actor that refers to them.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public class ActorWeigher implements Weigher<Object, Object> {
+
+  /** The estimated overhead of a cache entry, excluding the key and value. */
+  public static final int ENTRY_OVERHEAD = 64;
+
+  /** The estimated size of an actor, excluding its strings, sets, and policy. */
+  public static final int ACTOR_SIZE = 40;
+
+  /** The estimated size of a security policy, excluding its sets. */
+  public static final int POLICY_SIZE = 64;
+
+  /** The estimated size of an empty set. */
+  public static final int SET_SIZE = 48;
+
+  /** The estimated size of a set element, excluding the element value. */
+  public static final int SET_ELEMENT_SIZE = 32;
+
+  /** The estimated size of a {@code Long}. */
+  public static final int LONG_SIZE = 16;
+
+  /**
+   * The estimated size of an empty {@link NodeIdSet}.
+   * 
+   * @since 1.1
+   */
+  public static final int NODE_ID_SET_SIZE = 40;
+
+  /**
+   * The estimated size of a {@link NodeIdSet} element.
+   * 
+   * @since 1.1
+   */
+  public static final int NODE_ID_SIZE = 8;
+
+  /** The estimated size of an empty {@code String}. */
+  public static final int STRING_SIZE = 40;
+
+  @Override
+  public int weigh(Object key, Object value) {
+    long size = ENTRY_OVERHEAD;
+    if (key instanceof String) {
+      size += stringSize((String) key);
+    }
+    if (value instanceof Actor) {
+      size += actorSize((Actor) value);
+    }
+    return (int) Math.min(Integer.MAX_VALUE, size);
+  }
+
+  /**
+   * Estimate the heap size of an actor.
+   * 
+   * @param actor
+   *        the actor
+   * @return the estimated size, in bytes
+   */
+  public static long actorSize(Actor actor) {
+    if (actor == null) {
+      return 0;
+    }
+    long size = ACTOR_SIZE;
+    if (actor.getTokenId() != null) {
+      size += stringSize(actor.getTokenId());
+    }
+    size += longSetSize(actor.getUserNodeIds());
+    final SecurityPolicy policy = actor.getPolicy();
+    if (policy != null) {
+      size += POLICY_SIZE;
+      final Set<Long> policyNodeIds = policy.getNodeIds();
+      size += longSetSize(policyNodeIds);
+      final Set<Long> allowedNodeIds = actor.getAllowedNodeIds();
+      if (policyNodeIds != null && allowedNodeIds != null
+          && allowedNodeIds.size() < policyNodeIds.size()) {
+        // the allowed node IDs are a filtered copy of the policy node IDs
+        size += longSetSize(allowedNodeIds);
+      }
+      final Set<String> sourceIds = policy.getSourceIds();
+      if (sourceIds != null) {
+        size += SET_SIZE;
+        for (String sourceId : sourceIds) {
+          size += SET_ELEMENT_SIZE + stringSize(sourceId);
+        }
+      }
+      final Collection<?> aggregations = policy.getAggregations();
+      if (aggregations != null) {
+        size += SET_SIZE + (long) SET_ELEMENT_SIZE * aggregations.size();
+      }
+    }
+    return size;
+  }
+
+  private static long longSetSize(Set<Long> set) {
+    if (set == null) {
+      return 0;
+    }
+    if (set instanceof NodeIdSet) {
+      return NODE_ID_SET_SIZE + (long) NODE_ID_SIZE * set.size();
+    }
+    return SET_SIZE + (long) (SET_ELEMENT_SIZE + LONG_SIZE) * set.size();
+  }
+
+  private static long stringSize(String s) {
+    return (s != null ? STRING_SIZE + s.length() : 0);
+  }
+
+}
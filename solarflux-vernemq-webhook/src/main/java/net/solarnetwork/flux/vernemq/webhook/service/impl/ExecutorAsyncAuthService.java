@@ -0,0 +1,105 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Response;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.PublishRequest;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.RegisterRequest;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.SubscribeRequest;
+import net.solarnetwork.flux.vernemq.webhook.service.AsyncAuthService;
+import net.solarnetwork.flux.vernemq.webhook.service.AuthService;
+
+/**
+ * {@link AsyncAuthService} that runs a blocking {@link AuthService} on executors.
+ * 
+ * <p>
+ * Register requests are run on a different executor than publish and subscribe requests, so that
+ * slow register requests, which usually need to query the database, do not delay authorization
+ * requests that can often be answered from cached data.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ExecutorAsyncAuthService implements AsyncAuthService {
+
+  private final AuthService authService;
+  private final Executor registerExecutor;
+  private final Executor authorizeExecutor;
+
+  /**
+   * Constructor.
+   * 
+   * @param authService
+   *        the service to delegate to
+   * @param registerExecutor
+   *        the executor to run register requests on
+   * @param authorizeExecutor
+   *        the executor to run publish and subscribe requests on
+   * @throws IllegalArgumentException
+   *         if any argument is {@literal null}
+   */
+  public ExecutorAsyncAuthService(AuthService authService, Executor registerExecutor,
+      Executor authorizeExecutor) {
+    super();
+    if (authService == null) {
+      throw new IllegalArgumentException("authService must not be null");
+    }
+    if (registerExecutor == null) {
+      throw new IllegalArgumentException("registerExecutor must not be null");
+    }
+    if (authorizeExecutor == null) {
+      throw new IllegalArgumentException("authorizeExecutor must not be null");
+    }
+    this.authService = authService;
+    this.registerExecutor = registerExecutor;
+    this.authorizeExecutor = authorizeExecutor;
+  }
+
+  private static CompletionStage<Response> submit(Supplier<Response> task, Executor executor) {
+    try {
+      return CompletableFuture.supplyAsync(task, executor);
+    } catch (RejectedExecutionException e) {
+      CompletableFuture<Response> f = new CompletableFuture<>();
+      f.completeExceptionally(e);
+      return f;
+    }
+  }
+
+  @Override
+  public CompletionStage<Response> authenticateRequest(RegisterRequest request) {
+    return submit(() -> authService.authenticateRequest(request), registerExecutor);
+  }
+
+  @Override
+  public CompletionStage<Response> authorizeRequest(PublishRequest request) {
+    return submit(() -> authService.authorizeRequest(request), authorizeExecutor);
+  }
+
+  @Override
+  public CompletionStage<Response> authorizeRequest(SubscribeRequest request) {
+    return submit(() -> authService.authorizeRequest(request), authorizeExecutor);
+  }
+
+}
@@ -17,16 +17,21 @@
 
 package net.solarnetwork.flux.vernemq.webhook.service.impl;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.Clock;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -35,6 +40,9 @@ import java.util.regex.Pattern;
 
 import javax.sql.DataSource;
 
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,8 +60,34 @@ import net.solarnetwork.flux.vernemq.webhook.service.AuditService;
  * but has the potential to drop some count values if the service is restarted.
  * </p>
  * 
+ * <p>
+ * Published message counts are first added to a {@link NodeSourceCounters}, so that auditing a
+ * message does not allocate or contend with other threads. The writer thread drains these into the
+ * node source counters map before each flush.
+ * </p>
+ * 
+ * <p>
+ * The writer thread is created by a configurable {@link ThreadFactory}, so it can be run on a
+ * virtual thread, for example.
+ * </p>
+ * 
+ * <p>
+ * Updates are executed as JDBC batches of up to {@code batchSize} statements, each batch committed
+ * in its own transaction. If a batch fails, the counts in that batch are added back to the
+ * in-memory counters to be tried again.
+ * </p>
+ * 
+ * <p>
+ * Alternatively, when {@code copyEnabled} is {@literal true} the counts are streamed into a
+ * temporary staging table with the PostgreSQL {@code COPY} command, and then applied with a single
+ * statement. All counts are written in one transaction per flush, and if that fails all the counts
+ * are added back to the in-memory counters to be tried again. Note the default apply statement
+ * still calls the increment function once per staged row, so it saves round trips but is not a
+ * set-based update; see {@link #setNodeSourceCopyApplySql(String)}.
+ * </p>
+ * 
  * @author matt
- * @version 1.0
+ * @version 1.5
  */
 public class JdbcAuditService implements AuditService {
 
@@ -64,6 +98,13 @@ public class JdbcAuditService implements AuditService {
    */
   public static final long DEFAULT_UPDATE_DELAY = 100;
 
+  /**
+   * The default value for the {@code batchSize} property.
+   * 
+   * @since 1.3
+   */
+  public static final int DEFAULT_BATCH_SIZE = 100;
+
   /**
    * The default value for the {@code flushDelay} property.
    */
@@ -84,6 +125,32 @@ public class JdbcAuditService implements AuditService {
    */
   public static final String DEFAULT_NODE_SOURCE_INCREMENT_SQL = "{call solardatm.audit_increment_mqtt_publish_byte_count(?,?,?,?,?)}";
 
+  /**
+   * The default value for the {@code nodeSourceCopyTableSql} property.
+   * 
+   * @since 1.4
+   */
+  public static final String DEFAULT_NODE_SOURCE_COPY_TABLE_SQL = "CREATE TEMPORARY TABLE IF NOT EXISTS flux_audit_stage (service TEXT, node_id BIGINT, source_id TEXT, ts TIMESTAMP WITH TIME ZONE, bcount INTEGER) ON COMMIT DELETE ROWS";
+
+  /**
+   * The default value for the {@code nodeSourceCopySql} property.
+   * 
+   * @since 1.4
+   */
+  public static final String DEFAULT_NODE_SOURCE_COPY_SQL = "COPY flux_audit_stage (service, node_id, source_id, ts, bcount) FROM STDIN";
+
+  /**
+   * The default value for the {@code nodeSourceCopyApplySql} property.
+   * 
+   * <p>
+   * This calls the same function as {@link #DEFAULT_NODE_SOURCE_INCREMENT_SQL} once per staged
+   * row, because that function is the only audit update the database exposes.
+   * </p>
+   * 
+   * @since 1.4
+   */
+  public static final String DEFAULT_NODE_SOURCE_COPY_APPLY_SQL = "SELECT solardatm.audit_increment_mqtt_publish_byte_count(service, node_id, source_id, ts, bcount) FROM flux_audit_stage";
+
   /**
    * The default value for the {@link mqttServiceName} property.
    */
@@ -97,19 +164,32 @@ public class JdbcAuditService implements AuditService {
 
   // CHECKSTYLE ON: LineLength
 
+  /** The number of characters to buffer before writing {@code COPY} data. */
+  private static final int COPY_BUFFER_SIZE = 32 * 1024;
+
+  /** The {@code COPY} text format marker for a {@literal null} value. */
+  private static final String COPY_NULL = "\\N";
+
   private final Logger log = LoggerFactory.getLogger(getClass());
 
   private final DataSource dataSource;
   private final ConcurrentMap<NodeDatumStreamId, AtomicInteger> nodeSourceCounters;
+  private final NodeSourceCounters streamCounters;
   private final Clock clock;
   private final AtomicLong updateCount;
 
   private String mqttServiceName;
   private String nodeSourceIncrementSql;
+  private String nodeSourceCopyTableSql;
+  private String nodeSourceCopySql;
+  private String nodeSourceCopyApplySql;
   private int statLogUpdateCount;
 
-  private WriterThread writerThread;
+  private ThreadFactory writerThreadFactory = Thread::new;
+  private Writer writer;
   private long updateDelay;
+  private int batchSize;
+  private boolean copyEnabled;
   private long flushDelay;
   private long connectionRecoveryDelay;
 
@@ -152,19 +232,29 @@ public class JdbcAuditService implements AuditService {
       throw new IllegalArgumentException("The clock argument must not be null.");
     }
     this.clock = clock;
+    this.streamCounters = new NodeSourceCounters(clock);
     this.updateCount = new AtomicLong();
     setMqttServiceName(DEFAULT_AUDIT_MQTT_SERVICE_NAME);
     setConnectionRecoveryDelay(DEFAULT_CONNECTION_RECOVERY_DELAY);
     setFlushDelay(DEFAULT_FLUSH_DELAY);
     setUpdateDelay(DEFAULT_UPDATE_DELAY);
+    setBatchSize(DEFAULT_BATCH_SIZE);
     setNodeSourceIncrementSql(DEFAULT_NODE_SOURCE_INCREMENT_SQL);
+    setNodeSourceCopyTableSql(DEFAULT_NODE_SOURCE_COPY_TABLE_SQL);
+    setNodeSourceCopySql(DEFAULT_NODE_SOURCE_COPY_SQL);
+    setNodeSourceCopyApplySql(DEFAULT_NODE_SOURCE_COPY_APPLY_SQL);
     setStatLogUpdateCount(DEFAULT_STAT_LOG_UPDATE_COUNT);
   }
 
   @Override
   public void auditPublishMessage(Actor actor, Long nodeId, String sourceId, Message message) {
     final int byteCount = (message.getPayload() != null ? message.getPayload().length : 0);
-    if (byteCount > 0) {
+    if (byteCount < 1) {
+      return;
+    }
+    if (nodeId != null && sourceId != null) {
+      streamCounters.add(nodeId, sourceId, byteCount);
+    } else {
       addNodeSourceCount(
           new NodeDatumStreamId(nodeId, sourceId, clock.instant().truncatedTo(ChronoUnit.HOURS)),
           byteCount);
@@ -175,7 +265,7 @@ public class JdbcAuditService implements AuditService {
     nodeSourceCounters.computeIfAbsent(key, k -> new AtomicInteger(0)).addAndGet(count);
   }
 
-  private class WriterThread extends Thread {
+  private class Writer implements Runnable {
 
     private final AtomicBoolean keepGoingWithConnection = new AtomicBoolean(true);
     private final AtomicBoolean keepGoing = new AtomicBoolean(true);
@@ -200,7 +290,7 @@ public class JdbcAuditService implements AuditService {
 
     @Override
     public void run() {
-      log.info("Started JDBC audit writer thread {}", this);
+      log.info("Started JDBC audit writer thread {}", Thread.currentThread());
       while (keepGoing.get()) {
         keepGoingWithConnection.set(true);
         synchronized (this) {
@@ -223,17 +313,34 @@ public class JdbcAuditService implements AuditService {
     }
 
     private Boolean execute() throws SQLException {
+      final int batchSize = JdbcAuditService.this.batchSize;
+      final boolean copy = copyEnabled;
       try (Connection conn = dataSource.getConnection()) {
-        conn.setAutoCommit(true); // we want every execution of our loop to commit immediately
-        PreparedStatement stmt = isCallableStatement(nodeSourceIncrementSql)
-            ? conn.prepareCall(nodeSourceIncrementSql)
-            : conn.prepareStatement(nodeSourceIncrementSql);
+        // we want every statement, or every batch, to commit immediately
+        conn.setAutoCommit(!copy && batchSize < 2);
+        final CopyManager copyManager;
+        final Statement stmt;
+        if (copy) {
+          copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+          stmt = conn.createStatement();
+          stmt.execute(nodeSourceCopyTableSql);
+          conn.commit();
+        } else {
+          copyManager = null;
+          stmt = isCallableStatement(nodeSourceIncrementSql)
+              ? conn.prepareCall(nodeSourceIncrementSql)
+              : conn.prepareStatement(nodeSourceIncrementSql);
+        }
         do {
           try {
             if (Thread.interrupted()) {
               throw new InterruptedException();
             }
-            flushNodeSourceData(stmt);
+            if (copyManager != null) {
+              copyNodeSourceData(conn, copyManager, stmt);
+            } else {
+              flushNodeSourceData(conn, (PreparedStatement) stmt, batchSize);
+            }
             Thread.sleep(flushDelay);
           } catch (InterruptedException e) {
             log.info("Writer thread interrupted: exiting now.");
@@ -246,20 +353,28 @@ public class JdbcAuditService implements AuditService {
 
   }
 
-  private void flushNodeSourceData(PreparedStatement stmt)
+  private void flushNodeSourceData(Connection conn, PreparedStatement stmt, int batchSize)
       throws SQLException, InterruptedException {
-    for (Iterator<Map.Entry<NodeDatumStreamId, AtomicInteger>> itr = nodeSourceCounters.entrySet()
-        .iterator(); itr.hasNext();) {
-      Map.Entry<NodeDatumStreamId, AtomicInteger> me = itr.next();
-      NodeDatumStreamId key = me.getKey();
-      AtomicInteger counter = me.getValue();
-      final int count = counter.getAndSet(0);
-      if (count < 1) {
-        // clean out stale 0 valued counter
-        itr.remove();
-        continue;
-      }
-      try {
+    streamCounters.drainTo(this::addNodeSourceCount);
+    // the keys and counts in the current batch, to add back if the batch fails
+    final NodeDatumStreamId[] batchKeys = new NodeDatumStreamId[batchSize];
+    final int[] batchCounts = new int[batchSize];
+    int batchLen = 0;
+    try {
+      for (Iterator<Map.Entry<NodeDatumStreamId, AtomicInteger>> itr = nodeSourceCounters
+          .entrySet().iterator(); itr.hasNext();) {
+        Map.Entry<NodeDatumStreamId, AtomicInteger> me = itr.next();
+        NodeDatumStreamId key = me.getKey();
+        AtomicInteger counter = me.getValue();
+        final int count = counter.getAndSet(0);
+        if (count < 1) {
+          // clean out stale 0 valued counter
+          itr.remove();
+          continue;
+        }
+        batchKeys[batchLen] = key;
+        batchCounts[batchLen] = count;
+        batchLen++;
         if (log.isTraceEnabled()) {
           log.trace("Incrementing node {} source {} @ {} byte count by {}", key.getNodeId(),
               key.getSourceId(), key.getTimestamp(), count);
@@ -269,28 +384,178 @@ public class JdbcAuditService implements AuditService {
         stmt.setString(3, key.getSourceId());
         stmt.setTimestamp(4, new java.sql.Timestamp(key.getTimestamp().toEpochMilli()));
         stmt.setInt(5, count);
-        stmt.execute();
-        long currUpdateCount = updateCount.incrementAndGet();
-        if (statLogUpdateCount > 0 && currUpdateCount % statLogUpdateCount == 0) {
-          log.info("Updated {} node source byte count records", currUpdateCount);
+        if (batchSize < 2) {
+          stmt.execute();
+        } else {
+          stmt.addBatch();
+        }
+        if (batchLen == batchSize) {
+          executeBatch(conn, stmt, batchSize, batchLen);
+          batchLen = 0;
+          if (updateDelay > 0) {
+            Thread.sleep(updateDelay);
+          }
+        }
+      }
+      if (batchLen > 0) {
+        executeBatch(conn, stmt, batchSize, batchLen);
+        batchLen = 0;
+      }
+    } catch (SQLException | InterruptedException e) {
+      rollbackBatch(conn, stmt, batchSize, batchKeys, batchCounts, batchLen, e);
+      throw e;
+    } catch (Exception e) {
+      rollbackBatch(conn, stmt, batchSize, batchKeys, batchCounts, batchLen, e);
+      RuntimeException re;
+      if (e instanceof RuntimeException) {
+        re = (RuntimeException) e;
+      } else {
+        re = new RuntimeException("Exception flushing node source audit data", e);
+      }
+      throw re;
+    }
+  }
+
+  private void executeBatch(Connection conn, Statement stmt, int batchSize, int batchLen)
+      throws SQLException {
+    if (batchSize > 1) {
+      stmt.executeBatch();
+      conn.commit();
+    }
+    addUpdateCount(batchLen);
+  }
+
+  private void addUpdateCount(int count) {
+    final long currUpdateCount = updateCount.addAndGet(count);
+    final int logCount = statLogUpdateCount;
+    if (logCount > 0 && currUpdateCount / logCount != (currUpdateCount - count) / logCount) {
+      log.info("Updated {} node source byte count records", currUpdateCount);
+    }
+  }
+
+  private void rollbackBatch(Connection conn, Statement stmt, int batchSize,
+      NodeDatumStreamId[] batchKeys, int[] batchCounts, int batchLen, Exception cause) {
+    if (batchSize > 1 && batchLen > 0) {
+      try {
+        stmt.clearBatch();
+        conn.rollback();
+      } catch (SQLException e) {
+        cause.addSuppressed(e);
+      }
+    }
+    for (int i = 0; i < batchLen; i++) {
+      addNodeSourceCount(batchKeys[i], batchCounts[i]);
+    }
+  }
+
+  private void copyNodeSourceData(Connection conn, CopyManager copyManager, Statement stmt)
+      throws SQLException {
+    streamCounters.drainTo(this::addNodeSourceCount);
+    // the keys and counts copied, to add back if the copy fails
+    NodeDatumStreamId[] keys = new NodeDatumStreamId[Math.max(16, nodeSourceCounters.size())];
+    int[] counts = new int[keys.length];
+    int len = 0;
+    CopyIn copyIn = null;
+    try {
+      final StringBuilder buf = new StringBuilder(COPY_BUFFER_SIZE + 256);
+      for (Iterator<Map.Entry<NodeDatumStreamId, AtomicInteger>> itr = nodeSourceCounters
+          .entrySet().iterator(); itr.hasNext();) {
+        Map.Entry<NodeDatumStreamId, AtomicInteger> me = itr.next();
+        NodeDatumStreamId key = me.getKey();
+        AtomicInteger counter = me.getValue();
+        final int count = counter.getAndSet(0);
+        if (count < 1) {
+          // clean out stale 0 valued counter
+          itr.remove();
+          continue;
+        }
+        if (len == keys.length) {
+          keys = Arrays.copyOf(keys, len * 2);
+          counts = Arrays.copyOf(counts, len * 2);
+        }
+        keys[len] = key;
+        counts[len] = count;
+        len++;
+        if (log.isTraceEnabled()) {
+          log.trace("Incrementing node {} source {} @ {} byte count by {}", key.getNodeId(),
+              key.getSourceId(), key.getTimestamp(), count);
         }
-        if (updateDelay > 0) {
-          Thread.sleep(updateDelay);
+        if (copyIn == null) {
+          copyIn = copyManager.copyIn(nodeSourceCopySql);
         }
-      } catch (SQLException | InterruptedException e) {
-        addNodeSourceCount(key, count);
-        throw e;
-      } catch (Exception e) {
-        addNodeSourceCount(key, count);
-        RuntimeException re;
-        if (e instanceof RuntimeException) {
-          re = (RuntimeException) e;
+        appendCopyText(buf, mqttServiceName).append('\t');
+        if (key.getNodeId() != null) {
+          buf.append(key.getNodeId().longValue());
         } else {
-          re = new RuntimeException("Exception flushing node source audit data", e);
+          buf.append(COPY_NULL);
         }
-        throw re;
+        appendCopyText(buf.append('\t'), key.getSourceId()).append('\t').append(key.getTimestamp())
+            .append('\t').append(count).append('\n');
+        if (buf.length() >= COPY_BUFFER_SIZE) {
+          writeToCopy(copyIn, buf);
+        }
+      }
+      if (copyIn == null) {
+        return;
+      }
+      writeToCopy(copyIn, buf);
+      copyIn.endCopy();
+      copyIn = null;
+      if (stmt.execute(nodeSourceCopyApplySql)) {
+        // discard the results of a SELECT statement
+        stmt.getResultSet().close();
       }
+      conn.commit();
+      addUpdateCount(len);
+    } catch (SQLException | RuntimeException e) {
+      try {
+        if (copyIn != null && copyIn.isActive()) {
+          copyIn.cancelCopy();
+        }
+        conn.rollback();
+      } catch (SQLException e2) {
+        e.addSuppressed(e2);
+      }
+      for (int i = 0; i < len; i++) {
+        addNodeSourceCount(keys[i], counts[i]);
+      }
+      throw e;
+    }
+  }
+
+  private static StringBuilder appendCopyText(StringBuilder buf, String s) {
+    if (s == null) {
+      return buf.append(COPY_NULL);
     }
+    for (int i = 0, len = s.length(); i < len; i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '\\':
+          buf.append("\\\\");
+          break;
+        case '\t':
+          buf.append("\\t");
+          break;
+        case '\n':
+          buf.append("\\n");
+          break;
+        case '\r':
+          buf.append("\\r");
+          break;
+        default:
+          buf.append(c);
+      }
+    }
+    return buf;
+  }
+
+  private static void writeToCopy(CopyIn copyIn, StringBuilder buf) throws SQLException {
+    if (buf.length() < 1) {
+      return;
+    }
+    byte[] data = buf.toString().getBytes(UTF_8);
+    copyIn.writeToCopy(data, 0, data.length);
+    buf.setLength(0);
   }
 
   private boolean isCallableStatement(String sql) {
@@ -302,8 +567,8 @@ public class JdbcAuditService implements AuditService {
    * Cause the writing thread to re-connect to the database with a new connection.
    */
   public synchronized void reconnectWriter() {
-    if (writerThread != null && writerThread.isGoing()) {
-      writerThread.reconnect();
+    if (writer != null && writer.isGoing()) {
+      writer.reconnect();
     }
   }
 
@@ -311,14 +576,15 @@ public class JdbcAuditService implements AuditService {
    * Enable writing, and wait until the writing thread is going.
    */
   public synchronized void enableWriting() {
-    if (writerThread == null || !writerThread.isGoing()) {
-      writerThread = new WriterThread();
+    if (writer == null || !writer.isGoing()) {
+      writer = new Writer();
+      Thread writerThread = writerThreadFactory.newThread(writer);
       writerThread.setName("JdbcMqttAuditorWriter");
-      synchronized (writerThread) {
+      synchronized (writer) {
         writerThread.start();
-        while (!writerThread.hasStarted()) {
+        while (!writer.hasStarted()) {
           try {
-            writerThread.wait(5000L);
+            writer.wait(5000L);
           } catch (InterruptedException e) {
             // ignore
           }
@@ -331,8 +597,8 @@ public class JdbcAuditService implements AuditService {
    * Disable writing.
    */
   public synchronized void disableWriting() {
-    if (writerThread != null) {
-      writerThread.exit();
+    if (writer != null) {
+      writer.exit();
     }
   }
 
@@ -382,8 +648,8 @@ public class JdbcAuditService implements AuditService {
   }
 
   /**
-   * Set the delay, in milliseconds, to wait after executing JDBC statements within a loop before
-   * executing another statement.
+   * Set the delay, in milliseconds, to wait after executing a batch of JDBC statements within a
+   * loop before executing another batch.
    * 
    * @param updateDelay
    *        the delay, in milliseconds; defaults t[ {@link #DEFAULT_UPDATE_DELAY}
@@ -394,6 +660,30 @@ public class JdbcAuditService implements AuditService {
     this.updateDelay = updateDelay;
   }
 
+  /**
+   * Set the maximum number of JDBC statements to execute in a single batch.
+   * 
+   * <p>
+   * Setting this to {@literal 1} executes every statement individually, without a transaction.
+   * </p>
+   * 
+   * @param batchSize
+   *        the batch size; defaults to {@link #DEFAULT_BATCH_SIZE}
+   * @throws IllegalArgumentException
+   *         if {@code batchSize} is &lt; 1
+   * @since 1.3
+   */
+  public void setBatchSize(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be >= 1");
+    }
+    if (batchSize == this.batchSize) {
+      return;
+    }
+    this.batchSize = batchSize;
+    reconnectWriter();
+  }
+
   /**
    * The JDBC statement to execute for incrementing a count for a single date, node, and source.
    * 
@@ -423,6 +713,100 @@ public class JdbcAuditService implements AuditService {
     reconnectWriter();
   }
 
+  /**
+   * Set the JDBC statement to execute to create the {@code COPY} staging table.
+   * 
+   * <p>
+   * This statement is executed once per connection when {@code copyEnabled} is {@literal true}. The
+   * table must be emptied when each transaction is committed, for example by creating a temporary
+   * table with {@code ON COMMIT DELETE ROWS}.
+   * </p>
+   * 
+   * @param sql
+   *        the SQL statement to use; defaults to {@link #DEFAULT_NODE_SOURCE_COPY_TABLE_SQL}
+   * @since 1.4
+   */
+  public void setNodeSourceCopyTableSql(String sql) {
+    if (sql == null) {
+      throw new IllegalArgumentException("nodeSourceCopyTableSql must not be null");
+    }
+    if (sql.equals(nodeSourceCopyTableSql)) {
+      return;
+    }
+    this.nodeSourceCopyTableSql = sql;
+    reconnectWriter();
+  }
+
+  /**
+   * Set the {@code COPY FROM STDIN} statement to load the staging table with.
+   * 
+   * <p>
+   * The statement must accept text format rows with the following columns:
+   * </p>
+   * 
+   * <ol>
+   * <li>string - the MQTT service name</li>
+   * <li>long - the node ID</li>
+   * <li>string - the source ID</li>
+   * <li>timestamp - the audit date, in ISO 8601 UTC form</li>
+   * <li>integer - the query count</li>
+   * </ol>
+   * 
+   * @param sql
+   *        the SQL statement to use; defaults to {@link #DEFAULT_NODE_SOURCE_COPY_SQL}
+   * @since 1.4
+   */
+  public void setNodeSourceCopySql(String sql) {
+    if (sql == null) {
+      throw new IllegalArgumentException("nodeSourceCopySql must not be null");
+    }
+    this.nodeSourceCopySql = sql;
+  }
+
+  /**
+   * Set the JDBC statement to apply the counts loaded into the staging table with.
+   * 
+   * <p>
+   * The default statement invokes the same function as
+   * {@link #DEFAULT_NODE_SOURCE_INCREMENT_SQL} for every staged row, in a single statement. That
+   * saves a round trip per count but still updates the audit table one row at a time. Where the
+   * audit table can be updated directly, a set-based statement such as an
+   * {@code INSERT ... SELECT ... ON CONFLICT} can be configured instead. If the statement returns
+   * results, they are discarded.
+   * </p>
+   * 
+   * @param sql
+   *        the SQL statement to use; defaults to {@link #DEFAULT_NODE_SOURCE_COPY_APPLY_SQL}
+   * @since 1.4
+   */
+  public void setNodeSourceCopyApplySql(String sql) {
+    if (sql == null) {
+      throw new IllegalArgumentException("nodeSourceCopyApplySql must not be null");
+    }
+    this.nodeSourceCopyApplySql = sql;
+  }
+
+  /**
+   * Set the {@code COPY} mode flag.
+   * 
+   * <p>
+   * When enabled, counts are loaded into a staging table with {@code COPY} and then applied with a
+   * single statement, instead of executing one statement per count. This requires a PostgreSQL
+   * connection.
+   * </p>
+   * 
+   * @param copyEnabled
+   *        {@literal true} to write counts with {@code COPY}
+   * @since 1.4
+   */
+  public void setCopyEnabled(boolean copyEnabled) {
+    if (copyEnabled == this.copyEnabled) {
+      return;
+    }
+    this.copyEnabled = copyEnabled;
+    reconnectWriter();
+  }
+
   /**
    * Set the statistic log update count.
    * 
@@ -440,4 +824,34 @@ public class JdbcAuditService implements AuditService {
     this.statLogUpdateCount = statLogUpdateCount;
   }
 
+  /**
+   * Get the number of node source count records updated in the database.
+   * 
+   * @return the update count
+   * @since 1.5
+   */
+  public long getUpdateCount() {
+    return updateCount.get();
+  }
+
+  /**
+   * Set the thread factory to create the writer thread with.
+   * 
+   * <p>
+   * This only affects writer threads started after this method is called.
+   * </p>
+   * 
+   * @param writerThreadFactory
+   *        the thread factory to use; defaults to creating platform threads
+   * @throws IllegalArgumentException
+   *         if {@code writerThreadFactory} is {@literal null}
+   * @since 1.2
+   */
+  public void setWriterThreadFactory(ThreadFactory writerThreadFactory) {
+    if (writerThreadFactory == null) {
+      throw new IllegalArgumentException("writerThreadFactory must not be null");
+    }
+    this.writerThreadFactory = writerThreadFactory;
+  }
+
 }
@@ -28,21 +28,35 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 import javax.cache.Cache;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.github.veqryn.net.Cidr4;
 
 import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
 import net.solarnetwork.flux.vernemq.webhook.domain.Message;
+import net.solarnetwork.flux.vernemq.webhook.domain.PublishAuthorization;
 import net.solarnetwork.flux.vernemq.webhook.domain.Response;
 import net.solarnetwork.flux.vernemq.webhook.domain.ResponseStatus;
 import net.solarnetwork.flux.vernemq.webhook.domain.TopicSettings;
@@ -51,9 +65,12 @@ import net.solarnetwork.flux.vernemq.webhook.domain.v311.PublishRequest;
 import net.solarnetwork.flux.vernemq.webhook.domain.v311.RegisterModifiers;
 import net.solarnetwork.flux.vernemq.webhook.domain.v311.RegisterRequest;
 import net.solarnetwork.flux.vernemq.webhook.domain.v311.SubscribeRequest;
+import net.solarnetwork.flux.vernemq.webhook.service.ActorCacheService;
 import net.solarnetwork.flux.vernemq.webhook.service.AuditService;
 import net.solarnetwork.flux.vernemq.webhook.service.AuthService;
 import net.solarnetwork.flux.vernemq.webhook.service.AuthorizationEvaluator;
+import net.solarnetwork.flux.vernemq.webhook.util.JCacheStatistics;
+import net.solarnetwork.flux.vernemq.webhook.util.SingleFlightLoader;
 import net.solarnetwork.web.security.AuthenticationUtils;
 import net.solarnetwork.web.security.AuthorizationV2Builder;
 
@@ -66,10 +83,65 @@ import net.solarnetwork.web.security.AuthorizationV2Builder;
  * {@link #authorizeRequest(PublishRequest)} for details.
  * </p>
  * 
+ * <p>
+ * An optional "negative" cache can be configured via {@link #setNegativeCache(Cache)}, which will
+ * be used to remember failed actor lookups and failed authentication attempts so that repeated
+ * failures do not need to query the database.
+ * </p>
+ * 
+ * <p>
+ * An optional "verified token" cache can be configured via {@link #setVerifiedTokenCache(Cache)},
+ * which will be used to remember successful token authentication results for identical credentials
+ * so that clients reconnecting with the same credentials do not need to be verified by the database
+ * again. The request date is part of the cached credentials, so cached results are only used while
+ * the request date falls within the configured {@code maxDateSkew}.
+ * </p>
+ * 
+ * <p>
+ * If {@link #setLocalSignatureVerification(boolean)} is enabled then token signatures will be
+ * verified by this service rather than the database, using token signing details loaded via
+ * {@link #getTokenSigningDetailsCall()} and cached in the cache configured via
+ * {@link #setTokenSigningCache(Cache)}. The signing details can be loaded in bulk ahead of time by
+ * calling {@link #preloadTokenSigningDetails()}.
+ * </p>
+ * 
+ * <p>
+ * Concurrent actor lookups for the same token or node that miss the actor cache are coalesced
+ * into a single database query, the result of which is shared by all the waiting callers. If a
+ * {@link NodeActorBatchLoader} is configured, lookups for different nodes are further collected
+ * into batches resolved with one query each.
+ * </p>
+ * 
+ * <p>
+ * An optional in-process near cache can be configured in front of the actor cache via
+ * {@link #setActorNearCacheBuilder(Caffeine)}. The near cache refreshes frequently used actors in
+ * the background before they expire, so callers do not have to wait for them to be reloaded.
+ * </p>
+ * 
+ * <p>
+ * If a {@link NodeOwnershipIndex} is configured, node actors are resolved from that index without
+ * querying the database, falling back to the normal lookup for nodes not in the index. Evicting a
+ * node actor also removes the node from the index, and clearing the actor caches clears the index
+ * until it is next refreshed.
+ * </p>
+ * 
+ * <p>
+ * If a stale actor cache is configured via {@link #setStaleActorCacheBuilder(Caffeine)}, actors
+ * loaded from the database are also kept in that cache for longer than the normal actor cache
+ * time. If the database cannot be queried, the actor from the stale cache is used instead, so
+ * that clients can continue to be authorized during short database outages. Policy expiration
+ * dates are still enforced on stale actors.
+ * </p>
+ * 
+ * <p>
+ * The {@link ActorCacheService} API provides statistics about the configured actor caches, and
+ * allows evicting individual actors or clearing the caches entirely.
+ * </p>
+ * 
  * @author matt
- * @version 1.2
+ * @version 1.3
  */
-public class JdbcAuthService implements AuthService {
+public class JdbcAuthService implements AuthService, ActorCacheService {
 
   /**
    * The password token for the signature value.
@@ -116,6 +188,20 @@ public class JdbcAuthService implements AuthService {
    */
   public static final String DEFAULT_AUTHORIZE_CALL = "SELECT user_id,token_type,jpolicy,node_ids FROM solaruser.user_auth_token_node_ids WHERE auth_token = ?";
 
+  /**
+   * The default value for the {@code tokenSigningDetailsCall} property.
+   * 
+   * @since 1.3
+   */
+  public static final String DEFAULT_TOKEN_SIGNING_DETAILS_CALL = "SELECT auth_token,auth_secret,user_id,token_type,jpolicy FROM solaruser.user_auth_token WHERE status = 'Active'::solaruser.user_auth_token_status AND auth_token = ?";
+
+  /**
+   * The default value for the {@code tokenSigningDetailsPreloadCall} property.
+   * 
+   * @since 1.3
+   */
+  public static final String DEFAULT_TOKEN_SIGNING_DETAILS_PRELOAD_CALL = "SELECT auth_token,auth_secret,user_id,token_type,jpolicy FROM solaruser.user_auth_token WHERE status = 'Active'::solaruser.user_auth_token_status";
+
   // CHECKSTYLE ON: LineLength
 
   /**
@@ -142,6 +228,9 @@ public class JdbcAuthService implements AuthService {
 
   private static final Logger log = LoggerFactory.getLogger(JdbcAuthService.class);
 
+  private static final String NODE_CACHE_KEY_PREFIX = "Node-";
+  private static final String TOKEN_CACHE_KEY_PREFIX = "Token-";
+
   private final JdbcOperations jdbcOps;
   private final AuthorizationEvaluator authEvaluator;
   private final Pattern directTokenSecretRegex;
@@ -149,15 +238,34 @@ public class JdbcAuthService implements AuthService {
   private String authenticateCall = DEFAULT_AUTHENTICATE_CALL;
   private String authorizeNodeCall = DEFAULT_AUTHORIZE_NODE_CALL;
   private String authorizeCall = DEFAULT_AUTHORIZE_CALL;
+  private String tokenSigningDetailsCall = DEFAULT_TOKEN_SIGNING_DETAILS_CALL;
+  private String tokenSigningDetailsPreloadCall = DEFAULT_TOKEN_SIGNING_DETAILS_PRELOAD_CALL;
   private String snHost = DEFAULT_SN_HOST;
   private String snPath = DEFAULT_SN_PATH;
   private long maxDateSkew = DEFAULT_MAX_DATE_SKEW;
   private boolean forceCleanSession = false;
   private String publishUsername = DEFAULT_PUBLISH_USERNAME;
   private Cache<String, Actor> actorCache;
+  private Cache<String, Boolean> negativeCache;
+  private Cache<String, SnTokenDetails> verifiedTokenCache;
+  private Cache<String, SnTokenSigningDetails> tokenSigningCache;
   private Cidr4 ipMask = null;
   private boolean requireTokenClientIdPrefix = true;
   private boolean allowDirectTokenAuthentication = false;
+  private boolean localSignatureVerification = false;
+
+  private final AtomicLong negativeCacheHits = new AtomicLong();
+  private final AtomicLong negativeCacheMisses = new AtomicLong();
+  private final SingleFlightLoader<String, Actor> actorLoader = new SingleFlightLoader<>();
+  private final LongAdder actorQueryCount = new LongAdder();
+  private final LongAdder actorQueryTime = new LongAdder();
+  private LoadingCache<String, Actor> actorNearCache;
+  private NodeActorBatchLoader nodeActorBatchLoader;
+  private NodeOwnershipIndex nodeOwnershipIndex;
+  private NodeActorCache nodeActorCache;
+  private ConcurrentMap<String, Actor> staleActors;
+  private final LongAdder staleActorHits = new LongAdder();
+  private SecurityPolicyDecoder policyDecoder = SecurityPolicyDecoder.defaultDecoder();
 
   /**
    * Constructor.
@@ -322,8 +430,46 @@ public class JdbcAuthService implements AuthService {
       return new Response(ResponseStatus.NEXT);
     }
 
-    log.debug("Authenticating [{}] @ {}{} with [{}]", tokenId, snHost, snPath,
-        pwTokens.get(SIGNATURE_PASSWORD_TOKEN));
+    final String authCacheKey = authenticationCacheKey(tokenId, reqDate, sig);
+    SnTokenDetails details = verifiedTokenCacheGet(authCacheKey);
+    final boolean cached = (details != null);
+    if (!cached) {
+      if (isNegativeCached(authCacheKey)) {
+        AUDIT_LOG.info("Access denied to [{}]: previously failed authentication", tokenId);
+        return new Response(ResponseStatus.NEXT);
+      }
+      details = verifyTokenCredentials(tokenId, reqDate, sig);
+      if (details == null) {
+        negativeCachePut(authCacheKey);
+        return new Response(ResponseStatus.NEXT);
+      }
+    }
+
+    // verify not expired
+    if (details.getPolicy() != null && !details.getPolicy().isValidAt(currentTimeMillis())) {
+      return new Response(ResponseStatus.NEXT);
+    }
+
+    if (!cached) {
+      verifiedTokenCachePut(authCacheKey, details);
+    }
+
+    // request is authenticated
+    AUDIT_LOG.info("Authenticated [{}] client [{}] @ {}{}", tokenId, request.getClientId(), snHost,
+        snPath);
+    if (forceCleanSession
+        && (request.getCleanSession() == null || !request.getCleanSession().booleanValue())) {
+      return new Response(RegisterModifiers.builder().withCleanSession(true).build());
+    }
+    return new Response();
+  }
+
+  private SnTokenDetails verifyTokenCredentials(final String tokenId, final long reqDate,
+      final String sig) {
+    if (localSignatureVerification) {
+      return verifyTokenCredentialsLocally(tokenId, reqDate, sig);
+    }
+    log.debug("Authenticating [{}] @ {}{} with [{}]", tokenId, snHost, snPath, sig);
     List<SnTokenDetails> results = jdbcOps.query(new PreparedStatementCreator() {
 
       @Override
@@ -337,26 +483,77 @@ public class JdbcAuthService implements AuthService {
         stmt.setString(5, sig);
         return stmt;
       }
-    }, new SnTokenDetailsRowMapper(tokenId));
+    }, new SnTokenDetailsRowMapper(tokenId, policyDecoder));
 
-    if (results == null || results.isEmpty()) {
-      return new Response(ResponseStatus.NEXT);
+    return (results != null && !results.isEmpty() ? results.get(0) : null);
+  }
+
+  private SnTokenDetails verifyTokenCredentialsLocally(final String tokenId, final long reqDate,
+      final String sig) {
+    SnTokenSigningDetails signingDetails = tokenSigningDetails(tokenId);
+    if (signingDetails == null) {
+      return null;
     }
+    log.debug("Verifying [{}] @ {}{} with [{}]", tokenId, snHost, snPath, sig);
+    return (signingDetails.verify(reqDate, snHost, snPath, sig) ? signingDetails.getTokenDetails()
+        : null);
+  }
 
-    // verify not expired
-    SnTokenDetails details = results.get(0);
-    if (details.getPolicy() != null && !details.getPolicy().isValidAt(currentTimeMillis())) {
-      return new Response(ResponseStatus.NEXT);
+  private SnTokenSigningDetails tokenSigningDetails(final String tokenId) {
+    final Cache<String, SnTokenSigningDetails> cache = getTokenSigningCache();
+    if (cache != null) {
+      SnTokenSigningDetails details = cache.get(tokenId);
+      if (details != null) {
+        return details;
+      }
     }
+    List<SnTokenSigningDetails> results = jdbcOps.query(new PreparedStatementCreator() {
 
-    // request is authenticated
-    AUDIT_LOG.info("Authenticated [{}] client [{}] @ {}{}", tokenId, request.getClientId(), snHost,
-        snPath);
-    if (forceCleanSession
-        && (request.getCleanSession() == null || !request.getCleanSession().booleanValue())) {
-      return new Response(RegisterModifiers.builder().withCleanSession(true).build());
+      @Override
+      public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+        PreparedStatement stmt = con.prepareStatement(tokenSigningDetailsCall,
+            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setString(1, tokenId);
+        return stmt;
+      }
+    }, new SnTokenSigningDetailsRowMapper(policyDecoder));
+    if (results != null && !results.isEmpty()) {
+      SnTokenSigningDetails details = results.get(0);
+      if (cache != null) {
+        cache.put(tokenId, details);
+      }
+      return details;
     }
-    return new Response();
+    return null;
+  }
+
+  /**
+   * Load all available token signing details into the configured token signing cache.
+   * 
+   * <p>
+   * This method executes the {@link #getTokenSigningDetailsPreloadCall()} query and caches all
+   * returned results, so that subsequent local signature verification does not need to query the
+   * database. If no token signing cache is configured, this method does nothing.
+   * </p>
+   * 
+   * @return the number of token signing details loaded
+   * @since 1.3
+   */
+  public int preloadTokenSigningDetails() {
+    final Cache<String, SnTokenSigningDetails> cache = getTokenSigningCache();
+    if (cache == null) {
+      return 0;
+    }
+    List<SnTokenSigningDetails> results = jdbcOps.query(tokenSigningDetailsPreloadCall,
+        new SnTokenSigningDetailsRowMapper(policyDecoder));
+    if (results == null) {
+      return 0;
+    }
+    for (SnTokenSigningDetails details : results) {
+      cache.put(details.getTokenId(), details);
+    }
+    log.info("Loaded {} token signing details", results.size());
+    return results.size();
   }
 
   private Map<String, String> signTokenCredentials(final String tokenId, final String tokenSecret) {
@@ -371,6 +568,18 @@ public class JdbcAuthService implements AuthService {
   }
 
   private Actor actorForTokenId(String tokenId) {
+    try {
+      final LoadingCache<String, Actor> nearCache = getActorNearCache();
+      if (nearCache != null && tokenId != null) {
+        return nearCache.get(cacheKeyForTokenId(tokenId));
+      }
+      return cachedActorForTokenId(tokenId);
+    } catch (DataAccessException e) {
+      return staleActor(cacheKeyForTokenId(tokenId), e);
+    }
+  }
+
+  private Actor cachedActorForTokenId(String tokenId) {
     final Cache<String, Actor> cache = getActorCache();
     final String actorCacheKey = cacheKeyForTokenId(tokenId);
     if (cache != null && actorCacheKey != null) {
@@ -379,6 +588,13 @@ public class JdbcAuthService implements AuthService {
         return actor;
       }
     }
+    if (isNegativeCached(actorCacheKey)) {
+      return null;
+    }
+    return loadActor(actorCacheKey, () -> queryActorForTokenId(tokenId));
+  }
+
+  private Actor queryActorForTokenId(String tokenId) {
     List<Actor> results = jdbcOps.query(new PreparedStatementCreator() {
 
       @Override
@@ -388,19 +604,79 @@ public class JdbcAuthService implements AuthService {
         stmt.setString(1, tokenId);
         return stmt;
       }
-    }, new ActorDetailsRowMapper(tokenId));
+    }, new ActorDetailsRowMapper(tokenId, policyDecoder));
+    return (results != null && !results.isEmpty() ? results.get(0) : null);
+  }
 
-    if (results != null && !results.isEmpty()) {
-      Actor actor = results.get(0);
-      if (cache != null && actorCacheKey != null) {
-        cache.put(actorCacheKey, actor);
+  private Actor actorForNodeId(long nodeId) {
+    final NodeOwnershipIndex index = getNodeOwnershipIndex();
+    if (index != null) {
+      final Actor actor = index.actorForNode(nodeId);
+      if (actor != null) {
+        return actor;
       }
-      return actor;
     }
-    return null;
+    final NodeActorCache nodeCache = getNodeActorCache();
+    if (nodeCache != null) {
+      Actor actor = nodeCache.get(nodeId);
+      if (actor != null) {
+        return actor;
+      }
+    }
+    // only box the node ID once the primitive keyed lookups have missed
+    final Long boxedNodeId = nodeId;
+    final LoadingCache<String, Actor> nearCache = getActorNearCache();
+    final Actor actor;
+    try {
+      if (nearCache != null) {
+        actor = nearCache.get(cacheKeyForNode(boxedNodeId));
+      } else {
+        actor = cachedActorForNodeId(boxedNodeId);
+      }
+    } catch (DataAccessException e) {
+      return staleActor(cacheKeyForNode(boxedNodeId), e);
+    }
+    if (nodeCache != null && actor != null) {
+      nodeCache.put(nodeId, actor);
+    }
+    return actor;
+  }
+
+  /**
+   * Get a stale actor after a database error.
+   * 
+   * @param actorCacheKey
+   *        the actor cache key
+   * @param e
+   *        the database error
+   * @return the stale actor
+   * @throws DataAccessException
+   *         {@code e} if no stale actor is available
+   */
+  private Actor staleActor(String actorCacheKey, DataAccessException e) {
+    final Map<String, Actor> stale = this.staleActors;
+    final Actor actor = (stale != null && actorCacheKey != null ? stale.get(actorCacheKey) : null);
+    if (actor == null) {
+      throw e;
+    }
+    staleActorHits.increment();
+    log.warn("Using stale actor [{}] after database error: {}", actorCacheKey, e.toString());
+    return actor;
   }
 
-  private Actor actorForNodeId(Long nodeId) {
+  private void stalePut(String actorCacheKey, Actor actor) {
+    final Map<String, Actor> stale = this.staleActors;
+    if (stale == null || actorCacheKey == null) {
+      return;
+    }
+    if (actor != null) {
+      stale.put(actorCacheKey, actor);
+    } else {
+      stale.remove(actorCacheKey);
+    }
+  }
+
+  private Actor cachedActorForNodeId(Long nodeId) {
     final Cache<String, Actor> cache = getActorCache();
     final String actorCacheKey = cacheKeyForNode(nodeId);
     if (cache != null && actorCacheKey != null) {
@@ -409,6 +685,17 @@ public class JdbcAuthService implements AuthService {
         return actor;
       }
     }
+    if (isNegativeCached(actorCacheKey)) {
+      return null;
+    }
+    return loadActor(actorCacheKey, () -> queryActorForNodeId(nodeId));
+  }
+
+  private Actor queryActorForNodeId(Long nodeId) {
+    final NodeActorBatchLoader batchLoader = getNodeActorBatchLoader();
+    if (batchLoader != null) {
+      return batchLoader.load(nodeId);
+    }
     List<Actor> results = jdbcOps.query(new PreparedStatementCreator() {
 
       @Override
@@ -419,29 +706,165 @@ public class JdbcAuthService implements AuthService {
         return stmt;
       }
     }, new ActorDetailsRowMapper(null));
+    return (results != null && !results.isEmpty() ? results.get(0) : null);
+  }
 
-    if (results != null && !results.isEmpty()) {
-      Actor actor = results.get(0);
-      if (cache != null && actorCacheKey != null) {
-        cache.put(actorCacheKey, actor);
+  /**
+   * Load an actor, coalescing concurrent loads of the same actor into a single query.
+   * 
+   * @param actorCacheKey
+   *        the actor cache key
+   * @param query
+   *        the query to load the actor from the database
+   * @return the actor, or {@literal null} if not found
+   */
+  private Actor loadActor(String actorCacheKey, Supplier<Actor> query) {
+    return actorLoader.load(actorCacheKey, k -> {
+      final Cache<String, Actor> cache = getActorCache();
+      // another thread might have just finished loading this actor
+      Actor actor = (cache != null ? cache.get(k) : null);
+      if (actor != null) {
+        return actor;
+      }
+      actor = timedQuery(query);
+      stalePut(k, actor);
+      if (actor == null) {
+        negativeCachePut(k);
+      } else if (cache != null) {
+        cache.put(k, actor);
       }
       return actor;
+    });
+  }
+
+  /**
+   * Refresh an actor from the database, updating the actor cache.
+   * 
+   * @param actorCacheKey
+   *        the actor cache key
+   * @param query
+   *        the query to load the actor from the database
+   * @return the actor, or {@literal null} if not found
+   */
+  private Actor refreshActor(String actorCacheKey, Supplier<Actor> query) {
+    final Actor actor = timedQuery(query);
+    stalePut(actorCacheKey, actor);
+    final Cache<String, Actor> cache = getActorCache();
+    if (actor == null) {
+      if (cache != null) {
+        cache.remove(actorCacheKey);
+      }
+      negativeCachePut(actorCacheKey);
+    } else if (cache != null) {
+      cache.put(actorCacheKey, actor);
     }
-    return null;
+    return actor;
+  }
+
+  private Actor timedQuery(Supplier<Actor> query) {
+    final long start = System.nanoTime();
+    try {
+      return query.get();
+    } finally {
+      actorQueryTime.add(System.nanoTime() - start);
+      actorQueryCount.increment();
+    }
+  }
+
+  /**
+   * Loader for the actor near cache.
+   * 
+   * <p>
+   * Initial loads go through the actor cache, while refreshes always query the database so that
+   * the refreshed actor is current.
+   * </p>
+   */
+  private final class ActorNearCacheLoader implements CacheLoader<String, Actor> {
+
+    @Override
+    public Actor load(String key) throws Exception {
+      if (key.startsWith(NODE_CACHE_KEY_PREFIX)) {
+        return cachedActorForNodeId(Long.valueOf(key.substring(NODE_CACHE_KEY_PREFIX.length())));
+      }
+      return cachedActorForTokenId(key.substring(TOKEN_CACHE_KEY_PREFIX.length()));
+    }
+
+    @Override
+    public Actor reload(String key, Actor oldValue) throws Exception {
+      if (key.startsWith(NODE_CACHE_KEY_PREFIX)) {
+        final Long nodeId = Long.valueOf(key.substring(NODE_CACHE_KEY_PREFIX.length()));
+        final Actor actor = refreshActor(key, () -> queryActorForNodeId(nodeId));
+        final NodeActorCache nodeCache = getNodeActorCache();
+        if (nodeCache != null) {
+          if (actor != null) {
+            nodeCache.put(nodeId, actor);
+          } else {
+            nodeCache.remove(nodeId);
+          }
+        }
+        return actor;
+      }
+      final String tokenId = key.substring(TOKEN_CACHE_KEY_PREFIX.length());
+      return refreshActor(key, () -> queryActorForTokenId(tokenId));
+    }
+
   }
 
   private String cacheKeyForNode(Long nodeId) {
     if (nodeId == null) {
       return null;
     }
-    return "Node-" + nodeId;
+    return NODE_CACHE_KEY_PREFIX + nodeId;
   }
 
   private String cacheKeyForTokenId(String tokenId) {
     if (tokenId == null) {
       return null;
     }
-    return "Token-" + tokenId;
+    return TOKEN_CACHE_KEY_PREFIX + tokenId;
+  }
+
+  private String authenticationCacheKey(String tokenId, long reqDate, String sig) {
+    return authenticationCacheKeyPrefix(tokenId) + reqDate + "-" + sig;
+  }
+
+  private static String authenticationCacheKeyPrefix(String tokenId) {
+    return "Auth-" + tokenId + "-";
+  }
+
+  private SnTokenDetails verifiedTokenCacheGet(String key) {
+    final Cache<String, SnTokenDetails> cache = getVerifiedTokenCache();
+    if (cache == null) {
+      return null;
+    }
+    return cache.get(key);
+  }
+
+  private void verifiedTokenCachePut(String key, SnTokenDetails details) {
+    final Cache<String, SnTokenDetails> cache = getVerifiedTokenCache();
+    if (cache != null) {
+      cache.put(key, details);
+    }
+  }
+
+  private boolean isNegativeCached(String key) {
+    final Cache<String, Boolean> cache = getNegativeCache();
+    if (cache == null || key == null) {
+      return false;
+    }
+    if (cache.get(key) != null) {
+      negativeCacheHits.incrementAndGet();
+      return true;
+    }
+    negativeCacheMisses.incrementAndGet();
+    return false;
+  }
+
+  private void negativeCachePut(String key) {
+    final Cache<String, Boolean> cache = getNegativeCache();
+    if (cache != null && key != null) {
+      cache.put(key, Boolean.TRUE);
+    }
   }
 
   /**
@@ -459,9 +882,9 @@ public class JdbcAuthService implements AuthService {
       return new Response(ResponseStatus.NEXT);
     }
     final String clientId = request.getClientId();
-    final Long nodeId;
+    final long nodeId;
     try {
-      nodeId = Long.valueOf(clientId);
+      nodeId = Long.parseLong(clientId);
     } catch (NumberFormatException e) {
       return new Response(ResponseStatus.NEXT);
     }
@@ -477,13 +900,13 @@ public class JdbcAuthService implements AuthService {
       return new Response(ResponseStatus.NEXT);
     }
 
-    Message result = authEvaluator.evaluatePublish(actor, request);
+    final PublishAuthorization auth = authEvaluator.authorizePublish(actor, request);
+    final Message result = (auth != null ? auth.getMessage() : null);
     if (result == null) {
       return new Response(ResponseStatus.NEXT);
     }
 
-    auditService.auditPublishMessage(actor, nodeId, authEvaluator.sourceIdForPublish(actor, result),
-        result);
+    auditService.auditPublishMessage(actor, nodeId, auth.getSourceId(), result);
 
     if (result == request) {
       return new Response();
@@ -821,6 +1244,422 @@ public class JdbcAuthService implements AuthService {
     this.actorCache = actorCache;
   }
 
+  /**
+   * Get the configured negative cache.
+   * 
+   * @return the negative cache
+   * @since 1.3
+   */
+  public Cache<String, Boolean> getNegativeCache() {
+    return negativeCache;
+  }
+
+  /**
+   * Configure a negative cache.
+   * 
+   * <p>
+   * When configured, actor lookups that do not find a match and authentication attempts that fail
+   * signature verification will be remembered in this cache, and subsequent identical requests will
+   * be denied without querying the database until the cache entry expires.
+   * </p>
+   * 
+   * @param negativeCache
+   *        the cache to use for failed lookups
+   * @since 1.3
+   */
+  public void setNegativeCache(Cache<String, Boolean> negativeCache) {
+    this.negativeCache = negativeCache;
+  }
+
+  /**
+   * Get the configured verified token cache.
+   * 
+   * @return the verified token cache
+   * @since 1.3
+   */
+  public Cache<String, SnTokenDetails> getVerifiedTokenCache() {
+    return verifiedTokenCache;
+  }
+
+  /**
+   * Configure a verified token cache.
+   * 
+   * <p>
+   * When configured, successful token authentication results will be remembered in this cache,
+   * keyed by the token ID, request date, and signature. Subsequent authentication attempts with
+   * identical credentials will then be authenticated without querying the database, as long as the
+   * request date is still within the configured {@code maxDateSkew} and the token policy has not
+   * expired. Entries in this cache should thus not need to be kept longer than
+   * {@code maxDateSkew}.
+   * </p>
+   * 
+   * @param verifiedTokenCache
+   *        the cache to use for verified token details
+   * @since 1.3
+   */
+  public void setVerifiedTokenCache(Cache<String, SnTokenDetails> verifiedTokenCache) {
+    this.verifiedTokenCache = verifiedTokenCache;
+  }
+
+  /**
+   * Get the configured token signing cache.
+   * 
+   * @return the token signing cache
+   * @since 1.3
+   */
+  public Cache<String, SnTokenSigningDetails> getTokenSigningCache() {
+    return tokenSigningCache;
+  }
+
+  /**
+   * Configure a token signing cache.
+   * 
+   * <p>
+   * This cache is used when {@code localSignatureVerification} is enabled, to hold token signing
+   * details keyed by token ID. Entries should expire after a reasonable amount of time so that
+   * changes to tokens, such as being disabled, are picked up.
+   * </p>
+   * 
+   * @param tokenSigningCache
+   *        the cache to use for token signing details
+   * @since 1.3
+   */
+  public void setTokenSigningCache(Cache<String, SnTokenSigningDetails> tokenSigningCache) {
+    this.tokenSigningCache = tokenSigningCache;
+  }
+
+  /**
+   * Get the local signature verification mode.
+   * 
+   * @return {@literal true} if token signatures are verified by this service rather than the
+   *         database; defaults to {@literal false}
+   * @since 1.3
+   */
+  public boolean isLocalSignatureVerification() {
+    return localSignatureVerification;
+  }
+
+  /**
+   * Set the local signature verification mode.
+   * 
+   * <p>
+   * When enabled, token signing details (including the token secret) are loaded from the database
+   * via {@link #getTokenSigningDetailsCall()} and token signatures are then verified by this
+   * service, instead of passing the signature to the database for verification via
+   * {@link #getAuthenticateCall()}.
+   * </p>
+   * 
+   * @param localSignatureVerification
+   *        {@literal true} to verify token signatures locally
+   * @since 1.3
+   */
+  public void setLocalSignatureVerification(boolean localSignatureVerification) {
+    this.localSignatureVerification = localSignatureVerification;
+  }
+
+  /**
+   * Get the token signing details JDBC call.
+   * 
+   * @return the JDBC call; defaults to {@link #DEFAULT_TOKEN_SIGNING_DETAILS_CALL}
+   * @since 1.3
+   */
+  public String getTokenSigningDetailsCall() {
+    return tokenSigningDetailsCall;
+  }
+
+  /**
+   * Set the token signing details JDBC call to use.
+   * 
+   * <p>
+   * This JDBC statement is used to load token signing details when
+   * {@code localSignatureVerification} is enabled. This JDBC statement is expected to take the
+   * following parameters:
+   * </p>
+   * 
+   * <ol>
+   * <li><b>token_id</b> ({@code String}) - the SolarNetwork security token ID</li>
+   * </ol>
+   * 
+   * <p>
+   * If an active token is available for {@code token_id}, a result set with the following columns
+   * is expected to be returned:
+   * </p>
+   * 
+   * <ol>
+   * <li><b>auth_token</b> ({@code String}) - the SolarNetwork security token ID</li>
+   * <li><b>auth_secret</b> ({@code String}) - the SolarNetwork security token secret</li>
+   * <li><b>user_id</b> ({@code Long}) - the SolarNetwork user ID that owns the token</li>
+   * <li><b>token_type</b> ({@code String}) - the SolarNetwork token type, e.g.
+   * {@literal ReadNodeData}</li>
+   * <li><b>jpolicy</b> ({@code String}) - the SolarNetwork security policy associated with the
+   * token</li>
+   * </ol>
+   * 
+   * @param jdbcCall
+   *        the JDBC call
+   * @throws IllegalArgumentException
+   *         if {@code jdbcCall} is {@literal null}
+   * @since 1.3
+   */
+  public void setTokenSigningDetailsCall(String jdbcCall) {
+    if (jdbcCall == null) {
+      throw new IllegalArgumentException("jdbcCall must not be null");
+    }
+    this.tokenSigningDetailsCall = jdbcCall;
+  }
+
+  /**
+   * Get the token signing details preload JDBC call.
+   * 
+   * @return the JDBC call; defaults to {@link #DEFAULT_TOKEN_SIGNING_DETAILS_PRELOAD_CALL}
+   * @since 1.3
+   */
+  public String getTokenSigningDetailsPreloadCall() {
+    return tokenSigningDetailsPreloadCall;
+  }
+
+  /**
+   * Set the token signing details preload JDBC call to use.
+   * 
+   * <p>
+   * This JDBC statement is used by {@link #preloadTokenSigningDetails()}. It takes no parameters
+   * and must return the same columns as described in {@link #setTokenSigningDetailsCall(String)},
+   * for all active tokens.
+   * </p>
+   * 
+   * @param jdbcCall
+   *        the JDBC call
+   * @throws IllegalArgumentException
+   *         if {@code jdbcCall} is {@literal null}
+   * @since 1.3
+   */
+  public void setTokenSigningDetailsPreloadCall(String jdbcCall) {
+    if (jdbcCall == null) {
+      throw new IllegalArgumentException("jdbcCall must not be null");
+    }
+    this.tokenSigningDetailsPreloadCall = jdbcCall;
+  }
+
+  /**
+   * Get the number of actor lookups that were satisfied by sharing another concurrent lookup.
+   * 
+   * @return the shared actor lookup count
+   * @since 1.3
+   */
+  public long getSharedActorLookupCount() {
+    return actorLoader.getSharedCount();
+  }
+
+  /**
+   * Get the number of negative cache hits.
+   * 
+   * @return the number of lookups answered by the negative cache
+   * @since 1.3
+   */
+  public long getNegativeCacheHits() {
+    return negativeCacheHits.get();
+  }
+
+  /**
+   * Get the number of negative cache misses.
+   * 
+   * @return the number of lookups not found in the negative cache
+   * @since 1.3
+   */
+  public long getNegativeCacheMisses() {
+    return negativeCacheMisses.get();
+  }
+
+  @Override
+  public Map<String, Map<String, Object>> getActorCacheStatistics() {
+    final Map<String, Map<String, Object>> result = new LinkedHashMap<>(8);
+
+    final long queryCount = actorQueryCount.sum();
+    final Map<String, Object> loader = new LinkedHashMap<>(8);
+    loader.put("loads", queryCount);
+    loader.put("averageLoadTime", queryCount > 0
+        ? TimeUnit.NANOSECONDS.toMicros(actorQueryTime.sum()) / (float) queryCount
+        : 0f);
+    loader.put("sharedLoads", actorLoader.getSharedCount());
+    loader.put("inFlight", actorLoader.getInFlightCount());
+    final NodeActorBatchLoader batchLoader = getNodeActorBatchLoader();
+    if (batchLoader != null) {
+      loader.put("batches", batchLoader.getBatchCount());
+      loader.put("batchLoads", batchLoader.getLoadCount());
+    }
+    result.put("loader", loader);
+
+    final Cache<String, Actor> cache = getActorCache();
+    if (cache != null) {
+      result.put("actor", JCacheStatistics.statistics(cache));
+    }
+
+    final LoadingCache<String, Actor> nearCache = getActorNearCache();
+    if (nearCache != null) {
+      final CacheStats stats = nearCache.stats();
+      final Map<String, Object> near = new LinkedHashMap<>(8);
+      near.put("gets", stats.requestCount());
+      near.put("hits", stats.hitCount());
+      near.put("misses", stats.missCount());
+      near.put("hitPercentage", (float) (stats.hitRate() * 100));
+      near.put("evictions", stats.evictionCount());
+      near.put("loads", stats.loadCount());
+      near.put("loadFailures", stats.loadFailureCount());
+      near.put("averageLoadTime",
+          (float) (stats.averageLoadPenalty() / TimeUnit.MICROSECONDS.toNanos(1)));
+      near.put("size", nearCache.estimatedSize());
+      nearCache.policy().eviction().filter(e -> e.isWeighted()).ifPresent(e -> {
+        near.put("weightedSize", e.weightedSize().orElse(0));
+        near.put("maximumWeight", e.getMaximum());
+      });
+      result.put("near", near);
+    }
+
+    final NodeActorCache nodeCache = getNodeActorCache();
+    if (nodeCache != null) {
+      final Map<String, Object> node = new LinkedHashMap<>(4);
+      node.put("hits", nodeCache.getHitCount());
+      node.put("misses", nodeCache.getMissCount());
+      node.put("capacity", nodeCache.getCapacity());
+      node.put("size", nodeCache.size());
+      result.put("node", node);
+    }
+
+    final Map<String, Actor> stale = this.staleActors;
+    if (stale != null) {
+      final Map<String, Object> staleStats = new LinkedHashMap<>(2);
+      staleStats.put("hits", staleActorHits.sum());
+      staleStats.put("size", stale.size());
+      result.put("stale", staleStats);
+    }
+
+    final SecurityPolicyDecoder decoder = this.policyDecoder;
+    final Map<String, Object> policy = new LinkedHashMap<>(3);
+    policy.put("hits", decoder.getHitCount());
+    policy.put("misses", decoder.getMissCount());
+    policy.put("size", decoder.size());
+    result.put("policy", policy);
+
+    if (authEvaluator instanceof SimpleAuthorizationEvaluator) {
+      final SimpleAuthorizationEvaluator evaluator = (SimpleAuthorizationEvaluator) authEvaluator;
+      final Map<String, Object> decision = new LinkedHashMap<>(3);
+      decision.put("hits", evaluator.getDecisionCacheHits());
+      decision.put("misses", evaluator.getDecisionCacheMisses());
+      decision.put("size", evaluator.getDecisionCacheSize());
+      result.put("decision", decision);
+    }
+
+    final Cache<String, Boolean> negCache = getNegativeCache();
+    if (negCache != null) {
+      final Map<String, Object> negative = JCacheStatistics.statistics(negCache);
+      negative.put("lookupHits", getNegativeCacheHits());
+      negative.put("lookupMisses", getNegativeCacheMisses());
+      result.put("negative", negative);
+    }
+    return result;
+  }
+
+  @Override
+  public boolean evictTokenActor(String tokenId) {
+    if (tokenId == null) {
+      return false;
+    }
+    boolean result = evictActor(cacheKeyForTokenId(tokenId));
+    final Cache<String, SnTokenSigningDetails> signingCache = getTokenSigningCache();
+    if (signingCache != null) {
+      result |= signingCache.remove(tokenId);
+    }
+    result |= evictVerifiedToken(tokenId);
+    return result;
+  }
+
+  private boolean evictVerifiedToken(String tokenId) {
+    final Cache<String, SnTokenDetails> cache = getVerifiedTokenCache();
+    if (cache == null) {
+      return false;
+    }
+    // verified token keys include the request date and signature, so find them by prefix
+    final String prefix = authenticationCacheKeyPrefix(tokenId);
+    final Set<String> keys = new HashSet<>(8);
+    for (Cache.Entry<String, SnTokenDetails> entry : cache) {
+      if (entry != null && entry.getKey().startsWith(prefix)) {
+        keys.add(entry.getKey());
+      }
+    }
+    if (keys.isEmpty()) {
+      return false;
+    }
+    cache.removeAll(keys);
+    log.info("Evicted {} verified authentications for token [{}]", keys.size(), tokenId);
+    return true;
+  }
+
+  @Override
+  public boolean evictNodeActor(Long nodeId) {
+    if (nodeId == null) {
+      return false;
+    }
+    final NodeOwnershipIndex index = getNodeOwnershipIndex();
+    boolean result = (index != null && index.remove(nodeId));
+    final NodeActorCache nodeCache = getNodeActorCache();
+    result |= (nodeCache != null && nodeCache.remove(nodeId));
+    result |= evictActor(cacheKeyForNode(nodeId));
+    return result;
+  }
+
+  private boolean evictActor(String actorCacheKey) {
+    boolean result = false;
+    final LoadingCache<String, Actor> nearCache = getActorNearCache();
+    if (nearCache != null) {
+      result = (nearCache.asMap().remove(actorCacheKey) != null);
+    }
+    final Cache<String, Actor> cache = getActorCache();
+    if (cache != null) {
+      result |= cache.remove(actorCacheKey);
+    }
+    final Cache<String, Boolean> negCache = getNegativeCache();
+    if (negCache != null) {
+      result |= negCache.remove(actorCacheKey);
+    }
+    final Map<String, Actor> stale = this.staleActors;
+    if (stale != null) {
+      result |= (stale.remove(actorCacheKey) != null);
+    }
+    if (result) {
+      log.info("Evicted cached actor [{}]", actorCacheKey);
+    }
+    return result;
+  }
+
+  @Override
+  public void clearActorCaches() {
+    final NodeOwnershipIndex index = getNodeOwnershipIndex();
+    if (index != null) {
+      index.clear();
+    }
+    final NodeActorCache nodeCache = getNodeActorCache();
+    if (nodeCache != null) {
+      nodeCache.clear();
+    }
+    final LoadingCache<String, Actor> nearCache = getActorNearCache();
+    if (nearCache != null) {
+      nearCache.invalidateAll();
+    }
+    final Cache<String, Actor> cache = getActorCache();
+    if (cache != null) {
+      cache.clear();
+    }
+    final Cache<String, Boolean> negCache = getNegativeCache();
+    if (negCache != null) {
+      negCache.clear();
+    }
+    final Map<String, Actor> stale = this.staleActors;
+    if (stale != null) {
+      stale.clear();
+    }
+    log.info("Cleared actor caches");
+  }
+
   /**
    * Get the IP address mask for node authentication.
    * 
@@ -901,4 +1740,172 @@ public class JdbcAuthService implements AuthService {
     this.allowDirectTokenAuthentication = allowDirectTokenAuthentication;
   }
 
+  /**
+   * Get the node actor batch loader.
+   * 
+   * @return the batch loader, or {@literal null} if node actors are loaded individually
+   * @since 1.3
+   */
+  public NodeActorBatchLoader getNodeActorBatchLoader() {
+    return nodeActorBatchLoader;
+  }
+
+  /**
+   * Configure a node actor batch loader.
+   * 
+   * <p>
+   * When configured, node actor lookups that miss the actor cache are loaded through this loader
+   * so that many concurrent node lookups can be resolved with a single query, rather than using
+   * {@code authorizeNodeCall} once per node.
+   * </p>
+   * 
+   * @param nodeActorBatchLoader
+   *        the batch loader to use, or {@literal null} to load node actors individually
+   * @since 1.3
+   */
+  public void setNodeActorBatchLoader(NodeActorBatchLoader nodeActorBatchLoader) {
+    this.nodeActorBatchLoader = nodeActorBatchLoader;
+  }
+
+  /**
+   * Get the node ownership index.
+   * 
+   * @return the index, or {@literal null} if not configured
+   * @since 1.3
+   */
+  public NodeOwnershipIndex getNodeOwnershipIndex() {
+    return nodeOwnershipIndex;
+  }
+
+  /**
+   * Configure a node ownership index.
+   * 
+   * <p>
+   * When configured, node authorization and publish requests for nodes in the index are resolved
+   * without using the actor cache or the database.
+   * </p>
+   * 
+   * @param nodeOwnershipIndex
+   *        the index to use, or {@literal null} to always look up node actors
+   * @since 1.3
+   */
+  public void setNodeOwnershipIndex(NodeOwnershipIndex nodeOwnershipIndex) {
+    this.nodeOwnershipIndex = nodeOwnershipIndex;
+  }
+
+  /**
+   * Get the actor near cache.
+   * 
+   * @return the near cache, or {@literal null} if not configured
+   * @since 1.3
+   */
+  public LoadingCache<String, Actor> getActorNearCache() {
+    return actorNearCache;
+  }
+
+  /**
+   * Configure an in-process actor near cache.
+   * 
+   * <p>
+   * The given builder is used to create a near cache in front of the actor cache. The builder
+   * should be configured with a refresh-after-write duration shorter than its expiry duration, so
+   * that actors that are used often are refreshed in the background while the current value is
+   * still returned.
+   * </p>
+   * 
+   * @param builder
+   *        the cache builder to use, or {@literal null} to not use a near cache
+   * @since 1.3
+   */
+  public void setActorNearCacheBuilder(Caffeine<Object, Object> builder) {
+    this.actorNearCache = (builder != null ? builder.build(new ActorNearCacheLoader()) : null);
+  }
+
+  /**
+   * Get the node actor cache.
+   * 
+   * @return the node actor cache, or {@literal null} if not configured
+   * @since 1.3
+   */
+  public NodeActorCache getNodeActorCache() {
+    return nodeActorCache;
+  }
+
+  /**
+   * Configure a node actor cache.
+   * 
+   * <p>
+   * When configured, node actors are first looked up in this cache by their primitive node ID,
+   * before falling back to the string-keyed near cache and actor cache. Token actors are not
+   * affected.
+   * </p>
+   * 
+   * @param nodeActorCache
+   *        the cache to use, or {@literal null} to not use a node actor cache
+   * @since 1.3
+   */
+  public void setNodeActorCache(NodeActorCache nodeActorCache) {
+    this.nodeActorCache = nodeActorCache;
+  }
+
+  /**
+   * Configure a stale actor cache.
+   * 
+   * <p>
+   * The given builder is used to create a cache of actors that have been loaded from the database.
+   * The builder should be configured to expire entries some time after the actor cache does, so
+   * that actors are available from this cache for a grace period after they have expired from the
+   * actor cache. When loading an actor from the database fails, the actor from this cache is used
+   * instead.
+   * </p>
+   * 
+   * @param builder
+   *        the cache builder to use, or {@literal null} to not use a stale actor cache
+   * @since 1.3
+   */
+  public void setStaleActorCacheBuilder(Caffeine<Object, Object> builder) {
+    this.staleActors = (builder != null ? builder.<String, Actor> build().asMap() : null);
+  }
+
+  /**
+   * Get the number of times a stale actor has been used after a database error.
+   * 
+   * @return the stale actor hit count
+   * @since 1.3
+   */
+  public long getStaleActorHits() {
+    return staleActorHits.sum();
+  }
+
+  /**
+   * Get the security policy decoder.
+   * 
+   * @return the decoder, never {@literal null}
+   * @since 1.3
+   */
+  public SecurityPolicyDecoder getPolicyDecoder() {
+    return policyDecoder;
+  }
+
+  /**
+   * Set the security policy decoder.
+   * 
+   * <p>
+   * The decoder is used to parse token security policies, sharing parsed policies between tokens
+   * with identical policies. Defaults to {@link SecurityPolicyDecoder#defaultDecoder()}.
+   * </p>
+   * 
+   * @param policyDecoder
+   *        the decoder to use
+   * @throws IllegalArgumentException
+   *         if {@code policyDecoder} is {@literal null}
+   * @since 1.3
+   */
+  public void setPolicyDecoder(SecurityPolicyDecoder policyDecoder) {
+    if (policyDecoder == null) {
+      throw new IllegalArgumentException("policyDecoder must not be null");
+    }
+    this.policyDecoder = policyDecoder;
+  }
+
 }
@@ -0,0 +1,345 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+
+/**
+ * Load node actors from the database in batches.
+ * 
+ * <p>
+ * Calls to {@link #load(Long)} that arrive while another batch query is executing are collected
+ * into a single batch, which is resolved with one query that accepts an array of node IDs. When no
+ * batch query is executing, a batch is executed immediately, so a lone lookup is not delayed.
+ * Otherwise a batch is executed when the executing queries complete, when {@code batchWindow}
+ * milliseconds have elapsed, or when it reaches {@code maxBatchSize} node IDs, whichever happens
+ * first. The thread that starts a batch is responsible for executing it; all other callers wait
+ * for the batch result.
+ * </p>
+ * 
+ * <p>
+ * The configured JDBC call must accept a single {@code BIGINT} array parameter and return the same
+ * columns as {@link JdbcAuthService#DEFAULT_AUTHORIZE_NODE_CALL}, with the node ID as the only
+ * element of the node IDs array column.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public class NodeActorBatchLoader {
+
+  /**
+   * The default value for the {@code jdbcCall} property.
+   */
+  // CHECKSTYLE IGNORE LineLength FOR NEXT 1 LINE
+  public static final String DEFAULT_AUTHORIZE_NODES_CALL = "SELECT user_id,'Node' AS token_type,NULL AS jpolicy,ARRAY[node_id] AS node_ids FROM solaruser.user_node WHERE node_id = ANY(?)";
+
+  /** The default value for the {@code batchWindow} property. */
+  public static final long DEFAULT_BATCH_WINDOW = 10L;
+
+  /** The default value for the {@code maxBatchSize} property. */
+  public static final int DEFAULT_MAX_BATCH_SIZE = 200;
+
+  private final JdbcOperations jdbcOps;
+  private final Object lock = new Object();
+  private final AtomicLong batchCount = new AtomicLong();
+  private final AtomicLong loadCount = new AtomicLong();
+  private Batch current = new Batch();
+  private String jdbcCall = DEFAULT_AUTHORIZE_NODES_CALL;
+  private long batchWindow = DEFAULT_BATCH_WINDOW;
+  private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+  private SecurityPolicyDecoder policyDecoder = SecurityPolicyDecoder.defaultDecoder();
+  private int executing;
+
+  private static final class Batch {
+
+    private final Map<Long, CompletableFuture<Actor>> nodes = new LinkedHashMap<>(16);
+    private boolean taken;
+
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param jdbcOps
+   *        the JDBC API
+   * @throws IllegalArgumentException
+   *         if {@code jdbcOps} is {@literal null}
+   */
+  public NodeActorBatchLoader(JdbcOperations jdbcOps) {
+    super();
+    if (jdbcOps == null) {
+      throw new IllegalArgumentException("jdbcOps must not be null");
+    }
+    this.jdbcOps = jdbcOps;
+  }
+
+  /**
+   * Load a node actor.
+   * 
+   * <p>
+   * This method blocks until the batch the node ID is added to has been executed.
+   * </p>
+   * 
+   * @param nodeId
+   *        the node ID to load
+   * @return the actor, or {@literal null} if the node does not exist
+   * @throws RuntimeException
+   *         any exception thrown while executing the batch query
+   */
+  public Actor load(Long nodeId) {
+    loadCount.incrementAndGet();
+    final CompletableFuture<Actor> result;
+    Batch batch;
+    boolean leader = false;
+    synchronized (lock) {
+      batch = current;
+      CompletableFuture<Actor> f = batch.nodes.get(nodeId);
+      if (f == null) {
+        f = new CompletableFuture<>();
+        batch.nodes.put(nodeId, f);
+        leader = (batch.nodes.size() == 1);
+      }
+      result = f;
+      if (batch.nodes.size() >= maxBatchSize) {
+        takeBatch(batch);
+      } else if (leader) {
+        // wait for the executing batches to complete, for the batch window to elapse, or for
+        // another thread to fill the batch
+        final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindow);
+        long remaining = end - System.nanoTime();
+        while (!batch.taken && executing > 0 && remaining > 0) {
+          try {
+            TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            break;
+          }
+          remaining = end - System.nanoTime();
+        }
+        if (!batch.taken) {
+          takeBatch(batch);
+        } else {
+          batch = null;
+        }
+      } else {
+        batch = null;
+      }
+    }
+    if (batch != null) {
+      try {
+        executeBatch(batch.nodes);
+      } finally {
+        synchronized (lock) {
+          executing--;
+          if (executing == 0) {
+            lock.notifyAll();
+          }
+        }
+      }
+    }
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      Throwable t = e.getCause();
+      if (t instanceof RuntimeException) {
+        throw (RuntimeException) t;
+      } else if (t instanceof Error) {
+        throw (Error) t;
+      }
+      throw e;
+    }
+  }
+
+  private void takeBatch(Batch batch) {
+    batch.taken = true;
+    executing++;
+    current = new Batch();
+    lock.notifyAll();
+  }
+
+  private void executeBatch(Map<Long, CompletableFuture<Actor>> nodes) {
+    batchCount.incrementAndGet();
+    final Long[] nodeIds = nodes.keySet().toArray(new Long[nodes.size()]);
+    try {
+      List<Actor> results = jdbcOps.query(new PreparedStatementCreator() {
+
+        @Override
+        public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+          PreparedStatement stmt = con.prepareStatement(jdbcCall, ResultSet.TYPE_FORWARD_ONLY,
+              ResultSet.CONCUR_READ_ONLY);
+          Array array = con.createArrayOf("bigint", nodeIds);
+          stmt.setArray(1, array);
+          return stmt;
+        }
+      }, new ActorDetailsRowMapper(null, policyDecoder));
+      if (results != null) {
+        for (Actor actor : results) {
+          Set<Long> actorNodeIds = actor.getUserNodeIds();
+          if (actorNodeIds == null) {
+            continue;
+          }
+          for (Long nodeId : actorNodeIds) {
+            CompletableFuture<Actor> f = nodes.get(nodeId);
+            if (f != null) {
+              f.complete(actor);
+            }
+          }
+        }
+      }
+      // complete any remaining as not found
+      for (CompletableFuture<Actor> f : nodes.values()) {
+        f.complete(null);
+      }
+    } catch (RuntimeException | Error e) {
+      for (CompletableFuture<Actor> f : nodes.values()) {
+        f.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * Get the number of batch queries executed.
+   * 
+   * @return the batch count
+   */
+  public long getBatchCount() {
+    return batchCount.get();
+  }
+
+  /**
+   * Get the number of node actors requested.
+   * 
+   * @return the load count
+   */
+  public long getLoadCount() {
+    return loadCount.get();
+  }
+
+  /**
+   * Get the JDBC call to load node actors with.
+   * 
+   * @return the JDBC call; defaults to {@link #DEFAULT_AUTHORIZE_NODES_CALL}
+   */
+  public String getJdbcCall() {
+    return jdbcCall;
+  }
+
+  /**
+   * Set the JDBC call to load node actors with.
+   * 
+   * <p>
+   * This JDBC statement must accept a single {@code BIGINT} array parameter of node IDs.
+   * </p>
+   * 
+   * @param jdbcCall
+   *        the JDBC call
+   * @throws IllegalArgumentException
+   *         if {@code jdbcCall} is {@literal null}
+   */
+  public void setJdbcCall(String jdbcCall) {
+    if (jdbcCall == null) {
+      throw new IllegalArgumentException("jdbcCall must not be null");
+    }
+    this.jdbcCall = jdbcCall;
+  }
+
+  /**
+   * Get the batch window.
+   * 
+   * @return the maximum number of milliseconds to collect node IDs into a batch; defaults to
+   *         {@link #DEFAULT_BATCH_WINDOW}
+   */
+  public long getBatchWindow() {
+    return batchWindow;
+  }
+
+  /**
+   * Set the batch window.
+   * 
+   * @param batchWindow
+   *        the maximum number of milliseconds to collect node IDs into a batch
+   */
+  public void setBatchWindow(long batchWindow) {
+    this.batchWindow = batchWindow;
+  }
+
+  /**
+   * Get the maximum batch size.
+   * 
+   * @return the maximum number of node IDs to include in a single batch; defaults to
+   *         {@link #DEFAULT_MAX_BATCH_SIZE}
+   */
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * Get the security policy decoder.
+   * 
+   * @return the decoder; defaults to {@link SecurityPolicyDecoder#defaultDecoder()}
+   * @since 1.1
+   */
+  public SecurityPolicyDecoder getPolicyDecoder() {
+    return policyDecoder;
+  }
+
+  /**
+   * Set the security policy decoder.
+   * 
+   * @param policyDecoder
+   *        the decoder to use
+   * @throws IllegalArgumentException
+   *         if {@code policyDecoder} is {@literal null}
+   * @since 1.1
+   */
+  public void setPolicyDecoder(SecurityPolicyDecoder policyDecoder) {
+    if (policyDecoder == null) {
+      throw new IllegalArgumentException("policyDecoder must not be null");
+    }
+    this.policyDecoder = policyDecoder;
+  }
+
+  /**
+   * Set the maximum batch size.
+   * 
+   * @param maxBatchSize
+   *        the maximum number of node IDs to include in a single batch
+   */
+  public void setMaxBatchSize(int maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+  }
+
+}
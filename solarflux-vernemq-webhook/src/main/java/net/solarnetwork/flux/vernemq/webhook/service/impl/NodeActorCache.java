@@ -0,0 +1,249 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+
+/**
+ * A fixed-size cache of node actors keyed by primitive node ID.
+ * 
+ * <p>
+ * This cache is designed for the node publish path, where looking up a cached actor should not
+ * allocate any objects or take any locks. Entries are immutable and stored in a power-of-two sized
+ * {@link AtomicReferenceArray}. Each node ID maps to a pair of adjacent slots, so at most two slots
+ * are examined per lookup. When both slots are in use by other nodes, the entry that expires first
+ * is replaced, so the cache never grows beyond its initial size.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class NodeActorCache {
+
+  private final AtomicReferenceArray<Entry> table;
+  private final int mask;
+  private final long ttl;
+  private final LongSupplier clock;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  private static final class Entry {
+
+    private final long nodeId;
+    private final Actor actor;
+    private final long expires;
+
+    private Entry(long nodeId, Actor actor, long expires) {
+      super();
+      this.nodeId = nodeId;
+      this.actor = actor;
+      this.expires = expires;
+    }
+
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param size
+   *        the number of entries to hold; will be rounded up to a power of two
+   * @param ttl
+   *        the maximum time to cache each actor, in seconds
+   * @throws IllegalArgumentException
+   *         if {@code size} or {@code ttl} are less than {@literal 1}
+   */
+  public NodeActorCache(int size, long ttl) {
+    this(size, TimeUnit.SECONDS.toMillis(ttl), System::currentTimeMillis);
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param size
+   *        the number of entries to hold; will be rounded up to a power of two
+   * @param ttlMillis
+   *        the maximum time to cache each actor, in milliseconds
+   * @param clock
+   *        the clock to use, that returns the current time in milliseconds
+   * @throws IllegalArgumentException
+   *         if {@code size} or {@code ttlMillis} are less than {@literal 1} or {@code clock} is
+   *         {@literal null}
+   */
+  public NodeActorCache(int size, long ttlMillis, LongSupplier clock) {
+    super();
+    if (size < 1 || size > (1 << 30)) {
+      throw new IllegalArgumentException("size must be between 1 and 2^30");
+    }
+    if (ttlMillis < 1) {
+      throw new IllegalArgumentException("ttl must be at least 1");
+    }
+    if (clock == null) {
+      throw new IllegalArgumentException("clock must not be null");
+    }
+    final int tableSize = Math.max(2, Integer.highestOneBit(size - 1) << 1);
+    this.table = new AtomicReferenceArray<>(tableSize);
+    this.mask = tableSize - 1;
+    this.ttl = ttlMillis;
+    this.clock = clock;
+  }
+
+  private int index(long nodeId) {
+    long h = nodeId * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+
+  /**
+   * Get a cached actor.
+   * 
+   * @param nodeId
+   *        the node ID of the actor to get
+   * @return the actor, or {@literal null} if not cached or expired
+   */
+  public Actor get(long nodeId) {
+    final int i = index(nodeId);
+    Entry e = table.get(i);
+    if (e == null || e.nodeId != nodeId) {
+      e = table.get(i ^ 1);
+      if (e == null || e.nodeId != nodeId) {
+        misses.increment();
+        return null;
+      }
+    }
+    if (e.expires - clock.getAsLong() <= 0) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return e.actor;
+  }
+
+  /**
+   * Cache an actor.
+   * 
+   * @param nodeId
+   *        the node ID of the actor
+   * @param actor
+   *        the actor to cache
+   */
+  public void put(long nodeId, Actor actor) {
+    if (actor == null) {
+      return;
+    }
+    final long now = clock.getAsLong();
+    final Entry n = new Entry(nodeId, actor, now + ttl);
+    final int i = index(nodeId);
+    final int j = i ^ 1;
+    final Entry e0 = table.get(i);
+    final Entry e1 = table.get(j);
+    if (e0 != null && e0.nodeId == nodeId) {
+      table.set(i, n);
+    } else if (e1 != null && e1.nodeId == nodeId) {
+      table.set(j, n);
+    } else if (e0 == null || e0.expires - now <= 0) {
+      table.set(i, n);
+    } else if (e1 == null || e1.expires - now <= 0) {
+      table.set(j, n);
+    } else {
+      table.set(e0.expires <= e1.expires ? i : j, n);
+    }
+  }
+
+  /**
+   * Remove a cached actor.
+   * 
+   * @param nodeId
+   *        the node ID of the actor to remove
+   * @return {@literal true} if an actor was removed
+   */
+  public boolean remove(long nodeId) {
+    final int i = index(nodeId);
+    boolean result = false;
+    Entry e = table.get(i);
+    if (e != null && e.nodeId == nodeId) {
+      result = table.compareAndSet(i, e, null);
+    }
+    e = table.get(i ^ 1);
+    if (e != null && e.nodeId == nodeId) {
+      result |= table.compareAndSet(i ^ 1, e, null);
+    }
+    return result;
+  }
+
+  /**
+   * Remove all cached actors.
+   */
+  public void clear() {
+    for (int i = 0, len = table.length(); i < len; i++) {
+      table.set(i, null);
+    }
+  }
+
+  /**
+   * Get the number of slots in the cache.
+   * 
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return table.length();
+  }
+
+  /**
+   * Count the number of unexpired actors in the cache.
+   * 
+   * <p>
+   * This method examines every slot in the cache.
+   * </p>
+   * 
+   * @return the number of unexpired actors
+   */
+  public int size() {
+    final long now = clock.getAsLong();
+    int count = 0;
+    for (int i = 0, len = table.length(); i < len; i++) {
+      Entry e = table.get(i);
+      if (e != null && e.expires - now > 0) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Get the number of cache hits.
+   * 
+   * @return the hit count
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Get the number of cache misses.
+   * 
+   * @return the miss count
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+}
@@ -0,0 +1,274 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A parsed node datum topic.
+ * 
+ * <p>
+ * The {@link #parse(String)} method parses topics with the syntax
+ * <code>[user/{userId}/]node/{nodeId}/datum/{aggregation}/{sourceId}</code> in a single pass,
+ * equivalent to matching {@link SimpleAuthorizationEvaluator#DEFAULT_NODE_DATUM_TOPIC_REGEX}.
+ * Only the offsets of each topic component and the parsed user and node IDs are kept; the
+ * aggregation and source ID strings are not extracted until requested.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class NodeDatumTopic {
+
+  /** An ID value for a topic component that is not a valid number. */
+  public static final long INVALID_ID = -1L;
+
+  /** An ID value for a {@literal +} wildcard topic component. */
+  public static final long WILDCARD_ID = -2L;
+
+  private static final String USER_PREFIX = "user/";
+  private static final String NODE_PREFIX = "node/";
+  private static final String DATUM_SEGMENT = "/datum/";
+
+  private final String topic;
+  private final int userStart;
+  private final int userEnd;
+  private final long userId;
+  private final long nodeId;
+  private final int aggStart;
+  private final int aggEnd;
+  private final int sourceStart;
+  private final int sourceEnd;
+  private String sourceId;
+
+  private NodeDatumTopic(String topic, int userStart, int userEnd, long userId, long nodeId,
+      int aggStart, int aggEnd, int sourceStart, int sourceEnd) {
+    super();
+    this.topic = topic;
+    this.userStart = userStart;
+    this.userEnd = userEnd;
+    this.userId = userId;
+    this.nodeId = nodeId;
+    this.aggStart = aggStart;
+    this.aggEnd = aggEnd;
+    this.sourceStart = sourceStart;
+    this.sourceEnd = sourceEnd;
+  }
+
+  /**
+   * Parse a node datum topic.
+   * 
+   * @param topic
+   *        the topic to parse
+   * @return the parsed topic, or {@literal null} if {@code topic} is not a node datum topic
+   */
+  public static NodeDatumTopic parse(String topic) {
+    if (topic == null) {
+      return null;
+    }
+    final int len = topic.length();
+    int pos = 0;
+    int userStart = -1;
+    int userEnd = -1;
+    long userId = INVALID_ID;
+    if (topic.startsWith(USER_PREFIX)) {
+      userStart = USER_PREFIX.length();
+      userEnd = digitsEnd(topic, userStart);
+      if (userEnd == userStart || userEnd >= len || topic.charAt(userEnd) != '/') {
+        return null;
+      }
+      userId = parseId(topic, userStart, userEnd);
+      pos = userEnd + 1;
+    }
+    if (!topic.startsWith(NODE_PREFIX, pos)) {
+      return null;
+    }
+    final int nodeStart = pos + NODE_PREFIX.length();
+    final int nodeEnd;
+    final long nodeId;
+    if (nodeStart < len && topic.charAt(nodeStart) == '+') {
+      nodeEnd = nodeStart + 1;
+      nodeId = WILDCARD_ID;
+    } else {
+      nodeEnd = digitsEnd(topic, nodeStart);
+      if (nodeEnd == nodeStart) {
+        return null;
+      }
+      nodeId = parseId(topic, nodeStart, nodeEnd);
+    }
+    if (!topic.startsWith(DATUM_SEGMENT, nodeEnd)) {
+      return null;
+    }
+    final int aggStart = nodeEnd + DATUM_SEGMENT.length();
+    final int aggEnd = topic.indexOf('/', aggStart);
+    if (aggEnd <= aggStart || aggEnd + 1 >= len) {
+      // missing aggregation or source ID
+      return null;
+    }
+    for (int i = aggEnd + 1; i < len; i++) {
+      if (isLineTerminator(topic.charAt(i))) {
+        return null;
+      }
+    }
+    return new NodeDatumTopic(topic, userStart, userEnd, userId, nodeId, aggStart, aggEnd, aggEnd,
+        len);
+  }
+
+  /**
+   * Parse a node datum topic using a regular expression.
+   * 
+   * <p>
+   * The expression must provide the same matching groups as
+   * {@link SimpleAuthorizationEvaluator#DEFAULT_NODE_DATUM_TOPIC_REGEX}.
+   * </p>
+   * 
+   * @param pattern
+   *        the pattern to match
+   * @param topic
+   *        the topic to parse
+   * @return the parsed topic, or {@literal null} if {@code topic} does not match {@code pattern}
+   */
+  public static NodeDatumTopic match(Pattern pattern, String topic) {
+    if (topic == null) {
+      return null;
+    }
+    final Matcher m = pattern.matcher(topic);
+    if (!m.matches()) {
+      return null;
+    }
+    final int userStart = m.start(1);
+    final int userEnd = m.end(1);
+    final long userId = (userStart < 0 ? INVALID_ID : parseId(topic, userStart, userEnd));
+    final int nodeStart = m.start(2);
+    final int nodeEnd = m.end(2);
+    final long nodeId = (nodeEnd - nodeStart == 1 && topic.charAt(nodeStart) == '+'
+        ? WILDCARD_ID
+        : parseId(topic, nodeStart, nodeEnd));
+    return new NodeDatumTopic(topic, userStart, userEnd, userId, nodeId, m.start(3), m.end(3),
+        m.start(4), m.end(4));
+  }
+
+  private static int digitsEnd(String s, int start) {
+    final int len = s.length();
+    int i = start;
+    while (i < len) {
+      char c = s.charAt(i);
+      if (c < '0' || c > '9') {
+        break;
+      }
+      i++;
+    }
+    return i;
+  }
+
+  static long parseId(String s, int start, int end) {
+    if (start < 0 || end <= start) {
+      return INVALID_ID;
+    }
+    long result = 0;
+    for (int i = start; i < end; i++) {
+      char c = s.charAt(i);
+      if (c < '0' || c > '9') {
+        return INVALID_ID;
+      }
+      int d = c - '0';
+      if (result > (Long.MAX_VALUE - d) / 10) {
+        // overflow
+        return INVALID_ID;
+      }
+      result = result * 10 + d;
+    }
+    return result;
+  }
+
+  static boolean isLineTerminator(char c) {
+    // the line terminators not matched by the regular expression . character
+    return (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029');
+  }
+
+  /**
+   * Get the topic.
+   * 
+   * @return the topic
+   */
+  public String getTopic() {
+    return topic;
+  }
+
+  /**
+   * Test if the topic includes a user ID component.
+   * 
+   * @return {@literal true} if the topic includes a non-empty user ID component
+   */
+  public boolean hasUserId() {
+    return (userStart >= 0 && userEnd > userStart);
+  }
+
+  /**
+   * Get the topic user ID.
+   * 
+   * @return the user ID, or {@link #INVALID_ID} if not available or not a valid number
+   */
+  public long getUserId() {
+    return userId;
+  }
+
+  /**
+   * Test if the topic node ID is a {@literal +} wildcard.
+   * 
+   * @return {@literal true} if the node ID is a wildcard
+   */
+  public boolean isNodeWildcard() {
+    return nodeId == WILDCARD_ID;
+  }
+
+  /**
+   * Get the topic node ID.
+   * 
+   * @return the node ID, {@link #WILDCARD_ID} for a wildcard, or {@link #INVALID_ID} if not a
+   *         valid number
+   */
+  public long getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * Get the topic aggregation.
+   * 
+   * @return the aggregation
+   */
+  public String getAggregation() {
+    return topic.substring(aggStart, aggEnd);
+  }
+
+  /**
+   * Get the topic source ID.
+   * 
+   * @return the source ID, including its leading {@literal /}
+   */
+  public String getSourceId() {
+    String s = sourceId;
+    if (s == null) {
+      s = topic.substring(sourceStart, sourceEnd);
+      sourceId = s;
+    }
+    return s;
+  }
+
+}
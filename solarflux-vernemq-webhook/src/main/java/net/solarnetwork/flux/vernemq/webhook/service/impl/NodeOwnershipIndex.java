@@ -0,0 +1,518 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorDetails;
+import net.solarnetwork.flux.vernemq.webhook.util.LongLongHashMap;
+
+/**
+ * An in-memory index of node ID to owner user ID mappings.
+ * 
+ * <p>
+ * The index is fully loaded via {@link #reload()} and then kept up to date by calling
+ * {@link #refresh()}, which only queries for nodes created since the previous load. The
+ * incremental query does not see nodes that have been removed or moved to another user, so after
+ * applying it the refresh compares a digest of the index (the node count and a checksum of the
+ * node and user IDs) with the same digest computed by the {@code digestCall} query, and performs a
+ * full reload if they differ. A periodic {@link #reload()} is still useful as a safety net. The
+ * {@link #startup(long, long)} method can be used to schedule both tasks.
+ * </p>
+ * 
+ * <p>
+ * Lookups never touch the database: the index is held in a {@link LongLongHashMap} that is
+ * replaced as a whole after each load, so readers never block on writers. The
+ * {@link #actorForNode(long)} method creates at most one immutable actor per node, which is kept
+ * for as long as the owner of the node does not change.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public class NodeOwnershipIndex {
+
+  /**
+   * The default value for the {@code reloadCall} property.
+   */
+  // CHECKSTYLE IGNORE LineLength FOR NEXT 1 LINE
+  public static final String DEFAULT_RELOAD_CALL = "SELECT node_id,user_id,created FROM solaruser.user_node";
+
+  /**
+   * The default value for the {@code refreshCall} property.
+   */
+  // CHECKSTYLE IGNORE LineLength FOR NEXT 1 LINE
+  public static final String DEFAULT_REFRESH_CALL = "SELECT node_id,user_id,created FROM solaruser.user_node WHERE created >= ?";
+
+  /**
+   * The modulus used for each node checksum term, to keep the checksum sum within a
+   * {@code long}.
+   * 
+   * @since 1.1
+   */
+  public static final long CHECKSUM_MODULUS = 1_000_000_007L;
+
+  /**
+   * The default value for the {@code digestCall} property.
+   * 
+   * @since 1.1
+   */
+  // CHECKSTYLE IGNORE LineLength FOR NEXT 1 LINE
+  public static final String DEFAULT_DIGEST_CALL = "SELECT COUNT(*),COALESCE(SUM(node_id * user_id % 1000000007),0) FROM solaruser.user_node";
+
+  /** The value returned by {@link #userIdForNode(long)} for unknown nodes. */
+  public static final long NO_USER = -1L;
+
+  private static final Logger log = LoggerFactory.getLogger(NodeOwnershipIndex.class);
+
+  private final JdbcOperations jdbcOps;
+  private String reloadCall = DEFAULT_RELOAD_CALL;
+  private String refreshCall = DEFAULT_REFRESH_CALL;
+  private String digestCall = DEFAULT_DIGEST_CALL;
+  private ScheduledExecutorService executor;
+
+  private volatile Snapshot snapshot;
+
+  private static final class Snapshot {
+
+    private final LongLongHashMap nodeOwners;
+    private final Timestamp maxCreated;
+    private final long checksum;
+    private final AtomicReferenceArray<Actor> actors;
+
+    /**
+     * Constructor.
+     * 
+     * @param nodeOwners
+     *        the node owners, which must not be modified after this call
+     * @param maxCreated
+     *        the maximum creation date
+     * @param checksum
+     *        the checksum of {@code nodeOwners}
+     * @param prev
+     *        the previous snapshot to copy unchanged node actors from, or {@literal null}
+     */
+    private Snapshot(LongLongHashMap nodeOwners, Timestamp maxCreated, long checksum,
+        Snapshot prev) {
+      super();
+      this.nodeOwners = nodeOwners;
+      this.maxCreated = maxCreated;
+      this.checksum = checksum;
+      this.actors = new AtomicReferenceArray<>(nodeOwners.slotCount());
+      if (prev != null) {
+        for (int i = 0, len = prev.actors.length(); i < len; i++) {
+          Actor actor = prev.actors.get(i);
+          if (actor == null) {
+            continue;
+          }
+          int slot = nodeOwners.indexOf(prev.nodeOwners.keyAt(i));
+          if (slot >= 0 && nodeOwners.valueAt(slot) == prev.nodeOwners.valueAt(i)) {
+            actors.set(slot, actor);
+          }
+        }
+      }
+    }
+
+  }
+
+  private static long checksumTerm(long nodeId, long userId) {
+    return (nodeId * userId) % CHECKSUM_MODULUS;
+  }
+
+  private static final class Loader implements RowCallbackHandler {
+
+    private final LongLongHashMap source;
+    private LongLongHashMap nodeOwners;
+    private Timestamp maxCreated;
+    private long checksum;
+    private int count;
+
+    /**
+     * Constructor.
+     * 
+     * @param source
+     *        the published map to update, which is only copied if a row changes it, or
+     *        {@literal null} to load into {@code nodeOwners}
+     * @param nodeOwners
+     *        the map to load into, if {@code source} is {@literal null}
+     * @param maxCreated
+     *        the starting maximum creation date
+     * @param checksum
+     *        the starting checksum
+     */
+    private Loader(LongLongHashMap source, LongLongHashMap nodeOwners, Timestamp maxCreated,
+        long checksum) {
+      super();
+      this.source = source;
+      this.nodeOwners = nodeOwners;
+      this.maxCreated = maxCreated;
+      this.checksum = checksum;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+      final long nodeId = rs.getLong(1);
+      final long userId = rs.getLong(2);
+      final long prevUserId = (nodeOwners != null ? nodeOwners : source).get(nodeId, NO_USER);
+      if (prevUserId != userId) {
+        if (nodeOwners == null) {
+          nodeOwners = source.copy();
+        }
+        if (prevUserId != NO_USER) {
+          checksum -= checksumTerm(nodeId, prevUserId);
+        }
+        checksum += checksumTerm(nodeId, userId);
+      }
+      if (nodeOwners != null) {
+        nodeOwners.put(nodeId, userId);
+        count++;
+      }
+      Timestamp created = rs.getTimestamp(3);
+      if (created != null && (maxCreated == null || created.after(maxCreated))) {
+        maxCreated = created;
+      }
+    }
+
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param jdbcOps
+   *        the JDBC API
+   * @throws IllegalArgumentException
+   *         if {@code jdbcOps} is {@literal null}
+   */
+  public NodeOwnershipIndex(JdbcOperations jdbcOps) {
+    super();
+    if (jdbcOps == null) {
+      throw new IllegalArgumentException("jdbcOps must not be null");
+    }
+    this.jdbcOps = jdbcOps;
+  }
+
+  /**
+   * Get the owner user ID of a node.
+   * 
+   * @param nodeId
+   *        the node ID to look up
+   * @return the user ID, or {@link #NO_USER} if the node is not in the index
+   */
+  public long userIdForNode(long nodeId) {
+    final Snapshot s = snapshot;
+    return (s != null ? s.nodeOwners.get(nodeId, NO_USER) : NO_USER);
+  }
+
+  /**
+   * Get the actor for a node.
+   * 
+   * <p>
+   * The same actor instance is returned for a given node until the owner of the node changes.
+   * </p>
+   * 
+   * @param nodeId
+   *        the node ID to look up
+   * @return the actor, or {@literal null} if the node is not in the index
+   * @since 1.1
+   */
+  public Actor actorForNode(long nodeId) {
+    final Snapshot s = snapshot;
+    if (s == null) {
+      return null;
+    }
+    final int slot = s.nodeOwners.indexOf(nodeId);
+    if (slot < 0) {
+      return null;
+    }
+    Actor actor = s.actors.get(slot);
+    if (actor == null) {
+      actor = new ActorDetails(s.nodeOwners.valueAt(slot), nodeId);
+      if (!s.actors.compareAndSet(slot, null, actor)) {
+        actor = s.actors.get(slot);
+      }
+    }
+    return actor;
+  }
+
+  /**
+   * Test if the index has been loaded.
+   * 
+   * @return {@literal true} if the index has been loaded and not cleared since
+   */
+  public boolean isLoaded() {
+    return snapshot != null;
+  }
+
+  /**
+   * Get the number of nodes in the index.
+   * 
+   * @return the node count
+   */
+  public int size() {
+    final Snapshot s = snapshot;
+    return (s != null ? s.nodeOwners.size() : 0);
+  }
+
+  /**
+   * Load the full index from the database, replacing any existing index.
+   * 
+   * @return the number of nodes loaded
+   */
+  public synchronized int reload() {
+    final Snapshot curr = snapshot;
+    final Loader loader = new Loader(null,
+        new LongLongHashMap(curr != null ? curr.nodeOwners.size() : 1024), null, 0L);
+    jdbcOps.query(reloadCall, loader);
+    snapshot = new Snapshot(loader.nodeOwners, loader.maxCreated, loader.checksum, curr);
+    log.info("Loaded {} node owners into node ownership index", loader.count);
+    return loader.count;
+  }
+
+  /**
+   * Add nodes created since the last load to the index.
+   * 
+   * <p>
+   * If the index has not been loaded yet, or if the index digest no longer matches the database
+   * after adding the new nodes, a full {@link #reload()} is performed.
+   * </p>
+   * 
+   * @return the number of nodes loaded
+   */
+  public synchronized int refresh() {
+    final Snapshot curr = snapshot;
+    if (curr == null || curr.maxCreated == null) {
+      return reload();
+    }
+    final Loader loader = new Loader(curr.nodeOwners, null, curr.maxCreated, curr.checksum);
+    jdbcOps.query(refreshCall, loader, curr.maxCreated);
+    Snapshot s = curr;
+    if (loader.nodeOwners != null) {
+      s = new Snapshot(loader.nodeOwners, loader.maxCreated, loader.checksum, curr);
+      snapshot = s;
+      log.debug("Added {} node owners to node ownership index", loader.count);
+    }
+    if (digestCall != null && !digestMatches(s)) {
+      log.info("Node ownership index digest changed, reloading index");
+      return reload();
+    }
+    return loader.count;
+  }
+
+  private boolean digestMatches(Snapshot s) {
+    Boolean result = jdbcOps.queryForObject(digestCall, (rs, row) -> {
+      final long count = rs.getLong(1);
+      final long checksum = rs.getLong(2);
+      return (count == s.nodeOwners.size() && checksum == s.checksum);
+    });
+    return Boolean.TRUE.equals(result);
+  }
+
+  /**
+   * Remove a node from the index.
+   * 
+   * <p>
+   * Lookups for the node will not be resolved by the index until the next {@link #reload()}.
+   * </p>
+   * 
+   * @param nodeId
+   *        the ID of the node to remove
+   * @return {@literal true} if the node was removed
+   * @since 1.1
+   */
+  public synchronized boolean remove(long nodeId) {
+    final Snapshot curr = snapshot;
+    if (curr == null) {
+      return false;
+    }
+    final long userId = curr.nodeOwners.get(nodeId, NO_USER);
+    if (userId == NO_USER) {
+      return false;
+    }
+    final LongLongHashMap nodeOwners = curr.nodeOwners.copy();
+    nodeOwners.remove(nodeId);
+    snapshot = new Snapshot(nodeOwners, curr.maxCreated,
+        curr.checksum - checksumTerm(nodeId, userId), curr);
+    return true;
+  }
+
+  /**
+   * Clear the index.
+   * 
+   * <p>
+   * Lookups will not be resolved by the index until the next {@link #refresh()} or
+   * {@link #reload()}.
+   * </p>
+   * 
+   * @since 1.1
+   */
+  public synchronized void clear() {
+    snapshot = null;
+  }
+
+  /**
+   * Load the index and schedule periodic refresh and reload tasks.
+   * 
+   * <p>
+   * If the initial load fails, a warning is logged and the index will be loaded by the first
+   * scheduled refresh.
+   * </p>
+   * 
+   * @param refreshSeconds
+   *        the number of seconds between incremental refreshes, or {@literal 0} to disable
+   * @param reloadSeconds
+   *        the number of seconds between full reloads, or {@literal 0} to disable
+   */
+  public synchronized void startup(long refreshSeconds, long reloadSeconds) {
+    try {
+      reload();
+    } catch (RuntimeException e) {
+      log.warn("Unable to load node ownership index: {}", e.toString());
+    }
+    if (executor != null || (refreshSeconds < 1 && reloadSeconds < 1)) {
+      return;
+    }
+    executor = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "NodeOwnershipIndex");
+      t.setDaemon(true);
+      return t;
+    });
+    if (refreshSeconds > 0) {
+      executor.scheduleWithFixedDelay(() -> runSafely(this::refresh), refreshSeconds,
+          refreshSeconds, TimeUnit.SECONDS);
+    }
+    if (reloadSeconds > 0) {
+      executor.scheduleWithFixedDelay(() -> runSafely(this::reload), reloadSeconds,
+          reloadSeconds, TimeUnit.SECONDS);
+    }
+  }
+
+  private void runSafely(IntSupplier task) {
+    try {
+      task.getAsInt();
+    } catch (RuntimeException e) {
+      log.warn("Error updating node ownership index: {}", e.toString());
+    }
+  }
+
+  /**
+   * Stop any scheduled refresh and reload tasks.
+   */
+  public synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /**
+   * Get the JDBC call to fully load the index.
+   * 
+   * @return the JDBC call; defaults to {@link #DEFAULT_RELOAD_CALL}
+   */
+  public String getReloadCall() {
+    return reloadCall;
+  }
+
+  /**
+   * Set the JDBC call to fully load the index.
+   * 
+   * <p>
+   * This JDBC statement must return node ID, user ID, and creation date columns, in that order.
+   * </p>
+   * 
+   * @param reloadCall
+   *        the JDBC call
+   * @throws IllegalArgumentException
+   *         if {@code reloadCall} is {@literal null}
+   */
+  public void setReloadCall(String reloadCall) {
+    if (reloadCall == null) {
+      throw new IllegalArgumentException("reloadCall must not be null");
+    }
+    this.reloadCall = reloadCall;
+  }
+
+  /**
+   * Get the JDBC call to incrementally refresh the index.
+   * 
+   * @return the JDBC call; defaults to {@link #DEFAULT_REFRESH_CALL}
+   */
+  public String getRefreshCall() {
+    return refreshCall;
+  }
+
+  /**
+   * Set the JDBC call to incrementally refresh the index.
+   * 
+   * <p>
+   * This JDBC statement must accept a single timestamp parameter, the maximum creation date seen
+   * so far, and return the same columns as {@code reloadCall}.
+   * </p>
+   * 
+   * @param refreshCall
+   *        the JDBC call
+   * @throws IllegalArgumentException
+   *         if {@code refreshCall} is {@literal null}
+   */
+  public void setRefreshCall(String refreshCall) {
+    if (refreshCall == null) {
+      throw new IllegalArgumentException("refreshCall must not be null");
+    }
+    this.refreshCall = refreshCall;
+  }
+
+  /**
+   * Get the JDBC call to compute the index digest.
+   * 
+   * @return the JDBC call; defaults to {@link #DEFAULT_DIGEST_CALL}
+   * @since 1.1
+   */
+  public String getDigestCall() {
+    return digestCall;
+  }
+
+  /**
+   * Set the JDBC call to compute the index digest.
+   * 
+   * <p>
+   * This JDBC statement must return a single row with the node count and the sum of
+   * {@code (node_id * user_id) % }{@link #CHECKSUM_MODULUS} for every node.
+   * </p>
+   * 
+   * @param digestCall
+   *        the JDBC call, or {@literal null} to only add new nodes on refresh
+   * @since 1.1
+   */
+  public void setDigestCall(String digestCall) {
+    this.digestCall = digestCall;
+  }
+
+}
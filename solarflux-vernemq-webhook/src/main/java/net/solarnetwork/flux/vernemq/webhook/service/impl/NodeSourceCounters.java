@@ -0,0 +1,214 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjIntConsumer;
+
+import net.solarnetwork.domain.DatumStreamId.NodeDatumStreamId;
+
+/**
+ * Hourly node source counters, optimized for many threads adding counts.
+ * 
+ * <p>
+ * Counters are grouped into hourly buckets. The current bucket is resolved by comparing the clock
+ * time to the bucket's hour, so the hour is only computed when it changes. Within a bucket, a
+ * counter is created once per node and source, along with its {@link NodeDatumStreamId}, so adding
+ * to an existing counter does not allocate. Counts are added to a {@link LongAdder}, so threads
+ * adding to the same counter do not contend with each other.
+ * </p>
+ * 
+ * <p>
+ * Counts are collected by {@link #drainTo(ObjIntConsumer)}, which must only be called by one
+ * thread at a time. Buckets for previous hours are discarded once two drains in a row find no
+ * counts in them, and at least one minute has passed since the hour changed, so counts added by
+ * threads that resolved a bucket just before the hour changed are not lost.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class NodeSourceCounters {
+
+  private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+  /** The minimum time to keep a previous hour bucket after the hour changes. */
+  private static final long RETIRED_GRACE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private final Clock clock;
+  private final Queue<Bucket> retired = new ConcurrentLinkedQueue<>();
+  private volatile Bucket current;
+
+  /**
+   * Constructor.
+   * 
+   * @param clock
+   *        the clock to use
+   * @throws IllegalArgumentException
+   *         if {@code clock} is {@literal null}
+   */
+  public NodeSourceCounters(Clock clock) {
+    super();
+    if (clock == null) {
+      throw new IllegalArgumentException("The clock argument must not be null.");
+    }
+    this.clock = clock;
+  }
+
+  /**
+   * Add a count for a node and source, in the current hour.
+   * 
+   * @param nodeId
+   *        the node ID
+   * @param sourceId
+   *        the source ID
+   * @param count
+   *        the count to add
+   * @throws NullPointerException
+   *         if {@code nodeId} or {@code sourceId} are {@literal null}
+   */
+  public void add(Long nodeId, String sourceId, int count) {
+    final long now = clock.millis();
+    Bucket b = current;
+    if (b == null || now < b.start || now - b.start >= HOUR_MILLIS) {
+      b = bucket(now);
+    }
+    b.counter(nodeId, sourceId).adder.add(count);
+  }
+
+  private synchronized Bucket bucket(long now) {
+    final long start = Math.floorDiv(now, HOUR_MILLIS) * HOUR_MILLIS;
+    final Bucket b = current;
+    if (b != null && b.start == start) {
+      return b;
+    }
+    final Bucket result = new Bucket(start);
+    if (b != null) {
+      b.retired = System.nanoTime();
+      retired.add(b);
+    }
+    current = result;
+    return result;
+  }
+
+  /**
+   * Remove all counts added since the previous drain, passing them to a consumer.
+   * 
+   * <p>
+   * The consumer is called once for each node source with a positive count. Counts added while
+   * draining are either passed to the consumer or kept for the next drain.
+   * </p>
+   * 
+   * @param consumer
+   *        the consumer to pass the counts to
+   * @return the number of counts passed to {@code consumer}
+   */
+  public int drainTo(ObjIntConsumer<NodeDatumStreamId> consumer) {
+    int result = 0;
+    for (Iterator<Bucket> itr = retired.iterator(); itr.hasNext();) {
+      final Bucket b = itr.next();
+      final int drained = b.drainTo(consumer);
+      if (drained > 0) {
+        b.idleDrains = 0;
+      } else if (++b.idleDrains > 1 && System.nanoTime() - b.retired >= RETIRED_GRACE_NANOS) {
+        itr.remove();
+      }
+      result += drained;
+    }
+    final Bucket b = current;
+    if (b != null) {
+      result += b.drainTo(consumer);
+    }
+    return result;
+  }
+
+  /**
+   * A bucket of counters for a single hour.
+   */
+  private static final class Bucket {
+
+    private final long start;
+    private final Instant hour;
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<String, Counter>> nodes;
+    private int idleDrains;
+    private volatile long retired;
+
+    private Bucket(long start) {
+      super();
+      this.start = start;
+      this.hour = Instant.ofEpochMilli(start);
+      this.nodes = new ConcurrentHashMap<>(1024);
+    }
+
+    private Counter counter(Long nodeId, String sourceId) {
+      ConcurrentHashMap<String, Counter> sources = nodes.get(nodeId);
+      if (sources == null) {
+        sources = nodes.computeIfAbsent(nodeId, k -> new ConcurrentHashMap<>(8));
+      }
+      Counter c = sources.get(sourceId);
+      if (c == null) {
+        c = sources.computeIfAbsent(sourceId,
+            k -> new Counter(new NodeDatumStreamId(nodeId, k, hour)));
+      }
+      return c;
+    }
+
+    private int drainTo(ObjIntConsumer<NodeDatumStreamId> consumer) {
+      int result = 0;
+      for (Map<String, Counter> sources : nodes.values()) {
+        for (Counter c : sources.values()) {
+          final long sum = c.adder.sum();
+          if (sum < 1) {
+            continue;
+          }
+          // subtract what was read, rather than reset, to keep counts added while reading
+          final int count = (int) Math.min(sum, Integer.MAX_VALUE);
+          c.adder.add(-count);
+          consumer.accept(c.key, count);
+          result++;
+        }
+      }
+      return result;
+    }
+
+  }
+
+  /**
+   * A counter for a single node source.
+   */
+  private static final class Counter {
+
+    private final NodeDatumStreamId key;
+    private final LongAdder adder = new LongAdder();
+
+    private Counter(NodeDatumStreamId key) {
+      super();
+      this.key = key;
+    }
+
+  }
+
+}
@@ -0,0 +1,173 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import net.solarnetwork.central.security.BasicSecurityPolicy;
+import net.solarnetwork.central.security.SecurityPolicy;
+import net.solarnetwork.central.support.JsonUtils;
+
+/**
+ * Decode {@link SecurityPolicy} instances from JSON, sharing identical policies.
+ * 
+ * <p>
+ * Policies are parsed with a single pre-configured {@link ObjectReader}. Parsed policies are kept
+ * in a bounded cache keyed by a SHA-256 digest of the JSON text, so tokens with identical policies
+ * share one parsed policy instance rather than each parsing and holding their own copy.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class SecurityPolicyDecoder {
+
+  /** The default {@code maxSize} value. */
+  public static final int DEFAULT_MAX_SIZE = 10000;
+
+  private static final Logger log = LoggerFactory.getLogger(SecurityPolicyDecoder.class);
+
+  private static final ObjectReader POLICY_READER;
+  static {
+    // note we use .central.support.JsonUtils and not .util.JsonUtils here because we don't want
+    // the .util.JsonUtils Joda date formats; the standard JodaModule parses the epoch timestamps
+    ObjectMapper mapper = JsonUtils.newObjectMapper();
+    mapper.registerModule(new JodaModule());
+    POLICY_READER = mapper.readerFor(BasicSecurityPolicy.class);
+  }
+
+  private static final class DefaultDecoderHolder {
+
+    private static final SecurityPolicyDecoder DEFAULT = new SecurityPolicyDecoder();
+
+  }
+
+  private final Cache<ByteBuffer, SecurityPolicy> policies;
+
+  /**
+   * Get a default shared decoder instance.
+   * 
+   * @return the default decoder
+   */
+  public static SecurityPolicyDecoder defaultDecoder() {
+    return DefaultDecoderHolder.DEFAULT;
+  }
+
+  /**
+   * Constructor.
+   * 
+   * <p>
+   * The {@link #DEFAULT_MAX_SIZE} cache size will be used.
+   * </p>
+   */
+  public SecurityPolicyDecoder() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param maxSize
+   *        the maximum number of parsed policies to cache, or {@literal 0} to not cache
+   */
+  public SecurityPolicyDecoder(int maxSize) {
+    super();
+    this.policies = (maxSize > 0
+        ? Caffeine.newBuilder().maximumSize(maxSize).recordStats().build()
+        : null);
+  }
+
+  /**
+   * Decode a policy.
+   * 
+   * @param json
+   *        the policy JSON
+   * @return the policy, or {@literal null} if {@code json} is {@literal null} or cannot be parsed
+   */
+  public SecurityPolicy decode(String json) {
+    if (json == null) {
+      return null;
+    }
+    if (policies == null) {
+      return parse(json);
+    }
+    return policies.get(digest(json), k -> parse(json));
+  }
+
+  private static SecurityPolicy parse(String json) {
+    try {
+      return POLICY_READER.readValue(json);
+    } catch (IOException e) {
+      log.debug("Unable to parse security policy JSON [{}]: {}", json, e.toString());
+      return null;
+    }
+  }
+
+  private static ByteBuffer digest(String json) {
+    try {
+      return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+          .digest(json.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 digest not available", e);
+    }
+  }
+
+  /**
+   * Get the number of parsed policies cached.
+   * 
+   * @return the number of cached policies
+   */
+  public long size() {
+    return (policies != null ? policies.estimatedSize() : 0);
+  }
+
+  /**
+   * Get the number of decoded policies that were shared from the cache.
+   * 
+   * @return the cache hit count
+   */
+  public long getHitCount() {
+    final CacheStats stats = (policies != null ? policies.stats() : null);
+    return (stats != null ? stats.hitCount() : 0);
+  }
+
+  /**
+   * Get the number of decoded policies that were parsed.
+   * 
+   * @return the cache miss count
+   */
+  public long getMissCount() {
+    final CacheStats stats = (policies != null ? policies.stats() : null);
+    return (stats != null ? stats.missCount() : 0);
+  }
+
+}
@@ -18,26 +18,28 @@
 package net.solarnetwork.flux.vernemq.webhook.service.impl;
 
 import static net.solarnetwork.flux.vernemq.webhook.Globals.AUDIT_LOG;
+import static net.solarnetwork.flux.vernemq.webhook.Globals.DENIAL_LOG;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.springframework.util.AntPathMatcher;
-import org.springframework.util.PathMatcher;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
-import net.solarnetwork.central.domain.Aggregation;
 import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
 import net.solarnetwork.flux.vernemq.webhook.domain.ActorType;
 import net.solarnetwork.flux.vernemq.webhook.domain.Message;
+import net.solarnetwork.flux.vernemq.webhook.domain.PublishAuthorization;
 import net.solarnetwork.flux.vernemq.webhook.domain.Qos;
 import net.solarnetwork.flux.vernemq.webhook.domain.TopicSettings;
 import net.solarnetwork.flux.vernemq.webhook.domain.TopicSubscriptionSetting;
 import net.solarnetwork.flux.vernemq.webhook.domain.v311.PublishRequest;
 import net.solarnetwork.flux.vernemq.webhook.service.AuthorizationEvaluator;
-import net.solarnetwork.util.StringUtils;
 
 /**
  * Basic implementation of {@link AuthorizationEvaluator}.
@@ -68,8 +70,24 @@ import net.solarnetwork.util.StringUtils;
  * does not restrict it.
  * </p>
  * 
+ * <p>
+ * Node datum topics are parsed with {@link NodeDatumTopic#parse(String)} unless a custom
+ * {@link #setNodeDatumTopicRegex(Pattern)} expression is configured.
+ * </p>
+ * 
+ * <p>
+ * If {@link #setDecisionCacheMaxActors(int)} is configured, the publish and subscribe decisions of
+ * each actor are remembered by topic and Qos, so that repeated requests by the same actor are not
+ * evaluated again. Decisions are remembered per actor instance, so they are discarded whenever an
+ * actor is reloaded.
+ * </p>
+ * 
+ * <p>
+ * Policy source IDs are compiled into a {@link SourceIdMatcher} once per policy instance.
+ * </p>
+ * 
  * @author matt
- * @version 1.2
+ * @version 1.3
  */
 public class SimpleAuthorizationEvaluator implements AuthorizationEvaluator {
 
@@ -87,55 +105,133 @@ public class SimpleAuthorizationEvaluator implements AuthorizationEvaluator {
   public static final String DEFAULT_USER_TOPIC_REGEX = "(?:user/(\\d+)/)?(.+)";
   // CHECKSTYLE ON: LineLength
 
+  /**
+   * The default value for the {@code decisionCacheMaxTopics} property.
+   * 
+   * @since 1.3
+   */
+  public static final int DEFAULT_DECISION_CACHE_MAX_TOPICS = 64;
+
+
   private Pattern nodeDatumTopicRegex = Pattern.compile(DEFAULT_NODE_DATUM_TOPIC_REGEX);
+  private boolean defaultNodeDatumTopicRegex = true;
   private Pattern userTopicRegex = Pattern.compile(DEFAULT_USER_TOPIC_REGEX);
   private boolean userTopicPrefix = false;
   private Qos maxQos = null;
+  private Cache<Actor, DecisionMemo> decisionCache;
+  private int decisionCacheMaxTopics = DEFAULT_DECISION_CACHE_MAX_TOPICS;
+  private final LongAdder decisionCacheHits = new LongAdder();
+  private final LongAdder decisionCacheMisses = new LongAdder();
+  private final TopicPolicyChecks checks = new TopicPolicyChecks();
+
+  private static final class TopicQos {
+
+    private final String topic;
+    private final Qos qos;
+
+    private TopicQos(String topic, Qos qos) {
+      super();
+      this.topic = topic;
+      this.qos = qos;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * topic.hashCode() + (qos != null ? qos.hashCode() : 0);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof TopicQos)) {
+        return false;
+      }
+      TopicQos other = (TopicQos) obj;
+      return qos == other.qos && topic.equals(other.topic);
+    }
+
+  }
+
+  private static final class PublishDecision {
+
+    private static final PublishDecision DENIED = new PublishDecision(null, null, null);
+
+    private final String topic;
+    private final Qos qos;
+    private final String sourceId;
+
+    private PublishDecision(String topic, Qos qos, String sourceId) {
+      super();
+      this.topic = topic;
+      this.qos = qos;
+      this.sourceId = sourceId;
+    }
+
+  }
+
+  private final class DecisionMemo {
+
+    private final Map<TopicQos, PublishDecision> publish = new ConcurrentHashMap<>(8);
+    private final Map<TopicQos, TopicSubscriptionSetting> subscribe = new ConcurrentHashMap<>(8);
+
+    private <V> void put(Map<TopicQos, V> decisions, TopicQos key, V decision) {
+      if (decisions.size() >= decisionCacheMaxTopics) {
+        // too many distinct topics for this actor; start over
+        decisions.clear();
+      }
+      decisions.put(key, decision);
+    }
+
+  }
 
   @Override
   public Message evaluatePublish(Actor actor, Message message) {
+    final PublishAuthorization auth = authorizePublish(actor, message);
+    return (auth != null ? auth.getMessage() : null);
+  }
+
+  @Override
+  public PublishAuthorization authorizePublish(Actor actor, Message message) {
     if (actor == null || message == null || message.getTopic() == null
         || message.getTopic().isEmpty()) {
-      return message;
+      return new PublishAuthorization(message, null);
     }
-    String topic = message.getTopic();
-    if (!actor.isPublishAllowed()) {
-      AUDIT_LOG.info("Topic [{}] access denied to {}: publish not allowed", topic, actor);
-      return null;
+    final String topic = message.getTopic();
+    final DecisionMemo memo = decisionMemo(actor);
+    PublishDecision decision = null;
+    TopicQos key = null;
+    if (memo != null) {
+      key = new TopicQos(topic, message.getQos());
+      decision = memo.publish.get(key);
+      if (decision != null) {
+        decisionCacheHits.increment();
+      } else {
+        decisionCacheMisses.increment();
+      }
     }
-
-    Qos qos = message.getQos();
-    if (maxQos != null && qos.getKey() > maxQos.getKey()) {
-      qos = maxQos;
+    if (decision == null) {
+      decision = publishDecision(actor, topic, message.getQos());
+      if (memo != null) {
+        memo.put(memo.publish, key, decision);
+      }
+    } else if (decision == PublishDecision.DENIED) {
+      DENIAL_LOG.denied("Topic [{}] access denied to {}: previously denied", topic, actor);
     }
-    Matcher m = nodeDatumTopicRegex.matcher(topic);
-    if (!m.matches()) {
-      AUDIT_LOG.info("Topic [{}] access denied to {}: invalid topic pattern", topic, actor);
+    if (decision == PublishDecision.DENIED) {
       return null;
-    } else {
-      String topicUserId = m.group(1);
-      String topicNode = m.group(2);
-      String topicAgg = m.group(3);
-      String topicSource = m.group(4);
-      if (!(topicUserAllowed(actor, topic, topicUserId) && topicNodeAllowed(actor, topic, topicNode)
-          && topicSourceAllowed(actor, topic, topicSource)
-          && topicAggregationAllowed(actor, topic, topicAgg))) {
-        return null;
-      }
-      if (userTopicPrefix && (topicUserId == null || topicUserId.isEmpty())) {
-        topic = "user/" + actor.getUserId() + "/" + topic;
-      }
     }
 
     Message result;
-    if (qos.equals(message.getQos()) && topic.equals(message.getTopic())) {
+    if (decision.qos.equals(message.getQos()) && decision.topic.equals(message.getTopic())) {
       // no change
       result = message;
     } else {
       // @formatter:off
       result = PublishRequest.builder()
-          .withTopic(topic)
-          .withQos(qos)
+          .withTopic(decision.topic)
+          .withQos(decision.qos)
           .withRetain(message.getRetain())
           .withPayload(message.getPayload())
           .build();
@@ -143,7 +239,29 @@ public class SimpleAuthorizationEvaluator implements AuthorizationEvaluator {
     }
 
     AUDIT_LOG.info("User {} granted publish {}", actor, result);
-    return result;
+    return new PublishAuthorization(result, decision.sourceId);
+  }
+
+  private PublishDecision publishDecision(Actor actor, String topic, Qos qos) {
+    if (!actor.isPublishAllowed()) {
+      DENIAL_LOG.denied("Topic [{}] access denied to {}: publish not allowed", topic, actor);
+      return PublishDecision.DENIED;
+    }
+    if (maxQos != null && qos.getKey() > maxQos.getKey()) {
+      qos = maxQos;
+    }
+    final NodeDatumTopic t = parseNodeDatumTopic(topic);
+    if (t == null) {
+      DENIAL_LOG.denied("Topic [{}] access denied to {}: invalid topic pattern", topic, actor);
+      return PublishDecision.DENIED;
+    }
+    if (!topicPolicyAllowed(actor, topic, t)) {
+      return PublishDecision.DENIED;
+    }
+    if (userTopicPrefix && !t.hasUserId()) {
+      topic = "user/" + actor.getUserId() + "/" + topic;
+    }
+    return new PublishDecision(topic, qos, t.getSourceId());
   }
 
   @Override
@@ -152,51 +270,32 @@ public class SimpleAuthorizationEvaluator implements AuthorizationEvaluator {
         || topics.getSettings().isEmpty()) {
       return topics;
     }
+    final DecisionMemo memo = decisionMemo(actor);
     List<TopicSubscriptionSetting> req = topics.getSettings();
     List<TopicSubscriptionSetting> res = new ArrayList<>(req.size());
     boolean haveChange = false;
     for (TopicSubscriptionSetting s : req) {
-      String topic = s.getTopic();
-      Qos qos = s.getQos();
-      if (maxQos != null && qos.getKey() > maxQos.getKey()) {
-        qos = maxQos;
-      }
-      Matcher m = nodeDatumTopicRegex.matcher(topic);
-      if (!m.matches()) {
-        boolean userTopicMatch = false;
-        if (actor.getActorType() == ActorType.UserToken) {
-          Matcher um = userTopicRegex.matcher(topic);
-          if (um.matches()) {
-            userTopicMatch = true;
-            String topicUserId = um.group(1);
-            if (!topicUserAllowed(actor, topic, topicUserId)) {
-              qos = Qos.NotAllowed;
-            }
-            if (userTopicPrefix && (topicUserId == null || topicUserId.isEmpty())) {
-              topic = "user/" + actor.getUserId() + "/" + topic;
-            }
-          }
-        }
-        if (!userTopicMatch) {
-          AUDIT_LOG.info("Topic [{}] access denied to {}: invalid topic pattern", topic, actor);
-          qos = Qos.NotAllowed;
-        }
-      } else {
-        String topicUserId = m.group(1);
-        String topicNode = m.group(2);
-        String topicAgg = m.group(3);
-        String topicSource = m.group(4);
-        if (!(topicUserAllowed(actor, topic, topicUserId)
-            && topicNodeAllowed(actor, topic, topicNode)
-            && topicSourceAllowed(actor, topic, topicSource)
-            && topicAggregationAllowed(actor, topic, topicAgg))) {
-          qos = Qos.NotAllowed;
+      TopicSubscriptionSetting decision = null;
+      TopicQos key = null;
+      if (memo != null) {
+        key = new TopicQos(s.getTopic(), s.getQos());
+        decision = memo.subscribe.get(key);
+        if (decision != null) {
+          decisionCacheHits.increment();
+        } else {
+          decisionCacheMisses.increment();
         }
-        if (userTopicPrefix && (topicUserId == null || topicUserId.isEmpty())) {
-          topic = "user/" + actor.getUserId() + "/" + topic;
+      }
+      if (decision == null) {
+        decision = subscribeDecision(actor, s.getTopic(), s.getQos());
+        if (memo != null) {
+          memo.put(memo.subscribe, key, decision);
         }
+      } else if (decision.getQos() == Qos.NotAllowed) {
+        DENIAL_LOG.denied("Topic [{}] access denied to {}: previously denied", s.getTopic(),
+            actor);
       }
-      if (qos.equals(s.getQos()) && topic.equals(s.getTopic())) {
+      if (decision.getQos().equals(s.getQos()) && decision.getTopic().equals(s.getTopic())) {
         // no change
         res.add(s);
       } else {
@@ -204,7 +303,7 @@ public class SimpleAuthorizationEvaluator implements AuthorizationEvaluator {
         if (!haveChange) {
           haveChange = true;
         }
-        res.add(TopicSubscriptionSetting.builder().withTopic(topic).withQos(qos).build());
+        res.add(decision);
       }
     }
 
@@ -213,137 +312,95 @@ public class SimpleAuthorizationEvaluator implements AuthorizationEvaluator {
     return result;
   }
 
+  private TopicSubscriptionSetting subscribeDecision(Actor actor, String topic, Qos qos) {
+    if (maxQos != null && qos.getKey() > maxQos.getKey()) {
+      qos = maxQos;
+    }
+    final NodeDatumTopic t = parseNodeDatumTopic(topic);
+    if (t == null) {
+      boolean userTopicMatch = false;
+      if (actor.getActorType() == ActorType.UserToken) {
+        Matcher um = userTopicRegex.matcher(topic);
+        if (um.matches()) {
+          userTopicMatch = true;
+          String topicUserId = um.group(1);
+          if (!topicUserAllowed(actor, topic, topicUserId)) {
+            qos = Qos.NotAllowed;
+          }
+          if (userTopicPrefix && (topicUserId == null || topicUserId.isEmpty())) {
+            topic = "user/" + actor.getUserId() + "/" + topic;
+          }
+        }
+      }
+      if (!userTopicMatch) {
+        DENIAL_LOG.denied("Topic [{}] access denied to {}: invalid topic pattern", topic, actor);
+        qos = Qos.NotAllowed;
+      }
+    } else {
+      if (!topicPolicyAllowed(actor, topic, t)) {
+        qos = Qos.NotAllowed;
+      }
+      if (userTopicPrefix && !t.hasUserId()) {
+        topic = "user/" + actor.getUserId() + "/" + topic;
+      }
+    }
+    return TopicSubscriptionSetting.builder().withTopic(topic).withQos(qos).build();
+  }
+
   @Override
   public String sourceIdForPublish(Actor actor, Message message) {
     if (actor == null || message == null || message.getTopic() == null
         || message.getTopic().isEmpty()) {
       return null;
     }
-    final String topic = message.getTopic();
-    final Matcher m = nodeDatumTopicRegex.matcher(topic);
-    if (!m.matches()) {
-      return null;
-    }
-    return m.group(4);
+    final NodeDatumTopic t = parseNodeDatumTopic(message.getTopic());
+    return (t != null ? t.getSourceId() : null);
   }
 
-  private PathMatcher createPathMatcher() {
-    AntPathMatcher matcher = new AntPathMatcher();
-    matcher.setCachePatterns(true);
-    matcher.setCaseSensitive(true);
-    return matcher;
-  }
-
-  private boolean topicUserAllowed(Actor actor, String topic, String topicUserId) {
-    if (topicUserId != null && !topicUserId.isEmpty()) {
-      Long actorUserId = actor.getUserId();
-      if (actorUserId == null) {
-        // userId required for matching topic user
-        AUDIT_LOG.info(
-            "Topic [{}] access denied to {}: topic user ID not allowed without actor user ID",
-            topic, actor);
-        return false;
-      }
-      try {
-        Long userId = Long.valueOf(topicUserId);
-        if (!actorUserId.equals(userId)) {
-          // requested user ID not allowed
-          AUDIT_LOG.info("Topic [{}] access denied to {}: user ID not allowed", topic, actor);
-          return false;
-        }
-      } catch (NumberFormatException e) {
-        // should not be here; deny access
-        AUDIT_LOG.info("Topic [{}] access denied to {}: user ID not a number", topic, actor);
-        return false;
-      }
+  private DecisionMemo decisionMemo(Actor actor) {
+    final Cache<Actor, DecisionMemo> cache = this.decisionCache;
+    if (cache == null) {
+      return null;
     }
-    return true;
+    return cache.get(actor, k -> new DecisionMemo());
   }
 
-  private boolean topicNodeAllowed(Actor actor, String topic, String topicNode) {
-    Set<Long> restrictedNodeIds = (actor.getPolicy() != null ? actor.getPolicy().getNodeIds()
-        : null);
-    if ("+".equals(topicNode)) {
-      // trying to use a wild card node ID
-      if (!userTopicPrefix) {
-        // userTopicPrefix must be enabled for wild card node ID support
-        AUDIT_LOG.info("Topic [{}] access denied to {}: wildcard node ID support not enabled",
-            topic, actor);
-        return false;
-      } else if (actor.getUserId() == null) {
-        // userId required for wild card node ID support
-        AUDIT_LOG.info(
-            "Topic [{}] access denied to {}: wildcard node ID not allowed without user ID", topic,
-            actor);
-        return false;
-      } else if (!(restrictedNodeIds == null || restrictedNodeIds.isEmpty())) {
-        // policy restricts access so deny
-        AUDIT_LOG.info("Topic [{}] access denied to {}: wildcard node ID not allowed by policy",
-            topic, actor);
-        return false;
-      }
-    } else {
-      Long nodeId;
-      try {
-        nodeId = Long.valueOf(topicNode);
-        if (!actor.getAllowedNodeIds().contains(nodeId)) {
-          // requested node ID not allowed, by policy or via ownership
-          AUDIT_LOG.info("Topic [{}] access denied to {}: node ID not allowed", topic, actor);
-          return false;
-        }
-      } catch (NumberFormatException e) {
-        // should not be here; deny access
-        AUDIT_LOG.info("Topic [{}] access denied to {}: node ID not a number", topic, actor);
-        return false;
-      }
+  private void clearDecisions() {
+    final Cache<Actor, DecisionMemo> cache = this.decisionCache;
+    if (cache != null) {
+      cache.invalidateAll();
     }
-    return true;
   }
 
-  private boolean topicSourceAllowed(Actor actor, String topic, String topicSource) {
-    Set<String> policySources = (actor.getPolicy() != null ? actor.getPolicy().getSourceIds()
-        : null);
-    if (policySources == null || policySources.isEmpty()) {
-      return true;
+  private NodeDatumTopic parseNodeDatumTopic(String topic) {
+    if (defaultNodeDatumTopicRegex) {
+      return NodeDatumTopic.parse(topic);
     }
-    // to make source wildcard step * NOT match MQTT wildcard path, insert path for all #
-    String topicSourceToMatch = topicSource.replaceAll("#", "#/#");
-    PathMatcher pathMatcher = createPathMatcher();
-    for (String policySource : policySources) {
-      if (pathMatcher.isPattern(policySource)) {
-        if (pathMatcher.match(policySource, topicSourceToMatch)) {
-          return true;
-        }
-      } else if (policySource.equals(topicSource)) {
-        return true;
-      }
-    }
-    AUDIT_LOG.info("Topic [{}] access denied to {}: source policy restrictions: {}", topic, actor,
-        StringUtils.commaDelimitedStringFromCollection(policySources));
-    return false;
+    return NodeDatumTopic.match(nodeDatumTopicRegex, topic);
   }
 
-  private boolean topicAggregationAllowed(Actor actor, String topic, String topicAgg) {
-    Set<Aggregation> policyAggregations = (actor.getPolicy() != null
-        ? actor.getPolicy().getAggregations()
-        : null);
-    if (policyAggregations == null || policyAggregations.isEmpty()) {
+  private boolean topicUserAllowed(Actor actor, String topic, String topicUserId) {
+    if (topicUserId == null || topicUserId.isEmpty()) {
       return true;
     }
-    Aggregation agg;
+    long userId;
     try {
-      agg = Aggregation.forKey(topicAgg);
-    } catch (IllegalArgumentException e) {
-      AUDIT_LOG.info("Topic [{}] access denied to {}: invalid aggregation [{}]", topic, actor,
-          topicAgg);
-      return false;
+      userId = Long.parseLong(topicUserId);
+    } catch (NumberFormatException e) {
+      userId = NodeDatumTopic.INVALID_ID;
     }
-    if (!policyAggregations.contains(agg)) {
-      AUDIT_LOG.info("Topic [{}] access denied to {}: aggregation policy restrictions: {}", topic,
-          actor, StringUtils.commaDelimitedStringFromCollection(policyAggregations));
-      return false;
-    }
-    return true;
+    return checks.userAllowed(actor, topic, userId);
+  }
+
+  private boolean topicUserAllowed(Actor actor, String topic, NodeDatumTopic t) {
+    return (!t.hasUserId() || checks.userAllowed(actor, topic, t.getUserId()));
+  }
+
+  private boolean topicPolicyAllowed(Actor actor, String topic, NodeDatumTopic t) {
+    return (topicUserAllowed(actor, topic, t)
+        && checks.nodeAllowed(actor, topic, t.getNodeId(), userTopicPrefix)
+        && checks.sourceAllowed(actor, topic, t.getSourceId())
+        && checks.aggregationAllowed(actor, topic, t.getAggregation()));
   }
 
   /**
@@ -373,6 +430,12 @@ public class SimpleAuthorizationEvaluator implements AuthorizationEvaluator {
    * Each group should be treated as a string, to accommodate topic wild cards.
    * </p>
    * 
+   * <p>
+   * Unless {@code nodeDatumTopicRegex} is the same as {@link #DEFAULT_NODE_DATUM_TOPIC_REGEX}, the
+   * expression is matched against every topic instead of using the faster
+   * {@link NodeDatumTopic#parse(String)} method.
+   * </p>
+   * 
    * @param nodeDatumTopicRegex
    *        the regular expression to use
    * @throws IllegalArgumentException
@@ -383,6 +446,9 @@ public class SimpleAuthorizationEvaluator implements AuthorizationEvaluator {
       throw new IllegalArgumentException("nodeDatumTopicRegex must not be null");
     }
     this.nodeDatumTopicRegex = nodeDatumTopicRegex;
+    this.defaultNodeDatumTopicRegex = (nodeDatumTopicRegex.flags() == 0
+        && DEFAULT_NODE_DATUM_TOPIC_REGEX.equals(nodeDatumTopicRegex.pattern()));
+    clearDecisions();
   }
 
   /**
@@ -407,6 +473,7 @@ public class SimpleAuthorizationEvaluator implements AuthorizationEvaluator {
       throw new IllegalArgumentException("userTopicRegex must not be null");
     }
     this.userTopicRegex = userTopicRegex;
+    clearDecisions();
   }
 
   /**
@@ -432,6 +499,7 @@ public class SimpleAuthorizationEvaluator implements AuthorizationEvaluator {
    */
   public void setUserTopicPrefix(boolean userTopicPrefix) {
     this.userTopicPrefix = userTopicPrefix;
+    clearDecisions();
   }
 
   /**
@@ -456,6 +524,89 @@ public class SimpleAuthorizationEvaluator implements AuthorizationEvaluator {
    */
   public void setMaxQos(Qos maxQos) {
     this.maxQos = maxQos;
+    clearDecisions();
+  }
+
+  /**
+   * Set the maximum number of actors to remember publish and subscribe decisions for.
+   * 
+   * <p>
+   * Actors are held weakly, so decisions are also discarded once an actor is no longer used, for
+   * example after it has been reloaded from the database.
+   * </p>
+   * 
+   * @param maxActors
+   *        the maximum number of actors, or {@literal 0} to not remember any decisions; defaults
+   *        to {@literal 0}
+   * @since 1.3
+   */
+  public void setDecisionCacheMaxActors(int maxActors) {
+    this.decisionCache = (maxActors > 0
+        ? Caffeine.newBuilder().weakKeys().maximumSize(maxActors).build()
+        : null);
+  }
+
+  /**
+   * Get the maximum number of decisions to remember for each actor.
+   * 
+   * @return the maximum number of decisions; defaults to
+   *         {@link #DEFAULT_DECISION_CACHE_MAX_TOPICS}
+   * @since 1.3
+   */
+  public int getDecisionCacheMaxTopics() {
+    return decisionCacheMaxTopics;
+  }
+
+  /**
+   * Set the maximum number of decisions to remember for each actor.
+   * 
+   * <p>
+   * Publish and subscribe decisions are counted separately. When an actor reaches this limit, its
+   * remembered decisions are discarded and collection starts over.
+   * </p>
+   * 
+   * @param decisionCacheMaxTopics
+   *        the maximum number of decisions
+   * @throws IllegalArgumentException
+   *         if {@code decisionCacheMaxTopics} is less than {@literal 1}
+   * @since 1.3
+   */
+  public void setDecisionCacheMaxTopics(int decisionCacheMaxTopics) {
+    if (decisionCacheMaxTopics < 1) {
+      throw new IllegalArgumentException("decisionCacheMaxTopics must be at least 1");
+    }
+    this.decisionCacheMaxTopics = decisionCacheMaxTopics;
+  }
+
+  /**
+   * Get the number of actors decisions are remembered for.
+   * 
+   * @return the number of actors
+   * @since 1.3
+   */
+  public long getDecisionCacheSize() {
+    final Cache<Actor, DecisionMemo> cache = this.decisionCache;
+    return (cache != null ? cache.estimatedSize() : 0);
+  }
+
+  /**
+   * Get the number of publish and subscribe decisions found in the decision cache.
+   * 
+   * @return the hit count
+   * @since 1.3
+   */
+  public long getDecisionCacheHits() {
+    return decisionCacheHits.sum();
+  }
+
+  /**
+   * Get the number of publish and subscribe decisions not found in the decision cache.
+   * 
+   * @return the miss count
+   * @since 1.3
+   */
+  public long getDecisionCacheMisses() {
+    return decisionCacheMisses.sum();
   }
 
 }
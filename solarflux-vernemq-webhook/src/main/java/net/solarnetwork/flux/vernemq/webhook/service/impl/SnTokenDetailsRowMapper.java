@@ -22,19 +22,13 @@ import java.sql.SQLException;
 
 import org.springframework.jdbc.core.RowMapper;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.joda.JodaModule;
-
-import net.solarnetwork.central.security.BasicSecurityPolicy;
 import net.solarnetwork.central.security.SecurityPolicy;
-import net.solarnetwork.central.support.JsonUtils;
 
 /**
  * {@link RowMapper} for {@link SnTokenDetails}.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class SnTokenDetailsRowMapper implements RowMapper<SnTokenDetails> {
 
@@ -53,7 +47,7 @@ public class SnTokenDetailsRowMapper implements RowMapper<SnTokenDetails> {
    */
   public static int DEFAULT_POLICY_COL = 3;
 
-  private final ObjectMapper mapper;
+  private final SecurityPolicyDecoder policyDecoder;
   private final String tokenId;
   private final int userIdCol;
   private final int tokenTypeCol;
@@ -66,7 +60,20 @@ public class SnTokenDetailsRowMapper implements RowMapper<SnTokenDetails> {
    *        the token ID
    */
   public SnTokenDetailsRowMapper(String tokenId) {
-    this(tokenId, DEFAULT_USER_ID_COL, DEFAULT_TOKEN_TYPE_COL, DEFAULT_POLICY_COL);
+    this(tokenId, SecurityPolicyDecoder.defaultDecoder());
+  }
+
+  /**
+   * Constructor with default column settings.
+   * 
+   * @param tokenId
+   *        the token ID
+   * @param policyDecoder
+   *        the policy decoder to use
+   * @since 1.1
+   */
+  public SnTokenDetailsRowMapper(String tokenId, SecurityPolicyDecoder policyDecoder) {
+    this(tokenId, DEFAULT_USER_ID_COL, DEFAULT_TOKEN_TYPE_COL, DEFAULT_POLICY_COL, policyDecoder);
   }
 
   /**
@@ -82,30 +89,44 @@ public class SnTokenDetailsRowMapper implements RowMapper<SnTokenDetails> {
    *        the JDBC column for the policy
    */
   public SnTokenDetailsRowMapper(String tokenId, int userIdCol, int tokenTypeCol, int policyCol) {
+    this(tokenId, userIdCol, tokenTypeCol, policyCol, SecurityPolicyDecoder.defaultDecoder());
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param tokenId
+   *        the token ID
+   * @param userIdCol
+   *        the JDBC column for the user ID
+   * @param tokenTypeCol
+   *        the JDBC column for the token type
+   * @param policyCol
+   *        the JDBC column for the policy
+   * @param policyDecoder
+   *        the policy decoder to use
+   * @throws IllegalArgumentException
+   *         if {@code policyDecoder} is {@literal null}
+   * @since 1.1
+   */
+  public SnTokenDetailsRowMapper(String tokenId, int userIdCol, int tokenTypeCol, int policyCol,
+      SecurityPolicyDecoder policyDecoder) {
     super();
+    if (policyDecoder == null) {
+      throw new IllegalArgumentException("policyDecoder must not be null");
+    }
     this.tokenId = tokenId;
     this.userIdCol = userIdCol;
     this.tokenTypeCol = tokenTypeCol;
     this.policyCol = policyCol;
-
-    ObjectMapper mapper = JsonUtils.newObjectMapper();
-    mapper.registerModule(new JodaModule());
-    this.mapper = mapper;
+    this.policyDecoder = policyDecoder;
   }
 
   @Override
   public SnTokenDetails mapRow(ResultSet rs, int rowNum) throws SQLException {
     Long userId = rs.getLong(userIdCol);
     String tokenType = rs.getString(tokenTypeCol);
-    String policyJson = rs.getString(policyCol);
-    SecurityPolicy policy = null;
-    if (policyJson != null) {
-      try {
-        policy = mapper.readValue(policyJson, BasicSecurityPolicy.class);
-      } catch (JsonProcessingException e) {
-        // simply ignore
-      }
-    }
+    SecurityPolicy policy = policyDecoder.decode(rs.getString(policyCol));
     // @formatter:off
     return SnTokenDetails.builder()
         .withTokenId(this.tokenId)
@@ -0,0 +1,150 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import static net.solarnetwork.util.StringUtils.delimitedStringToMap;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import net.solarnetwork.web.security.AuthenticationUtils;
+import net.solarnetwork.web.security.AuthorizationV2Builder;
+
+/**
+ * Token signing details, to support verifying token signatures without the database.
+ * 
+ * <p>
+ * This object holds the token secret along with the details of the token. The SolarNetwork V2
+ * signing key derived from the token secret is only valid for a single day, so the most recently
+ * derived key is remembered and reused for all signatures with request dates on the same day.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class SnTokenSigningDetails {
+
+  /** The signature attribute name in a SolarNetwork V2 authorization header. */
+  private static final String SIGNATURE_ATTRIBUTE = "Signature";
+
+  private final SnTokenDetails tokenDetails;
+  private final String tokenSecret;
+  private volatile DerivedSigningKey signingKey;
+
+  /**
+   * Constructor.
+   * 
+   * @param tokenDetails
+   *        the token details
+   * @param tokenSecret
+   *        the token secret
+   * @throws IllegalArgumentException
+   *         if any argument is {@literal null}
+   */
+  public SnTokenSigningDetails(SnTokenDetails tokenDetails, String tokenSecret) {
+    super();
+    if (tokenDetails == null || tokenDetails.getTokenId() == null) {
+      throw new IllegalArgumentException("The tokenDetails argument must not be null.");
+    }
+    this.tokenDetails = tokenDetails;
+    if (tokenSecret == null) {
+      throw new IllegalArgumentException("The tokenSecret argument must not be null.");
+    }
+    this.tokenSecret = tokenSecret;
+  }
+
+  private static final class DerivedSigningKey {
+
+    private final long day;
+    private final byte[] key;
+
+    private DerivedSigningKey(long day, byte[] key) {
+      super();
+      this.day = day;
+      this.key = key;
+    }
+  }
+
+  @Override
+  public String toString() {
+    // NOTE: the secret is intentionally not included here
+    return "SnTokenSigningDetails{" + tokenDetails.getTokenId() + "}";
+  }
+
+  /**
+   * Verify a SolarNetwork V2 token signature.
+   * 
+   * @param reqDate
+   *        the request date, in milliseconds since the epoch
+   * @param host
+   *        the signed host
+   * @param path
+   *        the signed path
+   * @param signature
+   *        the hex-encoded signature to verify
+   * @return {@literal true} if {@code signature} is valid
+   */
+  public boolean verify(long reqDate, String host, String path, String signature) {
+    if (signature == null) {
+      return false;
+    }
+    final Date date = new Date(reqDate);
+    final AuthorizationV2Builder builder = new AuthorizationV2Builder(tokenDetails.getTokenId())
+        .date(date).header("X-SN-Date", AuthenticationUtils.httpDate(date)).host(host).path(path);
+    final String header = builder.buildWithKey(signingKey(builder, reqDate));
+    final Map<String, String> tokens = delimitedStringToMap(header, ",", "=");
+    final String expected = (tokens != null ? tokens.get(SIGNATURE_ATTRIBUTE) : null);
+    if (expected == null) {
+      return false;
+    }
+    return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII),
+        signature.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private byte[] signingKey(AuthorizationV2Builder builder, long reqDate) {
+    final long day = Math.floorDiv(reqDate, TimeUnit.DAYS.toMillis(1));
+    DerivedSigningKey k = signingKey;
+    if (k == null || k.day != day) {
+      k = new DerivedSigningKey(day, builder.computeSigningKey(tokenSecret));
+      signingKey = k;
+    }
+    return k.key;
+  }
+
+  /**
+   * Get the token details.
+   * 
+   * @return the token details, never {@literal null}
+   */
+  public SnTokenDetails getTokenDetails() {
+    return tokenDetails;
+  }
+
+  /**
+   * Get the token ID.
+   * 
+   * @return the token ID, never {@literal null}
+   */
+  public String getTokenId() {
+    return tokenDetails.getTokenId();
+  }
+
+}
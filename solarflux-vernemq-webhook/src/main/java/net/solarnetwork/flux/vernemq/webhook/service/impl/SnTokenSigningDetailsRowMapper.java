@@ -0,0 +1,157 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import net.solarnetwork.central.security.SecurityPolicy;
+
+/**
+ * {@link RowMapper} for {@link SnTokenSigningDetails}.
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public class SnTokenSigningDetailsRowMapper implements RowMapper<SnTokenSigningDetails> {
+
+  /**
+   * The default value for the {@code tokenIdCol} property.
+   */
+  public static int DEFAULT_TOKEN_ID_COL = 1;
+
+  /**
+   * The default value for the {@code tokenSecretCol} property.
+   */
+  public static int DEFAULT_TOKEN_SECRET_COL = 2;
+
+  /**
+   * The default value for the {@code userIdCol} property.
+   */
+  public static int DEFAULT_USER_ID_COL = 3;
+
+  /**
+   * The default value for the {@code tokenTypeCol} property.
+   */
+  public static int DEFAULT_TOKEN_TYPE_COL = 4;
+
+  /**
+   * The default value for the {@code policyCol} property.
+   */
+  public static int DEFAULT_POLICY_COL = 5;
+
+  private final SecurityPolicyDecoder policyDecoder;
+  private final int tokenIdCol;
+  private final int tokenSecretCol;
+  private final int userIdCol;
+  private final int tokenTypeCol;
+  private final int policyCol;
+
+  /**
+   * Constructor with default settings.
+   */
+  public SnTokenSigningDetailsRowMapper() {
+    this(SecurityPolicyDecoder.defaultDecoder());
+  }
+
+  /**
+   * Constructor with default column settings.
+   * 
+   * @param policyDecoder
+   *        the policy decoder to use
+   * @since 1.1
+   */
+  public SnTokenSigningDetailsRowMapper(SecurityPolicyDecoder policyDecoder) {
+    this(DEFAULT_TOKEN_ID_COL, DEFAULT_TOKEN_SECRET_COL, DEFAULT_USER_ID_COL,
+        DEFAULT_TOKEN_TYPE_COL, DEFAULT_POLICY_COL, policyDecoder);
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param tokenIdCol
+   *        the JDBC column for the token ID
+   * @param tokenSecretCol
+   *        the JDBC column for the token secret
+   * @param userIdCol
+   *        the JDBC column for the user ID
+   * @param tokenTypeCol
+   *        the JDBC column for the token type
+   * @param policyCol
+   *        the JDBC column for the policy
+   */
+  public SnTokenSigningDetailsRowMapper(int tokenIdCol, int tokenSecretCol, int userIdCol,
+      int tokenTypeCol, int policyCol) {
+    this(tokenIdCol, tokenSecretCol, userIdCol, tokenTypeCol, policyCol,
+        SecurityPolicyDecoder.defaultDecoder());
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param tokenIdCol
+   *        the JDBC column for the token ID
+   * @param tokenSecretCol
+   *        the JDBC column for the token secret
+   * @param userIdCol
+   *        the JDBC column for the user ID
+   * @param tokenTypeCol
+   *        the JDBC column for the token type
+   * @param policyCol
+   *        the JDBC column for the policy
+   * @param policyDecoder
+   *        the policy decoder to use
+   * @throws IllegalArgumentException
+   *         if {@code policyDecoder} is {@literal null}
+   * @since 1.1
+   */
+  public SnTokenSigningDetailsRowMapper(int tokenIdCol, int tokenSecretCol, int userIdCol,
+      int tokenTypeCol, int policyCol, SecurityPolicyDecoder policyDecoder) {
+    super();
+    if (policyDecoder == null) {
+      throw new IllegalArgumentException("policyDecoder must not be null");
+    }
+    this.tokenIdCol = tokenIdCol;
+    this.tokenSecretCol = tokenSecretCol;
+    this.userIdCol = userIdCol;
+    this.tokenTypeCol = tokenTypeCol;
+    this.policyCol = policyCol;
+    this.policyDecoder = policyDecoder;
+  }
+
+  @Override
+  public SnTokenSigningDetails mapRow(ResultSet rs, int rowNum) throws SQLException {
+    String tokenId = rs.getString(tokenIdCol);
+    String tokenSecret = rs.getString(tokenSecretCol);
+    Long userId = rs.getLong(userIdCol);
+    String tokenType = rs.getString(tokenTypeCol);
+    SecurityPolicy policy = policyDecoder.decode(rs.getString(policyCol));
+    // @formatter:off
+    SnTokenDetails details = SnTokenDetails.builder()
+        .withTokenId(tokenId)
+        .withUserId(userId)
+        .withTokenType(tokenType)
+        .withPolicy(policy)
+        .build();
+    // @formatter:on
+    return new SnTokenSigningDetails(details, tokenSecret);
+  }
+
+}
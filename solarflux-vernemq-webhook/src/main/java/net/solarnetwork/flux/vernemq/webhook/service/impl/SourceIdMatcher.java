@@ -0,0 +1,448 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * Match topic source IDs against a set of security policy source IDs.
+ * 
+ * <p>
+ * The policy source IDs are compiled once, and then each topic source ID is tested in a single
+ * pass: non-pattern source IDs are looked up in a hash set, and Ant-style patterns are arranged in
+ * a tree by their leading literal path segments, so that only patterns that share a prefix with
+ * the topic source ID are evaluated. Patterns are evaluated with the same semantics as
+ * {@link AntPathMatcher}, including the MQTT {@literal #} wildcard handling where {@literal #} is
+ * treated as {@literal #/#} so that a single {@literal *} pattern step does not match it.
+ * </p>
+ * 
+ * <p>
+ * Patterns that use {@literal {}} URI template syntax, and source IDs that contain line
+ * terminator characters, are evaluated with {@link AntPathMatcher} directly.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class SourceIdMatcher {
+
+  private static final char SEPARATOR = '/';
+
+  private static final AntPathMatcher FALLBACK_MATCHER = createFallbackMatcher();
+
+  private final Set<String> sourceIds;
+  private final Node patterns;
+  private final List<String> fallbackPatterns;
+
+  private SourceIdMatcher(Set<String> sourceIds, Node patterns, List<String> fallbackPatterns) {
+    super();
+    this.sourceIds = sourceIds;
+    this.patterns = patterns;
+    this.fallbackPatterns = fallbackPatterns;
+  }
+
+  private static AntPathMatcher createFallbackMatcher() {
+    AntPathMatcher matcher = new AntPathMatcher();
+    matcher.setCachePatterns(true);
+    matcher.setCaseSensitive(true);
+    return matcher;
+  }
+
+  /**
+   * Compile a set of policy source IDs.
+   * 
+   * @param policySourceIds
+   *        the source IDs and source ID patterns to match
+   * @return the matcher, never {@literal null}
+   */
+  public static SourceIdMatcher compile(Collection<String> policySourceIds) {
+    final Set<String> sourceIds = new HashSet<>();
+    final Node root = new Node();
+    final List<String> fallback = new ArrayList<>(0);
+    boolean havePatterns = false;
+    if (policySourceIds != null) {
+      for (String policySource : policySourceIds) {
+        if (policySource == null) {
+          continue;
+        }
+        if (!FALLBACK_MATCHER.isPattern(policySource)) {
+          sourceIds.add(policySource);
+        } else if (policySource.indexOf('{') >= 0 || policySource.indexOf('}') >= 0) {
+          fallback.add(policySource);
+        } else {
+          root.add(new CompiledPattern(policySource));
+          havePatterns = true;
+        }
+      }
+    }
+    return new SourceIdMatcher(sourceIds, havePatterns ? root : null, fallback);
+  }
+
+  /**
+   * Test if a topic source ID matches any of the policy source IDs.
+   * 
+   * @param sourceId
+   *        the topic source ID
+   * @return {@literal true} if {@code sourceId} is matched
+   */
+  public boolean matches(String sourceId) {
+    if (sourceId == null) {
+      return false;
+    }
+    if (sourceIds.contains(sourceId)) {
+      return true;
+    }
+    if (patterns == null && fallbackPatterns.isEmpty()) {
+      return false;
+    }
+    // to make source wildcard step * NOT match MQTT wildcard path, insert path for all #
+    final String toMatch = (sourceId.indexOf('#') < 0 ? sourceId : sourceId.replace("#", "#/#"));
+    if (patterns != null) {
+      if (hasLineTerminator(toMatch)) {
+        if (patterns.matchesFallback(toMatch)) {
+          return true;
+        }
+      } else {
+        final Path path = new Path(toMatch);
+        Node node = patterns;
+        for (int i = 0; node != null; i++) {
+          if (node.matches(path)) {
+            return true;
+          }
+          if (i >= path.count || node.children == null) {
+            break;
+          }
+          node = node.children.get(path.segment(i));
+        }
+      }
+    }
+    for (String pattern : fallbackPatterns) {
+      if (FALLBACK_MATCHER.match(pattern, toMatch)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasLineTerminator(String s) {
+    for (int i = 0, len = s.length(); i < len; i++) {
+      if (isLineTerminator(s.charAt(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isLineTerminator(char c) {
+    return (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029');
+  }
+
+  private static boolean isWildcard(char c) {
+    return (c == '*' || c == '?');
+  }
+
+  /**
+   * A tree node of patterns sharing the same leading literal path segments.
+   */
+  private static final class Node {
+
+    private Map<String, Node> children;
+    private List<CompiledPattern> patterns;
+
+    private void add(CompiledPattern pattern) {
+      Node node = this;
+      for (int i = 0; i < pattern.dirs.length && pattern.literal[i]; i++) {
+        if (node.children == null) {
+          node.children = new HashMap<>(4);
+        }
+        node = node.children.computeIfAbsent(pattern.dirs[i], k -> new Node());
+      }
+      if (node.patterns == null) {
+        node.patterns = new ArrayList<>(2);
+      }
+      node.patterns.add(pattern);
+    }
+
+    private boolean matches(Path path) {
+      if (patterns != null) {
+        for (CompiledPattern pattern : patterns) {
+          if (pattern.matches(path)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    private boolean matchesFallback(String path) {
+      if (patterns != null) {
+        for (CompiledPattern pattern : patterns) {
+          if (FALLBACK_MATCHER.match(pattern.pattern, path)) {
+            return true;
+          }
+        }
+      }
+      if (children != null) {
+        for (Node child : children.values()) {
+          if (child.matchesFallback(path)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+  }
+
+  /**
+   * A path split into segments, ignoring empty segments.
+   */
+  private static final class Path {
+
+    private final String value;
+    private final boolean leadingSeparator;
+    private final boolean trailingSeparator;
+    private final int[] starts;
+    private final int[] ends;
+    private final int count;
+
+    private Path(String value) {
+      super();
+      this.value = value;
+      final int len = value.length();
+      this.leadingSeparator = (len > 0 && value.charAt(0) == SEPARATOR);
+      this.trailingSeparator = (len > 0 && value.charAt(len - 1) == SEPARATOR);
+      int max = 1;
+      for (int i = 0; i < len; i++) {
+        if (value.charAt(i) == SEPARATOR) {
+          max++;
+        }
+      }
+      int[] s = new int[max];
+      int[] e = new int[max];
+      int n = 0;
+      int start = 0;
+      for (int i = 0; i <= len; i++) {
+        if (i == len || value.charAt(i) == SEPARATOR) {
+          if (i > start) {
+            s[n] = start;
+            e[n] = i;
+            n++;
+          }
+          start = i + 1;
+        }
+      }
+      this.starts = s;
+      this.ends = e;
+      this.count = n;
+    }
+
+    private String segment(int i) {
+      return value.substring(starts[i], ends[i]);
+    }
+
+  }
+
+  /**
+   * An Ant-style path pattern, evaluated with the same rules as {@link AntPathMatcher}.
+   */
+  private static final class CompiledPattern {
+
+    private final String pattern;
+    private final boolean leadingSeparator;
+    private final boolean trailingSeparator;
+    private final String[] dirs;
+    private final boolean[] literal;
+    private final boolean[] doubleWildcard;
+
+    private CompiledPattern(String pattern) {
+      super();
+      this.pattern = pattern;
+      final Path p = new Path(pattern);
+      this.leadingSeparator = p.leadingSeparator;
+      this.trailingSeparator = p.trailingSeparator;
+      this.dirs = new String[p.count];
+      this.literal = new boolean[p.count];
+      this.doubleWildcard = new boolean[p.count];
+      for (int i = 0; i < p.count; i++) {
+        final String dir = p.segment(i);
+        dirs[i] = dir;
+        doubleWildcard[i] = "**".equals(dir);
+        boolean lit = true;
+        for (int j = 0, len = dir.length(); j < len; j++) {
+          if (isWildcard(dir.charAt(j))) {
+            lit = false;
+            break;
+          }
+        }
+        literal[i] = lit;
+      }
+    }
+
+    private boolean matchDir(int pattIdx, Path path, int pathIdx) {
+      final String dir = dirs[pattIdx];
+      final int start = path.starts[pathIdx];
+      final int end = path.ends[pathIdx];
+      if (literal[pattIdx]) {
+        return (end - start == dir.length() && path.value.startsWith(dir, start));
+      }
+      return globMatch(dir, path.value, start, end);
+    }
+
+    private static boolean globMatch(String p, String s, int start, int end) {
+      final int plen = p.length();
+      int pi = 0;
+      int si = start;
+      int starP = -1;
+      int starS = -1;
+      while (si < end) {
+        final char pc = (pi < plen ? p.charAt(pi) : 0);
+        if (pi < plen && pc == '*') {
+          starP = pi++;
+          starS = si;
+        } else if (pi < plen && (pc == '?' || pc == s.charAt(si))) {
+          pi++;
+          si++;
+        } else if (starP >= 0) {
+          pi = starP + 1;
+          si = ++starS;
+        } else {
+          return false;
+        }
+      }
+      while (pi < plen && p.charAt(pi) == '*') {
+        pi++;
+      }
+      return pi == plen;
+    }
+
+    private boolean allDoubleWildcard(int from, int to) {
+      for (int i = from; i <= to; i++) {
+        if (!doubleWildcard[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean matches(Path path) {
+      if (path.leadingSeparator != leadingSeparator) {
+        return false;
+      }
+      int pattIdxStart = 0;
+      int pattIdxEnd = dirs.length - 1;
+      int pathIdxStart = 0;
+      int pathIdxEnd = path.count - 1;
+
+      // match all elements up to the first **
+      while (pattIdxStart <= pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+        if (doubleWildcard[pattIdxStart]) {
+          break;
+        }
+        if (!matchDir(pattIdxStart, path, pathIdxStart)) {
+          return false;
+        }
+        pattIdxStart++;
+        pathIdxStart++;
+      }
+
+      if (pathIdxStart > pathIdxEnd) {
+        // path is exhausted, only match if rest of pattern is * or **'s
+        if (pattIdxStart > pattIdxEnd) {
+          return (trailingSeparator == path.trailingSeparator);
+        }
+        if (pattIdxStart == pattIdxEnd && "*".equals(dirs[pattIdxStart])
+            && path.trailingSeparator) {
+          return true;
+        }
+        return allDoubleWildcard(pattIdxStart, pattIdxEnd);
+      } else if (pattIdxStart > pattIdxEnd) {
+        // path not exhausted, but pattern is
+        return false;
+      }
+
+      // match all elements up to the last **
+      while (pattIdxStart <= pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+        if (doubleWildcard[pattIdxEnd]) {
+          break;
+        }
+        if (!matchDir(pattIdxEnd, path, pathIdxEnd)) {
+          return false;
+        }
+        if (pattIdxEnd == dirs.length - 1 && trailingSeparator != path.trailingSeparator) {
+          return false;
+        }
+        pattIdxEnd--;
+        pathIdxEnd--;
+      }
+      if (pathIdxStart > pathIdxEnd) {
+        // path is exhausted
+        return allDoubleWildcard(pattIdxStart, pattIdxEnd);
+      }
+
+      // match the elements between each pair of **
+      while (pattIdxStart != pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+        int patIdxTmp = -1;
+        for (int i = pattIdxStart + 1; i <= pattIdxEnd; i++) {
+          if (doubleWildcard[i]) {
+            patIdxTmp = i;
+            break;
+          }
+        }
+        if (patIdxTmp == pattIdxStart + 1) {
+          // '**/**' situation, so skip one
+          pattIdxStart++;
+          continue;
+        }
+        // find the pattern between pattIdxStart and patIdxTmp in the path
+        final int patLength = (patIdxTmp - pattIdxStart - 1);
+        final int strLength = (pathIdxEnd - pathIdxStart + 1);
+        int foundIdx = -1;
+        for (int i = 0; i <= strLength - patLength && foundIdx < 0; i++) {
+          boolean found = true;
+          for (int j = 0; j < patLength; j++) {
+            if (!matchDir(pattIdxStart + j + 1, path, pathIdxStart + i + j)) {
+              found = false;
+              break;
+            }
+          }
+          if (found) {
+            foundIdx = pathIdxStart + i;
+          }
+        }
+        if (foundIdx < 0) {
+          return false;
+        }
+        pattIdxStart = patIdxTmp;
+        pathIdxStart = foundIdx + patLength;
+      }
+
+      return allDoubleWildcard(pattIdxStart, pattIdxEnd);
+    }
+
+  }
+
+}
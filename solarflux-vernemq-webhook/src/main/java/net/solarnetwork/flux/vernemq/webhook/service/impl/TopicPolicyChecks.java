@@ -0,0 +1,195 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import static net.solarnetwork.flux.vernemq.webhook.Globals.DENIAL_LOG;
+
+import java.util.Set;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import net.solarnetwork.central.domain.Aggregation;
+import net.solarnetwork.central.security.SecurityPolicy;
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+import net.solarnetwork.util.StringUtils;
+
+/**
+ * Security policy checks for the components of a topic.
+ * 
+ * <p>
+ * Each check logs the reason for any denial to the audit log.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+final class TopicPolicyChecks {
+
+  /**
+   * The maximum number of compiled policy source ID matchers to cache.
+   */
+  private static final int SOURCE_MATCHER_CACHE_MAX_SIZE = 10000;
+
+  private final Cache<SecurityPolicy, SourceIdMatcher> sourceMatchers = Caffeine.newBuilder()
+      .weakKeys().maximumSize(SOURCE_MATCHER_CACHE_MAX_SIZE).build();
+
+  /**
+   * Test if a topic user ID is allowed.
+   * 
+   * @param actor
+   *        the actor
+   * @param topic
+   *        the topic
+   * @param userId
+   *        the topic user ID, or {@link NodeDatumTopic#INVALID_ID} if not a valid number
+   * @return {@literal true} if the user ID is allowed
+   */
+  boolean userAllowed(Actor actor, String topic, long userId) {
+    Long actorUserId = actor.getUserId();
+    if (actorUserId == null) {
+      // userId required for matching topic user
+      DENIAL_LOG.denied(
+          "Topic [{}] access denied to {}: topic user ID not allowed without actor user ID",
+          topic, actor);
+      return false;
+    }
+    if (userId == NodeDatumTopic.INVALID_ID) {
+      // should not be here; deny access
+      DENIAL_LOG.denied("Topic [{}] access denied to {}: user ID not a number", topic, actor);
+      return false;
+    }
+    if (actorUserId.longValue() != userId) {
+      // requested user ID not allowed
+      DENIAL_LOG.denied("Topic [{}] access denied to {}: user ID not allowed", topic, actor);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Test if a topic node ID is allowed.
+   * 
+   * @param actor
+   *        the actor
+   * @param topic
+   *        the topic
+   * @param nodeId
+   *        the topic node ID, {@link NodeDatumTopic#WILDCARD_ID} for a wildcard, or
+   *        {@link NodeDatumTopic#INVALID_ID} if not a valid number
+   * @param wildcardSupported
+   *        {@literal true} if wildcard node IDs are supported
+   * @return {@literal true} if the node ID is allowed
+   */
+  boolean nodeAllowed(Actor actor, String topic, long nodeId, boolean wildcardSupported) {
+    Set<Long> restrictedNodeIds = (actor.getPolicy() != null ? actor.getPolicy().getNodeIds()
+        : null);
+    if (nodeId == NodeDatumTopic.WILDCARD_ID) {
+      // trying to use a wild card node ID
+      if (!wildcardSupported) {
+        // userTopicPrefix must be enabled for wild card node ID support
+        DENIAL_LOG.denied("Topic [{}] access denied to {}: wildcard node ID support not enabled",
+            topic, actor);
+        return false;
+      } else if (actor.getUserId() == null) {
+        // userId required for wild card node ID support
+        DENIAL_LOG.denied(
+            "Topic [{}] access denied to {}: wildcard node ID not allowed without user ID", topic,
+            actor);
+        return false;
+      } else if (!(restrictedNodeIds == null || restrictedNodeIds.isEmpty())) {
+        // policy restricts access so deny
+        DENIAL_LOG.denied("Topic [{}] access denied to {}: wildcard node ID not allowed by policy",
+            topic, actor);
+        return false;
+      }
+    } else if (nodeId == NodeDatumTopic.INVALID_ID) {
+      // should not be here; deny access
+      DENIAL_LOG.denied("Topic [{}] access denied to {}: node ID not a number", topic, actor);
+      return false;
+    } else if (!actor.isAllowedNodeId(nodeId)) {
+      // requested node ID not allowed, by policy or via ownership
+      DENIAL_LOG.denied("Topic [{}] access denied to {}: node ID not allowed", topic, actor);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Test if a topic source ID is allowed.
+   * 
+   * @param actor
+   *        the actor
+   * @param topic
+   *        the topic
+   * @param sourceId
+   *        the topic source ID
+   * @return {@literal true} if the source ID is allowed
+   */
+  boolean sourceAllowed(Actor actor, String topic, String sourceId) {
+    Set<String> policySources = (actor.getPolicy() != null ? actor.getPolicy().getSourceIds()
+        : null);
+    if (policySources == null || policySources.isEmpty()) {
+      return true;
+    }
+    // policies are shared between actors, so compile the policy sources once per policy
+    SourceIdMatcher matcher = sourceMatchers.get(actor.getPolicy(),
+        p -> SourceIdMatcher.compile(p.getSourceIds()));
+    if (matcher.matches(sourceId)) {
+      return true;
+    }
+    DENIAL_LOG.denied("Topic [{}] access denied to {}: source policy restrictions: {}", topic,
+        actor, StringUtils.commaDelimitedStringFromCollection(policySources));
+    return false;
+  }
+
+  /**
+   * Test if a topic aggregation is allowed.
+   * 
+   * @param actor
+   *        the actor
+   * @param topic
+   *        the topic
+   * @param topicAgg
+   *        the topic aggregation key
+   * @return {@literal true} if the aggregation is allowed
+   */
+  boolean aggregationAllowed(Actor actor, String topic, String topicAgg) {
+    Set<Aggregation> policyAggregations = (actor.getPolicy() != null
+        ? actor.getPolicy().getAggregations()
+        : null);
+    if (policyAggregations == null || policyAggregations.isEmpty()) {
+      return true;
+    }
+    Aggregation agg;
+    try {
+      agg = Aggregation.forKey(topicAgg);
+    } catch (IllegalArgumentException e) {
+      DENIAL_LOG.denied("Topic [{}] access denied to {}: invalid aggregation [{}]", topic, actor,
+          topicAgg);
+      return false;
+    }
+    if (!policyAggregations.contains(agg)) {
+      DENIAL_LOG.denied("Topic [{}] access denied to {}: aggregation policy restrictions: {}",
+          topic, actor, StringUtils.commaDelimitedStringFromCollection(policyAggregations));
+      return false;
+    }
+    return true;
+  }
+
+}
@@ -0,0 +1,249 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import static net.solarnetwork.flux.vernemq.webhook.Globals.AUDIT_LOG;
+import static net.solarnetwork.flux.vernemq.webhook.Globals.DENIAL_LOG;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorType;
+import net.solarnetwork.flux.vernemq.webhook.domain.Message;
+import net.solarnetwork.flux.vernemq.webhook.domain.PublishAuthorization;
+import net.solarnetwork.flux.vernemq.webhook.domain.Qos;
+import net.solarnetwork.flux.vernemq.webhook.domain.TopicRule;
+import net.solarnetwork.flux.vernemq.webhook.domain.TopicSettings;
+import net.solarnetwork.flux.vernemq.webhook.domain.TopicSubscriptionSetting;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.PublishRequest;
+import net.solarnetwork.flux.vernemq.webhook.service.AuthorizationEvaluator;
+
+/**
+ * {@link AuthorizationEvaluator} driven by a configurable list of {@link TopicRule} objects.
+ * 
+ * <p>
+ * The rules are compiled into a {@link TopicRuleTrie}, so each topic is matched in a single pass
+ * over its levels no matter how many rules are configured. Topics that do not match any rule are
+ * denied. Topics that do match a rule are then checked against the actor's security policy, for
+ * each of the <code>{userId}</code>, <code>{nodeId}</code>, <code>{sourceId}</code>, and
+ * <code>{aggregation}</code> levels the rule includes.
+ * </p>
+ * 
+ * <p>
+ * The {@link #defaultRules(boolean, Qos)} rules are equivalent to the topics supported by
+ * {@link SimpleAuthorizationEvaluator}.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class TopicRuleAuthorizationEvaluator implements AuthorizationEvaluator {
+
+  private final TopicPolicyChecks checks = new TopicPolicyChecks();
+  private TopicRuleTrie trie = TopicRuleTrie.compile(defaultRules(false, null));
+
+  /**
+   * Create a list of rules equivalent to the {@link SimpleAuthorizationEvaluator} topics.
+   * 
+   * <p>
+   * The rules support the following topics:
+   * </p>
+   * 
+   * <ul>
+   * <li><code>node/{nodeId}/datum/{aggregation}/{sourceId}</code></li>
+   * <li><code>user/{userId}/node/{nodeId}/datum/{aggregation}/{sourceId}</code></li>
+   * <li><code>user/{userId}/#</code> - subscribe only, for user tokens</li>
+   * <li><code>#</code> - subscribe only, for user tokens</li>
+   * </ul>
+   * 
+   * @param userTopicPrefix
+   *        {@literal true} to re-write topics with a <code>user/{userId}/</code> prefix
+   * @param maxQos
+   *        the maximum Qos to allow, or {@literal null} for no maximum
+   * @return the rules
+   */
+  public static List<TopicRule> defaultRules(boolean userTopicPrefix, Qos maxQos) {
+    final String nodeDatumTemplate = "node/{nodeId}/datum/{aggregation}/{sourceId}";
+    List<TopicRule> rules = new ArrayList<>(4);
+    for (String template : Arrays.asList(nodeDatumTemplate, "user/{userId}/" + nodeDatumTemplate,
+        "user/{userId}/#", "#")) {
+      TopicRule rule = new TopicRule(template);
+      rule.setUserTopicPrefix(userTopicPrefix);
+      rule.setMaxQos(maxQos);
+      if (!template.endsWith(nodeDatumTemplate)) {
+        rule.setPublish(false);
+        rule.setActorTypes(EnumSet.of(ActorType.UserToken));
+      }
+      rules.add(rule);
+    }
+    return rules;
+  }
+
+  @Override
+  public Message evaluatePublish(Actor actor, Message message) {
+    final PublishAuthorization auth = authorizePublish(actor, message);
+    return (auth != null ? auth.getMessage() : null);
+  }
+
+  @Override
+  public PublishAuthorization authorizePublish(Actor actor, Message message) {
+    if (actor == null || message == null || message.getTopic() == null
+        || message.getTopic().isEmpty()) {
+      return new PublishAuthorization(message, null);
+    }
+    String topic = message.getTopic();
+    if (!actor.isPublishAllowed()) {
+      DENIAL_LOG.denied("Topic [{}] access denied to {}: publish not allowed", topic, actor);
+      return null;
+    }
+    final TopicRuleTrie.Match m = trie.match(topic, actor.getActorType(), true);
+    if (m == null) {
+      DENIAL_LOG.denied("Topic [{}] access denied to {}: invalid topic pattern", topic, actor);
+      return null;
+    }
+    if (!policyAllowed(actor, topic, m)) {
+      return null;
+    }
+    final TopicRule rule = m.getRule();
+    final Qos qos = qos(rule, message.getQos());
+    if (rule.isUserTopicPrefix() && !m.hasUserId()) {
+      topic = "user/" + actor.getUserId() + "/" + topic;
+    }
+
+    Message result;
+    if (qos.equals(message.getQos()) && topic.equals(message.getTopic())) {
+      // no change
+      result = message;
+    } else {
+      // @formatter:off
+      result = PublishRequest.builder()
+          .withTopic(topic)
+          .withQos(qos)
+          .withRetain(message.getRetain())
+          .withPayload(message.getPayload())
+          .build();
+      // @formatter:on
+    }
+
+    AUDIT_LOG.info("User {} granted publish {}", actor, result);
+    return new PublishAuthorization(result, m.getSourceId());
+  }
+
+  @Override
+  public TopicSettings evaluateSubscribe(Actor actor, TopicSettings topics) {
+    if (actor == null || topics == null || topics.getSettings() == null
+        || topics.getSettings().isEmpty()) {
+      return topics;
+    }
+    List<TopicSubscriptionSetting> req = topics.getSettings();
+    List<TopicSubscriptionSetting> res = new ArrayList<>(req.size());
+    boolean haveChange = false;
+    for (TopicSubscriptionSetting s : req) {
+      String topic = s.getTopic();
+      Qos qos = s.getQos();
+      final TopicRuleTrie.Match m = trie.match(topic, actor.getActorType(), false);
+      if (m == null) {
+        DENIAL_LOG.denied("Topic [{}] access denied to {}: invalid topic pattern", topic, actor);
+        qos = Qos.NotAllowed;
+      } else {
+        final TopicRule rule = m.getRule();
+        qos = (policyAllowed(actor, topic, m) ? qos(rule, qos) : Qos.NotAllowed);
+        if (rule.isUserTopicPrefix() && !m.hasUserId()) {
+          topic = "user/" + actor.getUserId() + "/" + topic;
+        }
+      }
+      if (qos.equals(s.getQos()) && topic.equals(s.getTopic())) {
+        // no change
+        res.add(s);
+      } else {
+        // changed
+        haveChange = true;
+        res.add(TopicSubscriptionSetting.builder().withTopic(topic).withQos(qos).build());
+      }
+    }
+
+    TopicSettings result = (haveChange ? new TopicSettings(res) : topics);
+    AUDIT_LOG.info("User {} granted subscribe access to topics [{}]", actor, result);
+    return result;
+  }
+
+  @Override
+  public String sourceIdForPublish(Actor actor, Message message) {
+    if (actor == null || message == null || message.getTopic() == null
+        || message.getTopic().isEmpty()) {
+      return null;
+    }
+    final TopicRuleTrie.Match m = trie.match(message.getTopic(), actor.getActorType(), true);
+    return (m != null ? m.getSourceId() : null);
+  }
+
+  private static Qos qos(TopicRule rule, Qos qos) {
+    final Qos maxQos = rule.getMaxQos();
+    if (maxQos != null && qos.getKey() > maxQos.getKey()) {
+      return maxQos;
+    }
+    return qos;
+  }
+
+  private boolean policyAllowed(Actor actor, String topic, TopicRuleTrie.Match m) {
+    if (m.hasUserId() && !checks.userAllowed(actor, topic, m.getUserId())) {
+      return false;
+    }
+    if (m.hasNodeId()
+        && !checks.nodeAllowed(actor, topic, m.getNodeId(), m.getRule().isUserTopicPrefix())) {
+      return false;
+    }
+    if (m.hasSourceId() && !checks.sourceAllowed(actor, topic, m.getSourceId())) {
+      return false;
+    }
+    if (m.hasAggregation() && !checks.aggregationAllowed(actor, topic, m.getAggregation())) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Get the configured rules.
+   * 
+   * @return the rules, never {@literal null}
+   */
+  public List<TopicRule> getRules() {
+    return trie.getRules();
+  }
+
+  /**
+   * Set the rules.
+   * 
+   * <p>
+   * The rules are compiled when set, so changes made to the rules afterwards have no effect.
+   * </p>
+   * 
+   * @param rules
+   *        the rules to set, in priority order
+   * @throws IllegalArgumentException
+   *         if any rule template is not valid
+   */
+  public void setRules(List<TopicRule> rules) {
+    this.trie = TopicRuleTrie.compile(rules != null ? rules : Collections.emptyList());
+  }
+
+}
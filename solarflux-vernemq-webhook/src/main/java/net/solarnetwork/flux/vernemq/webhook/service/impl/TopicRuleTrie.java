@@ -0,0 +1,447 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorType;
+import net.solarnetwork.flux.vernemq.webhook.domain.TopicRule;
+
+/**
+ * A tree of {@link TopicRule} templates, organized by topic level.
+ * 
+ * <p>
+ * Topics are matched by walking the tree one level at a time, so the cost of finding a rule
+ * depends on the number of topic levels rather than the number of rules. When more than one rule
+ * matches a topic, literal levels are preferred over variable levels, which are preferred over
+ * multi-level ones. Rules with the same template are considered in the order they were
+ * configured.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class TopicRuleTrie {
+
+  private static final String USER_ID_VAR = "{userId}";
+  private static final String NODE_ID_VAR = "{nodeId}";
+  private static final String AGGREGATION_VAR = "{aggregation}";
+  private static final String SOURCE_ID_VAR = "{sourceId}";
+  private static final String SINGLE_LEVEL = "+";
+  private static final String MULTI_LEVEL = "#";
+
+  private final List<TopicRule> rules;
+  private final Node root;
+
+  private TopicRuleTrie(List<TopicRule> rules, Node root) {
+    super();
+    this.rules = rules;
+    this.root = root;
+  }
+
+  /**
+   * Compile a list of rules.
+   * 
+   * @param rules
+   *        the rules, in priority order
+   * @return the trie, never {@literal null}
+   * @throws IllegalArgumentException
+   *         if any rule template is not valid
+   */
+  public static TopicRuleTrie compile(List<TopicRule> rules) {
+    final List<TopicRule> list = (rules != null ? new ArrayList<>(rules) : new ArrayList<>(0));
+    final Node root = new Node();
+    for (TopicRule rule : list) {
+      if (rule == null || rule.getTemplate() == null || rule.getTemplate().isEmpty()) {
+        throw new IllegalArgumentException("Topic rule template must not be empty.");
+      }
+      add(root, rule);
+    }
+    return new TopicRuleTrie(Collections.unmodifiableList(list), root);
+  }
+
+  private static void add(Node root, TopicRule rule) {
+    final String[] levels = rule.getTemplate().split("/", -1);
+    Node node = root;
+    boolean user = false;
+    boolean nodeId = false;
+    boolean agg = false;
+    for (int i = 0; i < levels.length; i++) {
+      final String level = levels[i];
+      final boolean last = (i + 1 == levels.length);
+      if (SOURCE_ID_VAR.equals(level) || MULTI_LEVEL.equals(level)) {
+        if (!last) {
+          throw new IllegalArgumentException(
+              "The " + level + " topic rule level must be last: " + rule.getTemplate());
+        }
+        if (SOURCE_ID_VAR.equals(level)) {
+          if (i == 0) {
+            throw new IllegalArgumentException(
+                "The " + level + " topic rule level must not be first: " + rule.getTemplate());
+          }
+          node.sourceRules = append(node.sourceRules, rule);
+        } else {
+          node.multiLevelRules = append(node.multiLevelRules, rule);
+        }
+        return;
+      }
+      if (USER_ID_VAR.equals(level)) {
+        user = unique(user, level, rule);
+        if (node.userId == null) {
+          node.userId = new Node();
+        }
+        node = node.userId;
+      } else if (NODE_ID_VAR.equals(level)) {
+        nodeId = unique(nodeId, level, rule);
+        if (node.nodeId == null) {
+          node.nodeId = new Node();
+        }
+        node = node.nodeId;
+      } else if (AGGREGATION_VAR.equals(level)) {
+        agg = unique(agg, level, rule);
+        if (node.aggregation == null) {
+          node.aggregation = new Node();
+        }
+        node = node.aggregation;
+      } else if (SINGLE_LEVEL.equals(level)) {
+        if (node.singleLevel == null) {
+          node.singleLevel = new Node();
+        }
+        node = node.singleLevel;
+      } else if (level.indexOf('{') >= 0 || level.indexOf('+') >= 0
+          || level.indexOf('#') >= 0) {
+        throw new IllegalArgumentException(
+            "Unsupported topic rule level [" + level + "]: " + rule.getTemplate());
+      } else {
+        if (node.literals == null) {
+          node.literals = new HashMap<>(4);
+        }
+        node = node.literals.computeIfAbsent(level, k -> new Node());
+      }
+    }
+    node.rules = append(node.rules, rule);
+  }
+
+  private static boolean unique(boolean seen, String level, TopicRule rule) {
+    if (seen) {
+      throw new IllegalArgumentException(
+          "The " + level + " topic rule level must not be repeated: " + rule.getTemplate());
+    }
+    return true;
+  }
+
+  private static List<TopicRule> append(List<TopicRule> list, TopicRule rule) {
+    List<TopicRule> result = (list != null ? list : new ArrayList<>(2));
+    result.add(rule);
+    return result;
+  }
+
+  /**
+   * Get the compiled rules.
+   * 
+   * @return the rules, never {@literal null}
+   */
+  public List<TopicRule> getRules() {
+    return rules;
+  }
+
+  /**
+   * Find the rule that matches a topic.
+   * 
+   * @param topic
+   *        the topic to match
+   * @param actorType
+   *        the type of actor making the request
+   * @param publish
+   *        {@literal true} to match publish rules, {@literal false} to match subscribe rules
+   * @return the match, or {@literal null} if no rule matches
+   */
+  public Match match(String topic, ActorType actorType, boolean publish) {
+    if (topic == null || topic.isEmpty()) {
+      return null;
+    }
+    final Match m = new Match(topic, actorType, publish);
+    return (m.walk(root, 0) ? m : null);
+  }
+
+  /**
+   * A tree node.
+   */
+  private static final class Node {
+
+    private Map<String, Node> literals;
+    private Node userId;
+    private Node nodeId;
+    private Node aggregation;
+    private Node singleLevel;
+    private List<TopicRule> rules;
+    private List<TopicRule> sourceRules;
+    private List<TopicRule> multiLevelRules;
+
+  }
+
+  /**
+   * The result of matching a topic to a rule.
+   */
+  public static final class Match {
+
+    private final String topic;
+    private final ActorType actorType;
+    private final boolean publish;
+    private final int[] starts;
+    private final int[] ends;
+    private final int count;
+    private TopicRule rule;
+    private int userLevel = -1;
+    private long userId = NodeDatumTopic.INVALID_ID;
+    private int nodeLevel = -1;
+    private long nodeId = NodeDatumTopic.INVALID_ID;
+    private int aggLevel = -1;
+    private int sourceStart = -1;
+    private String sourceId;
+
+    private Match(String topic, ActorType actorType, boolean publish) {
+      super();
+      this.topic = topic;
+      this.actorType = actorType;
+      this.publish = publish;
+      final int len = topic.length();
+      int n = 1;
+      for (int i = 0; i < len; i++) {
+        if (topic.charAt(i) == '/') {
+          n++;
+        }
+      }
+      this.starts = new int[n];
+      this.ends = new int[n];
+      this.count = n;
+      int level = 0;
+      int start = 0;
+      for (int i = 0; i <= len; i++) {
+        if (i == len || topic.charAt(i) == '/') {
+          starts[level] = start;
+          ends[level] = i;
+          level++;
+          start = i + 1;
+        }
+      }
+    }
+
+    private TopicRule select(List<TopicRule> list) {
+      if (list != null) {
+        for (TopicRule r : list) {
+          if ((publish ? r.isPublish() : r.isSubscribe()) && r.appliesTo(actorType)) {
+            return r;
+          }
+        }
+      }
+      return null;
+    }
+
+    private boolean walk(Node node, int level) {
+      if (level == count) {
+        rule = select(node.rules);
+        return (rule != null);
+      }
+      final int start = starts[level];
+      final int end = ends[level];
+      if (node.literals != null) {
+        Node child = node.literals.get(topic.substring(start, end));
+        if (child != null && walk(child, level + 1)) {
+          return true;
+        }
+      }
+      final boolean digits = isDigits(start, end);
+      if (node.userId != null && digits) {
+        userLevel = level;
+        userId = NodeDatumTopic.parseId(topic, start, end);
+        if (walk(node.userId, level + 1)) {
+          return true;
+        }
+        userLevel = -1;
+        userId = NodeDatumTopic.INVALID_ID;
+      }
+      if (node.nodeId != null
+          && (digits || (end - start == 1 && topic.charAt(start) == '+'))) {
+        nodeLevel = level;
+        nodeId = (digits ? NodeDatumTopic.parseId(topic, start, end)
+            : NodeDatumTopic.WILDCARD_ID);
+        if (walk(node.nodeId, level + 1)) {
+          return true;
+        }
+        nodeLevel = -1;
+        nodeId = NodeDatumTopic.INVALID_ID;
+      }
+      if (node.aggregation != null && end > start) {
+        aggLevel = level;
+        if (walk(node.aggregation, level + 1)) {
+          return true;
+        }
+        aggLevel = -1;
+      }
+      if (node.singleLevel != null && walk(node.singleLevel, level + 1)) {
+        return true;
+      }
+      if ((node.sourceRules != null || node.multiLevelRules != null) && isRemainder(start)) {
+        TopicRule r = select(node.sourceRules);
+        if (r != null) {
+          rule = r;
+          sourceStart = start - 1;
+          return true;
+        }
+        r = select(node.multiLevelRules);
+        if (r != null) {
+          rule = r;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean isDigits(int start, int end) {
+      if (end <= start) {
+        return false;
+      }
+      for (int i = start; i < end; i++) {
+        char c = topic.charAt(i);
+        if (c < '0' || c > '9') {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean isRemainder(int start) {
+      // the multi-level remainder must be non-empty and match the regular expression .+
+      final int len = topic.length();
+      if (start >= len) {
+        return false;
+      }
+      for (int i = start; i < len; i++) {
+        if (NodeDatumTopic.isLineTerminator(topic.charAt(i))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Get the matched topic.
+     * 
+     * @return the topic
+     */
+    public String getTopic() {
+      return topic;
+    }
+
+    /**
+     * Get the matched rule.
+     * 
+     * @return the rule
+     */
+    public TopicRule getRule() {
+      return rule;
+    }
+
+    /**
+     * Test if the topic includes a <code>{userId}</code> level.
+     * 
+     * @return {@literal true} if a user ID is available
+     */
+    public boolean hasUserId() {
+      return userLevel >= 0;
+    }
+
+    /**
+     * Get the topic user ID.
+     * 
+     * @return the user ID, or {@link NodeDatumTopic#INVALID_ID} if not available or not a valid
+     *         number
+     */
+    public long getUserId() {
+      return userId;
+    }
+
+    /**
+     * Test if the topic includes a <code>{nodeId}</code> level.
+     * 
+     * @return {@literal true} if a node ID is available
+     */
+    public boolean hasNodeId() {
+      return nodeLevel >= 0;
+    }
+
+    /**
+     * Get the topic node ID.
+     * 
+     * @return the node ID, {@link NodeDatumTopic#WILDCARD_ID} for a wildcard, or
+     *         {@link NodeDatumTopic#INVALID_ID} if not available or not a valid number
+     */
+    public long getNodeId() {
+      return nodeId;
+    }
+
+    /**
+     * Test if the topic includes an <code>{aggregation}</code> level.
+     * 
+     * @return {@literal true} if an aggregation is available
+     */
+    public boolean hasAggregation() {
+      return aggLevel >= 0;
+    }
+
+    /**
+     * Get the topic aggregation.
+     * 
+     * @return the aggregation, or {@literal null} if not available
+     */
+    public String getAggregation() {
+      return (aggLevel >= 0 ? topic.substring(starts[aggLevel], ends[aggLevel]) : null);
+    }
+
+    /**
+     * Test if the topic includes a <code>{sourceId}</code> level.
+     * 
+     * @return {@literal true} if a source ID is available
+     */
+    public boolean hasSourceId() {
+      return sourceStart >= 0;
+    }
+
+    /**
+     * Get the topic source ID.
+     * 
+     * @return the source ID, including its leading {@literal /}, or {@literal null} if not
+     *         available
+     */
+    public String getSourceId() {
+      String s = sourceId;
+      if (s == null && sourceStart >= 0) {
+        s = topic.substring(sourceStart);
+        sourceId = s;
+      }
+      return s;
+    }
+
+  }
+
+}
@@ -0,0 +1,360 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorType;
+
+/**
+ * Report access denied events to an audit log, optionally summarizing repeated events.
+ * 
+ * <p>
+ * By default every event is logged immediately to the configured {@link AuditEventLog}. After
+ * {@link #start(long)} is called, events are grouped by their actor and reason (the message
+ * template), regardless of topic. The first event of a group is logged immediately, and subsequent
+ * events of that group are counted. Each interval, a summary of every group with repeated events
+ * is logged, using the arguments of the first event and the number of times it was repeated.
+ * Groups without repeated events in an interval are discarded, so the next event for that group is
+ * again logged immediately.
+ * </p>
+ * 
+ * <p>
+ * {@link Actor} instances are grouped by their identity: their type, user ID, and token ID or node
+ * IDs. Other actor values are grouped by their own equality. Event arguments are only rendered when
+ * they are logged. At most {@code maxGroups} groups are tracked; events for other groups are logged
+ * immediately.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public final class AuditDenialLog {
+
+  /** The default maximum number of groups to track. */
+  public static final int DEFAULT_MAX_GROUPS = 10000;
+
+  private static final Logger log = LoggerFactory.getLogger(AuditDenialLog.class);
+
+  private final AuditEventLog auditLog;
+  private final ConcurrentHashMap<Key, Group> groups = new ConcurrentHashMap<>(64);
+  private final LongAdder summarizedCount = new LongAdder();
+  private int maxGroups = DEFAULT_MAX_GROUPS;
+  private ScheduledExecutorService executor;
+  private volatile boolean summarizing;
+
+  /**
+   * Constructor.
+   * 
+   * @param auditLog
+   *        the audit log to report events to
+   * @throws IllegalArgumentException
+   *         if {@code auditLog} is {@literal null}
+   */
+  public AuditDenialLog(AuditEventLog auditLog) {
+    super();
+    if (auditLog == null) {
+      throw new IllegalArgumentException("auditLog must not be null");
+    }
+    this.auditLog = auditLog;
+  }
+
+  /**
+   * Report an access denied event.
+   * 
+   * @param format
+   *        the message template, with placeholders for {@code topic} and {@code actor}
+   * @param topic
+   *        the topic
+   * @param actor
+   *        the actor
+   */
+  public void denied(String format, Object topic, Object actor) {
+    if (!summarizing) {
+      auditLog.info(format, topic, actor);
+      return;
+    }
+    denied(format, topic, actor, null, false);
+  }
+
+  /**
+   * Report an access denied event with a detail argument.
+   * 
+   * @param format
+   *        the message template, with placeholders for {@code topic}, {@code actor}, and
+   *        {@code detail}
+   * @param topic
+   *        the topic
+   * @param actor
+   *        the actor
+   * @param detail
+   *        the detail
+   */
+  public void denied(String format, Object topic, Object actor, Object detail) {
+    if (!summarizing) {
+      auditLog.info(format, topic, actor, detail);
+      return;
+    }
+    denied(format, topic, actor, detail, true);
+  }
+
+  private void denied(String format, Object topic, Object actor, Object detail,
+      boolean hasDetail) {
+    final Key key = new Key(format, actor);
+    while (true) {
+      Group g = groups.get(key);
+      if (g == null) {
+        if (groups.size() >= maxGroups) {
+          break;
+        }
+        g = new Group(format, topic, actor, detail, hasDetail);
+        if (groups.putIfAbsent(key, g) == null) {
+          break;
+        }
+      } else if (g.repeated()) {
+        summarizedCount.increment();
+        return;
+      } else {
+        // group was retired by flush(); replace it
+        groups.remove(key, g);
+      }
+    }
+    if (hasDetail) {
+      auditLog.info(format, topic, actor, detail);
+    } else {
+      auditLog.info(format, topic, actor);
+    }
+  }
+
+  /**
+   * Log a summary of all repeated events since the previous flush.
+   * 
+   * <p>
+   * This method is called automatically every interval after {@link #start(long)} is called.
+   * </p>
+   */
+  public synchronized void flush() {
+    for (Iterator<Map.Entry<Key, Group>> itr = groups.entrySet().iterator(); itr.hasNext();) {
+      final Group g = itr.next().getValue();
+      final long count = g.drain();
+      if (count < 0) {
+        itr.remove();
+      } else if (g.hasDetail) {
+        auditLog.info(g.summaryFormat, g.topic, g.actor, g.detail, count);
+      } else {
+        auditLog.info(g.summaryFormat, g.topic, g.actor, count);
+      }
+    }
+  }
+
+  /**
+   * Start summarizing repeated events.
+   * 
+   * <p>
+   * If already started, this method does nothing.
+   * </p>
+   * 
+   * @param intervalSeconds
+   *        the number of seconds between summaries
+   * @throws IllegalArgumentException
+   *         if {@code intervalSeconds} is less than {@literal 1}
+   */
+  public synchronized void start(long intervalSeconds) {
+    if (intervalSeconds < 1) {
+      throw new IllegalArgumentException("intervalSeconds must be at least 1");
+    }
+    if (executor != null) {
+      return;
+    }
+    executor = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "AuditDenialLog");
+      t.setDaemon(true);
+      return t;
+    });
+    executor.scheduleWithFixedDelay(this::flushSafely, intervalSeconds, intervalSeconds,
+        TimeUnit.SECONDS);
+    summarizing = true;
+  }
+
+  private void flushSafely() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      log.warn("Error logging access denied summary: {}", e.toString());
+    }
+  }
+
+  /**
+   * Stop summarizing repeated events.
+   * 
+   * <p>
+   * A final summary is logged, and subsequent events are logged immediately.
+   * </p>
+   */
+  public synchronized void stop() {
+    if (executor == null) {
+      return;
+    }
+    summarizing = false;
+    executor.shutdownNow();
+    executor = null;
+    flush();
+    groups.clear();
+  }
+
+  /**
+   * Test if repeated events are being summarized.
+   * 
+   * @return {@literal true} if {@link #start(long)} has been called
+   */
+  public boolean isSummarizing() {
+    return summarizing;
+  }
+
+  /**
+   * Get the number of events counted in a summary instead of being logged individually.
+   * 
+   * @return the summarized event count
+   */
+  public long getSummarizedCount() {
+    return summarizedCount.sum();
+  }
+
+  /**
+   * Set the maximum number of groups to track.
+   * 
+   * @param maxGroups
+   *        the maximum number of groups
+   * @throws IllegalArgumentException
+   *         if {@code maxGroups} is less than {@literal 1}
+   */
+  public void setMaxGroups(int maxGroups) {
+    if (maxGroups < 1) {
+      throw new IllegalArgumentException("maxGroups must be at least 1");
+    }
+    this.maxGroups = maxGroups;
+  }
+
+  /**
+   * A group key, made from the message template and the identity of the actor.
+   */
+  private static final class Key {
+
+    private final String format;
+    private final ActorType actorType;
+    private final Long userId;
+    private final Object id;
+    private final int hash;
+
+    private Key(String format, Object actor) {
+      super();
+      this.format = format;
+      if (actor instanceof Actor) {
+        final Actor a = (Actor) actor;
+        this.actorType = a.getActorType();
+        this.userId = a.getUserId();
+        this.id = (a.getTokenId() != null ? a.getTokenId() : a.getUserNodeIds());
+      } else {
+        this.actorType = null;
+        this.userId = null;
+        this.id = actor;
+      }
+      this.hash = (31 * (31 * (31 * format.hashCode() + Objects.hashCode(actorType))
+          + Objects.hashCode(userId)) + Objects.hashCode(id));
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return hash == other.hash && format.equals(other.format) && actorType == other.actorType
+          && Objects.equals(userId, other.userId) && Objects.equals(id, other.id);
+    }
+
+  }
+
+  /**
+   * A group of repeated events.
+   * 
+   * <p>
+   * The repeat count is {@literal -1} once the group has been retired by {@link #drain()}, after
+   * which it no longer accepts events.
+   * </p>
+   */
+  private static final class Group {
+
+    private final String summaryFormat;
+    private final Object topic;
+    private final Object actor;
+    private final Object detail;
+    private final boolean hasDetail;
+    private final AtomicLong count = new AtomicLong();
+
+    private Group(String format, Object topic, Object actor, Object detail, boolean hasDetail) {
+      super();
+      this.summaryFormat = format + " (repeated {} times, first topic shown)";
+      this.topic = topic;
+      this.actor = actor;
+      this.detail = detail;
+      this.hasDetail = hasDetail;
+    }
+
+    private boolean repeated() {
+      while (true) {
+        long c = count.get();
+        if (c < 0) {
+          return false;
+        }
+        if (count.compareAndSet(c, c + 1)) {
+          return true;
+        }
+      }
+    }
+
+    private long drain() {
+      if (count.compareAndSet(0, -1)) {
+        return -1;
+      }
+      return count.getAndSet(0);
+    }
+
+  }
+
+}
@@ -0,0 +1,508 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An audit event log that can write events asynchronously.
+ * 
+ * <p>
+ * Events are described by a message template with up to four <code>{}</code> argument
+ * placeholders, like SLF4J. By default events are logged immediately to the configured
+ * {@link Logger}. After {@link #start(int)} is called, events are instead stored in a preallocated
+ * ring buffer and a background thread writes them to the logger, as one JSON object per line with
+ * the event date ({@code ts}, in milliseconds since the epoch) and the formatted message
+ * ({@code msg}). The message arguments are not rendered unless the logger is enabled for the
+ * {@literal INFO} level. Arguments are rendered on the writer thread, so they must be safe to
+ * render after the event is logged, for example by being immutable.
+ * </p>
+ * 
+ * <p>
+ * When the ring buffer is full, events are dropped rather than blocking the calling thread. The
+ * number of dropped events is available via {@link #getDroppedCount()} and is logged as a warning
+ * by the writer thread.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public final class AuditEventLog {
+
+  /** The default buffer size. */
+  public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  /**
+   * The maximum buffer size.
+   * 
+   * @since 1.1
+   */
+  public static final int MAX_BUFFER_SIZE = 1 << 30;
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private static final Logger log = LoggerFactory.getLogger(AuditEventLog.class);
+
+  private final Logger logger;
+  private final LongAdder droppedCount = new LongAdder();
+  private final AtomicLong writtenCount = new AtomicLong();
+  private ThreadFactory writerThreadFactory = Thread::new;
+  private volatile Ring ring;
+
+  /**
+   * Constructor.
+   * 
+   * @param logger
+   *        the logger to write events to
+   * @throws IllegalArgumentException
+   *         if {@code logger} is {@literal null}
+   */
+  public AuditEventLog(Logger logger) {
+    super();
+    if (logger == null) {
+      throw new IllegalArgumentException("logger must not be null");
+    }
+    this.logger = logger;
+  }
+
+  /**
+   * Log an event.
+   * 
+   * @param msg
+   *        the message
+   */
+  public void info(String msg) {
+    final Ring r = ring;
+    if (r == null) {
+      logger.info(msg);
+    } else {
+      r.publish(msg, 0, null, null, null, null);
+    }
+  }
+
+  /**
+   * Log an event.
+   * 
+   * @param format
+   *        the message template
+   * @param arg1
+   *        the first argument
+   */
+  public void info(String format, Object arg1) {
+    final Ring r = ring;
+    if (r == null) {
+      logger.info(format, arg1);
+    } else {
+      r.publish(format, 1, arg1, null, null, null);
+    }
+  }
+
+  /**
+   * Log an event.
+   * 
+   * @param format
+   *        the message template
+   * @param arg1
+   *        the first argument
+   * @param arg2
+   *        the second argument
+   */
+  public void info(String format, Object arg1, Object arg2) {
+    final Ring r = ring;
+    if (r == null) {
+      logger.info(format, arg1, arg2);
+    } else {
+      r.publish(format, 2, arg1, arg2, null, null);
+    }
+  }
+
+  /**
+   * Log an event.
+   * 
+   * @param format
+   *        the message template
+   * @param arg1
+   *        the first argument
+   * @param arg2
+   *        the second argument
+   * @param arg3
+   *        the third argument
+   */
+  public void info(String format, Object arg1, Object arg2, Object arg3) {
+    final Ring r = ring;
+    if (r == null) {
+      logger.info(format, arg1, arg2, arg3);
+    } else {
+      r.publish(format, 3, arg1, arg2, arg3, null);
+    }
+  }
+
+  /**
+   * Log an event.
+   * 
+   * @param format
+   *        the message template
+   * @param arg1
+   *        the first argument
+   * @param arg2
+   *        the second argument
+   * @param arg3
+   *        the third argument
+   * @param arg4
+   *        the fourth argument
+   */
+  public void info(String format, Object arg1, Object arg2, Object arg3, Object arg4) {
+    final Ring r = ring;
+    if (r == null) {
+      logger.info(format, arg1, arg2, arg3, arg4);
+    } else {
+      r.publish(format, 4, arg1, arg2, arg3, arg4);
+    }
+  }
+
+  /**
+   * Start writing events asynchronously.
+   * 
+   * <p>
+   * If already started, this method does nothing.
+   * </p>
+   * 
+   * @param bufferSize
+   *        the maximum number of events to buffer; will be rounded up to a power of two, and
+   *        limited to {@link #MAX_BUFFER_SIZE}
+   * @throws IllegalArgumentException
+   *         if {@code bufferSize} is less than {@literal 1}
+   */
+  public synchronized void start(int bufferSize) {
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("bufferSize must be at least 1");
+    }
+    if (ring != null) {
+      return;
+    }
+    final int size = Math.min(bufferSize, MAX_BUFFER_SIZE);
+    Ring r = new Ring(size > 1 ? Integer.highestOneBit(size - 1) << 1 : 1);
+    Thread t = writerThreadFactory.newThread(r);
+    t.setName("AuditLogWriter");
+    t.setDaemon(true);
+    r.writer = t;
+    ring = r;
+    t.start();
+  }
+
+  /**
+   * Stop writing events asynchronously.
+   * 
+   * <p>
+   * Any buffered events are written before this method returns, and subsequent events are logged
+   * immediately. Events added to the buffer by threads that were already logging when this method
+   * was called are written by those threads once the writer thread has finished.
+   * </p>
+   */
+  public synchronized void stop() {
+    final Ring r = ring;
+    if (r == null) {
+      return;
+    }
+    ring = null;
+    r.running = false;
+    LockSupport.unpark(r.writer);
+    try {
+      r.writer.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    r.drain();
+  }
+
+  /**
+   * Test if events are being written asynchronously.
+   * 
+   * @return {@literal true} if {@link #start(int)} has been called
+   */
+  public boolean isAsync() {
+    return ring != null;
+  }
+
+  /**
+   * Get the buffer size.
+   * 
+   * @return the buffer size, or {@literal 0} if not writing asynchronously
+   */
+  public int getBufferSize() {
+    final Ring r = ring;
+    return (r != null ? r.slots.length : 0);
+  }
+
+  /**
+   * Get the number of events dropped because the buffer was full.
+   * 
+   * @return the dropped event count
+   */
+  public long getDroppedCount() {
+    return droppedCount.sum();
+  }
+
+  /**
+   * Get the number of events written asynchronously.
+   * 
+   * @return the written event count
+   */
+  public long getWrittenCount() {
+    return writtenCount.get();
+  }
+
+  /**
+   * Set the thread factory to use for the writer thread.
+   * 
+   * @param writerThreadFactory
+   *        the factory to use
+   * @throws IllegalArgumentException
+   *         if {@code writerThreadFactory} is {@literal null}
+   */
+  public void setWriterThreadFactory(ThreadFactory writerThreadFactory) {
+    if (writerThreadFactory == null) {
+      throw new IllegalArgumentException("writerThreadFactory must not be null");
+    }
+    this.writerThreadFactory = writerThreadFactory;
+  }
+
+  /**
+   * A fixed-shape audit event.
+   */
+  private static final class Event {
+
+    private long date;
+    private String format;
+    private int argCount;
+    private Object arg1;
+    private Object arg2;
+    private Object arg3;
+    private Object arg4;
+
+    private Object arg(int i) {
+      switch (i) {
+        case 0:
+          return arg1;
+        case 1:
+          return arg2;
+        case 2:
+          return arg3;
+        default:
+          return arg4;
+      }
+    }
+
+    private void clear() {
+      format = null;
+      arg1 = null;
+      arg2 = null;
+      arg3 = null;
+      arg4 = null;
+    }
+
+  }
+
+  /**
+   * A multi-producer, single-consumer ring buffer of events.
+   */
+  private final class Ring implements Runnable {
+
+    private final Event[] slots;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final AtomicLong head = new AtomicLong();
+    private final StringBuilder buf = new StringBuilder(256);
+    private volatile long tail;
+    private volatile boolean running = true;
+    private volatile boolean idle;
+    private boolean finished;
+    private Thread writer;
+    private long reportedDropped;
+
+    private Ring(int size) {
+      super();
+      this.slots = new Event[size];
+      this.mask = size - 1;
+      this.published = new AtomicLongArray(size);
+      for (int i = 0; i < size; i++) {
+        slots[i] = new Event();
+        published.set(i, -1L);
+      }
+    }
+
+    private void publish(String format, int argCount, Object arg1, Object arg2, Object arg3,
+        Object arg4) {
+      long seq;
+      do {
+        seq = head.get();
+        if (seq - tail >= slots.length) {
+          droppedCount.increment();
+          return;
+        }
+      } while (!head.compareAndSet(seq, seq + 1));
+      final int i = (int) (seq & mask);
+      final Event e = slots[i];
+      e.date = System.currentTimeMillis();
+      e.format = format;
+      e.argCount = argCount;
+      e.arg1 = arg1;
+      e.arg2 = arg2;
+      e.arg3 = arg3;
+      e.arg4 = arg4;
+      published.set(i, seq);
+      if (!running) {
+        // the writer thread may have finished before this event was added
+        drain();
+      } else if (idle) {
+        LockSupport.unpark(writer);
+      }
+    }
+
+    /**
+     * Write any remaining published events, once the writer thread has finished.
+     */
+    private synchronized void drain() {
+      if (!finished) {
+        return;
+      }
+      long seq = tail;
+      while (true) {
+        final int i = (int) (seq & mask);
+        if (published.get(i) != seq) {
+          // not yet published; the publishing thread will drain when done
+          break;
+        }
+        final Event e = slots[i];
+        write(e);
+        e.clear();
+        tail = ++seq;
+      }
+    }
+
+    @Override
+    public void run() {
+      long seq = tail;
+      while (true) {
+        final int i = (int) (seq & mask);
+        if (published.get(i) == seq) {
+          final Event e = slots[i];
+          write(e);
+          e.clear();
+          tail = ++seq;
+          continue;
+        }
+        if (!running && head.get() == seq && finish(seq)) {
+          break;
+        }
+        reportDropped();
+        idle = true;
+        if (published.get(i) != seq && running) {
+          LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        idle = false;
+      }
+      reportDropped();
+    }
+
+    private synchronized boolean finish(long seq) {
+      // check again while holding the lock, so any event added after this is drained by its
+      // publishing thread
+      if (head.get() != seq) {
+        return false;
+      }
+      finished = true;
+      return true;
+    }
+
+    private void reportDropped() {
+      final long dropped = droppedCount.sum();
+      if (dropped > reportedDropped) {
+        log.warn("Audit log buffer full: {} events dropped ({} total)", dropped - reportedDropped,
+            dropped);
+        reportedDropped = dropped;
+      }
+    }
+
+    private void write(Event e) {
+      if (!logger.isInfoEnabled()) {
+        return;
+      }
+      final StringBuilder b = buf;
+      b.setLength(0);
+      b.append("{\"ts\":").append(e.date).append(",\"msg\":\"");
+      final String format = e.format;
+      final int len = (format != null ? format.length() : 0);
+      int arg = 0;
+      for (int i = 0; i < len; i++) {
+        char c = format.charAt(i);
+        if (c == '{' && i + 1 < len && format.charAt(i + 1) == '}' && arg < e.argCount) {
+          appendJson(b, String.valueOf(e.arg(arg++)));
+          i++;
+        } else {
+          appendJson(b, c);
+        }
+      }
+      b.append("\"}");
+      logger.info(b.toString());
+      writtenCount.incrementAndGet();
+    }
+
+  }
+
+  private static void appendJson(StringBuilder b, String s) {
+    for (int i = 0, len = s.length(); i < len; i++) {
+      appendJson(b, s.charAt(i));
+    }
+  }
+
+  private static void appendJson(StringBuilder b, char c) {
+    switch (c) {
+      case '"':
+        b.append("\\\"");
+        break;
+      case '\\':
+        b.append("\\\\");
+        break;
+      case '\n':
+        b.append("\\n");
+        break;
+      case '\r':
+        b.append("\\r");
+        break;
+      case '\t':
+        b.append("\\t");
+        break;
+      default:
+        if (c < 0x20) {
+          b.append(String.format("\\u%04x", (int) c));
+        } else {
+          b.append(c);
+        }
+    }
+  }
+
+}
@@ -0,0 +1,194 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * {@link DataSource} that limits the number of connections that can be open at once.
+ * 
+ * <p>
+ * A permit is acquired from a fair {@link Semaphore} before a connection is requested from the
+ * target data source, and released when the returned connection is closed. This is useful when
+ * many virtual threads might request connections at once: excess callers wait on the semaphore in
+ * the order they arrived, instead of all waiting inside the connection pool.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class BoundedDataSource extends DelegatingDataSource {
+
+  private final Semaphore permits;
+  private final long maxWait;
+
+  /**
+   * Constructor.
+   * 
+   * @param targetDataSource
+   *        the data source to get connections from
+   * @param maxConnections
+   *        the maximum number of connections that may be open at once
+   * @param maxWait
+   *        the maximum number of milliseconds to wait for a connection, or {@literal 0} to wait
+   *        forever
+   * @throws IllegalArgumentException
+   *         if {@code targetDataSource} is {@literal null} or {@code maxConnections} is less than
+   *         {@literal 1}
+   */
+  public BoundedDataSource(DataSource targetDataSource, int maxConnections, long maxWait) {
+    super(targetDataSource);
+    if (targetDataSource == null) {
+      throw new IllegalArgumentException("targetDataSource must not be null");
+    }
+    if (maxConnections < 1) {
+      throw new IllegalArgumentException("maxConnections must be at least 1");
+    }
+    this.permits = new Semaphore(maxConnections, true);
+    this.maxWait = maxWait;
+  }
+
+  private void acquire() throws SQLException {
+    try {
+      if (maxWait > 0) {
+        if (!permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+          throw new SQLTransientConnectionException(
+              "Timeout waiting " + maxWait + "ms for a connection permit.");
+        }
+      } else {
+        permits.acquire();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("Interrupted waiting for a connection permit.",
+          e);
+    }
+  }
+
+  private Connection bounded(Connection conn) {
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[] { Connection.class }, new PermitReleasingHandler(conn));
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    try {
+      return bounded(obtainTargetDataSource().getConnection());
+    } catch (SQLException | RuntimeException | Error e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    acquire();
+    try {
+      return bounded(obtainTargetDataSource().getConnection(username, password));
+    } catch (SQLException | RuntimeException | Error e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Get the number of connection permits currently available.
+   * 
+   * @return the available permit count
+   */
+  public int getAvailablePermits() {
+    return permits.availablePermits();
+  }
+
+  /**
+   * Get an estimate of the number of threads waiting for a connection permit.
+   * 
+   * @return the waiting thread count
+   */
+  public int getWaitingCount() {
+    return permits.getQueueLength();
+  }
+
+  private final class PermitReleasingHandler implements InvocationHandler {
+
+    private final Connection target;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private PermitReleasingHandler(Connection target) {
+      super();
+      this.target = target;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "equals":
+          return (proxy == args[0]);
+
+        case "hashCode":
+          return System.identityHashCode(proxy);
+
+        case "unwrap":
+          if (((Class<?>) args[0]).isInstance(proxy)) {
+            return proxy;
+          }
+          break;
+
+        case "isWrapperFor":
+          if (((Class<?>) args[0]).isInstance(proxy)) {
+            return true;
+          }
+          break;
+
+        case "close":
+          try {
+            target.close();
+          } finally {
+            if (released.compareAndSet(false, true)) {
+              permits.release();
+            }
+          }
+          return null;
+
+        default:
+          break;
+      }
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getTargetException();
+      }
+    }
+
+  }
+
+}
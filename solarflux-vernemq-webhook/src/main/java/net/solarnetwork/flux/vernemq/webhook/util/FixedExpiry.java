@@ -0,0 +1,75 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.util;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * A Caffeine {@link Expiry} that expires entries a fixed duration after they are written.
+ * 
+ * <p>
+ * This behaves like {@code Caffeine.expireAfterWrite()}, except that the cache supports variable
+ * expiration, so individual entries can be added with a different duration via
+ * {@code Policy.expireVariably()}, for example when restoring entries from a snapshot.
+ * </p>
+ * 
+ * @param <K>
+ *        the key type
+ * @param <V>
+ *        the value type
+ * @author matt
+ * @version 1.0
+ */
+public class FixedExpiry<K, V> implements Expiry<K, V> {
+
+  private final long duration;
+
+  /**
+   * Constructor.
+   * 
+   * @param duration
+   *        the duration to keep entries for after they are written
+   * @throws IllegalArgumentException
+   *         if {@code duration} is {@literal null} or negative
+   */
+  public FixedExpiry(Duration duration) {
+    super();
+    if (duration == null || duration.isNegative()) {
+      throw new IllegalArgumentException("duration must not be null or negative");
+    }
+    this.duration = duration.toNanos();
+  }
+
+  @Override
+  public long expireAfterCreate(K key, V value, long currentTime) {
+    return duration;
+  }
+
+  @Override
+  public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+    return duration;
+  }
+
+  @Override
+  public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+    return currentDuration;
+  }
+
+}
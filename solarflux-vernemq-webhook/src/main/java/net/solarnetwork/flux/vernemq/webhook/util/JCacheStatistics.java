@@ -0,0 +1,98 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.cache.Cache;
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Read JCache statistics for a cache.
+ * 
+ * <p>
+ * JCache providers publish cache statistics as a {@literal CacheStatistics} MBean when statistics
+ * are enabled for a cache, for example via
+ * {@link javax.cache.CacheManager#enableStatistics(String, boolean)}. This class reads those
+ * statistics from the platform MBean server.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public final class JCacheStatistics {
+
+  private static final String[] ATTRIBUTES = new String[] { "CacheGets", "CacheHits",
+      "CacheMisses", "CacheHitPercentage", "CachePuts", "CacheRemovals", "CacheEvictions",
+      "AverageGetTime", "AveragePutTime", "AverageRemoveTime" };
+
+  private JCacheStatistics() {
+    // not available
+  }
+
+  /**
+   * Get the statistics for a cache.
+   * 
+   * <p>
+   * The returned map contains the JCache statistic attributes, with the {@literal Cache} prefix
+   * removed and the first letter in lower case, for example {@literal hits} and
+   * {@literal averageGetTime}. Times are in microseconds. The statistics MBean does not provide
+   * the number of entries in the cache, and the cache is not iterated to count them, so no
+   * {@literal size} statistic is returned.
+   * </p>
+   * 
+   * @param cache
+   *        the cache to get statistics for
+   * @return the statistics, never {@literal null}
+   */
+  public static Map<String, Object> statistics(Cache<?, ?> cache) {
+    final Map<String, Object> result = new LinkedHashMap<>(16);
+    if (cache == null) {
+      return result;
+    }
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      final Set<ObjectName> names = server.queryNames(
+          new ObjectName("javax.cache:type=CacheStatistics,Cache=" + cache.getName() + ",*"),
+          null);
+      if (!names.isEmpty()) {
+        final ObjectName name = names.iterator().next();
+        for (Object o : server.getAttributes(name, ATTRIBUTES)) {
+          Attribute attr = (Attribute) o;
+          result.put(statisticName(attr.getName()), attr.getValue());
+        }
+      }
+    } catch (JMException e) {
+      // ignore and return what we have
+    }
+    return result;
+  }
+
+  private static String statisticName(String attributeName) {
+    String name = (attributeName.startsWith("Cache") ? attributeName.substring(5)
+        : attributeName);
+    return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+  }
+
+}
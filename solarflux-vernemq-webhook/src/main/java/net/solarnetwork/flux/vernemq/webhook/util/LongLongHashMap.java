@@ -0,0 +1,322 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.util;
+
+/**
+ * A map of primitive {@code long} keys to {@code long} values, using open addressing with linear
+ * probing.
+ * 
+ * <p>
+ * Keys and values are stored in parallel primitive arrays, so each entry costs around 32 bytes at
+ * the default load factor, with no per-entry objects. This class is <b>not</b> thread-safe; it is
+ * designed to be populated by a single thread and then safely published to readers, for example
+ * via a {@code volatile} field, after which it must not be modified. Use {@link #copy()} to
+ * create a modifiable copy of a published map.
+ * </p>
+ * 
+ * <p>
+ * Each entry occupies a numbered <i>slot</i>, from {@literal 0} up to (but excluding)
+ * {@link #slotCount()}. Slots are stable until the map is next modified, so callers can keep data
+ * associated with each entry in a parallel array, using {@link #indexOf(long)} to find the slot
+ * of a key.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public final class LongLongHashMap {
+
+  /** The maximum load factor before the table is resized. */
+  private static final float LOAD_FACTOR = 0.5f;
+
+  /** The key used to mark an empty slot; this key is stored outside the table. */
+  private static final long EMPTY = 0L;
+
+  private long[] keys;
+  private long[] values;
+  private int mask;
+  private int size;
+  private int resizeThreshold;
+  private boolean hasEmptyKey;
+  private long emptyKeyValue;
+
+  /**
+   * Constructor.
+   * 
+   * @param expectedSize
+   *        the expected number of entries
+   */
+  public LongLongHashMap(int expectedSize) {
+    super();
+    allocate(tableSizeFor(expectedSize));
+  }
+
+  private LongLongHashMap(LongLongHashMap other) {
+    super();
+    this.keys = other.keys.clone();
+    this.values = other.values.clone();
+    this.mask = other.mask;
+    this.size = other.size;
+    this.resizeThreshold = other.resizeThreshold;
+    this.hasEmptyKey = other.hasEmptyKey;
+    this.emptyKeyValue = other.emptyKeyValue;
+  }
+
+  private static int tableSizeFor(int expectedSize) {
+    long min = Math.max(4L, (long) Math.ceil(Math.max(0, expectedSize) / LOAD_FACTOR));
+    if (min > (1 << 30)) {
+      throw new IllegalArgumentException("expectedSize too large: " + expectedSize);
+    }
+    return Integer.highestOneBit((int) min - 1) << 1;
+  }
+
+  private void allocate(int tableSize) {
+    keys = new long[tableSize];
+    values = new long[tableSize];
+    mask = tableSize - 1;
+    resizeThreshold = (int) (tableSize * LOAD_FACTOR);
+  }
+
+  private static int hash(long key) {
+    // Murmur3 64-bit finalizer, to spread sequential IDs across the table
+    long h = key;
+    h ^= (h >>> 33);
+    h *= 0xff51afd7ed558ccdL;
+    h ^= (h >>> 33);
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= (h >>> 33);
+    return (int) h;
+  }
+
+  /**
+   * Get the value for a key.
+   * 
+   * @param key
+   *        the key to get the value for
+   * @param defaultValue
+   *        the value to return if {@code key} is not present
+   * @return the value, or {@code defaultValue} if {@code key} is not present
+   */
+  public long get(long key, long defaultValue) {
+    if (key == EMPTY) {
+      return (hasEmptyKey ? emptyKeyValue : defaultValue);
+    }
+    final long[] k = keys;
+    final int m = mask;
+    int i = hash(key) & m;
+    long curr;
+    while ((curr = k[i]) != EMPTY) {
+      if (curr == key) {
+        return values[i];
+      }
+      i = (i + 1) & m;
+    }
+    return defaultValue;
+  }
+
+  /**
+   * Get the slot of a key.
+   * 
+   * @param key
+   *        the key to look for
+   * @return the slot of {@code key}, or {@literal -1} if {@code key} is not present
+   * @since 1.1
+   */
+  public int indexOf(long key) {
+    if (key == EMPTY) {
+      return (hasEmptyKey ? keys.length : -1);
+    }
+    final long[] k = keys;
+    final int m = mask;
+    int i = hash(key) & m;
+    long curr;
+    while ((curr = k[i]) != EMPTY) {
+      if (curr == key) {
+        return i;
+      }
+      i = (i + 1) & m;
+    }
+    return -1;
+  }
+
+  /**
+   * Get the number of slots in the map.
+   * 
+   * @return the slot count, which is always greater than {@link #size()}
+   * @since 1.1
+   */
+  public int slotCount() {
+    return keys.length + 1;
+  }
+
+  /**
+   * Get the key stored in a slot.
+   * 
+   * @param slot
+   *        the slot, as returned from {@link #indexOf(long)}
+   * @return the key
+   * @since 1.1
+   */
+  public long keyAt(int slot) {
+    return (slot == keys.length ? EMPTY : keys[slot]);
+  }
+
+  /**
+   * Get the value stored in a slot.
+   * 
+   * @param slot
+   *        the slot, as returned from {@link #indexOf(long)}
+   * @return the value
+   * @since 1.1
+   */
+  public long valueAt(int slot) {
+    return (slot == keys.length ? emptyKeyValue : values[slot]);
+  }
+
+  /**
+   * Test if a key is present.
+   * 
+   * @param key
+   *        the key to look for
+   * @return {@literal true} if {@code key} is present
+   */
+  public boolean containsKey(long key) {
+    if (key == EMPTY) {
+      return hasEmptyKey;
+    }
+    final long[] k = keys;
+    final int m = mask;
+    int i = hash(key) & m;
+    long curr;
+    while ((curr = k[i]) != EMPTY) {
+      if (curr == key) {
+        return true;
+      }
+      i = (i + 1) & m;
+    }
+    return false;
+  }
+
+  /**
+   * Add or replace the value for a key.
+   * 
+   * @param key
+   *        the key
+   * @param value
+   *        the value
+   */
+  public void put(long key, long value) {
+    if (key == EMPTY) {
+      if (!hasEmptyKey) {
+        hasEmptyKey = true;
+        size++;
+      }
+      emptyKeyValue = value;
+      return;
+    }
+    int i = hash(key) & mask;
+    long curr;
+    while ((curr = keys[i]) != EMPTY) {
+      if (curr == key) {
+        values[i] = value;
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[i] = key;
+    values[i] = value;
+    if (++size > resizeThreshold) {
+      resize(keys.length << 1);
+    }
+  }
+
+  /**
+   * Remove a key.
+   * 
+   * @param key
+   *        the key to remove
+   * @return {@literal true} if {@code key} was present
+   * @since 1.1
+   */
+  public boolean remove(long key) {
+    if (key == EMPTY) {
+      if (!hasEmptyKey) {
+        return false;
+      }
+      hasEmptyKey = false;
+      emptyKeyValue = 0L;
+      size--;
+      return true;
+    }
+    int gap = indexOf(key);
+    if (gap < 0) {
+      return false;
+    }
+    // shift following entries of the same probe run back into the gap, so lookups never stop early
+    int i = gap;
+    long curr;
+    while ((curr = keys[i = (i + 1) & mask]) != EMPTY) {
+      int home = hash(curr) & mask;
+      if (((i - home) & mask) >= ((i - gap) & mask)) {
+        keys[gap] = curr;
+        values[gap] = values[i];
+        gap = i;
+      }
+    }
+    keys[gap] = EMPTY;
+    values[gap] = 0L;
+    size--;
+    return true;
+  }
+
+  private void resize(int tableSize) {
+    final long[] oldKeys = keys;
+    final long[] oldValues = values;
+    allocate(tableSize);
+    for (int j = 0; j < oldKeys.length; j++) {
+      long key = oldKeys[j];
+      if (key != EMPTY) {
+        int i = hash(key) & mask;
+        while (keys[i] != EMPTY) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  /**
+   * Get the number of entries in the map.
+   * 
+   * @return the number of entries
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Create a copy of this map.
+   * 
+   * @return the new copy
+   */
+  public LongLongHashMap copy() {
+    return new LongLongHashMap(this);
+  }
+
+}
@@ -0,0 +1,131 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Coalesce concurrent loads of the same key into a single load operation.
+ * 
+ * <p>
+ * When multiple threads call {@link #load(Object, Function)} with the same key at the same time,
+ * only the first thread will invoke the loader function. The other threads will wait for that load
+ * to complete, and then receive the same result (or exception). Once a load completes, the next
+ * call for the same key will invoke the loader again; this class does not cache results itself, so
+ * the loader function should populate any cache before returning.
+ * </p>
+ * 
+ * @param <K>
+ *        the key type
+ * @param <V>
+ *        the value type
+ * @author matt
+ * @version 1.0
+ */
+public class SingleFlightLoader<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight;
+  private final AtomicLong loadCount = new AtomicLong();
+  private final AtomicLong sharedCount = new AtomicLong();
+
+  /**
+   * Constructor.
+   */
+  public SingleFlightLoader() {
+    super();
+    this.inFlight = new ConcurrentHashMap<>(64);
+  }
+
+  /**
+   * Load a value, sharing the result with any other concurrent loads of the same key.
+   * 
+   * @param key
+   *        the key to load
+   * @param loader
+   *        the function to load the value with, if no other load of {@code key} is in progress
+   * @return the loaded value, which may be {@literal null}
+   * @throws RuntimeException
+   *         any exception thrown by the loader function
+   */
+  public V load(K key, Function<? super K, ? extends V> loader) {
+    final CompletableFuture<V> f = new CompletableFuture<>();
+    final CompletableFuture<V> existing = inFlight.putIfAbsent(key, f);
+    if (existing != null) {
+      sharedCount.incrementAndGet();
+      return await(existing);
+    }
+    loadCount.incrementAndGet();
+    try {
+      V result = loader.apply(key);
+      f.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      f.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, f);
+    }
+  }
+
+  private V await(CompletableFuture<V> f) {
+    try {
+      return f.join();
+    } catch (CompletionException e) {
+      Throwable t = e.getCause();
+      if (t instanceof RuntimeException) {
+        throw (RuntimeException) t;
+      } else if (t instanceof Error) {
+        throw (Error) t;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Get the number of loads currently in progress.
+   * 
+   * @return the in-flight load count
+   */
+  public int getInFlightCount() {
+    return inFlight.size();
+  }
+
+  /**
+   * Get the number of times the loader function has been invoked.
+   * 
+   * @return the load count
+   */
+  public long getLoadCount() {
+    return loadCount.get();
+  }
+
+  /**
+   * Get the number of times a load was satisfied by sharing another in-flight load.
+   * 
+   * @return the shared load count
+   */
+  public long getSharedCount() {
+    return sharedCount.get();
+  }
+
+}
@@ -0,0 +1,129 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Support for virtual threads when running on a JVM that provides them.
+ * 
+ * <p>
+ * This application is compiled for Java 17, so the virtual thread API (Java 21+) is accessed
+ * reflectively. Use {@link #isAvailable()} to test if virtual threads can be used.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class VirtualThreads {
+
+  private static final MethodHandle OF_VIRTUAL;
+  private static final MethodHandle BUILDER_NAME;
+  private static final MethodHandle BUILDER_FACTORY;
+  private static final MethodHandle NEW_THREAD_PER_TASK_EXECUTOR;
+
+  static {
+    MethodHandle ofVirtual = null;
+    MethodHandle builderName = null;
+    MethodHandle builderFactory = null;
+    MethodHandle newThreadPerTaskExecutor = null;
+    try {
+      final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      final Class<?> virtualBuilderClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+      ofVirtual = lookup.findStatic(Thread.class, "ofVirtual",
+          MethodType.methodType(virtualBuilderClass));
+      builderName = lookup.findVirtual(builderClass, "name",
+          MethodType.methodType(builderClass, String.class, long.class));
+      builderFactory = lookup.findVirtual(builderClass, "factory",
+          MethodType.methodType(ThreadFactory.class));
+      newThreadPerTaskExecutor = lookup.findStatic(Executors.class, "newThreadPerTaskExecutor",
+          MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+    } catch (ReflectiveOperationException e) {
+      // virtual threads not supported
+      ofVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    BUILDER_NAME = builderName;
+    BUILDER_FACTORY = builderFactory;
+    NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+  }
+
+  private VirtualThreads() {
+    // not available
+  }
+
+  /**
+   * Test if virtual threads are available in the running JVM.
+   * 
+   * @return {@literal true} if virtual threads are available
+   */
+  public static boolean isAvailable() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * Get a factory for virtual threads.
+   * 
+   * @param namePrefix
+   *        the thread name prefix; a counter starting at {@literal 0} will be appended
+   * @return the thread factory
+   * @throws UnsupportedOperationException
+   *         if virtual threads are not available
+   */
+  public static ThreadFactory threadFactory(String namePrefix) {
+    if (!isAvailable()) {
+      throw new UnsupportedOperationException("Virtual threads are not available.");
+    }
+    try {
+      Object builder = OF_VIRTUAL.invoke();
+      builder = BUILDER_NAME.invoke(builder, namePrefix, 0L);
+      return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new UnsupportedOperationException("Virtual threads are not available.", t);
+    }
+  }
+
+  /**
+   * Create an executor that runs each task in a new virtual thread.
+   * 
+   * @param namePrefix
+   *        the thread name prefix; a counter starting at {@literal 0} will be appended
+   * @return the executor
+   * @throws UnsupportedOperationException
+   *         if virtual threads are not available
+   */
+  public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+    final ThreadFactory factory = threadFactory(namePrefix);
+    try {
+      return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(factory);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new UnsupportedOperationException("Virtual threads are not available.", t);
+    }
+  }
+
+}
@@ -17,71 +17,92 @@
 
 package net.solarnetwork.flux.vernemq.webhook.web;
 
+import static net.solarnetwork.flux.vernemq.webhook.web.DeferredResponses.deferred;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import net.solarnetwork.central.support.JsonUtils;
 import net.solarnetwork.flux.vernemq.webhook.domain.Response;
 import net.solarnetwork.flux.vernemq.webhook.domain.v311.PublishRequest;
 import net.solarnetwork.flux.vernemq.webhook.domain.v311.RegisterRequest;
 import net.solarnetwork.flux.vernemq.webhook.domain.v311.SubscribeRequest;
-import net.solarnetwork.flux.vernemq.webhook.service.AuthService;
+import net.solarnetwork.flux.vernemq.webhook.service.AsyncAuthService;
 
 /**
  * VerneMQ web hooks for MQTT v3 authorization.
  * 
+ * <p>
+ * Requests are processed asynchronously, so web request threads are not held while waiting on the
+ * database.
+ * </p>
+ * 
  * @author matt
+ * @version 1.2
  */
 @RestController
 @RequestMapping(path = "/hook", method = RequestMethod.POST)
 public class AuthHooksController {
 
-  private final AuthService authService;
+  private final AsyncAuthService authService;
+  private final long timeout;
 
   private static final Logger log = LoggerFactory.getLogger(AuthHooksController.class);
 
+  /**
+   * Constructor.
+   * 
+   * @param authService
+   *        the auth service
+   * @param timeout
+   *        the maximum number of milliseconds to wait for each hook response
+   */
   @Autowired
-  public AuthHooksController(AuthService authService) {
+  public AuthHooksController(AsyncAuthService authService,
+      @Value("${auth.async.timeout:${spring.datasource.tomcat.maxWait:30000}}") long timeout) {
     super();
     this.authService = authService;
+    this.timeout = timeout;
   }
 
   /**
    * Authenticate on register hook.
    * 
-   * @return map of properties
+   * @return the deferred response
    */
   @RequestMapping(value = "", headers = "vernemq-hook=auth_on_register")
-  public Response authOnRegister(@RequestBody RegisterRequest request) {
+  public DeferredResult<Response> authOnRegister(@RequestBody RegisterRequest request) {
     if (log.isTraceEnabled()) {
       log.trace("Register request: {}", JsonUtils.getJSONString(request, null));
     }
-    return authService.authenticateRequest(request);
+    return deferred(authService.authenticateRequest(request), timeout);
   }
 
   /**
    * Authorize on publish hook.
    * 
-   * @return map of properties
+   * @return the deferred response
    */
   @RequestMapping(value = "", headers = "vernemq-hook=auth_on_publish")
-  public Response authOnPublish(@RequestBody PublishRequest request) {
-    return authService.authorizeRequest(request);
+  public DeferredResult<Response> authOnPublish(@RequestBody PublishRequest request) {
+    return deferred(authService.authorizeRequest(request), timeout);
   }
 
   /**
    * Authorize on subscribe hook.
    * 
-   * @return map of properties
+   * @return the deferred response
    */
   @RequestMapping(value = "", headers = "vernemq-hook=auth_on_subscribe")
-  public Response authOnSubscribe(@RequestBody SubscribeRequest request) {
-    return authService.authorizeRequest(request);
+  public DeferredResult<Response> authOnSubscribe(@RequestBody SubscribeRequest request) {
+    return deferred(authService.authorizeRequest(request), timeout);
   }
 
 }
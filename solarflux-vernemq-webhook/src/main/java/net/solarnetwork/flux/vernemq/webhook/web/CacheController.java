@@ -0,0 +1,155 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.web;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import net.solarnetwork.flux.vernemq.webhook.service.ActorCacheService;
+import net.solarnetwork.web.domain.Response;
+
+/**
+ * Web controller for actor cache statistics and management.
+ * 
+ * <p>
+ * This controller is only available when the {@literal cache.management.enabled} property is
+ * {@literal true}. The endpoints that evict cached actors require an {@literal Authorization}
+ * header with a {@literal Bearer} value matching the {@literal cache.management.secret}
+ * property, and are forbidden if no secret is configured.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.1
+ */
+@RestController
+@RequestMapping(path = "/api/v1/cache")
+@ConditionalOnProperty(name = "cache.management.enabled", havingValue = "true")
+public class CacheController {
+
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  private final ActorCacheService actorCacheService;
+  private final byte[] secret;
+
+  /**
+   * Constructor.
+   * 
+   * @param actorCacheService
+   *        the actor cache service
+   * @param secret
+   *        the secret required to evict cached actors, or an empty string to forbid evicting
+   */
+  @Autowired
+  public CacheController(ActorCacheService actorCacheService,
+      @Value("${cache.management.secret:}") String secret) {
+    super();
+    this.actorCacheService = actorCacheService;
+    this.secret = (secret != null && !secret.isEmpty() ? secret.getBytes(StandardCharsets.UTF_8)
+        : null);
+  }
+
+  private void requireAuthorization(String authorization) {
+    if (secret == null) {
+      throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+          "Cache management secret not configured.");
+    }
+    if (authorization == null || !authorization.startsWith(BEARER_PREFIX)
+        || !MessageDigest.isEqual(secret, authorization.substring(BEARER_PREFIX.length())
+            .getBytes(StandardCharsets.UTF_8))) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+    }
+  }
+
+  /**
+   * Get the actor cache statistics.
+   * 
+   * @return the statistics, keyed by cache name
+   */
+  @RequestMapping(path = "/actor", method = RequestMethod.GET)
+  public Response<Map<String, Map<String, Object>>> actorCacheStatistics() {
+    return Response.response(actorCacheService.getActorCacheStatistics());
+  }
+
+  /**
+   * Clear the actor caches.
+   * 
+   * @param authorization
+   *        the authorization header
+   * @return the response
+   */
+  @RequestMapping(path = "/actor", method = RequestMethod.DELETE)
+  public Response<Object> clearActorCaches(
+      @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+    requireAuthorization(authorization);
+    actorCacheService.clearActorCaches();
+    return Response.response(null);
+  }
+
+  /**
+   * Evict the cached actor for a token.
+   * 
+   * @param tokenId
+   *        the token ID
+   * @param authorization
+   *        the authorization header
+   * @return the response, with an {@literal evicted} property
+   */
+  @RequestMapping(path = "/actor/token/{tokenId}", method = RequestMethod.DELETE)
+  public Response<Map<String, ?>> evictTokenActor(@PathVariable("tokenId") String tokenId,
+      @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+    requireAuthorization(authorization);
+    return evicted(actorCacheService.evictTokenActor(tokenId));
+  }
+
+  /**
+   * Evict the cached actor for a node.
+   * 
+   * @param nodeId
+   *        the node ID
+   * @param authorization
+   *        the authorization header
+   * @return the response, with an {@literal evicted} property
+   */
+  @RequestMapping(path = "/actor/node/{nodeId}", method = RequestMethod.DELETE)
+  public Response<Map<String, ?>> evictNodeActor(@PathVariable("nodeId") Long nodeId,
+      @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+    requireAuthorization(authorization);
+    return evicted(actorCacheService.evictNodeActor(nodeId));
+  }
+
+  private static Response<Map<String, ?>> evicted(boolean evicted) {
+    Map<String, Object> data = new LinkedHashMap<>(2);
+    data.put("evicted", evicted);
+    return Response.response(data);
+  }
+
+}
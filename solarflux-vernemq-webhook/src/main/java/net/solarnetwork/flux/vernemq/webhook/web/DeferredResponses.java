@@ -0,0 +1,76 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.web;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.web.context.request.async.DeferredResult;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Response;
+
+/**
+ * Helper for returning asynchronous hook responses.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class DeferredResponses {
+
+  private DeferredResponses() {
+    // not available
+  }
+
+  /**
+   * Create a deferred result for a pending response.
+   * 
+   * <p>
+   * If {@code stage} fails, the deferred result is completed with the failure cause. If
+   * {@code stage} has not completed within {@code timeout} milliseconds, the deferred result is
+   * completed with a {@link TimeoutException}, so the request fails in the same way as when the
+   * request is processed synchronously and a database error occurs. The stage is also cancelled,
+   * so a request still waiting in an executor queue is not processed after it has timed out.
+   * </p>
+   * 
+   * @param stage
+   *        the pending response
+   * @param timeout
+   *        the maximum number of milliseconds to wait for {@code stage} to complete, or
+   *        {@literal 0} to use the container default
+   * @return the deferred result
+   */
+  public static DeferredResult<Response> deferred(CompletionStage<Response> stage, long timeout) {
+    final DeferredResult<Response> result = (timeout > 0
+        ? new DeferredResult<>(timeout,
+            () -> new TimeoutException("Hook request not processed within " + timeout + "ms"))
+        : new DeferredResult<>());
+    result.onTimeout(() -> stage.toCompletableFuture().cancel(false));
+    stage.whenComplete((r, t) -> {
+      if (t != null) {
+        result.setErrorResult(t instanceof CompletionException && t.getCause() != null
+            ? t.getCause()
+            : t);
+      } else {
+        result.setResult(r);
+      }
+    });
+    return result;
+  }
+
+}
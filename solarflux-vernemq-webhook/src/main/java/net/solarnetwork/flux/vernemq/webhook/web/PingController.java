@@ -18,33 +18,61 @@
 package net.solarnetwork.flux.vernemq.webhook.web;
 
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
+import net.solarnetwork.flux.vernemq.webhook.service.ReadinessCheck;
 import net.solarnetwork.web.domain.Response;
 
 /**
  * Web controller for "are you there" type requests.
  * 
+ * <p>
+ * The ping response reports {@literal allGood} as {@literal false} with a 503 HTTP status until all
+ * configured {@link ReadinessCheck} components are ready, so that traffic is not directed to this
+ * application until it has finished starting up.
+ * </p>
+ * 
  * @author matt
+ * @version 1.1
  */
 @RestController
 @RequestMapping(path = "/api/v1", method = RequestMethod.GET)
 public class PingController {
 
+  @Autowired(required = false)
+  private List<ReadinessCheck> readinessChecks;
+
   /**
    * Get a simple {@literal allGood} assessment.
    * 
    * @return map of properties
    */
   @RequestMapping("/ping")
-  public Response<Map<String, ?>> ping() {
+  public ResponseEntity<Response<Map<String, ?>>> ping() {
+    final boolean ready = isReady();
     Map<String, Object> data = new LinkedHashMap<>();
-    data.put("allGood", true);
-    return Response.response(data);
+    data.put("allGood", ready);
+    return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+        .body(Response.response(data));
+  }
+
+  private boolean isReady() {
+    if (readinessChecks != null) {
+      for (ReadinessCheck check : readinessChecks) {
+        if (!check.isReady()) {
+          return false;
+        }
+      }
+    }
+    return true;
   }
 
 }
@@ -25,7 +25,9 @@ import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 import java.util.HashSet;
 
@@ -40,7 +42,7 @@ import net.solarnetwork.flux.vernemq.webhook.domain.ActorType;
  * Test cases for the {@link ActorDetails} class.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class ActorDetailsTests {
 
@@ -106,4 +108,37 @@ public class ActorDetailsTests {
     assertThat("Policy nodes match user nodes", actor.getAllowedNodeIds(),
         allOf(notNullValue(), containsInAnyOrder(1L, 2L, 3L)));
   }
+
+  @Test
+  public void userNodeIdsShared() {
+    ActorDetails actor1 = new ActorDetails("foo", ActorType.ReadNodeDataToken, false, 1L, null,
+        new HashSet<>(asList(1L, 2L, 3L)));
+    ActorDetails actor2 = new ActorDetails("bar", ActorType.UserToken, false, 1L, null,
+        new HashSet<>(asList(3L, 2L, 1L)));
+    assertThat("User node IDs shared between actors", actor2.getUserNodeIds(),
+        sameInstance(actor1.getUserNodeIds()));
+    assertThat("Allowed node IDs are user node IDs", actor1.getAllowedNodeIds(),
+        sameInstance(actor1.getUserNodeIds()));
+  }
+
+  @Test
+  public void allowedNodeIdsSharedWhenPolicyAllowsAll() {
+    SecurityPolicy policy = new BasicSecurityPolicy.Builder()
+        .withNodeIds(new HashSet<>(asList(1L, 2L))).build();
+    ActorDetails actor = new ActorDetails("foo", ActorType.ReadNodeDataToken, false, 1L, policy,
+        new HashSet<>(asList(1L, 2L)));
+    assertThat("Allowed node IDs are user node IDs", actor.getAllowedNodeIds(),
+        sameInstance(actor.getUserNodeIds()));
+  }
+
+  @Test
+  public void isAllowedNodeId() {
+    SecurityPolicy policy = new BasicSecurityPolicy.Builder()
+        .withNodeIds(new HashSet<>(asList(1L, 2L, 3L))).build();
+    ActorDetails actor = new ActorDetails("foo", ActorType.Node, true, 4L, policy,
+        new HashSet<>(asList(1L, 3L, 5L)));
+    assertThat("Allowed by policy and ownership", actor.isAllowedNodeId(1L), is(true));
+    assertThat("Not owned", actor.isAllowedNodeId(2L), is(false));
+    assertThat("Not allowed by policy", actor.isAllowedNodeId(5L), is(false));
+  }
 }
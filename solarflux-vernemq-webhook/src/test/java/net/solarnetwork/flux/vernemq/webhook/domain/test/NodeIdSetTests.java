@@ -0,0 +1,102 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.domain.test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.NodeIdSet;
+
+/**
+ * Test cases for the {@link NodeIdSet} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class NodeIdSetTests {
+
+  @Test
+  public void ofSortsAndRemovesDuplicates() {
+    NodeIdSet set = NodeIdSet.of(3L, 1L, 2L, 3L, 1L);
+    assertThat("Sorted distinct values", set, contains(1L, 2L, 3L));
+    assertThat("Size", set.size(), equalTo(3));
+  }
+
+  @Test
+  public void ofEmpty() {
+    assertThat("Empty array", NodeIdSet.of(new long[0]), sameInstance(NodeIdSet.EMPTY));
+    assertThat("Null collection", NodeIdSet.of((Set<Long>) null), sameInstance(NodeIdSet.EMPTY));
+  }
+
+  @Test
+  public void ofCollectionIgnoresNulls() {
+    NodeIdSet set = NodeIdSet.of(new HashSet<>(asList(2L, null, 1L)));
+    assertThat("Null ignored", set, contains(1L, 2L));
+  }
+
+  @Test
+  public void containsPrimitive() {
+    NodeIdSet set = NodeIdSet.of(5L, 10L, 15L);
+    assertThat("Contains", set.contains(10L), is(true));
+    assertThat("Does not contain", set.contains(11L), is(false));
+    assertThat("Contains boxed", set.contains(Long.valueOf(15L)), is(true));
+    assertThat("Does not contain other type", set.contains(Integer.valueOf(15)), is(false));
+  }
+
+  @Test
+  public void equalsOtherSet() {
+    NodeIdSet set = NodeIdSet.of(1L, 2L, 3L);
+    Set<Long> other = new HashSet<>(asList(3L, 2L, 1L));
+    assertThat("Equal to other set", set, equalTo(other));
+    assertThat("Other set equal", other, equalTo(set));
+    assertThat("Hash code matches", set.hashCode(), equalTo(other.hashCode()));
+    assertThat("Not equal", set, not(equalTo(NodeIdSet.of(1L, 2L))));
+  }
+
+  @Test
+  public void internShared() {
+    NodeIdSet set1 = NodeIdSet.intern(NodeIdSet.of(1L, 2L, 3L));
+    NodeIdSet set2 = NodeIdSet.intern(NodeIdSet.of(new HashSet<>(asList(3L, 2L, 1L))));
+    assertThat("Equal sets interned to same instance", set2, sameInstance(set1));
+    assertThat("Different set not shared", NodeIdSet.intern(NodeIdSet.of(1L, 2L)),
+        not(sameInstance(set1)));
+  }
+
+  @Test
+  public void internSingletonNotShared() {
+    NodeIdSet set = NodeIdSet.of(1L);
+    assertThat("Singleton returned as-is", NodeIdSet.intern(set), sameInstance(set));
+  }
+
+  @Test
+  public void internEmpty() {
+    assertThat("Empty interned", NodeIdSet.intern(NodeIdSet.of(new long[0])),
+        sameInstance(NodeIdSet.EMPTY));
+  }
+
+}
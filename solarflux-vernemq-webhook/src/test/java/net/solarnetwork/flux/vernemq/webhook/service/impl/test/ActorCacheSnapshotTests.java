@@ -0,0 +1,216 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import net.solarnetwork.central.security.BasicSecurityPolicy;
+import net.solarnetwork.central.security.SecurityPolicy;
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorDetails;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorType;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.ActorCacheSnapshot;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SecurityPolicyDecoder;
+import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
+import net.solarnetwork.flux.vernemq.webhook.util.FixedExpiry;
+
+/**
+ * Test cases for the {@link ActorCacheSnapshot} class.
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public class ActorCacheSnapshotTests extends TestSupport {
+
+  @TempDir
+  Path tmpDir;
+
+  private static Cache<String, Actor> newCache() {
+    return Caffeine.newBuilder().expireAfter(new FixedExpiry<>(Duration.ofMinutes(15))).build();
+  }
+
+  @Test
+  public void saveAndRestore() throws Exception {
+    // given
+    final Path path = tmpDir.resolve("actors.bin");
+    final Cache<String, Actor> cache = newCache();
+    final Actor node = new ActorDetails(1L, 2L);
+    final Actor token = new ActorDetails("abc123", ActorType.ReadNodeDataToken, false, 3L,
+        new BasicSecurityPolicy.Builder()
+            .withNodeIds(new LinkedHashSet<>(Arrays.asList(4L, 5L))).build(),
+        new LinkedHashSet<>(Arrays.asList(4L, 5L, 6L)));
+    cache.put("Node-2", node);
+    cache.put("Token-abc123", token);
+
+    // when
+    int saved = new ActorCacheSnapshot(cache, path).save();
+    final Cache<String, Actor> restoredCache = newCache();
+    int restored = new ActorCacheSnapshot(restoredCache, path).restore();
+
+    // then
+    assertThat("Saved count", saved, equalTo(2));
+    assertThat("Restored count", restored, equalTo(2));
+
+    Actor a = restoredCache.getIfPresent("Node-2");
+    assertThat("Node actor restored", a, notNullValue());
+    assertThat("Node actor type", a.getActorType(), equalTo(ActorType.Node));
+    assertThat("Node publish allowed", a.isPublishAllowed(), equalTo(true));
+    assertThat("Node user", a.getUserId(), equalTo(1L));
+    assertThat("Node IDs", a.getUserNodeIds(), contains(2L));
+
+    a = restoredCache.getIfPresent("Token-abc123");
+    assertThat("Token actor restored", a, notNullValue());
+    assertThat("Token ID", a.getTokenId(), equalTo("abc123"));
+    assertThat("Token actor type", a.getActorType(), equalTo(ActorType.ReadNodeDataToken));
+    assertThat("Token publish not allowed", a.isPublishAllowed(), equalTo(false));
+    assertThat("Token user", a.getUserId(), equalTo(3L));
+    assertThat("Token policy restored", a.getPolicy().getNodeIds(), containsInAnyOrder(4L, 5L));
+    assertThat("Token node IDs", a.getUserNodeIds(), contains(4L, 5L, 6L));
+    assertThat("Allowed node IDs from policy", a.getAllowedNodeIds(),
+        containsInAnyOrder(4L, 5L));
+
+    long ttl = restoredCache.policy().expireVariably().get()
+        .getExpiresAfter("Node-2", TimeUnit.MINUTES).getAsLong();
+    assertThat("Remaining TTL restored", ttl, lessThanOrEqualTo(15L));
+    assertThat("Remaining TTL restored", ttl, greaterThan(13L));
+  }
+
+  @Test
+  public void saveSkipsActorWithoutUserId() throws Exception {
+    // given
+    final Path path = tmpDir.resolve("actors.bin");
+    final Cache<String, Actor> cache = newCache();
+    final Actor noUser = mock(Actor.class);
+    given(noUser.getUserId()).willReturn(null);
+    cache.put("Token-nouser", noUser);
+    cache.put("Node-2", new ActorDetails(1L, 2L));
+
+    // when
+    int saved = new ActorCacheSnapshot(cache, path).save();
+    final Cache<String, Actor> restoredCache = newCache();
+    int restored = new ActorCacheSnapshot(restoredCache, path).restore();
+
+    // then
+    assertThat("Actor without user not saved", saved, equalTo(1));
+    assertThat("Other actor restored", restored, equalTo(1));
+    assertThat("Actor restored", restoredCache.getIfPresent("Node-2"), notNullValue());
+    assertThat("Actor without user not restored", restoredCache.getIfPresent("Token-nouser"),
+        nullValue());
+  }
+
+  @Test
+  public void restoreDecodesPoliciesWithDecoder() throws Exception {
+    // given
+    final Path path = tmpDir.resolve("actors.bin");
+    final Cache<String, Actor> cache = newCache();
+    final SecurityPolicy policy = new BasicSecurityPolicy.Builder()
+        .withNodeIds(new LinkedHashSet<>(Arrays.asList(4L, 5L))).build();
+    cache.put("Token-a", new ActorDetails("a", ActorType.ReadNodeDataToken, false, 3L, policy,
+        new LinkedHashSet<>(Arrays.asList(4L, 5L))));
+    cache.put("Token-b", new ActorDetails("b", ActorType.ReadNodeDataToken, false, 3L, policy,
+        new LinkedHashSet<>(Arrays.asList(4L, 5L))));
+    new ActorCacheSnapshot(cache, path).save();
+
+    // when
+    final SecurityPolicyDecoder decoder = new SecurityPolicyDecoder();
+    final Cache<String, Actor> restoredCache = newCache();
+    final ActorCacheSnapshot snapshot = new ActorCacheSnapshot(restoredCache, path);
+    snapshot.setPolicyDecoder(decoder);
+    int restored = snapshot.restore();
+
+    // then
+    assertThat("Restored count", restored, equalTo(2));
+    assertThat("Identical policies shared by decoder",
+        restoredCache.getIfPresent("Token-a").getPolicy(),
+        sameInstance(restoredCache.getIfPresent("Token-b").getPolicy()));
+    assertThat("Decoder used for restore", decoder.size(), equalTo(1L));
+  }
+
+  @Test
+  public void restoreSkipsExpired() throws Exception {
+    // given
+    final Path path = tmpDir.resolve("actors.bin");
+    final Cache<String, Actor> cache = newCache();
+    cache.policy().expireVariably().get().put("Node-1", new ActorDetails(1L, 1L), 1,
+        TimeUnit.MILLISECONDS);
+    cache.put("Node-2", new ActorDetails(1L, 2L));
+    new ActorCacheSnapshot(cache, path).save();
+    Thread.sleep(5);
+
+    // when
+    final Cache<String, Actor> restoredCache = newCache();
+    int restored = new ActorCacheSnapshot(restoredCache, path).restore();
+
+    // then
+    assertThat("Only unexpired actor restored", restored, equalTo(1));
+    assertThat("Expired actor not restored", restoredCache.getIfPresent("Node-1"), nullValue());
+    assertThat("Actor restored", restoredCache.getIfPresent("Node-2"), notNullValue());
+  }
+
+  @Test
+  public void restoreMissingFile() throws Exception {
+    // given
+    ActorCacheSnapshot snapshot = new ActorCacheSnapshot(newCache(),
+        tmpDir.resolve("missing.bin"));
+
+    // when
+    int restored = snapshot.restore();
+
+    // then
+    assertThat("Nothing restored", restored, equalTo(0));
+  }
+
+  @Test
+  public void readyAfterStartup() throws Exception {
+    // given
+    ActorCacheSnapshot snapshot = new ActorCacheSnapshot(newCache(),
+        tmpDir.resolve("missing.bin"));
+
+    // when
+    snapshot.startup();
+    for (int i = 0; i < 100 && !snapshot.isReady(); i++) {
+      Thread.sleep(50);
+    }
+
+    // then
+    assertThat("Ready after restore", snapshot.isReady(), equalTo(true));
+  }
+
+}
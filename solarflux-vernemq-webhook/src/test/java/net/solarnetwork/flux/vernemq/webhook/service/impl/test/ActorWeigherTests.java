@@ -0,0 +1,103 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+import net.solarnetwork.central.security.BasicSecurityPolicy;
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorDetails;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorType;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.ActorWeigher;
+import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
+
+/**
+ * Test cases for the {@link ActorWeigher} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ActorWeigherTests extends TestSupport {
+
+  private final ActorWeigher weigher = new ActorWeigher();
+
+  private static Set<Long> nodeIds(int count) {
+    return LongStream.rangeClosed(1, count).boxed()
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+  @Test
+  public void nodeActor() {
+    // given
+    Actor actor = new ActorDetails(1L, 2L);
+
+    // when
+    int weight = weigher.weigh("Node-2", actor);
+
+    // then
+    int expected = ActorWeigher.ENTRY_OVERHEAD + ActorWeigher.STRING_SIZE + 6
+        + ActorWeigher.ACTOR_SIZE + ActorWeigher.NODE_ID_SET_SIZE + ActorWeigher.NODE_ID_SIZE;
+    assertThat("Node actor weight", weight, equalTo(expected));
+  }
+
+  @Test
+  public void nodeIdsAddWeight() {
+    // given
+    Actor small = new ActorDetails("a", ActorType.UserToken, false, 1L, null, nodeIds(1));
+    Actor large = new ActorDetails("a", ActorType.UserToken, false, 1L, null, nodeIds(1001));
+
+    // when
+    int smallWeight = weigher.weigh("Token-a", small);
+    int largeWeight = weigher.weigh("Token-a", large);
+
+    // then
+    assertThat("Each node ID adds weight", largeWeight - smallWeight,
+        equalTo(1000 * ActorWeigher.NODE_ID_SIZE));
+  }
+
+  @Test
+  public void policySourceIdsAddWeight() {
+    // given
+    Set<String> sourceIds = new LinkedHashSet<>();
+    for (int i = 0; i < 100; i++) {
+      sourceIds.add("/site/" + i + "/**");
+    }
+    Actor plain = new ActorDetails("a", ActorType.ReadNodeDataToken, false, 1L, null,
+        nodeIds(1));
+    Actor withPolicy = new ActorDetails("a", ActorType.ReadNodeDataToken, false, 1L,
+        new BasicSecurityPolicy.Builder().withSourceIds(sourceIds).build(), nodeIds(1));
+
+    // when
+    int plainWeight = weigher.weigh("Token-a", plain);
+    int policyWeight = weigher.weigh("Token-a", withPolicy);
+
+    // then
+    assertThat("Policy source IDs add weight", policyWeight - plainWeight,
+        greaterThan(100 * (ActorWeigher.SET_ELEMENT_SIZE + ActorWeigher.STRING_SIZE)));
+  }
+
+}
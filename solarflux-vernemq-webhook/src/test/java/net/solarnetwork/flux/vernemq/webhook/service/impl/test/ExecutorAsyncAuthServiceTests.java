@@ -0,0 +1,146 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Response;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.PublishRequest;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.RegisterRequest;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.SubscribeRequest;
+import net.solarnetwork.flux.vernemq.webhook.service.AuthService;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.ExecutorAsyncAuthService;
+import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
+
+/**
+ * Test cases for the {@link ExecutorAsyncAuthService} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+public class ExecutorAsyncAuthServiceTests extends TestSupport {
+
+  @Mock
+  private AuthService authService;
+
+  private AtomicInteger registerCount;
+  private AtomicInteger authorizeCount;
+  private ExecutorAsyncAuthService service;
+
+  @BeforeEach
+  public void setup() {
+    registerCount = new AtomicInteger();
+    authorizeCount = new AtomicInteger();
+    Executor registerExecutor = r -> {
+      registerCount.incrementAndGet();
+      r.run();
+    };
+    Executor authorizeExecutor = r -> {
+      authorizeCount.incrementAndGet();
+      r.run();
+    };
+    service = new ExecutorAsyncAuthService(authService, registerExecutor, authorizeExecutor);
+  }
+
+  @Test
+  public void authenticate() throws Exception {
+    // given
+    RegisterRequest req = RegisterRequest.builder().withClientId("foo").build();
+    Response resp = new Response();
+    given(authService.authenticateRequest(req)).willReturn(resp);
+
+    // when
+    Response result = service.authenticateRequest(req).toCompletableFuture().get(1,
+        TimeUnit.SECONDS);
+
+    // then
+    assertThat("Response from delegate", result, sameInstance(resp));
+    assertThat("Run on register executor", registerCount.get(), equalTo(1));
+    assertThat("Not run on authorize executor", authorizeCount.get(), equalTo(0));
+  }
+
+  @Test
+  public void authorizePublish() throws Exception {
+    // given
+    PublishRequest req = PublishRequest.builder().withClientId("foo").build();
+    Response resp = new Response();
+    given(authService.authorizeRequest(req)).willReturn(resp);
+
+    // when
+    Response result = service.authorizeRequest(req).toCompletableFuture().get(1,
+        TimeUnit.SECONDS);
+
+    // then
+    assertThat("Response from delegate", result, sameInstance(resp));
+    assertThat("Not run on register executor", registerCount.get(), equalTo(0));
+    assertThat("Run on authorize executor", authorizeCount.get(), equalTo(1));
+  }
+
+  @Test
+  public void authorizeSubscribe() throws Exception {
+    // given
+    SubscribeRequest req = SubscribeRequest.builder().withClientId("foo").build();
+    Response resp = new Response();
+    given(authService.authorizeRequest(req)).willReturn(resp);
+
+    // when
+    Response result = service.authorizeRequest(req).toCompletableFuture().get(1,
+        TimeUnit.SECONDS);
+
+    // then
+    assertThat("Response from delegate", result, sameInstance(resp));
+    assertThat("Run on authorize executor", authorizeCount.get(), equalTo(1));
+  }
+
+  @Test
+  public void rejected() {
+    // given
+    service = new ExecutorAsyncAuthService(authService, r -> {
+      throw new RejectedExecutionException("full");
+    }, Runnable::run);
+    RegisterRequest req = RegisterRequest.builder().withClientId("foo").build();
+
+    // when
+    CompletableFuture<Response> f = service.authenticateRequest(req).toCompletableFuture();
+
+    // then
+    ExecutionException e = assertThrows(ExecutionException.class, () -> f.get());
+    assertThat("Rejection propagated", e.getCause(),
+        instanceOf(RejectedExecutionException.class));
+  }
+
+}
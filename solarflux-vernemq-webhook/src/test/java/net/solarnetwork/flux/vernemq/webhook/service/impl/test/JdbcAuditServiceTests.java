@@ -17,17 +17,23 @@
 
 package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.sql.CallableStatement;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -42,8 +48,12 @@ import javax.sql.DataSource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
 
 import net.solarnetwork.domain.DatumStreamId.NodeDatumStreamId;
 import net.solarnetwork.flux.vernemq.webhook.domain.v311.PublishRequest;
@@ -54,7 +64,7 @@ import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
  * Test cases for the {@link JdbcAuditService} class.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.2
  */
 @ExtendWith(MockitoExtension.class)
 public class JdbcAuditServiceTests extends TestSupport {
@@ -74,6 +84,16 @@ public class JdbcAuditServiceTests extends TestSupport {
   private Connection jdbcConnection;
   @Mock
   private CallableStatement jdbcStatement;
+  @Mock
+  private Statement copyStatement;
+  @Mock
+  private ResultSet applyResultSet;
+  @Mock
+  private PGConnection pgConnection;
+  @Mock
+  private CopyManager copyManager;
+  @Mock
+  private CopyIn copyIn;
 
   private Clock now;
   private Instant topOfHour;
@@ -121,16 +141,35 @@ public class JdbcAuditServiceTests extends TestSupport {
     }
   }
 
-  private void verifyStatement(Long nodeId, String sourceId, long ts, int count)
+  private void verifyStatementParameters(Long nodeId, String sourceId, long ts, int count)
       throws SQLException {
     verify(jdbcStatement).setString(1, JdbcAuditService.DEFAULT_AUDIT_MQTT_SERVICE_NAME);
     verify(jdbcStatement).setObject(2, nodeId);
     verify(jdbcStatement).setString(3, sourceId);
     verify(jdbcStatement).setTimestamp(eq(4), eq(new java.sql.Timestamp(ts)));
     verify(jdbcStatement).setInt(5, count);
+  }
+
+  private void verifyStatement(Long nodeId, String sourceId, long ts, int count)
+      throws SQLException {
+    verifyStatementParameters(nodeId, sourceId, ts, count);
     verify(jdbcStatement).execute();
   }
 
+  private void verifyBatchStatement(Long nodeId, String sourceId, long ts, int count)
+      throws SQLException {
+    verifyStatementParameters(nodeId, sourceId, ts, count);
+    verify(jdbcStatement).addBatch();
+    verify(jdbcStatement).executeBatch();
+  }
+
+  private PublishRequest publishMessage(Long nodeId, String sourceId) {
+    PublishRequest msg = PublishRequest.builder().withTopic(topicForNodeSource(nodeId, sourceId))
+        .withPayload("Hello, world.".getBytes()).build();
+    auditor.auditPublishMessage(null, nodeId, sourceId, msg);
+    return msg;
+  }
+
   @Test
   public void auditPublishMessage() throws Exception {
     // GIVEN
@@ -141,13 +180,38 @@ public class JdbcAuditServiceTests extends TestSupport {
 
     jdbcConnection.close();
 
+    given(jdbcStatement.executeBatch()).willReturn(new int[] { 1 });
+
+    // WHEN
+    PublishRequest msg = publishMessage(TEST_NODE_1, TEST_SOURCE_1);
+
+    auditor.enableWriting();
+    stopAuditingAndWaitForFlush();
+
+    // THEN
+    verify(jdbcConnection, atLeastOnce()).setAutoCommit(false);
+    verifyBatchStatement(TEST_NODE_1, TEST_SOURCE_1, topOfHour.toEpochMilli(),
+        msg.getPayload().length);
+    verify(jdbcConnection).commit();
+    assertMapValueZeroOrMissing(datumCountMap, nodeDatumKey(topOfHour, TEST_NODE_1, TEST_SOURCE_1));
+  }
+
+  @Test
+  public void auditPublishMessage_noBatch() throws Exception {
+    // GIVEN
+    auditor.setBatchSize(1);
+
+    given(dataSource.getConnection()).willReturn(jdbcConnection);
+
+    given(jdbcConnection.prepareCall(JdbcAuditService.DEFAULT_NODE_SOURCE_INCREMENT_SQL))
+        .willReturn(jdbcStatement);
+
+    jdbcConnection.close();
+
     given(jdbcStatement.execute()).willReturn(false);
 
     // WHEN
-    PublishRequest msg = PublishRequest.builder()
-        .withTopic(topicForNodeSource(TEST_NODE_1, TEST_SOURCE_1))
-        .withPayload("Hello, world.".getBytes()).build();
-    auditor.auditPublishMessage(null, TEST_NODE_1, TEST_SOURCE_1, msg);
+    PublishRequest msg = publishMessage(TEST_NODE_1, TEST_SOURCE_1);
 
     auditor.enableWriting();
     stopAuditingAndWaitForFlush();
@@ -155,7 +219,137 @@ public class JdbcAuditServiceTests extends TestSupport {
     // THEN
     verify(jdbcConnection, atLeastOnce()).setAutoCommit(true);
     verifyStatement(TEST_NODE_1, TEST_SOURCE_1, topOfHour.toEpochMilli(), msg.getPayload().length);
+    verify(jdbcStatement, never()).addBatch();
     assertMapValueZeroOrMissing(datumCountMap, nodeDatumKey(topOfHour, TEST_NODE_1, TEST_SOURCE_1));
   }
 
+  @Test
+  public void auditPublishMessage_batchFails() throws Exception {
+    // GIVEN
+    given(dataSource.getConnection()).willReturn(jdbcConnection);
+
+    given(jdbcConnection.prepareCall(JdbcAuditService.DEFAULT_NODE_SOURCE_INCREMENT_SQL))
+        .willReturn(jdbcStatement);
+
+    given(jdbcStatement.executeBatch()).willThrow(new SQLException("Test batch failure"));
+
+    // WHEN
+    PublishRequest msg = publishMessage(TEST_NODE_1, TEST_SOURCE_1);
+    final String source2 = "test.source.2";
+    PublishRequest msg2 = publishMessage(TEST_NODE_1, source2);
+
+    auditor.enableWriting();
+    stopAuditingAndWaitForFlush();
+
+    // THEN
+    verify(jdbcConnection, atLeastOnce()).rollback();
+    verify(jdbcConnection, never()).commit();
+    AtomicInteger count = datumCountMap.get(nodeDatumKey(topOfHour, TEST_NODE_1, TEST_SOURCE_1));
+    assertThat("Failed batch count restored", count.get(), equalTo(msg.getPayload().length));
+    AtomicInteger count2 = datumCountMap.get(nodeDatumKey(topOfHour, TEST_NODE_1, source2));
+    assertThat("Failed batch count restored", count2.get(), equalTo(msg2.getPayload().length));
+  }
+
+  @Test
+  public void auditPublishMessage_copy() throws Exception {
+    // GIVEN
+    auditor.setCopyEnabled(true);
+
+    given(dataSource.getConnection()).willReturn(jdbcConnection);
+    given(jdbcConnection.unwrap(PGConnection.class)).willReturn(pgConnection);
+    given(pgConnection.getCopyAPI()).willReturn(copyManager);
+    given(jdbcConnection.createStatement()).willReturn(copyStatement);
+    given(copyManager.copyIn(JdbcAuditService.DEFAULT_NODE_SOURCE_COPY_SQL)).willReturn(copyIn);
+    given(copyStatement.execute(JdbcAuditService.DEFAULT_NODE_SOURCE_COPY_APPLY_SQL))
+        .willReturn(true);
+    given(copyStatement.getResultSet()).willReturn(applyResultSet);
+
+    // WHEN
+    final String sourceId = "test\t\\source";
+    PublishRequest msg = publishMessage(TEST_NODE_1, sourceId);
+
+    auditor.enableWriting();
+    stopAuditingAndWaitForFlush();
+
+    // THEN
+    verify(jdbcConnection, atLeastOnce()).setAutoCommit(false);
+    verify(copyStatement).execute(JdbcAuditService.DEFAULT_NODE_SOURCE_COPY_TABLE_SQL);
+    ArgumentCaptor<byte[]> dataCaptor = ArgumentCaptor.forClass(byte[].class);
+    verify(copyIn).writeToCopy(dataCaptor.capture(), eq(0), anyInt());
+    assertThat("COPY data", new String(dataCaptor.getValue(), "UTF-8"),
+        equalTo(JdbcAuditService.DEFAULT_AUDIT_MQTT_SERVICE_NAME + "\t" + TEST_NODE_1
+            + "\ttest\\t\\\\source\t" + topOfHour + "\t" + msg.getPayload().length + "\n"));
+    verify(copyIn).endCopy();
+    verify(copyStatement).execute(JdbcAuditService.DEFAULT_NODE_SOURCE_COPY_APPLY_SQL);
+    verify(applyResultSet).close();
+    verify(jdbcConnection, times(2)).commit();
+    verify(jdbcConnection, never()).prepareCall(JdbcAuditService.DEFAULT_NODE_SOURCE_INCREMENT_SQL);
+    assertMapValueZeroOrMissing(datumCountMap, nodeDatumKey(topOfHour, TEST_NODE_1, sourceId));
+    assertThat("Update count", auditor.getUpdateCount(), equalTo(1L));
+  }
+
+  @Test
+  public void auditPublishMessage_copyNullSourceId() throws Exception {
+    // GIVEN
+    auditor.setCopyEnabled(true);
+
+    given(dataSource.getConnection()).willReturn(jdbcConnection);
+    given(jdbcConnection.unwrap(PGConnection.class)).willReturn(pgConnection);
+    given(pgConnection.getCopyAPI()).willReturn(copyManager);
+    given(jdbcConnection.createStatement()).willReturn(copyStatement);
+    given(copyManager.copyIn(JdbcAuditService.DEFAULT_NODE_SOURCE_COPY_SQL)).willReturn(copyIn);
+
+    // WHEN
+    PublishRequest msg = publishMessage(TEST_NODE_1, null);
+    PublishRequest msg2 = publishMessage(TEST_NODE_1, TEST_SOURCE_1);
+
+    auditor.enableWriting();
+    stopAuditingAndWaitForFlush();
+
+    // THEN
+    ArgumentCaptor<byte[]> dataCaptor = ArgumentCaptor.forClass(byte[].class);
+    verify(copyIn).writeToCopy(dataCaptor.capture(), eq(0), anyInt());
+    final String data = new String(dataCaptor.getValue(), "UTF-8");
+    assertThat("COPY data with null source ID", data,
+        containsString(JdbcAuditService.DEFAULT_AUDIT_MQTT_SERVICE_NAME + "\t" + TEST_NODE_1
+            + "\t\\N\t" + topOfHour + "\t" + msg.getPayload().length + "\n"));
+    assertThat("COPY data with source ID", data,
+        containsString(JdbcAuditService.DEFAULT_AUDIT_MQTT_SERVICE_NAME + "\t" + TEST_NODE_1
+            + "\t" + TEST_SOURCE_1 + "\t" + topOfHour + "\t" + msg2.getPayload().length
+            + "\n"));
+    verify(copyStatement).execute(JdbcAuditService.DEFAULT_NODE_SOURCE_COPY_APPLY_SQL);
+    verify(jdbcConnection, never()).rollback();
+    assertMapValueZeroOrMissing(datumCountMap, nodeDatumKey(topOfHour, TEST_NODE_1, null));
+    assertMapValueZeroOrMissing(datumCountMap,
+        nodeDatumKey(topOfHour, TEST_NODE_1, TEST_SOURCE_1));
+    assertThat("Update count", auditor.getUpdateCount(), equalTo(2L));
+  }
+
+  @Test
+  public void auditPublishMessage_copyFails() throws Exception {
+    // GIVEN
+    auditor.setCopyEnabled(true);
+
+    given(dataSource.getConnection()).willReturn(jdbcConnection);
+    given(jdbcConnection.unwrap(PGConnection.class)).willReturn(pgConnection);
+    given(pgConnection.getCopyAPI()).willReturn(copyManager);
+    given(jdbcConnection.createStatement()).willReturn(copyStatement);
+    given(copyManager.copyIn(JdbcAuditService.DEFAULT_NODE_SOURCE_COPY_SQL)).willReturn(copyIn);
+    given(copyStatement.execute(JdbcAuditService.DEFAULT_NODE_SOURCE_COPY_TABLE_SQL))
+        .willReturn(false);
+    given(copyStatement.execute(JdbcAuditService.DEFAULT_NODE_SOURCE_COPY_APPLY_SQL))
+        .willThrow(new SQLException("Test apply failure"));
+
+    // WHEN
+    PublishRequest msg = publishMessage(TEST_NODE_1, TEST_SOURCE_1);
+
+    auditor.enableWriting();
+    stopAuditingAndWaitForFlush();
+
+    // THEN
+    verify(jdbcConnection, atLeastOnce()).rollback();
+    AtomicInteger count = datumCountMap.get(nodeDatumKey(topOfHour, TEST_NODE_1, TEST_SOURCE_1));
+    assertThat("Failed copy count restored", count.get(), equalTo(msg.getPayload().length));
+  }
+
 }
@@ -19,12 +19,24 @@ package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.cache.Cache;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,9 +44,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.TransientDataAccessResourceException;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
 import net.solarnetwork.flux.vernemq.webhook.domain.ActorDetails;
 import net.solarnetwork.flux.vernemq.webhook.domain.Response;
@@ -43,13 +58,18 @@ import net.solarnetwork.flux.vernemq.webhook.domain.v311.RegisterRequest;
 import net.solarnetwork.flux.vernemq.webhook.service.AuthorizationEvaluator;
 import net.solarnetwork.flux.vernemq.webhook.service.impl.ActorDetailsRowMapper;
 import net.solarnetwork.flux.vernemq.webhook.service.impl.JdbcAuthService;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.NodeActorCache;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.NodeOwnershipIndex;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SnTokenDetails;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SnTokenDetailsRowMapper;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SnTokenSigningDetails;
 import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
 
 /**
  * Test cases for the {@link JdbcAuthService} class.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.4
  */
 @ExtendWith(MockitoExtension.class)
 public class JdbcAuthServiceTests extends TestSupport {
@@ -60,6 +80,24 @@ public class JdbcAuthServiceTests extends TestSupport {
   @Mock
   private AuthorizationEvaluator authorizationEvaluator;
 
+  @Mock
+  private Cache<String, Boolean> negativeCache;
+
+  @Mock
+  private Cache<String, SnTokenDetails> verifiedTokenCache;
+
+  @Mock
+  private NodeOwnershipIndex nodeOwnershipIndex;
+
+  @Mock
+  private Cache<String, SnTokenSigningDetails> tokenSigningCache;
+
+  @Mock
+  private Cache.Entry<String, SnTokenDetails> verifiedEntry1;
+
+  @Mock
+  private Cache.Entry<String, SnTokenDetails> verifiedEntry2;
+
   private JdbcAuthService authService;
 
   @BeforeEach
@@ -237,4 +275,279 @@ public class JdbcAuthServiceTests extends TestSupport {
         any(ActorDetailsRowMapper.class));
   }
 
+  @Test
+  public void authenticateNodeNotFoundNegativeCached() {
+    // given
+    authService.setNegativeCache(negativeCache);
+    RegisterRequest req = RegisterRequest.builder().withUsername("solarnode").withClientId("2")
+        .build();
+
+    given(negativeCache.get("Node-2")).willReturn(null, Boolean.TRUE);
+    given(jdbcOps.query(Mockito.any(PreparedStatementCreator.class),
+        Mockito.any(ActorDetailsRowMapper.class))).willReturn(Collections.emptyList());
+
+    // when
+    Response r1 = authService.authenticateRequest(req);
+    Response r2 = authService.authenticateRequest(req);
+
+    // then
+    assertThat("Next", r1.getStatus(), equalTo(ResponseStatus.NEXT));
+    assertThat("Next", r2.getStatus(), equalTo(ResponseStatus.NEXT));
+    then(negativeCache).should().put("Node-2", Boolean.TRUE);
+    then(jdbcOps).should(times(1)).query(any(PreparedStatementCreator.class),
+        any(ActorDetailsRowMapper.class));
+    assertThat("Negative cache hits", authService.getNegativeCacheHits(), equalTo(1L));
+    assertThat("Negative cache misses", authService.getNegativeCacheMisses(), equalTo(1L));
+  }
+
+  @Test
+  public void authenticateNodeOwnershipIndex() {
+    // given
+    authService.setNodeOwnershipIndex(nodeOwnershipIndex);
+    RegisterRequest req = RegisterRequest.builder().withUsername("solarnode").withClientId("2")
+        .withCleanSession(true).build();
+
+    given(nodeOwnershipIndex.actorForNode(2L)).willReturn(new ActorDetails(1L, 2L));
+
+    // when
+    Response r = authService.authenticateRequest(req);
+
+    // then
+    assertThat("OK", r.getStatus(), equalTo(ResponseStatus.OK));
+    then(jdbcOps).shouldHaveNoInteractions();
+  }
+
+  @Test
+  public void authenticateNodeOwnershipIndexMiss() {
+    // given
+    authService.setNodeOwnershipIndex(nodeOwnershipIndex);
+    RegisterRequest req = RegisterRequest.builder().withUsername("solarnode").withClientId("2")
+        .build();
+
+    given(nodeOwnershipIndex.actorForNode(2L)).willReturn(null);
+    given(jdbcOps.query(Mockito.any(PreparedStatementCreator.class),
+        Mockito.any(ActorDetailsRowMapper.class))).willReturn(Collections.emptyList());
+
+    // when
+    Response r = authService.authenticateRequest(req);
+
+    // then
+    assertThat("Next", r.getStatus(), equalTo(ResponseStatus.NEXT));
+    then(jdbcOps).should().query(any(PreparedStatementCreator.class),
+        any(ActorDetailsRowMapper.class));
+  }
+
+  @Test
+  public void authenticateNodeNearCached() {
+    // given
+    authService.setActorNearCacheBuilder(Caffeine.newBuilder());
+    RegisterRequest req = RegisterRequest.builder().withUsername("solarnode").withClientId("2")
+        .withCleanSession(true).build();
+
+    final Actor actor = new ActorDetails(1L, 2L);
+    given(jdbcOps.query(Mockito.any(PreparedStatementCreator.class),
+        Mockito.any(ActorDetailsRowMapper.class))).willReturn(Collections.singletonList(actor));
+
+    // when
+    Response r1 = authService.authenticateRequest(req);
+    Response r2 = authService.authenticateRequest(req);
+
+    // then
+    assertThat("OK", r1.getStatus(), equalTo(ResponseStatus.OK));
+    assertThat("OK", r2.getStatus(), equalTo(ResponseStatus.OK));
+    then(jdbcOps).should(times(1)).query(any(PreparedStatementCreator.class),
+        any(ActorDetailsRowMapper.class));
+    assertThat("Near cache holds actor", authService.getActorNearCache().getIfPresent("Node-2"),
+        sameInstance(actor));
+  }
+
+  @Test
+  public void authenticateNodeNearCacheRefresh() {
+    // given
+    final AtomicLong now = new AtomicLong();
+    authService.setActorNearCacheBuilder(Caffeine.newBuilder().ticker(now::get)
+        .executor(Runnable::run).refreshAfterWrite(Duration.ofMinutes(1)));
+    RegisterRequest req = RegisterRequest.builder().withUsername("solarnode").withClientId("2")
+        .withCleanSession(true).build();
+
+    final Actor actor1 = new ActorDetails(1L, 2L);
+    final Actor actor2 = new ActorDetails(1L, 2L);
+    given(jdbcOps.query(Mockito.any(PreparedStatementCreator.class),
+        Mockito.any(ActorDetailsRowMapper.class))).willReturn(Collections.singletonList(actor1),
+            Collections.singletonList(actor2));
+
+    // when
+    authService.authenticateRequest(req);
+    now.addAndGet(TimeUnit.MINUTES.toNanos(2));
+    Response r = authService.authenticateRequest(req);
+
+    // then
+    assertThat("OK while refreshing", r.getStatus(), equalTo(ResponseStatus.OK));
+    then(jdbcOps).should(times(2)).query(any(PreparedStatementCreator.class),
+        any(ActorDetailsRowMapper.class));
+    assertThat("Near cache holds refreshed actor",
+        authService.getActorNearCache().getIfPresent("Node-2"), sameInstance(actor2));
+  }
+
+  @Test
+  public void authenticateNodeActorCached() {
+    // given
+    authService.setActorNearCacheBuilder(Caffeine.newBuilder());
+    authService.setNodeActorCache(new NodeActorCache(16, 60));
+    RegisterRequest req = RegisterRequest.builder().withUsername("solarnode").withClientId("2")
+        .withCleanSession(true).build();
+
+    final Actor actor = new ActorDetails(1L, 2L);
+    given(jdbcOps.query(Mockito.any(PreparedStatementCreator.class),
+        Mockito.any(ActorDetailsRowMapper.class))).willReturn(Collections.singletonList(actor));
+
+    // when
+    Response r1 = authService.authenticateRequest(req);
+    authService.getActorNearCache().invalidateAll();
+    Response r2 = authService.authenticateRequest(req);
+
+    // then
+    assertThat("OK", r1.getStatus(), equalTo(ResponseStatus.OK));
+    assertThat("OK", r2.getStatus(), equalTo(ResponseStatus.OK));
+    then(jdbcOps).should(times(1)).query(any(PreparedStatementCreator.class),
+        any(ActorDetailsRowMapper.class));
+    assertThat("Node actor cache holds actor", authService.getNodeActorCache().get(2L),
+        sameInstance(actor));
+    assertThat("Near cache not used after node actor cache hit",
+        authService.getActorNearCache().getIfPresent("Node-2"), nullValue());
+  }
+
+  @Test
+  public void authenticateNodeStaleAfterDatabaseError() {
+    // given
+    authService.setStaleActorCacheBuilder(Caffeine.newBuilder());
+    RegisterRequest req = RegisterRequest.builder().withUsername("solarnode").withClientId("2")
+        .withCleanSession(true).build();
+
+    final Actor actor = new ActorDetails(1L, 2L);
+    given(jdbcOps.query(Mockito.any(PreparedStatementCreator.class),
+        Mockito.any(ActorDetailsRowMapper.class))).willReturn(Collections.singletonList(actor))
+            .willThrow(new TransientDataAccessResourceException("Database unavailable"));
+
+    // when
+    Response r1 = authService.authenticateRequest(req);
+    Response r2 = authService.authenticateRequest(req);
+
+    // then
+    assertThat("OK", r1.getStatus(), equalTo(ResponseStatus.OK));
+    assertThat("OK from stale actor", r2.getStatus(), equalTo(ResponseStatus.OK));
+    assertThat("Stale actor used", authService.getStaleActorHits(), equalTo(1L));
+  }
+
+  @Test
+  public void authenticateNodeNoStaleAfterDatabaseError() {
+    // given
+    authService.setStaleActorCacheBuilder(Caffeine.newBuilder());
+    RegisterRequest req = RegisterRequest.builder().withUsername("solarnode").withClientId("2")
+        .withCleanSession(true).build();
+
+    given(jdbcOps.query(Mockito.any(PreparedStatementCreator.class),
+        Mockito.any(ActorDetailsRowMapper.class)))
+            .willThrow(new TransientDataAccessResourceException("Database unavailable"));
+
+    // then
+    assertThrows(TransientDataAccessResourceException.class,
+        () -> authService.authenticateRequest(req));
+  }
+
+  @Test
+  public void evictNodeActor() {
+    // given
+    authService.setActorNearCacheBuilder(Caffeine.newBuilder());
+    authService.setNodeActorCache(new NodeActorCache(16, 60));
+    RegisterRequest req = RegisterRequest.builder().withUsername("solarnode").withClientId("2")
+        .withCleanSession(true).build();
+
+    final Actor actor = new ActorDetails(1L, 2L);
+    given(jdbcOps.query(Mockito.any(PreparedStatementCreator.class),
+        Mockito.any(ActorDetailsRowMapper.class))).willReturn(Collections.singletonList(actor));
+    authService.authenticateRequest(req);
+
+    // when
+    boolean evicted = authService.evictNodeActor(2L);
+
+    // then
+    assertThat("Actor evicted", evicted, equalTo(true));
+    assertThat("Node actor cache evicted", authService.getNodeActorCache().get(2L), nullValue());
+    assertThat("Near cache evicted", authService.getActorNearCache().getIfPresent("Node-2"),
+        nullValue());
+    assertThat("Evict again finds nothing", authService.evictNodeActor(2L), equalTo(false));
+  }
+
+  @Test
+  public void evictNodeActor_ownershipIndex() {
+    // given
+    authService.setNodeOwnershipIndex(nodeOwnershipIndex);
+    given(nodeOwnershipIndex.remove(2L)).willReturn(true);
+
+    // when
+    boolean evicted = authService.evictNodeActor(2L);
+
+    // then
+    assertThat("Actor evicted from index", evicted, equalTo(true));
+  }
+
+  @Test
+  public void evictTokenActor() {
+    // given
+    authService.setVerifiedTokenCache(verifiedTokenCache);
+    authService.setTokenSigningCache(tokenSigningCache);
+    given(tokenSigningCache.remove("abc123")).willReturn(true);
+    given(verifiedEntry1.getKey()).willReturn("Auth-abc123-1000-sig");
+    given(verifiedEntry2.getKey()).willReturn("Auth-def456-1000-sig");
+    given(verifiedTokenCache.iterator())
+        .willReturn(Arrays.asList(verifiedEntry1, verifiedEntry2).iterator());
+
+    // when
+    boolean evicted = authService.evictTokenActor("abc123");
+
+    // then
+    assertThat("Token evicted", evicted, equalTo(true));
+    then(verifiedTokenCache).should().removeAll(Set.of("Auth-abc123-1000-sig"));
+  }
+
+  @Test
+  public void clearActorCaches_ownershipIndex() {
+    // given
+    authService.setNodeOwnershipIndex(nodeOwnershipIndex);
+
+    // when
+    authService.clearActorCaches();
+
+    // then
+    then(nodeOwnershipIndex).should().clear();
+  }
+
+  @Test
+  public void authenticateTokenVerifiedCached() {
+    // given
+    authService.setVerifiedTokenCache(verifiedTokenCache);
+    final long reqDate = System.currentTimeMillis() / 1000L;
+    RegisterRequest req = RegisterRequest.builder().withClientId("token-1").withUsername("token")
+        .withPassword(password(reqDate, "010203")).build();
+
+    SnTokenDetails details = SnTokenDetails.builder().withTokenId("token").withUserId(1L)
+        .withTokenType("ReadNodeData").build();
+    given(verifiedTokenCache.get(anyString())).willReturn(null, details);
+    given(jdbcOps.query(any(PreparedStatementCreator.class), any(SnTokenDetailsRowMapper.class)))
+        .willReturn(Arrays.asList(details));
+
+    // when
+    Response r1 = authService.authenticateRequest(req);
+    Response r2 = authService.authenticateRequest(req);
+
+    // then
+    assertThat("OK", r1.getStatus(), equalTo(ResponseStatus.OK));
+    assertThat("OK", r2.getStatus(), equalTo(ResponseStatus.OK));
+    then(jdbcOps).should(times(1)).query(any(PreparedStatementCreator.class),
+        any(SnTokenDetailsRowMapper.class));
+    then(verifiedTokenCache).should(times(1)).put("Auth-token-" + (reqDate * 1000L) + "-010203",
+        details);
+  }
+
 }
@@ -0,0 +1,204 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorDetails;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.ActorDetailsRowMapper;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.NodeActorBatchLoader;
+import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
+
+/**
+ * Test cases for the {@link NodeActorBatchLoader} class.
+ * 
+ * @author matt
+ * @version 1.1
+ */
+@ExtendWith(MockitoExtension.class)
+public class NodeActorBatchLoaderTests extends TestSupport {
+
+  @Mock
+  private JdbcOperations jdbcOps;
+
+  @Mock
+  private Connection con;
+
+  @Mock
+  private PreparedStatement stmt;
+
+  @Mock
+  private Array array;
+
+  private NodeActorBatchLoader loader;
+
+  @BeforeEach
+  public void setup() {
+    loader = new NodeActorBatchLoader(jdbcOps);
+    loader.setBatchWindow(1);
+  }
+
+  @Test
+  public void load() {
+    // given
+    final Actor actor = new ActorDetails(1L, 2L);
+    given(jdbcOps.query(any(PreparedStatementCreator.class), any(ActorDetailsRowMapper.class)))
+        .willReturn(Collections.singletonList(actor));
+
+    // when
+    Actor result = loader.load(2L);
+
+    // then
+    assertThat("Actor returned", result, sameInstance(actor));
+    assertThat("Batch count", loader.getBatchCount(), equalTo(1L));
+  }
+
+  @Test
+  public void load_immediateWhenIdle() {
+    // given
+    loader.setBatchWindow(TimeUnit.MINUTES.toMillis(1));
+    final Actor actor = new ActorDetails(1L, 2L);
+    given(jdbcOps.query(any(PreparedStatementCreator.class), any(ActorDetailsRowMapper.class)))
+        .willReturn(Collections.singletonList(actor));
+
+    // when
+    final long start = System.nanoTime();
+    Actor result = loader.load(2L);
+    final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    // then
+    assertThat("Actor returned", result, sameInstance(actor));
+    assertThat("Did not wait for batch window", elapsed < TimeUnit.SECONDS.toMillis(30),
+        equalTo(true));
+  }
+
+  @Test
+  public void load_notFound() {
+    // given
+    given(jdbcOps.query(any(PreparedStatementCreator.class), any(ActorDetailsRowMapper.class)))
+        .willReturn(Collections.emptyList());
+
+    // when
+    Actor result = loader.load(2L);
+
+    // then
+    assertThat("Missing node returns null", result, nullValue());
+  }
+
+  @Test
+  public void load_exception() {
+    // given
+    given(jdbcOps.query(any(PreparedStatementCreator.class), any(ActorDetailsRowMapper.class)))
+        .willThrow(new QueryTimeoutException("timeout"));
+
+    // when
+    assertThrows(QueryTimeoutException.class, () -> loader.load(2L));
+
+    // then
+    assertThat("Batch count", loader.getBatchCount(), equalTo(1L));
+  }
+
+  @Test
+  public void load_batchFull() throws Exception {
+    // given
+    loader.setBatchWindow(TimeUnit.MINUTES.toMillis(1));
+    loader.setMaxBatchSize(2);
+    final Actor actor1 = new ActorDetails(1L, 1L);
+    final Actor actor2 = new ActorDetails(1L, 2L);
+    final Actor actor3 = new ActorDetails(1L, 3L);
+    final CountDownLatch firstQueryStarted = new CountDownLatch(1);
+    final CountDownLatch firstQueryRelease = new CountDownLatch(1);
+    given(jdbcOps.query(any(PreparedStatementCreator.class), any(ActorDetailsRowMapper.class)))
+        .willAnswer(invocation -> {
+          // hold the first query open so the next lookups are collected into a batch
+          firstQueryStarted.countDown();
+          firstQueryRelease.await(10, TimeUnit.SECONDS);
+          return Collections.singletonList(actor3);
+        }).willReturn(Arrays.asList(actor2, actor1));
+
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      // when
+      Future<Actor> f3 = executor.submit(() -> loader.load(3L));
+      firstQueryStarted.await(10, TimeUnit.SECONDS);
+      Future<Actor> f1 = executor.submit(() -> loader.load(1L));
+      Future<Actor> f2 = executor.submit(() -> loader.load(2L));
+
+      // then
+      assertThat("Node 1 actor", f1.get(10, TimeUnit.SECONDS), sameInstance(actor1));
+      assertThat("Node 2 actor", f2.get(10, TimeUnit.SECONDS), sameInstance(actor2));
+      firstQueryRelease.countDown();
+      assertThat("Node 3 actor", f3.get(10, TimeUnit.SECONDS), sameInstance(actor3));
+    } finally {
+      firstQueryRelease.countDown();
+      executor.shutdownNow();
+    }
+    assertThat("Batch queries", loader.getBatchCount(), equalTo(2L));
+    assertThat("Load count", loader.getLoadCount(), equalTo(3L));
+
+    ArgumentCaptor<PreparedStatementCreator> pscCaptor = ArgumentCaptor
+        .forClass(PreparedStatementCreator.class);
+    then(jdbcOps).should(times(2)).query(pscCaptor.capture(), any(ActorDetailsRowMapper.class));
+
+    given(con.prepareStatement(anyString(), anyInt(), anyInt())).willReturn(stmt);
+    given(con.createArrayOf(eq("bigint"), any())).willReturn(array);
+    pscCaptor.getAllValues().get(1).createPreparedStatement(con);
+
+    ArgumentCaptor<Object[]> idsCaptor = ArgumentCaptor.forClass(Object[].class);
+    then(con).should().prepareStatement(eq(NodeActorBatchLoader.DEFAULT_AUTHORIZE_NODES_CALL),
+        anyInt(), anyInt());
+    then(con).should().createArrayOf(eq("bigint"), idsCaptor.capture());
+    assertThat("Batch node IDs", (Long[]) idsCaptor.getValue(), arrayContainingInAnyOrder(1L, 2L));
+    then(stmt).should().setArray(1, array);
+  }
+
+}
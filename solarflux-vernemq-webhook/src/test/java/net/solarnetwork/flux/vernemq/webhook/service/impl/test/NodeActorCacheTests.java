@@ -0,0 +1,134 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorDetails;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.NodeActorCache;
+import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
+
+/**
+ * Test cases for the {@link NodeActorCache} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class NodeActorCacheTests extends TestSupport {
+
+  private static final long TTL = 1000L;
+
+  private AtomicLong clock;
+  private NodeActorCache cache;
+
+  @BeforeEach
+  public void setup() {
+    clock = new AtomicLong(1L);
+    cache = new NodeActorCache(8, TTL, clock::get);
+  }
+
+  @Test
+  public void capacityRoundedUp() {
+    assertThat("Capacity is power of two", new NodeActorCache(100, 1L).getCapacity(),
+        equalTo(128));
+  }
+
+  @Test
+  public void miss() {
+    assertThat("Not cached", cache.get(1L), nullValue());
+    assertThat("Miss counted", cache.getMissCount(), equalTo(1L));
+  }
+
+  @Test
+  public void hit() {
+    // given
+    Actor actor = new ActorDetails(2L, 1L);
+    cache.put(1L, actor);
+
+    // when
+    Actor result = cache.get(1L);
+
+    // then
+    assertThat("Cached actor returned", result, sameInstance(actor));
+    assertThat("Hit counted", cache.getHitCount(), equalTo(1L));
+    assertThat("Size", cache.size(), equalTo(1));
+  }
+
+  @Test
+  public void replace() {
+    // given
+    cache.put(1L, new ActorDetails(2L, 1L));
+    Actor actor = new ActorDetails(3L, 1L);
+
+    // when
+    cache.put(1L, actor);
+
+    // then
+    assertThat("Replaced actor returned", cache.get(1L), sameInstance(actor));
+    assertThat("Size", cache.size(), equalTo(1));
+  }
+
+  @Test
+  public void expired() {
+    // given
+    cache.put(1L, new ActorDetails(2L, 1L));
+
+    // when
+    clock.addAndGet(TTL);
+
+    // then
+    assertThat("Expired actor not returned", cache.get(1L), nullValue());
+    assertThat("Size", cache.size(), equalTo(0));
+  }
+
+  @Test
+  public void remove() {
+    // given
+    cache.put(1L, new ActorDetails(2L, 1L));
+
+    // when
+    cache.remove(1L);
+
+    // then
+    assertThat("Removed actor not returned", cache.get(1L), nullValue());
+  }
+
+  @Test
+  public void boundedSize() {
+    // when
+    for (long nodeId = 1; nodeId <= 100; nodeId++) {
+      clock.incrementAndGet();
+      cache.put(nodeId, new ActorDetails(2L, nodeId));
+    }
+
+    // then
+    assertThat("Size limited to capacity", cache.size() <= cache.getCapacity(), equalTo(true));
+    assertThat("Most recent actor cached", cache.get(100L).getUserNodeIds(), contains(100L));
+  }
+
+}
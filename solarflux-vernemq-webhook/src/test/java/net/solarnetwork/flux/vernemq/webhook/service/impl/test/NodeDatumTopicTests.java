@@ -0,0 +1,119 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import net.solarnetwork.flux.vernemq.webhook.service.impl.NodeDatumTopic;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SimpleAuthorizationEvaluator;
+
+/**
+ * Test cases for the {@link NodeDatumTopic} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class NodeDatumTopicTests {
+
+  private static final Pattern DEFAULT_PATTERN = Pattern
+      .compile(SimpleAuthorizationEvaluator.DEFAULT_NODE_DATUM_TOPIC_REGEX);
+
+  @Test
+  public void parseNodeTopic() {
+    NodeDatumTopic t = NodeDatumTopic.parse("node/123/datum/0/foo/bar");
+    assertThat("Parsed", t, notNullValue());
+    assertThat("No user ID", t.hasUserId(), is(false));
+    assertThat("Node ID", t.getNodeId(), equalTo(123L));
+    assertThat("Not wildcard", t.isNodeWildcard(), is(false));
+    assertThat("Aggregation", t.getAggregation(), equalTo("0"));
+    assertThat("Source ID", t.getSourceId(), equalTo("/foo/bar"));
+  }
+
+  @Test
+  public void parseUserTopic() {
+    NodeDatumTopic t = NodeDatumTopic.parse("user/1/node/2/datum/h/Mock Meter");
+    assertThat("Parsed", t, notNullValue());
+    assertThat("User ID", t.hasUserId(), is(true));
+    assertThat("User ID", t.getUserId(), equalTo(1L));
+    assertThat("Node ID", t.getNodeId(), equalTo(2L));
+    assertThat("Aggregation", t.getAggregation(), equalTo("h"));
+    assertThat("Source ID", t.getSourceId(), equalTo("/Mock Meter"));
+  }
+
+  @Test
+  public void parseWildcardNode() {
+    NodeDatumTopic t = NodeDatumTopic.parse("user/1/node/+/datum/0/#");
+    assertThat("Parsed", t, notNullValue());
+    assertThat("Wildcard", t.isNodeWildcard(), is(true));
+    assertThat("Source ID", t.getSourceId(), equalTo("/#"));
+  }
+
+  @Test
+  public void parseNodeIdOverflow() {
+    NodeDatumTopic t = NodeDatumTopic.parse("node/99999999999999999999/datum/0/foo");
+    assertThat("Parsed", t, notNullValue());
+    assertThat("Node ID invalid", t.getNodeId(), equalTo(NodeDatumTopic.INVALID_ID));
+  }
+
+  @Test
+  public void parseInvalid() {
+    assertThat("Null", NodeDatumTopic.parse(null), nullValue());
+    assertThat("Missing source", NodeDatumTopic.parse("node/1/datum/0/"), nullValue());
+    assertThat("Missing source slash", NodeDatumTopic.parse("node/1/datum/0"), nullValue());
+    assertThat("Missing aggregation", NodeDatumTopic.parse("node/1/datum//foo"), nullValue());
+    assertThat("Bad user ID", NodeDatumTopic.parse("user/ABC/node/1/datum/0/foo"), nullValue());
+    assertThat("Bad node ID", NodeDatumTopic.parse("node/1a/datum/0/foo"), nullValue());
+    assertThat("Wildcard suffix", NodeDatumTopic.parse("node/+1/datum/0/foo"), nullValue());
+    assertThat("Line break", NodeDatumTopic.parse("node/1/datum/0/foo\nbar"), nullValue());
+    assertThat("Other topic", NodeDatumTopic.parse("user/1/foo"), nullValue());
+  }
+
+  @Test
+  public void parseSameAsRegex() {
+    String[] topics = new String[] { "node/1/datum/0/foo", "user/1/node/2/datum/0/foo",
+        "user/1/node/+/datum/0/#", "node/1/datum/0/", "node/1/datum/0//", "node//datum/0/foo",
+        "user//node/1/datum/0/foo", "user/1/node/1/datum/0/a\r", "node/1/datum/0/a b/c",
+        "node/1/datum/a/b/c/d", "nodes/1/datum/0/foo", "user/1/user/2/node/3/datum/0/foo",
+        "node/1/data/0/foo", "node/+/datum/+/+", "", "node/1/datum/0/ " };
+    for (String topic : topics) {
+      NodeDatumTopic parsed = NodeDatumTopic.parse(topic);
+      NodeDatumTopic matched = NodeDatumTopic.match(DEFAULT_PATTERN, topic);
+      if (matched == null) {
+        assertThat("Not parsed [" + topic + "]", parsed, nullValue());
+        continue;
+      }
+      assertThat("Parsed [" + topic + "]", parsed, notNullValue());
+      assertThat("User [" + topic + "]", parsed.hasUserId(), equalTo(matched.hasUserId()));
+      assertThat("User ID [" + topic + "]", parsed.getUserId(), equalTo(matched.getUserId()));
+      assertThat("Node ID [" + topic + "]", parsed.getNodeId(), equalTo(matched.getNodeId()));
+      assertThat("Aggregation [" + topic + "]", parsed.getAggregation(),
+          equalTo(matched.getAggregation()));
+      assertThat("Source ID [" + topic + "]", parsed.getSourceId(),
+          equalTo(matched.getSourceId()));
+    }
+  }
+
+}
@@ -0,0 +1,255 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.NodeOwnershipIndex;
+import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
+
+/**
+ * Test cases for the {@link NodeOwnershipIndex} class.
+ * 
+ * @author matt
+ * @version 1.1
+ */
+@ExtendWith(MockitoExtension.class)
+public class NodeOwnershipIndexTests extends TestSupport {
+
+  @Mock
+  private JdbcOperations jdbcOps;
+
+  @Mock
+  private ResultSet rs;
+
+  @Mock
+  private ResultSet digestRs;
+
+  private NodeOwnershipIndex index;
+
+  @BeforeEach
+  public void setup() {
+    index = new NodeOwnershipIndex(jdbcOps);
+  }
+
+  private void givenReload(int rows) {
+    willAnswer(invocation -> {
+      RowCallbackHandler rch = invocation.getArgument(1);
+      for (int i = 0; i < rows; i++) {
+        rch.processRow(rs);
+      }
+      return null;
+    }).given(jdbcOps).query(eq(NodeOwnershipIndex.DEFAULT_RELOAD_CALL),
+        any(RowCallbackHandler.class));
+  }
+
+  private void givenDigest(long count, long checksum) throws SQLException {
+    given(digestRs.getLong(1)).willReturn(count);
+    given(digestRs.getLong(2)).willReturn(checksum);
+    given(jdbcOps.queryForObject(eq(NodeOwnershipIndex.DEFAULT_DIGEST_CALL), any(RowMapper.class)))
+        .willAnswer(invocation -> {
+          RowMapper<?> mapper = invocation.getArgument(1);
+          return mapper.mapRow(digestRs, 1);
+        });
+  }
+
+  @Test
+  public void notLoaded() {
+    assertThat("Not loaded", index.isLoaded(), equalTo(false));
+    assertThat("Unknown node", index.userIdForNode(1L), equalTo(NodeOwnershipIndex.NO_USER));
+    assertThat("Unknown actor", index.actorForNode(1L), nullValue());
+  }
+
+  @Test
+  public void reload() throws Exception {
+    // given
+    final Timestamp created = new Timestamp(System.currentTimeMillis());
+    given(rs.getLong(1)).willReturn(1L, 2L);
+    given(rs.getLong(2)).willReturn(10L, 20L);
+    given(rs.getTimestamp(3)).willReturn(created);
+    willAnswer(invocation -> {
+      RowCallbackHandler rch = invocation.getArgument(1);
+      rch.processRow(rs);
+      rch.processRow(rs);
+      return null;
+    }).given(jdbcOps).query(eq(NodeOwnershipIndex.DEFAULT_RELOAD_CALL),
+        any(RowCallbackHandler.class));
+
+    // when
+    int count = index.reload();
+
+    // then
+    assertThat("Loaded count", count, equalTo(2));
+    assertThat("Loaded", index.isLoaded(), equalTo(true));
+    assertThat("Size", index.size(), equalTo(2));
+    assertThat("Node 1 owner", index.userIdForNode(1L), equalTo(10L));
+    assertThat("Node 2 owner", index.userIdForNode(2L), equalTo(20L));
+    assertThat("Unknown node", index.userIdForNode(3L), equalTo(NodeOwnershipIndex.NO_USER));
+  }
+
+  @Test
+  public void refresh() throws Exception {
+    // given
+    final Timestamp created1 = new Timestamp(System.currentTimeMillis() - 1000L);
+    final Timestamp created2 = new Timestamp(System.currentTimeMillis());
+    given(rs.getLong(1)).willReturn(1L, 1L, 2L);
+    given(rs.getLong(2)).willReturn(10L, 10L, 20L);
+    given(rs.getTimestamp(3)).willReturn(created1, created1, created2);
+    willAnswer(invocation -> {
+      RowCallbackHandler rch = invocation.getArgument(1);
+      rch.processRow(rs);
+      return null;
+    }).given(jdbcOps).query(eq(NodeOwnershipIndex.DEFAULT_RELOAD_CALL),
+        any(RowCallbackHandler.class));
+    willAnswer(invocation -> {
+      RowCallbackHandler rch = invocation.getArgument(1);
+      // the last node is returned again, along with the new node
+      rch.processRow(rs);
+      rch.processRow(rs);
+      return null;
+    }).given(jdbcOps).query(eq(NodeOwnershipIndex.DEFAULT_REFRESH_CALL),
+        any(RowCallbackHandler.class), eq(created1));
+    givenDigest(2L, 1L * 10L + 2L * 20L);
+
+    // when
+    index.reload();
+    Actor actor1 = index.actorForNode(1L);
+    int count = index.refresh();
+
+    // then
+    assertThat("Refreshed count", count, equalTo(1));
+    assertThat("Size", index.size(), equalTo(2));
+    assertThat("Node 1 owner", index.userIdForNode(1L), equalTo(10L));
+    assertThat("Node 2 owner", index.userIdForNode(2L), equalTo(20L));
+    assertThat("Unchanged node actor kept after refresh", index.actorForNode(1L),
+        sameInstance(actor1));
+  }
+
+  @Test
+  public void refresh_digestChanged() throws Exception {
+    // given
+    final Timestamp created = new Timestamp(System.currentTimeMillis());
+    given(rs.getLong(1)).willReturn(1L, 2L, 1L);
+    given(rs.getLong(2)).willReturn(10L, 20L, 10L);
+    given(rs.getTimestamp(3)).willReturn(created);
+    willAnswer(new Answer<Void>() {
+
+      private int calls = 0;
+
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        RowCallbackHandler rch = invocation.getArgument(1);
+        // node 2 is deleted after the first load
+        for (int i = 0, len = (calls++ == 0 ? 2 : 1); i < len; i++) {
+          rch.processRow(rs);
+        }
+        return null;
+      }
+    }).given(jdbcOps).query(eq(NodeOwnershipIndex.DEFAULT_RELOAD_CALL),
+        any(RowCallbackHandler.class));
+    givenDigest(1L, 10L);
+
+    // when
+    index.reload();
+    index.refresh();
+
+    // then
+    assertThat("Size", index.size(), equalTo(1));
+    assertThat("Node 1 owner", index.userIdForNode(1L), equalTo(10L));
+    assertThat("Deleted node removed", index.userIdForNode(2L),
+        equalTo(NodeOwnershipIndex.NO_USER));
+  }
+
+  @Test
+  public void actorForNode() throws Exception {
+    // given
+    given(rs.getLong(1)).willReturn(1L);
+    given(rs.getLong(2)).willReturn(10L);
+    givenReload(1);
+
+    // when
+    index.reload();
+    Actor actor = index.actorForNode(1L);
+
+    // then
+    assertThat("Actor user", actor.getUserId(), equalTo(10L));
+    assertThat("Actor node", actor.getAllowedNodeIds().contains(1L), equalTo(true));
+    assertThat("Same actor returned", index.actorForNode(1L), sameInstance(actor));
+    assertThat("Unknown actor", index.actorForNode(2L), nullValue());
+  }
+
+  @Test
+  public void remove() throws Exception {
+    // given
+    given(rs.getLong(1)).willReturn(1L, 2L);
+    given(rs.getLong(2)).willReturn(10L, 20L);
+    givenReload(2);
+    index.reload();
+    Actor actor1 = index.actorForNode(1L);
+
+    // when
+    boolean removed = index.remove(2L);
+
+    // then
+    assertThat("Removed", removed, equalTo(true));
+    assertThat("Size", index.size(), equalTo(1));
+    assertThat("Removed node", index.actorForNode(2L), nullValue());
+    assertThat("Other node actor kept", index.actorForNode(1L), sameInstance(actor1));
+    assertThat("Remove again finds nothing", index.remove(2L), equalTo(false));
+  }
+
+  @Test
+  public void clear() throws Exception {
+    // given
+    given(rs.getLong(1)).willReturn(1L);
+    given(rs.getLong(2)).willReturn(10L);
+    givenReload(1);
+    index.reload();
+
+    // when
+    index.clear();
+
+    // then
+    assertThat("Not loaded", index.isLoaded(), equalTo(false));
+    assertThat("Cleared node", index.actorForNode(1L), nullValue());
+  }
+
+}
@@ -0,0 +1,135 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.mockito.BDDMockito.given;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import net.solarnetwork.domain.DatumStreamId.NodeDatumStreamId;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.NodeSourceCounters;
+
+/**
+ * Test cases for the {@link NodeSourceCounters} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+public class NodeSourceCountersTests {
+
+  private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+  private static final long TEST_HOUR = 1_700_000_000_000L / HOUR * HOUR;
+
+  @Mock
+  private Clock clock;
+
+  private static Map<NodeDatumStreamId, Integer> drain(NodeSourceCounters counters) {
+    Map<NodeDatumStreamId, Integer> result = new HashMap<>();
+    counters.drainTo((k, v) -> result.merge(k, v, Integer::sum));
+    return result;
+  }
+
+  private static NodeDatumStreamId key(long hour, Long nodeId, String sourceId) {
+    return new NodeDatumStreamId(nodeId, sourceId, Instant.ofEpochMilli(hour));
+  }
+
+  @Test
+  public void addAndDrain() {
+    // GIVEN
+    given(clock.millis()).willReturn(TEST_HOUR + 1000L);
+    NodeSourceCounters counters = new NodeSourceCounters(clock);
+
+    // WHEN
+    counters.add(1L, "a", 10);
+    counters.add(1L, "a", 10);
+    counters.add(1L, "b", 5);
+    counters.add(2L, "a", 1);
+    Map<NodeDatumStreamId, Integer> result = drain(counters);
+
+    // THEN
+    assertThat("Counts drained", result, aMapWithSize(3));
+    assertThat("Node 1 a count", result, hasEntry(key(TEST_HOUR, 1L, "a"), 20));
+    assertThat("Node 1 b count", result, hasEntry(key(TEST_HOUR, 1L, "b"), 5));
+    assertThat("Node 2 a count", result, hasEntry(key(TEST_HOUR, 2L, "a"), 1));
+    assertThat("Nothing left to drain", drain(counters), aMapWithSize(0));
+  }
+
+  @Test
+  public void hourChange() {
+    // GIVEN
+    given(clock.millis()).willReturn(TEST_HOUR + HOUR - 1, TEST_HOUR + HOUR, TEST_HOUR + HOUR + 1);
+    NodeSourceCounters counters = new NodeSourceCounters(clock);
+
+    // WHEN
+    counters.add(1L, "a", 1);
+    counters.add(1L, "a", 2);
+    counters.add(1L, "a", 3);
+    Map<NodeDatumStreamId, Integer> result = drain(counters);
+
+    // THEN
+    assertThat("Counts drained", result, aMapWithSize(2));
+    assertThat("Previous hour count", result, hasEntry(key(TEST_HOUR, 1L, "a"), 1));
+    assertThat("Current hour count", result, hasEntry(key(TEST_HOUR + HOUR, 1L, "a"), 5));
+  }
+
+  @Test
+  public void concurrentAddAndDrain() throws Exception {
+    // GIVEN
+    given(clock.millis()).willReturn(TEST_HOUR);
+    NodeSourceCounters counters = new NodeSourceCounters(clock);
+    final int threadCount = 8;
+    final int addCount = 100_000;
+    final CountDownLatch done = new CountDownLatch(threadCount);
+    final AtomicLong drained = new AtomicLong();
+
+    // WHEN
+    for (int i = 0; i < threadCount; i++) {
+      final String sourceId = String.valueOf(i % 2);
+      new Thread(() -> {
+        for (int j = 0; j < addCount; j++) {
+          counters.add(1L, sourceId, 1);
+        }
+        done.countDown();
+      }).start();
+    }
+    while (!done.await(1, TimeUnit.MILLISECONDS)) {
+      counters.drainTo((k, v) -> drained.addAndGet(v));
+    }
+    counters.drainTo((k, v) -> drained.addAndGet(v));
+
+    // THEN
+    assertThat("All counts drained", drained.get(), equalTo((long) threadCount * addCount));
+  }
+
+}
@@ -0,0 +1,134 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.Test;
+
+import net.solarnetwork.central.security.SecurityPolicy;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SecurityPolicyDecoder;
+import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
+
+/**
+ * Test cases for the {@link SecurityPolicyDecoder} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class SecurityPolicyDecoderTests extends TestSupport {
+
+  @Test
+  public void decodeNull() {
+    // given
+    SecurityPolicyDecoder decoder = new SecurityPolicyDecoder();
+
+    // when
+    SecurityPolicy result = decoder.decode(null);
+
+    // then
+    assertThat("Null policy", result, nullValue());
+    assertThat("Nothing cached", decoder.size(), equalTo(0L));
+  }
+
+  @Test
+  public void decode() {
+    // given
+    SecurityPolicyDecoder decoder = new SecurityPolicyDecoder();
+    String json = classResourceAsString("security-policy-01.json", "UTF-8");
+
+    // when
+    SecurityPolicy result = decoder.decode(json);
+
+    // then
+    assertThat("Policy decoded", result, notNullValue());
+    assertThat("Node IDs", result.getNodeIds(), contains(1L, 2L, 3L));
+    assertThat("Source IDs", result.getSourceIds(), contains("one", "two", "three"));
+    assertThat("Not after", result.getNotAfter(),
+        equalTo(new DateTime(1544388330000L).withZone(DateTimeZone.UTC)));
+  }
+
+  @Test
+  public void decodeInvalid() {
+    // given
+    SecurityPolicyDecoder decoder = new SecurityPolicyDecoder();
+
+    // when
+    SecurityPolicy result = decoder.decode("{not json");
+
+    // then
+    assertThat("Invalid policy ignored", result, nullValue());
+  }
+
+  @Test
+  public void decodeIdenticalShared() {
+    // given
+    SecurityPolicyDecoder decoder = new SecurityPolicyDecoder();
+    String json = classResourceAsString("security-policy-01.json", "UTF-8");
+
+    // when
+    SecurityPolicy result1 = decoder.decode(json);
+    SecurityPolicy result2 = decoder.decode(new String(json));
+
+    // then
+    assertThat("Identical policy shared", result2, sameInstance(result1));
+    assertThat("Parsed once", decoder.getMissCount(), equalTo(1L));
+    assertThat("Shared once", decoder.getHitCount(), equalTo(1L));
+    assertThat("Cached", decoder.size(), equalTo(1L));
+  }
+
+  @Test
+  public void decodeDifferentNotShared() {
+    // given
+    SecurityPolicyDecoder decoder = new SecurityPolicyDecoder();
+
+    // when
+    SecurityPolicy result1 = decoder.decode("{\"nodeIds\":[1]}");
+    SecurityPolicy result2 = decoder.decode("{\"nodeIds\":[2]}");
+
+    // then
+    assertThat("Different policies not shared", result2, not(sameInstance(result1)));
+    assertThat("Policy 1 nodes", result1.getNodeIds(), contains(1L));
+    assertThat("Policy 2 nodes", result2.getNodeIds(), contains(2L));
+  }
+
+  @Test
+  public void decodeWithoutCache() {
+    // given
+    SecurityPolicyDecoder decoder = new SecurityPolicyDecoder(0);
+    String json = classResourceAsString("security-policy-01.json", "UTF-8");
+
+    // when
+    SecurityPolicy result1 = decoder.decode(json);
+    SecurityPolicy result2 = decoder.decode(json);
+
+    // then
+    assertThat("Not shared", result2, not(sameInstance(result1)));
+    assertThat("Policy decoded", result2.getNodeIds(), contains(1L, 2L, 3L));
+    assertThat("Nothing cached", decoder.size(), equalTo(0L));
+  }
+
+}
@@ -35,16 +35,24 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
 import net.solarnetwork.central.domain.Aggregation;
 import net.solarnetwork.central.security.BasicSecurityPolicy;
 import net.solarnetwork.central.security.SecurityPolicy;
+import net.solarnetwork.flux.vernemq.webhook.Globals;
 import net.solarnetwork.flux.vernemq.webhook.domain.ActorDetails;
 import net.solarnetwork.flux.vernemq.webhook.domain.ActorType;
 import net.solarnetwork.flux.vernemq.webhook.domain.Message;
+import net.solarnetwork.flux.vernemq.webhook.domain.PublishAuthorization;
 import net.solarnetwork.flux.vernemq.webhook.domain.Qos;
 import net.solarnetwork.flux.vernemq.webhook.domain.TopicSettings;
 import net.solarnetwork.flux.vernemq.webhook.domain.TopicSubscriptionSetting;
@@ -55,10 +63,12 @@ import net.solarnetwork.flux.vernemq.webhook.service.impl.SimpleAuthorizationEva
  * Test cases for the {@link SimpleAuthorizationEvaluator} class.
  * 
  * @author matt
- * @version 1.1
+ * @version 1.3
  */
 public class SimpleAuthorizationEvaluatorTests {
 
+  private static final String AUDIT_LOGGER_NAME = Globals.class.getPackage().getName() + ".AUDIT";
+
   private SimpleAuthorizationEvaluator service;
 
   @BeforeEach
@@ -1219,4 +1229,156 @@ public class SimpleAuthorizationEvaluatorTests {
     assertThat("Source ID not available", sourceId, is(nullValue()));
   }
 
+  @Test
+  public void authorizePublish_withSourceId() {
+    ActorDetails actor = actor(2L);
+    Message request = requestMessage("node/2/datum/0/a/path/here");
+    service.setUserTopicPrefix(true);
+    PublishAuthorization result = service.authorizePublish(actor, request);
+    assertThat("Result available", result, notNullValue());
+    assertThat("Topic prefixed", result.getMessage().getTopic(),
+        equalTo("user/1/node/2/datum/0/a/path/here"));
+    assertThat("Source ID extracted", result.getSourceId(), equalTo("/a/path/here"));
+  }
+
+  @Test
+  public void authorizePublish_denied() {
+    ActorDetails actor = actor(2L);
+    Message request = requestMessage("node/3/datum/0/foo");
+    PublishAuthorization result = service.authorizePublish(actor, request);
+    assertThat("Result not available", result, nullValue());
+  }
+
+  @Test
+  public void publishAllowed_customTopicRegex() {
+    ActorDetails actor = actor(2L);
+    Message request = requestMessage("user/1/node/2/datum/0/foo");
+    service.setNodeDatumTopicRegex(
+        Pattern.compile("(?:user/(\\d+)/)?node/(\\d+|\\+)/datum/([^/]+)(/foo)"));
+    PublishAuthorization result = service.authorizePublish(actor, request);
+    assertThat("Result Ok and unchanged", result.getMessage(), is(sameInstance(request)));
+    assertThat("Source ID extracted", result.getSourceId(), equalTo("/foo"));
+  }
+
+  @Test
+  public void publishDenied_customTopicRegex() {
+    ActorDetails actor = actor(2L);
+    Message request = requestMessage("user/1/node/2/datum/0/bar");
+    service.setNodeDatumTopicRegex(
+        Pattern.compile("(?:user/(\\d+)/)?node/(\\d+|\\+)/datum/([^/]+)(/foo)"));
+    Message result = service.evaluatePublish(actor, request);
+    assertThat("Result not available", result, nullValue());
+  }
+
+  @Test
+  public void publish_decisionCached() {
+    service.setDecisionCacheMaxActors(10);
+    service.setUserTopicPrefix(true);
+    ActorDetails actor = actor(2L);
+    Message request1 = requestMessage("node/2/datum/0/foo");
+    Message request2 = PublishRequest.builder().withTopic("node/2/datum/0/foo")
+        .withQos(Qos.AtLeastOnce).withPayload(new byte[] { 1, 2, 3 }).build();
+
+    PublishAuthorization result1 = service.authorizePublish(actor, request1);
+    PublishAuthorization result2 = service.authorizePublish(actor, request2);
+
+    assertThat("Decision evaluated once", service.getDecisionCacheMisses(), equalTo(1L));
+    assertThat("Decision remembered", service.getDecisionCacheHits(), equalTo(1L));
+    assertThat("First topic rewritten", result1.getMessage().getTopic(),
+        equalTo("user/1/node/2/datum/0/foo"));
+    assertThat("Second topic rewritten", result2.getMessage().getTopic(),
+        equalTo("user/1/node/2/datum/0/foo"));
+    assertThat("Second payload kept", result2.getMessage().getPayload(),
+        equalTo(new byte[] { 1, 2, 3 }));
+    assertThat("Source ID remembered", result2.getSourceId(), equalTo("/foo"));
+  }
+
+  @Test
+  public void publish_decisionCachedDenied() {
+    service.setDecisionCacheMaxActors(10);
+    ActorDetails actor = actor(2L);
+    Message request = requestMessage("node/3/datum/0/foo");
+
+    Message result1 = service.evaluatePublish(actor, request);
+    Message result2 = service.evaluatePublish(actor, request);
+
+    assertThat("First denied", result1, nullValue());
+    assertThat("Second denied", result2, nullValue());
+    assertThat("Denial remembered", service.getDecisionCacheHits(), equalTo(1L));
+  }
+
+  @Test
+  public void publish_decisionCachedPerActorInstance() {
+    service.setDecisionCacheMaxActors(10);
+    Message request = requestMessage("node/2/datum/0/foo");
+
+    service.evaluatePublish(actor(2L), request);
+    Message result = service.evaluatePublish(actor(3L), request);
+
+    assertThat("Reloaded actor evaluated again", result, nullValue());
+    assertThat("No decision shared", service.getDecisionCacheHits(), equalTo(0L));
+    assertThat("Both evaluated", service.getDecisionCacheMisses(), equalTo(2L));
+  }
+
+  @Test
+  public void publish_decisionCacheClearedBySettings() {
+    service.setDecisionCacheMaxActors(10);
+    ActorDetails actor = actor(2L);
+    Message request = requestMessage("node/2/datum/0/foo");
+
+    Message result1 = service.evaluatePublish(actor, request);
+    service.setUserTopicPrefix(true);
+    Message result2 = service.evaluatePublish(actor, request);
+
+    assertThat("First unchanged", result1, is(sameInstance(request)));
+    assertThat("Second rewritten with new setting", result2.getTopic(),
+        equalTo("user/1/node/2/datum/0/foo"));
+    assertThat("No decision remembered", service.getDecisionCacheHits(), equalTo(0L));
+  }
+
+  @Test
+  public void subscribe_decisionCached() {
+    service.setDecisionCacheMaxActors(10);
+    ActorDetails actor = actor(policyForNodes(2L), 2L, 3L);
+    TopicSettings request = requestForTopics("node/2/datum/0/foo", "node/3/datum/0/foo");
+
+    TopicSettings result1 = service.evaluateSubscribe(actor, request);
+    TopicSettings result2 = service.evaluateSubscribe(actor,
+        requestForTopics("node/2/datum/0/foo", "node/3/datum/0/foo"));
+
+    assertThat("Decisions evaluated once", service.getDecisionCacheMisses(), equalTo(2L));
+    assertThat("Decisions remembered", service.getDecisionCacheHits(), equalTo(2L));
+    assertThat("Same result", result2.getSettings(), equalTo(result1.getSettings()));
+    assertThat("Policy node denied", result2.getSettings().get(1).getQos(),
+        equalTo(Qos.NotAllowed));
+  }
+
+  @Test
+  public void subscribe_decisionCachedDeniedLogged() {
+    service.setDecisionCacheMaxActors(10);
+    ActorDetails actor = actor(policyForNodes(2L), 2L, 3L);
+    final Logger auditLogger = (Logger) LoggerFactory.getLogger(AUDIT_LOGGER_NAME);
+    final Level level = auditLogger.getLevel();
+    final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    appender.start();
+    auditLogger.setLevel(Level.INFO);
+    auditLogger.addAppender(appender);
+    try {
+      service.evaluateSubscribe(actor, requestForTopics("node/3/datum/0/foo"));
+      appender.list.clear();
+      TopicSettings result = service.evaluateSubscribe(actor,
+          requestForTopics("node/3/datum/0/foo"));
+
+      assertThat("Denial remembered", service.getDecisionCacheHits(), equalTo(1L));
+      assertThat("Still denied", result.getSettings().get(0).getQos(), equalTo(Qos.NotAllowed));
+      List<String> denials = appender.list.stream().map(ILoggingEvent::getFormattedMessage)
+          .filter(m -> m.contains("access denied")).collect(toList());
+      assertThat("Remembered denial logged", denials, contains(
+          "Topic [node/3/datum/0/foo] access denied to " + actor + ": previously denied"));
+    } finally {
+      auditLogger.detachAppender(appender);
+      auditLogger.setLevel(level);
+    }
+  }
+
 }
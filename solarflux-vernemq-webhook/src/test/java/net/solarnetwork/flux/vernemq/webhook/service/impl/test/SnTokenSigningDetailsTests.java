@@ -0,0 +1,124 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
+
+import static net.solarnetwork.util.StringUtils.delimitedStringToMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.solarnetwork.flux.vernemq.webhook.service.impl.JdbcAuthService;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SnTokenDetails;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SnTokenSigningDetails;
+import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
+import net.solarnetwork.web.security.AuthenticationUtils;
+import net.solarnetwork.web.security.AuthorizationV2Builder;
+
+/**
+ * Test cases for the {@link SnTokenSigningDetails} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class SnTokenSigningDetailsTests extends TestSupport {
+
+  private static final String TEST_TOKEN_ID = "test.token";
+  private static final String TEST_TOKEN_SECRET = "test.secret";
+  private static final String TEST_HOST = JdbcAuthService.DEFAULT_SN_HOST;
+  private static final String TEST_PATH = JdbcAuthService.DEFAULT_SN_PATH;
+
+  private SnTokenSigningDetails details;
+
+  @BeforeEach
+  public void setup() {
+    details = new SnTokenSigningDetails(SnTokenDetails.builder().withTokenId(TEST_TOKEN_ID)
+        .withUserId(1L).withTokenType("ReadNodeData").build(), TEST_TOKEN_SECRET);
+  }
+
+  private static String signature(long date, String secret) {
+    final Date d = new Date(date);
+    final String header = new AuthorizationV2Builder(TEST_TOKEN_ID).date(d)
+        .header("X-SN-Date", AuthenticationUtils.httpDate(d)).host(TEST_HOST).path(TEST_PATH)
+        .build(secret);
+    return delimitedStringToMap(header, ",", "=").get("Signature");
+  }
+
+  @Test
+  public void verify() {
+    // given
+    final long date = (System.currentTimeMillis() / 1000L) * 1000L;
+
+    // when
+    boolean result = details.verify(date, TEST_HOST, TEST_PATH,
+        signature(date, TEST_TOKEN_SECRET));
+
+    // then
+    assertThat("Signature verified", result, equalTo(true));
+  }
+
+  @Test
+  public void verify_wrongSecret() {
+    // given
+    final long date = (System.currentTimeMillis() / 1000L) * 1000L;
+
+    // when
+    boolean result = details.verify(date, TEST_HOST, TEST_PATH, signature(date, "not.secret"));
+
+    // then
+    assertThat("Signature not verified", result, equalTo(false));
+  }
+
+  @Test
+  public void verify_wrongPath() {
+    // given
+    final long date = (System.currentTimeMillis() / 1000L) * 1000L;
+
+    // when
+    boolean result = details.verify(date, TEST_HOST, "/not/path",
+        signature(date, TEST_TOKEN_SECRET));
+
+    // then
+    assertThat("Signature not verified", result, equalTo(false));
+  }
+
+  @Test
+  public void verify_multipleDays() {
+    // given
+    final long date1 = (System.currentTimeMillis() / 1000L) * 1000L;
+    final long date2 = date1 + TimeUnit.DAYS.toMillis(1);
+
+    // when
+    boolean result1 = details.verify(date1, TEST_HOST, TEST_PATH,
+        signature(date1, TEST_TOKEN_SECRET));
+    boolean result2 = details.verify(date2, TEST_HOST, TEST_PATH,
+        signature(date2, TEST_TOKEN_SECRET));
+    boolean result3 = details.verify(date2, TEST_HOST, TEST_PATH,
+        signature(date1, TEST_TOKEN_SECRET));
+
+    // then
+    assertThat("Day 1 signature verified", result1, equalTo(true));
+    assertThat("Day 2 signature verified with new signing key", result2, equalTo(true));
+    assertThat("Day 1 signature not valid for day 2", result3, equalTo(false));
+  }
+
+}
@@ -0,0 +1,126 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SourceIdMatcher;
+
+/**
+ * Test cases for the {@link SourceIdMatcher} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class SourceIdMatcherTests {
+
+  private static final List<String> PATTERNS = asList("*", "**", "/*", "/**", "/*/", "/**/",
+      "/foo", "/foo/", "/foo/*", "/foo/**", "/foo/*/", "/foo/**/bar", "/foo/**/bar/**",
+      "/foo/**/**/bar", "/**/bar", "/**/bar/*", "/f?o/*", "/f*", "/*o*/b?r", "/foo/*/bar/**",
+      "/foo/**/b*/**/baz", "foo/**", "/#", "/foo/#", "/**/#", "/foo/+", "/*/#/*", "//foo//*",
+      "/foo/b*r/", "/foo/{bar}/*");
+
+  private static final List<String> SOURCES = asList("", "/", "//", "foo", "/foo", "/foo/",
+      "/fao", "/fooo", "/foo/bar", "/foo/bar/", "/foo/bar/baz", "/foo/a/bar", "/foo/a/b/bar",
+      "/foo/a/bar/b/baz", "/foo/bar/bar/baz", "/x/bar", "/x/y/bar/z", "/foo/bar/#", "/#",
+      "/foo/#", "/foo/+", "/+/#", "#", "/foo//bar", "foo/bar", "/foo/b/r", "/foo/baar/",
+      "/foo\nbar/x", "/foo/bar\n");
+
+  private static boolean antMatches(String pattern, String sourceId) {
+    AntPathMatcher matcher = new AntPathMatcher();
+    matcher.setCaseSensitive(true);
+    if (matcher.isPattern(pattern)) {
+      return matcher.match(pattern, sourceId.replace("#", "#/#"));
+    }
+    return pattern.equals(sourceId);
+  }
+
+  @Test
+  public void literal() {
+    SourceIdMatcher m = SourceIdMatcher.compile(asList("/foo", "/bar"));
+    assertThat("Literal match", m.matches("/foo"), is(true));
+    assertThat("Literal match", m.matches("/bar"), is(true));
+    assertThat("Literal no match", m.matches("/foo/bar"), is(false));
+  }
+
+  @Test
+  public void empty() {
+    SourceIdMatcher m = SourceIdMatcher.compile(Collections.emptySet());
+    assertThat("Nothing matched", m.matches("/foo"), is(false));
+    assertThat("Null not matched", m.matches(null), is(false));
+  }
+
+  @Test
+  public void singleStepDoesNotMatchMqttWildcard() {
+    SourceIdMatcher m = SourceIdMatcher.compile(singleton("/foo/*"));
+    assertThat("Step matched", m.matches("/foo/bar"), is(true));
+    assertThat("MQTT wildcard not matched", m.matches("/foo/#"), is(false));
+  }
+
+  @Test
+  public void multiStepMatchesMqttWildcard() {
+    SourceIdMatcher m = SourceIdMatcher.compile(singleton("/foo/**"));
+    assertThat("MQTT wildcard matched", m.matches("/foo/#"), is(true));
+  }
+
+  @Test
+  public void sharedPrefixes() {
+    SourceIdMatcher m = SourceIdMatcher.compile(asList("/foo/a/*", "/foo/b/**", "/bar/**/x"));
+    assertThat("First", m.matches("/foo/a/1"), is(true));
+    assertThat("Second", m.matches("/foo/b/1/2/3"), is(true));
+    assertThat("Third", m.matches("/bar/1/2/x"), is(true));
+    assertThat("No match", m.matches("/foo/c/1"), is(false));
+    assertThat("No match", m.matches("/bar/1/2/y"), is(false));
+  }
+
+  @Test
+  public void sameAsAntPathMatcher_singlePattern() {
+    for (String pattern : PATTERNS) {
+      SourceIdMatcher m = SourceIdMatcher.compile(singleton(pattern));
+      for (String source : SOURCES) {
+        assertThat("Pattern [" + pattern + "] matches [" + source + "]", m.matches(source),
+            equalTo(antMatches(pattern, source)));
+      }
+    }
+  }
+
+  @Test
+  public void sameAsAntPathMatcher_patternPairs() {
+    for (String p1 : PATTERNS) {
+      for (String p2 : PATTERNS) {
+        SourceIdMatcher m = SourceIdMatcher.compile(asList(p1, p2));
+        for (String source : SOURCES) {
+          boolean expected = antMatches(p1, source) || antMatches(p2, source);
+          assertThat("Patterns [" + p1 + ", " + p2 + "] match [" + source + "]",
+              m.matches(source), equalTo(expected));
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,178 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
+
+import static com.spotify.hamcrest.pojo.IsPojo.pojo;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toSet;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.solarnetwork.central.domain.Aggregation;
+import net.solarnetwork.central.security.BasicSecurityPolicy;
+import net.solarnetwork.central.security.SecurityPolicy;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorDetails;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorType;
+import net.solarnetwork.flux.vernemq.webhook.domain.Message;
+import net.solarnetwork.flux.vernemq.webhook.domain.PublishAuthorization;
+import net.solarnetwork.flux.vernemq.webhook.domain.Qos;
+import net.solarnetwork.flux.vernemq.webhook.domain.TopicRule;
+import net.solarnetwork.flux.vernemq.webhook.domain.TopicSettings;
+import net.solarnetwork.flux.vernemq.webhook.domain.TopicSubscriptionSetting;
+import net.solarnetwork.flux.vernemq.webhook.domain.v311.PublishRequest;
+import net.solarnetwork.flux.vernemq.webhook.service.AuthorizationEvaluator;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.SimpleAuthorizationEvaluator;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.TopicRuleAuthorizationEvaluator;
+
+/**
+ * Test cases for the {@link TopicRuleAuthorizationEvaluator} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class TopicRuleAuthorizationEvaluatorTests {
+
+  private static final List<String> TOPICS = asList("node/2/datum/0/foo", "node/3/datum/0/foo",
+      "node/2/datum/0/foo/bar", "node/2/datum/0/#", "node/2/datum/0/+", "node/2/datum/0/+/bar",
+      "node/2/datum/0/foo/#", "node/2/datum/0/foo/+/bar", "node/2/datum/h/foo",
+      "node/2/datum/d/foo", "node/2/datum/M/foo", "node/2/datum/Y/foo", "node/2/datum/x/foo",
+      "node/+/datum/0/foo", "node/x/datum/0/foo", "node/2/datum/0", "node/2/datum/0/",
+      "user/1/node/2/datum/0/foo", "user/2/node/2/datum/0/foo", "user/x/node/2/datum/0/foo",
+      "user/99999999999999999999/node/2/datum/0/foo", "user/1/node/+/datum/0/#", "user/1/foo",
+      "user/2/foo", "user/1/", "user/x/foo", "foo", "foo/bar", "node/2/datum/0/a\nb");
+
+  private static final List<SecurityPolicy> POLICIES = asList(null,
+      new BasicSecurityPolicy.Builder().withNodeIds(Collections.singleton(2L)).build(),
+      new BasicSecurityPolicy.Builder().withNodeIds(Collections.singleton(3L)).build(),
+      policyForSources("/foo"), policyForSources("/foo/**"), policyForSources("/foo/*/bar"),
+      policyForSources("/**/bar", "/f?o"),
+      new BasicSecurityPolicy.Builder().withMinAggregation(Aggregation.Day).build());
+
+  private TopicRuleAuthorizationEvaluator service;
+
+  @BeforeEach
+  public void setup() {
+    service = new TopicRuleAuthorizationEvaluator();
+  }
+
+  private static SecurityPolicy policyForSources(String... sources) {
+    return new BasicSecurityPolicy.Builder().withSourceIds(Arrays.stream(sources).collect(toSet()))
+        .build();
+  }
+
+  private static List<ActorDetails> actors(SecurityPolicy policy) {
+    List<ActorDetails> result = new ArrayList<>(4);
+    Set<Long> nodeIds = Collections.singleton(2L);
+    result.add(new ActorDetails(1L, 2L));
+    result.add(new ActorDetails("a", ActorType.ReadNodeDataToken, false, 1L, policy, nodeIds));
+    result.add(new ActorDetails("b", ActorType.UserToken, true, 1L, policy, nodeIds));
+    result.add(new ActorDetails("c", ActorType.UserToken, true, 1L, policy, null));
+    return result;
+  }
+
+  private static String describe(AuthorizationEvaluator ae, ActorDetails actor, String topic) {
+    Message msg = PublishRequest.builder().withTopic(topic).withQos(Qos.ExactlyOnce).build();
+    PublishAuthorization pub = ae.authorizePublish(actor, msg);
+    TopicSettings sub = ae.evaluateSubscribe(actor, new TopicSettings(Collections.singletonList(
+        TopicSubscriptionSetting.builder().withTopic(topic).withQos(Qos.ExactlyOnce).build())));
+    return String.format("publish %s@%s %s; subscribe %s; source %s",
+        pub != null ? pub.getMessage().getTopic() : null,
+        pub != null ? pub.getMessage().getQos() : null, pub != null ? pub.getSourceId() : null,
+        sub.getSettings(), ae.sourceIdForPublish(actor, msg));
+  }
+
+  @Test
+  public void defaultRulesSameAsSimpleEvaluator() {
+    for (boolean userTopicPrefix : new boolean[] { false, true }) {
+      for (Qos maxQos : asList(null, Qos.AtLeastOnce)) {
+        SimpleAuthorizationEvaluator simple = new SimpleAuthorizationEvaluator();
+        simple.setUserTopicPrefix(userTopicPrefix);
+        simple.setMaxQos(maxQos);
+        service.setRules(TopicRuleAuthorizationEvaluator.defaultRules(userTopicPrefix, maxQos));
+        for (SecurityPolicy policy : POLICIES) {
+          for (ActorDetails actor : actors(policy)) {
+            for (String topic : TOPICS) {
+              assertThat(
+                  String.format("Prefix %s, max Qos %s, %s, topic [%s]", userTopicPrefix, maxQos,
+                      actor, topic),
+                  describe(service, actor, topic), equalTo(describe(simple, actor, topic)));
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void customNamespace() {
+    TopicRule rule = new TopicRule("node/{nodeId}/control/+");
+    rule.setMaxQos(Qos.AtMostOnce);
+    service.setRules(asList(rule));
+    ActorDetails actor = new ActorDetails(1L, 2L);
+
+    Message result = service.evaluatePublish(actor,
+        PublishRequest.builder().withTopic("node/2/control/foo").withQos(Qos.AtLeastOnce).build());
+    // @formatter:off
+    assertThat("Publish allowed with Qos capped", result, pojo(Message.class)
+        .withProperty("topic", equalTo("node/2/control/foo"))
+        .withProperty("qos", equalTo(Qos.AtMostOnce)));
+    // @formatter:on
+
+    assertThat("Other node denied", service.evaluatePublish(actor,
+        PublishRequest.builder().withTopic("node/3/control/foo").withQos(Qos.AtLeastOnce).build()),
+        nullValue());
+    assertThat("Datum topic not configured", service.evaluatePublish(actor,
+        PublishRequest.builder().withTopic("node/2/datum/0/foo").withQos(Qos.AtLeastOnce).build()),
+        nullValue());
+  }
+
+  @Test
+  public void subscribeUnmatchedTopicDenied() {
+    service.setRules(asList(new TopicRule("node/{nodeId}/datum/{aggregation}/{sourceId}")));
+    ActorDetails actor = new ActorDetails(1L, 2L);
+    TopicSettings result = service.evaluateSubscribe(actor,
+        new TopicSettings(asList(
+            TopicSubscriptionSetting.builder().withTopic("node/2/datum/0/foo")
+                .withQos(Qos.AtLeastOnce).build(),
+            TopicSubscriptionSetting.builder().withTopic("node/2/foo").withQos(Qos.AtLeastOnce)
+                .build())));
+    assertThat("Result provided", result, notNullValue());
+    // @formatter:off
+    assertThat("Unmatched topic denied", result.getSettings(), contains(
+        pojo(TopicSubscriptionSetting.class)
+            .withProperty("topic", equalTo("node/2/datum/0/foo"))
+            .withProperty("qos", equalTo(Qos.AtLeastOnce)),
+        pojo(TopicSubscriptionSetting.class)
+            .withProperty("topic", equalTo("node/2/foo"))
+            .withProperty("qos", equalTo(Qos.NotAllowed))));
+    // @formatter:on
+  }
+
+}
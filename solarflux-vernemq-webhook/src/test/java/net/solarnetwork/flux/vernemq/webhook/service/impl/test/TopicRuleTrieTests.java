@@ -0,0 +1,122 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.service.impl.test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorType;
+import net.solarnetwork.flux.vernemq.webhook.domain.TopicRule;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.NodeDatumTopic;
+import net.solarnetwork.flux.vernemq.webhook.service.impl.TopicRuleTrie;
+
+/**
+ * Test cases for the {@link TopicRuleTrie} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class TopicRuleTrieTests {
+
+  private static final String NODE_DATUM = "node/{nodeId}/datum/{aggregation}/{sourceId}";
+
+  @Test
+  public void matchNodeDatum() {
+    TopicRule rule = new TopicRule(NODE_DATUM);
+    TopicRuleTrie trie = TopicRuleTrie.compile(asList(rule));
+    TopicRuleTrie.Match m = trie.match("node/123/datum/h/foo/bar", ActorType.Node, true);
+    assertThat("Matched", m, notNullValue());
+    assertThat("Rule", m.getRule(), sameInstance(rule));
+    assertThat("No user ID", m.hasUserId(), is(false));
+    assertThat("Node ID", m.getNodeId(), equalTo(123L));
+    assertThat("Aggregation", m.getAggregation(), equalTo("h"));
+    assertThat("Source ID", m.getSourceId(), equalTo("/foo/bar"));
+  }
+
+  @Test
+  public void matchWildcardNode() {
+    TopicRuleTrie trie = TopicRuleTrie.compile(asList(new TopicRule(NODE_DATUM)));
+    TopicRuleTrie.Match m = trie.match("node/+/datum/0/#", ActorType.UserToken, false);
+    assertThat("Matched", m, notNullValue());
+    assertThat("Wildcard node", m.getNodeId(), equalTo(NodeDatumTopic.WILDCARD_ID));
+    assertThat("Source ID", m.getSourceId(), equalTo("/#"));
+  }
+
+  @Test
+  public void noMatch() {
+    TopicRuleTrie trie = TopicRuleTrie.compile(asList(new TopicRule(NODE_DATUM)));
+    assertThat("Missing source", trie.match("node/1/datum/0", ActorType.Node, true), nullValue());
+    assertThat("Empty source", trie.match("node/1/datum/0/", ActorType.Node, true), nullValue());
+    assertThat("Bad node", trie.match("node/a/datum/0/foo", ActorType.Node, true), nullValue());
+    assertThat("Empty topic", trie.match("", ActorType.Node, true), nullValue());
+  }
+
+  @Test
+  public void literalPreferredOverMultiLevel() {
+    TopicRule any = new TopicRule("#");
+    TopicRule datum = new TopicRule(NODE_DATUM);
+    TopicRuleTrie trie = TopicRuleTrie.compile(asList(any, datum));
+    assertThat("Datum rule", trie.match("node/1/datum/0/foo", ActorType.Node, true).getRule(),
+        sameInstance(datum));
+    assertThat("Fall back to multi-level rule",
+        trie.match("node/x/datum/0/foo", ActorType.Node, true).getRule(), sameInstance(any));
+  }
+
+  @Test
+  public void ruleModeAndActorType() {
+    TopicRule rule = new TopicRule("user/{userId}/#");
+    rule.setPublish(false);
+    rule.setActorTypes(EnumSet.of(ActorType.UserToken));
+    TopicRuleTrie trie = TopicRuleTrie.compile(asList(rule));
+    assertThat("Publish not matched", trie.match("user/1/foo", ActorType.UserToken, true),
+        nullValue());
+    assertThat("Actor type not matched", trie.match("user/1/foo", ActorType.Node, false),
+        nullValue());
+    TopicRuleTrie.Match m = trie.match("user/1/foo", ActorType.UserToken, false);
+    assertThat("Subscribe matched", m, notNullValue());
+    assertThat("User ID", m.getUserId(), equalTo(1L));
+    assertThat("No source ID", m.getSourceId(), nullValue());
+  }
+
+  @Test
+  public void singleLevelWildcard() {
+    TopicRuleTrie trie = TopicRuleTrie.compile(asList(new TopicRule("a/+/c")));
+    assertThat("Matched", trie.match("a/b/c", ActorType.Node, true), notNullValue());
+    assertThat("Too many levels", trie.match("a/b/b/c", ActorType.Node, true), nullValue());
+  }
+
+  @Test
+  public void invalidTemplates() {
+    for (String template : asList("#/foo", "{sourceId}", "node/{sourceId}/foo", "a/{foo}",
+        "{nodeId}/{nodeId}", "a+b", "")) {
+      assertThrows(IllegalArgumentException.class,
+          () -> TopicRuleTrie.compile(asList(new TopicRule(template))), template);
+    }
+  }
+
+}
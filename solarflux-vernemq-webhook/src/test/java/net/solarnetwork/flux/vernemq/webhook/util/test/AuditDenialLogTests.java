@@ -0,0 +1,216 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.util.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import net.solarnetwork.flux.vernemq.webhook.domain.Actor;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorDetails;
+import net.solarnetwork.flux.vernemq.webhook.domain.ActorType;
+import net.solarnetwork.flux.vernemq.webhook.util.AuditDenialLog;
+import net.solarnetwork.flux.vernemq.webhook.util.AuditEventLog;
+
+/**
+ * Test cases for the {@link AuditDenialLog} class.
+ * 
+ * @author matt
+ * @version 1.1
+ */
+@ExtendWith(MockitoExtension.class)
+public class AuditDenialLogTests {
+
+  private static final String DENIED = "Topic [{}] access denied to {}: node ID not allowed";
+  private static final String DENIED_DETAIL = "Topic [{}] access denied to {}: source policy: {}";
+  private static final String SUMMARY = " (repeated {} times, first topic shown)";
+
+  @Mock
+  private Logger logger;
+
+  private AuditDenialLog denialLog;
+
+  @BeforeEach
+  public void setup() {
+    denialLog = new AuditDenialLog(new AuditEventLog(logger));
+  }
+
+  @AfterEach
+  public void teardown() {
+    denialLog.stop();
+  }
+
+  @Test
+  public void notSummarizing() {
+    // when
+    denialLog.denied(DENIED, "node/1/datum/0/a", "foo");
+    denialLog.denied(DENIED, "node/1/datum/0/a", "foo");
+
+    // then
+    then(logger).should(times(2)).info(DENIED, "node/1/datum/0/a", "foo");
+    assertThat("Not summarizing", denialLog.isSummarizing(), equalTo(false));
+    assertThat("Nothing summarized", denialLog.getSummarizedCount(), equalTo(0L));
+  }
+
+  @Test
+  public void summarize() {
+    // given
+    denialLog.start(3600);
+
+    // when
+    for (int i = 0; i < 5; i++) {
+      denialLog.denied(DENIED, "node/1/datum/0/a", "foo");
+      denialLog.denied(DENIED_DETAIL, "node/1/datum/0/a", "foo", "b");
+    }
+    denialLog.flush();
+
+    // then
+    then(logger).should().info(DENIED, "node/1/datum/0/a", "foo");
+    then(logger).should().info(DENIED_DETAIL, "node/1/datum/0/a", "foo", "b");
+    then(logger).should().info(DENIED + SUMMARY, "node/1/datum/0/a", "foo", 4L);
+    then(logger).should().info(DENIED_DETAIL + SUMMARY, "node/1/datum/0/a", "foo",
+        "b", 4L);
+    then(logger).shouldHaveNoMoreInteractions();
+    assertThat("Repeats summarized", denialLog.getSummarizedCount(), equalTo(8L));
+  }
+
+  @Test
+  public void summarize_distinctGroups() {
+    // given
+    denialLog.start(3600);
+
+    // when
+    denialLog.denied(DENIED, "node/1/datum/0/a", "foo");
+    denialLog.denied(DENIED_DETAIL, "node/1/datum/0/a", "foo", "b");
+    denialLog.denied(DENIED, "node/1/datum/0/a", "bar");
+    denialLog.flush();
+
+    // then
+    then(logger).should().info(DENIED, "node/1/datum/0/a", "foo");
+    then(logger).should().info(DENIED_DETAIL, "node/1/datum/0/a", "foo", "b");
+    then(logger).should().info(DENIED, "node/1/datum/0/a", "bar");
+    then(logger).shouldHaveNoMoreInteractions();
+  }
+
+  @Test
+  public void summarize_anyTopic() {
+    // given
+    denialLog.start(3600);
+
+    // when
+    denialLog.denied(DENIED, "node/1/datum/0/a", "foo");
+    denialLog.denied(DENIED, "node/1/datum/0/b", "foo");
+    denialLog.denied(DENIED, "node/1/datum/0/c", "foo");
+    denialLog.flush();
+
+    // then
+    then(logger).should().info(DENIED, "node/1/datum/0/a", "foo");
+    then(logger).should().info(DENIED + SUMMARY, "node/1/datum/0/a", "foo", 2L);
+    then(logger).shouldHaveNoMoreInteractions();
+  }
+
+  @Test
+  public void summarize_actorIdentity() {
+    // given
+    denialLog.start(3600);
+    final Actor node = new ActorDetails(1L, 2L);
+    final Actor tokenA = new ActorDetails("a", ActorType.ReadNodeDataToken, false, 1L, null,
+        null);
+    final Actor tokenB = new ActorDetails("b", ActorType.ReadNodeDataToken, false, 1L, null,
+        null);
+
+    // when
+    denialLog.denied(DENIED, "node/2/datum/0/a", node);
+    denialLog.denied(DENIED, "node/2/datum/0/b", new ActorDetails(1L, 2L));
+    denialLog.denied(DENIED, "node/3/datum/0/a", new ActorDetails(1L, 3L));
+    denialLog.denied(DENIED, "node/2/datum/0/a", tokenA);
+    denialLog.denied(DENIED, "node/2/datum/0/a", tokenB);
+    denialLog.flush();
+
+    // then
+    then(logger).should().info(DENIED, "node/2/datum/0/a", node);
+    then(logger).should().info(DENIED + SUMMARY, "node/2/datum/0/a", node, 1L);
+    then(logger).should().info(Mockito.eq(DENIED), Mockito.eq("node/3/datum/0/a"),
+        Mockito.any(Actor.class));
+    then(logger).should().info(DENIED, "node/2/datum/0/a", tokenA);
+    then(logger).should().info(DENIED, "node/2/datum/0/a", tokenB);
+    then(logger).shouldHaveNoMoreInteractions();
+  }
+
+  @Test
+  public void summarize_quietGroupRetired() {
+    // given
+    denialLog.start(3600);
+
+    // when
+    denialLog.denied(DENIED, "node/1/datum/0/a", "foo");
+    denialLog.denied(DENIED, "node/1/datum/0/a", "foo");
+    denialLog.flush();
+    denialLog.flush();
+    denialLog.denied(DENIED, "node/1/datum/0/a", "foo");
+
+    // then
+    then(logger).should(times(2)).info(DENIED, "node/1/datum/0/a", "foo");
+    then(logger).should().info(DENIED + SUMMARY, "node/1/datum/0/a", "foo", 1L);
+    then(logger).shouldHaveNoMoreInteractions();
+  }
+
+  @Test
+  public void summarize_maxGroups() {
+    // given
+    denialLog.setMaxGroups(1);
+    denialLog.start(3600);
+
+    // when
+    denialLog.denied(DENIED, "node/1/datum/0/a", "foo");
+    denialLog.denied(DENIED, "node/1/datum/0/a", "bar");
+    denialLog.denied(DENIED, "node/1/datum/0/a", "bar");
+
+    // then
+    then(logger).should().info(DENIED, "node/1/datum/0/a", "foo");
+    then(logger).should(times(2)).info(DENIED, "node/1/datum/0/a", "bar");
+  }
+
+  @Test
+  public void stop_flushes() {
+    // given
+    denialLog.start(3600);
+    denialLog.denied(DENIED, "node/1/datum/0/a", "foo");
+    denialLog.denied(DENIED, "node/1/datum/0/a", "foo");
+
+    // when
+    denialLog.stop();
+    denialLog.denied(DENIED, "node/1/datum/0/a", "foo");
+
+    // then
+    then(logger).should(times(2)).info(DENIED, "node/1/datum/0/a", "foo");
+    then(logger).should().info(DENIED + SUMMARY, "node/1/datum/0/a", "foo", 1L);
+    assertThat("Not summarizing", denialLog.isSummarizing(), equalTo(false));
+  }
+
+}
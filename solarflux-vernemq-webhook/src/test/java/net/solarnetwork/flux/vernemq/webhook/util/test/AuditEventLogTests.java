@@ -0,0 +1,189 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.util.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import net.solarnetwork.flux.vernemq.webhook.util.AuditEventLog;
+
+/**
+ * Test cases for the {@link AuditEventLog} class.
+ * 
+ * @author matt
+ * @version 1.1
+ */
+@ExtendWith(MockitoExtension.class)
+public class AuditEventLogTests {
+
+  @Mock
+  private Logger logger;
+
+  private AuditEventLog auditLog;
+
+  @BeforeEach
+  public void setup() {
+    auditLog = new AuditEventLog(logger);
+  }
+
+  @AfterEach
+  public void teardown() {
+    auditLog.stop();
+  }
+
+  @Test
+  public void synchronous() {
+    // when
+    auditLog.info("Topic [{}] access denied to {}", "foo", "bar");
+
+    // then
+    then(logger).should().info("Topic [{}] access denied to {}", "foo", "bar");
+    assertThat("Not async", auditLog.isAsync(), equalTo(false));
+  }
+
+  @Test
+  public void asynchronous() {
+    // given
+    given(logger.isInfoEnabled()).willReturn(true);
+
+    // when
+    auditLog.start(4);
+    auditLog.info("Authorized node [{}]", 123L);
+    auditLog.info("User {} granted publish \"{}\"", "a", "b\nc");
+    auditLog.stop();
+
+    // then
+    InOrder order = Mockito.inOrder(logger);
+    order.verify(logger)
+        .info(Mockito.matches("\\{\"ts\":\\d+,\"msg\":\"Authorized node \\[123\\]\"\\}"));
+    order.verify(logger).info(Mockito.matches(
+        "\\{\"ts\":\\d+,\"msg\":\"User a granted publish \\\\\"b\\\\nc\\\\\"\"\\}"));
+    assertThat("Written count", auditLog.getWrittenCount(), equalTo(2L));
+    assertThat("Dropped count", auditLog.getDroppedCount(), equalTo(0L));
+  }
+
+  @Test
+  public void asynchronous_notRenderedWhenDisabled() {
+    // given
+    given(logger.isInfoEnabled()).willReturn(false);
+    final AtomicInteger renderCount = new AtomicInteger();
+    final Object arg = new Object() {
+
+      @Override
+      public String toString() {
+        renderCount.incrementAndGet();
+        return "arg";
+      }
+
+    };
+
+    // when
+    auditLog.start(4);
+    auditLog.info("Event {}", arg);
+    auditLog.stop();
+
+    // then
+    then(logger).should(never()).info(anyString());
+    assertThat("Argument not rendered", renderCount.get(), equalTo(0));
+  }
+
+  @Test
+  public void asynchronous_dropWhenFull() throws InterruptedException {
+    // given
+    given(logger.isInfoEnabled()).willReturn(true);
+    final CountDownLatch latch = new CountDownLatch(1);
+    auditLog.setWriterThreadFactory(r -> new Thread(() -> {
+      try {
+        latch.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        // ignore
+      }
+      r.run();
+    }));
+
+    // when
+    auditLog.start(2);
+    auditLog.info("One");
+    auditLog.info("Two");
+    auditLog.info("Three");
+    latch.countDown();
+    auditLog.stop();
+
+    // then
+    assertThat("Buffer size", auditLog.getBufferSize(), equalTo(0));
+    assertThat("Written count", auditLog.getWrittenCount(), equalTo(2L));
+    assertThat("Dropped count", auditLog.getDroppedCount(), equalTo(1L));
+  }
+
+  @Test
+  public void asynchronous_noEventsLostOnStop() throws InterruptedException {
+    // given
+    given(logger.isInfoEnabled()).willReturn(true);
+    final int threadCount = 4;
+    final int eventCount = 2000;
+    final CountDownLatch started = new CountDownLatch(threadCount);
+    auditLog.start(threadCount * eventCount);
+
+    // when
+    List<Thread> threads = new ArrayList<>(threadCount);
+    for (int t = 0; t < threadCount; t++) {
+      Thread thread = new Thread(() -> {
+        started.countDown();
+        for (int i = 0; i < eventCount; i++) {
+          auditLog.info("Event {}", i);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    started.await(10, TimeUnit.SECONDS);
+    auditLog.stop();
+    for (Thread thread : threads) {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    // then
+    long direct = Mockito.mockingDetails(logger).getInvocations().stream()
+        .filter(i -> i.getMethod().getName().equals("info") && i.getArguments().length == 2)
+        .count();
+    assertThat("Dropped count", auditLog.getDroppedCount(), equalTo(0L));
+    assertThat("All events written", auditLog.getWrittenCount() + direct,
+        equalTo((long) threadCount * eventCount));
+  }
+
+}
@@ -0,0 +1,106 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.util.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
+import net.solarnetwork.flux.vernemq.webhook.util.BoundedDataSource;
+
+/**
+ * Test cases for the {@link BoundedDataSource} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+@ExtendWith(MockitoExtension.class)
+public class BoundedDataSourceTests extends TestSupport {
+
+  @Mock
+  private DataSource target;
+
+  @Mock
+  private Connection conn;
+
+  private BoundedDataSource dataSource;
+
+  @BeforeEach
+  public void setup() {
+    dataSource = new BoundedDataSource(target, 1, 50);
+  }
+
+  @Test
+  public void permitReleasedOnClose() throws SQLException {
+    // given
+    given(target.getConnection()).willReturn(conn);
+
+    // when
+    Connection c = dataSource.getConnection();
+    int availableWhileOpen = dataSource.getAvailablePermits();
+    c.close();
+    c.close();
+
+    // then
+    assertThat("Permit held while open", availableWhileOpen, equalTo(0));
+    assertThat("Permit released once on close", dataSource.getAvailablePermits(), equalTo(1));
+    then(conn).should(times(2)).close();
+  }
+
+  @Test
+  public void timeoutWaitingForPermit() throws SQLException {
+    // given
+    given(target.getConnection()).willReturn(conn);
+    dataSource.getConnection();
+
+    // when
+    assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+
+    // then
+    assertThat("No permits available", dataSource.getAvailablePermits(), equalTo(0));
+  }
+
+  @Test
+  public void permitReleasedOnError() throws SQLException {
+    // given
+    given(target.getConnection()).willThrow(new SQLException("boom"));
+
+    // when
+    assertThrows(SQLException.class, () -> dataSource.getConnection());
+
+    // then
+    assertThat("Permit released", dataSource.getAvailablePermits(), equalTo(1));
+  }
+
+}
@@ -0,0 +1,160 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.util.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.junit.jupiter.api.Test;
+
+import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
+import net.solarnetwork.flux.vernemq.webhook.util.LongLongHashMap;
+
+/**
+ * Test cases for the {@link LongLongHashMap} class.
+ * 
+ * @author matt
+ * @version 1.1
+ */
+public class LongLongHashMapTests extends TestSupport {
+
+  @Test
+  public void putGet() {
+    // given
+    LongLongHashMap map = new LongLongHashMap(4);
+
+    // when
+    map.put(1L, 2L);
+    map.put(3L, 4L);
+
+    // then
+    assertThat("Size", map.size(), equalTo(2));
+    assertThat("Value 1", map.get(1L, -1L), equalTo(2L));
+    assertThat("Value 3", map.get(3L, -1L), equalTo(4L));
+    assertThat("Missing value", map.get(2L, -1L), equalTo(-1L));
+    assertThat("Contains 1", map.containsKey(1L), equalTo(true));
+    assertThat("Does not contain 2", map.containsKey(2L), equalTo(false));
+  }
+
+  @Test
+  public void putReplace() {
+    // given
+    LongLongHashMap map = new LongLongHashMap(4);
+    map.put(1L, 2L);
+
+    // when
+    map.put(1L, 3L);
+
+    // then
+    assertThat("Size unchanged", map.size(), equalTo(1));
+    assertThat("Value replaced", map.get(1L, -1L), equalTo(3L));
+  }
+
+  @Test
+  public void zeroKey() {
+    // given
+    LongLongHashMap map = new LongLongHashMap(4);
+
+    // when
+    map.put(0L, 5L);
+
+    // then
+    assertThat("Size", map.size(), equalTo(1));
+    assertThat("Zero key value", map.get(0L, -1L), equalTo(5L));
+    assertThat("Contains zero", map.containsKey(0L), equalTo(true));
+  }
+
+  @Test
+  public void resize() {
+    // given
+    final int count = 100_000;
+    LongLongHashMap map = new LongLongHashMap(0);
+
+    // when
+    for (long i = 1; i <= count; i++) {
+      map.put(i, i * 10);
+    }
+
+    // then
+    assertThat("Size", map.size(), equalTo(count));
+    for (long i = 1; i <= count; i++) {
+      assertThat("Value " + i, map.get(i, -1L), equalTo(i * 10));
+    }
+    assertThat("Missing value", map.get(count + 1, -1L), equalTo(-1L));
+  }
+
+  @Test
+  public void copy() {
+    // given
+    LongLongHashMap map = new LongLongHashMap(4);
+    map.put(1L, 2L);
+
+    // when
+    LongLongHashMap copy = map.copy();
+    copy.put(1L, 3L);
+    copy.put(2L, 4L);
+
+    // then
+    assertThat("Original value unchanged", map.get(1L, -1L), equalTo(2L));
+    assertThat("Original size unchanged", map.size(), equalTo(1));
+    assertThat("Copy value", copy.get(1L, -1L), equalTo(3L));
+    assertThat("Copy size", copy.size(), equalTo(2));
+  }
+
+  @Test
+  public void remove() {
+    // given
+    final int count = 10_000;
+    LongLongHashMap map = new LongLongHashMap(0);
+    for (long i = 0; i < count; i++) {
+      map.put(i, i * 10);
+    }
+
+    // when
+    for (long i = 0; i < count; i += 2) {
+      assertThat("Removed " + i, map.remove(i), equalTo(true));
+    }
+
+    // then
+    assertThat("Size", map.size(), equalTo(count / 2));
+    for (long i = 0; i < count; i++) {
+      assertThat("Value " + i, map.get(i, -1L), equalTo(i % 2 == 0 ? -1L : i * 10));
+    }
+    assertThat("Remove missing", map.remove(0L), equalTo(false));
+  }
+
+  @Test
+  public void indexOf() {
+    // given
+    LongLongHashMap map = new LongLongHashMap(4);
+    map.put(0L, 1L);
+    map.put(2L, 3L);
+
+    // when
+    int slot0 = map.indexOf(0L);
+    int slot2 = map.indexOf(2L);
+
+    // then
+    assertThat("Zero key slot", map.keyAt(slot0), equalTo(0L));
+    assertThat("Zero key value", map.valueAt(slot0), equalTo(1L));
+    assertThat("Key slot", map.keyAt(slot2), equalTo(2L));
+    assertThat("Key value", map.valueAt(slot2), equalTo(3L));
+    assertThat("Missing key", map.indexOf(1L), equalTo(-1));
+  }
+
+}
@@ -0,0 +1,127 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.util.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
+import net.solarnetwork.flux.vernemq.webhook.util.SingleFlightLoader;
+
+/**
+ * Test cases for the {@link SingleFlightLoader} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class SingleFlightLoaderTests extends TestSupport {
+
+  @Test
+  public void load() {
+    // given
+    SingleFlightLoader<String, String> loader = new SingleFlightLoader<>();
+
+    // when
+    String result = loader.load("a", k -> k + "!");
+
+    // then
+    assertThat("Loaded result", result, equalTo("a!"));
+    assertThat("Load count", loader.getLoadCount(), equalTo(1L));
+    assertThat("Shared count", loader.getSharedCount(), equalTo(0L));
+    assertThat("No loads in flight", loader.getInFlightCount(), equalTo(0));
+  }
+
+  @Test
+  public void load_concurrent() throws Exception {
+    // given
+    final int threadCount = 8;
+    final SingleFlightLoader<String, Object> loader = new SingleFlightLoader<>();
+    final Object value = new Object();
+    final CountDownLatch loading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger invocations = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      // when
+      List<Future<Object>> results = new ArrayList<>(threadCount);
+      results.add(executor.submit(() -> loader.load("a", k -> {
+        invocations.incrementAndGet();
+        loading.countDown();
+        try {
+          release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        return value;
+      })));
+      assertThat("Leader started", loading.await(10, TimeUnit.SECONDS), equalTo(true));
+      for (int i = 1; i < threadCount; i++) {
+        results.add(executor.submit(() -> loader.load("a", k -> {
+          invocations.incrementAndGet();
+          return new Object();
+        })));
+      }
+      while (loader.getSharedCount() < threadCount - 1) {
+        Thread.sleep(10);
+      }
+      release.countDown();
+
+      // then
+      for (Future<Object> f : results) {
+        assertThat("Shared result", f.get(10, TimeUnit.SECONDS), sameInstance(value));
+      }
+      assertThat("Loader invoked once", invocations.get(), equalTo(1));
+      assertThat("Load count", loader.getLoadCount(), equalTo(1L));
+      assertThat("No loads in flight", loader.getInFlightCount(), equalTo(0));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void load_exception() {
+    // given
+    SingleFlightLoader<String, String> loader = new SingleFlightLoader<>();
+
+    // when
+    IllegalStateException e = assertThrows(IllegalStateException.class,
+        () -> loader.load("a", k -> {
+          throw new IllegalStateException("boom");
+        }));
+
+    // then
+    assertThat("Exception message", e.getMessage(), equalTo("boom"));
+    assertThat("No loads in flight", loader.getInFlightCount(), equalTo(0));
+    assertThat("Next load invokes loader again", loader.load("a", k -> "ok"), equalTo("ok"));
+    assertThat("Load count", loader.getLoadCount(), equalTo(2L));
+  }
+
+}
@@ -0,0 +1,73 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.util.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
+import net.solarnetwork.flux.vernemq.webhook.util.VirtualThreads;
+
+/**
+ * Test cases for the {@link VirtualThreads} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class VirtualThreadsTests extends TestSupport {
+
+  private static boolean jvmSupportsVirtualThreads() {
+    return Runtime.version().feature() >= 21;
+  }
+
+  @Test
+  public void available() {
+    assertThat("Availability matches JVM version", VirtualThreads.isAvailable(),
+        equalTo(jvmSupportsVirtualThreads()));
+  }
+
+  @Test
+  public void newThreadPerTaskExecutor() throws Exception {
+    if (!jvmSupportsVirtualThreads()) {
+      assertThrows(UnsupportedOperationException.class,
+          () -> VirtualThreads.newThreadPerTaskExecutor("test-"));
+      return;
+    }
+
+    // given
+    ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+    try {
+      // when
+      String name = executor.submit(() -> Thread.currentThread().getName()).get(5,
+          TimeUnit.SECONDS);
+
+      // then
+      assertThat("Task run on named virtual thread", name, startsWith("test-"));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+}
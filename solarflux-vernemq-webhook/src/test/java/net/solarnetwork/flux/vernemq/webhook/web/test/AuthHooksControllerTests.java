@@ -18,31 +18,45 @@
 package net.solarnetwork.flux.vernemq.webhook.web.test;
 
 import static net.solarnetwork.flux.vernemq.webhook.domain.HookType.HOOK_HEADER;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import net.solarnetwork.flux.vernemq.webhook.domain.HookType;
 import net.solarnetwork.flux.vernemq.webhook.domain.Response;
 import net.solarnetwork.flux.vernemq.webhook.domain.v311.PublishRequest;
 import net.solarnetwork.flux.vernemq.webhook.domain.v311.RegisterRequest;
 import net.solarnetwork.flux.vernemq.webhook.domain.v311.SubscribeRequest;
-import net.solarnetwork.flux.vernemq.webhook.service.AuthService;
+import net.solarnetwork.flux.vernemq.webhook.service.AsyncAuthService;
 import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
 import net.solarnetwork.flux.vernemq.webhook.web.AuthHooksController;
 
 @SpringJUnitConfig
-@WebMvcTest(AuthHooksController.class)
+@WebMvcTest(controllers = AuthHooksController.class, properties = "auth.async.timeout=1000")
 public class AuthHooksControllerTests extends TestSupport {
 
   private static final String OK_RESPONSE_JSON = "{\"result\":\"ok\"}";
@@ -51,23 +65,28 @@ public class AuthHooksControllerTests extends TestSupport {
   private MockMvc mvc;
 
   @MockBean
-  private AuthService authService;
+  private AsyncAuthService authService;
 
   @Test
   public void authOnRegister() throws Exception {
     // given
     Response resp = new Response();
-    given(authService.authenticateRequest(Mockito.any(RegisterRequest.class))).willReturn(resp);
+    given(authService.authenticateRequest(Mockito.any(RegisterRequest.class)))
+        .willReturn(CompletableFuture.completedFuture(resp));
 
     // when
 
     // @formatter:off
-    mvc.perform(
+    MvcResult result = mvc.perform(
         post("/hook")
             .contentType(MediaType.APPLICATION_JSON)
             .header(HOOK_HEADER, HookType.AuthenticateOnRegister.getKey())
             .content(classResourceAsBytes("auth_on_register-01.json"))
             .accept(MediaType.APPLICATION_JSON))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mvc.perform(asyncDispatch(result))
         .andExpect(status().isOk())
         .andExpect(content().json(OK_RESPONSE_JSON));
     // @formatter:on
@@ -77,17 +96,22 @@ public class AuthHooksControllerTests extends TestSupport {
   public void authOnPublish() throws Exception {
     // given
     Response resp = new Response();
-    given(authService.authorizeRequest(Mockito.any(PublishRequest.class))).willReturn(resp);
+    given(authService.authorizeRequest(Mockito.any(PublishRequest.class)))
+        .willReturn(CompletableFuture.completedFuture(resp));
 
     // when
 
     // @formatter:off
-    mvc.perform(
+    MvcResult result = mvc.perform(
         post("/hook")
             .contentType(MediaType.APPLICATION_JSON)
             .header(HOOK_HEADER, HookType.AuthorizeOnPublish.getKey())
             .content(classResourceAsBytes("auth_on_publish-01.json"))
             .accept(MediaType.APPLICATION_JSON))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mvc.perform(asyncDispatch(result))
         .andExpect(status().isOk())
         .andExpect(content().json(OK_RESPONSE_JSON));
     // @formatter:on
@@ -97,20 +121,55 @@ public class AuthHooksControllerTests extends TestSupport {
   public void authOnSubscribe() throws Exception {
     // given
     Response resp = new Response();
-    given(authService.authorizeRequest(Mockito.any(SubscribeRequest.class))).willReturn(resp);
+    given(authService.authorizeRequest(Mockito.any(SubscribeRequest.class)))
+        .willReturn(CompletableFuture.completedFuture(resp));
 
     // when
 
     // @formatter:off
-    mvc.perform(
+    MvcResult result = mvc.perform(
         post("/hook")
             .contentType(MediaType.APPLICATION_JSON)
             .header(HOOK_HEADER, HookType.AuthorizeOnSubscribe.getKey())
             .content(classResourceAsBytes("auth_on_subscribe-01.json"))
             .accept(MediaType.APPLICATION_JSON))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mvc.perform(asyncDispatch(result))
         .andExpect(status().isOk())
         .andExpect(content().json(OK_RESPONSE_JSON));
     // @formatter:on
   }
 
+  @Test
+  public void authOnPublish_timeout() throws Exception {
+    // given
+    CompletableFuture<Response> future = new CompletableFuture<>();
+    given(authService.authorizeRequest(Mockito.any(PublishRequest.class))).willReturn(future);
+
+    // when
+
+    // @formatter:off
+    MvcResult result = mvc.perform(
+        post("/hook")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HOOK_HEADER, HookType.AuthorizeOnPublish.getKey())
+            .content(classResourceAsBytes("auth_on_publish-01.json"))
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    // @formatter:on
+
+    MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+    for (AsyncListener listener : asyncContext.getListeners()) {
+      listener.onTimeout(new AsyncEvent(asyncContext));
+    }
+
+    // then
+    Exception e = assertThrows(Exception.class, () -> mvc.perform(asyncDispatch(result)));
+    assertThat("Timeout error result", e.getCause(), instanceOf(TimeoutException.class));
+    assertThat("Pending request cancelled", future.isCancelled(), equalTo(true));
+  }
+
 }
@@ -0,0 +1,127 @@
+/* ========================================================================
+ * Copyright 2026 SolarNetwork Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================================
+ */
+
+package net.solarnetwork.flux.vernemq.webhook.web.test;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.web.servlet.MockMvc;
+
+import net.solarnetwork.flux.vernemq.webhook.service.ActorCacheService;
+import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
+import net.solarnetwork.flux.vernemq.webhook.web.CacheController;
+
+@SpringJUnitConfig
+@WebMvcTest(controllers = CacheController.class,
+    properties = { "cache.management.enabled=true", "cache.management.secret=test.secret" })
+public class CacheControllerTests extends TestSupport {
+
+  private static final String AUTHORIZATION = "Bearer test.secret";
+
+  @Autowired
+  private MockMvc mvc;
+
+  @MockBean
+  private ActorCacheService actorCacheService;
+
+  @Test
+  public void statistics() throws Exception {
+    // given
+    Map<String, Object> actor = new LinkedHashMap<>(2);
+    actor.put("hits", 2);
+    actor.put("misses", 1);
+    given(actorCacheService.getActorCacheStatistics())
+        .willReturn(Collections.singletonMap("actor", actor));
+
+    // then
+    mvc.perform(get("/api/v1/cache/actor").accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk()).andExpect(content()
+            .json("{\"success\":true,\"data\":{\"actor\":{\"hits\":2,\"misses\":1}}}"));
+  }
+
+  @Test
+  public void evictToken() throws Exception {
+    // given
+    given(actorCacheService.evictTokenActor("abc123")).willReturn(true);
+
+    // then
+    mvc.perform(delete("/api/v1/cache/actor/token/abc123")
+        .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"success\":true,\"data\":{\"evicted\":true}}"));
+  }
+
+  @Test
+  public void evictNode() throws Exception {
+    // given
+    given(actorCacheService.evictNodeActor(123L)).willReturn(false);
+
+    // then
+    mvc.perform(delete("/api/v1/cache/actor/node/123")
+        .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"success\":true,\"data\":{\"evicted\":false}}"));
+  }
+
+  @Test
+  public void clear() throws Exception {
+    // when
+    mvc.perform(delete("/api/v1/cache/actor").header(HttpHeaders.AUTHORIZATION, AUTHORIZATION)
+        .accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+
+    // then
+    then(actorCacheService).should().clearActorCaches();
+  }
+
+  @Test
+  public void clear_noAuthorization() throws Exception {
+    // when
+    mvc.perform(delete("/api/v1/cache/actor").accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isUnauthorized());
+
+    // then
+    then(actorCacheService).shouldHaveNoInteractions();
+  }
+
+  @Test
+  public void evictNode_wrongSecret() throws Exception {
+    // when
+    mvc.perform(delete("/api/v1/cache/actor/node/123")
+        .header(HttpHeaders.AUTHORIZATION, "Bearer not.the.secret")
+        .accept(MediaType.APPLICATION_JSON)).andExpect(status().isUnauthorized());
+
+    // then
+    then(actorCacheService).shouldHaveNoInteractions();
+  }
+
+}
@@ -17,17 +17,20 @@
 
 package net.solarnetwork.flux.vernemq.webhook.web.test;
 
+import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import net.solarnetwork.flux.vernemq.webhook.service.ReadinessCheck;
 import net.solarnetwork.flux.vernemq.webhook.test.TestSupport;
 import net.solarnetwork.flux.vernemq.webhook.web.PingController;
 
@@ -38,11 +41,23 @@ public class PingControllerTests extends TestSupport {
   @Autowired
   private MockMvc mvc;
 
+  @MockBean
+  private ReadinessCheck readinessCheck;
+
   @Test
   public void getPing() throws Exception {
+    given(readinessCheck.isReady()).willReturn(true);
     mvc.perform(MockMvcRequestBuilders.get("/api/v1/ping").accept(MediaType.APPLICATION_JSON))
         .andExpect(status().isOk())
         .andExpect(content().json("{\"success\":true,\"data\":{\"allGood\":true}}"));
   }
 
+  @Test
+  public void getPingNotReady() throws Exception {
+    given(readinessCheck.isReady()).willReturn(false);
+    mvc.perform(MockMvcRequestBuilders.get("/api/v1/ping").accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(content().json("{\"data\":{\"allGood\":false}}"));
+  }
+
 }